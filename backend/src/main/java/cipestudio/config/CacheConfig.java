@@ -0,0 +1,18 @@
+package cipestudio.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches Caffeine (taille et durée de vie bornées, statistiques activées) : voir spring.cache.* dans
+ * application.properties. L'invalidation suit les événements métier, cf. CatalogCacheInvalidator.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String BOOKS = "books";
+    public static final String COLLECTIONS = "collections";
+    public static final String LIBRARY = "library";
+    // Sommaires des histoires découpées, indexés par clé d'objet (immuables, jamais invalidés).
+    public static final String MANIFESTS = "manifests";
+}
@@ -2,13 +2,19 @@ package cipestudio.config;
 
 import io.minio.BucketExistsArgs;
 import io.minio.MakeBucketArgs;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
+// Client et bucket créés seulement pour le backend S3 (voir StorageConfig)
 @Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
 public class SEAWEEDFSConfig {
     @Value("${seaweedfs.bucket-name}")
     private String bucketName;
@@ -22,11 +28,30 @@ public class SEAWEEDFSConfig {
     @Value("${seaweedfs.secret-key}")
     private String secretKey;
 
+    // Délai de chaque requête au stockage ; les nouveaux essais sont gérés par ResilientObjectStore
+    @Value("${storage.resilience.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${storage.resilience.io-timeout:30s}")
+    private Duration ioTimeout;
+
     @Bean
     public MinioClient minioClient() {
-        return MinioClient.builder()
+        MinioClient client = MinioClient.builder()
+            .endpoint(endpoint)
+            .credentials(accessKey, secretKey).build();
+        client.setTimeout(connectTimeout.toMillis(), ioTimeout.toMillis(), ioTimeout.toMillis());
+        return client;
+    }
+
+    // Client asynchrone : parties d'un upload multipart envoyées en parallèle (cf. S3ObjectStore)
+    @Bean
+    public MinioAsyncClient minioAsyncClient() {
+        MinioAsyncClient client = MinioAsyncClient.builder()
             .endpoint(endpoint)
             .credentials(accessKey, secretKey).build();
+        client.setTimeout(connectTimeout.toMillis(), ioTimeout.toMillis(), ioTimeout.toMillis());
+        return client;
     }
 
     @Bean
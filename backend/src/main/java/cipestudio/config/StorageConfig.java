@@ -0,0 +1,84 @@
+package cipestudio.config;
+
+import cipestudio.service.storage.CircuitBreaker;
+import cipestudio.service.storage.FileSystemObjectStore;
+import cipestudio.service.storage.InMemoryObjectStore;
+import cipestudio.service.storage.ObjectStore;
+import cipestudio.service.storage.ResilientObjectStore;
+import cipestudio.service.storage.S3ObjectStore;
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Choix du backend de stockage objet (storage.backend) :
+ * s3 (SeaweedFS/MinIO, par défaut), filesystem (storage.filesystem.root) ou memory.
+ * Hors S3, les fichiers sont servis par l'application sous /files (cf. StoredFileController) :
+ * seaweedfs.public-url doit alors pointer sur http(s)://hôte/files.
+ * Quel que soit le backend, il est enveloppé dans un {@link ResilientObjectStore} (storage.resilience.*).
+ */
+@Configuration
+public class StorageConfig {
+
+    @Value("${storage.resilience.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${storage.resilience.backoff:100ms}")
+    private Duration backoff;
+
+    @Value("${storage.resilience.max-backoff:2s}")
+    private Duration maxBackoff;
+
+    @Value("${storage.resilience.deadline:10s}")
+    private Duration deadline;
+
+    @Value("${storage.resilience.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${storage.resilience.open-duration:30s}")
+    private Duration openDuration;
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
+    public ResilientObjectStore s3ObjectStore(MinioClient minioClient, MinioAsyncClient minioAsyncClient,
+                                     @Value("${seaweedfs.bucket-name}") String bucketName,
+                                     @Value("${seaweedfs.public-url}") String publicUrl,
+                                     @Value("${seaweedfs.access-key}") String accessKey,
+                                     @Value("${seaweedfs.secret-key}") String secretKey,
+                                     @Value("${seaweedfs.region:us-east-1}") String region,
+                                     @Value("${storage.upload.part-size:8MB}") DataSize partSize,
+                                     @Value("${storage.upload.parallel-parts:4}") int parallelParts) {
+        // URL d'envoi direct signée pour l'hôte public ; la région évite d'interroger le serveur pour la trouver.
+        MinioClient presignClient = MinioClient.builder()
+                .endpoint(publicUrl)
+                .region(region)
+                .credentials(accessKey, secretKey).build();
+        return resilient(new S3ObjectStore(minioClient, minioAsyncClient, presignClient, bucketName,
+                (int) partSize.toBytes(), parallelParts));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "filesystem")
+    public ResilientObjectStore fileSystemObjectStore(@Value("${storage.filesystem.root:data/objects}") Path root) throws IOException {
+        return resilient(new FileSystemObjectStore(root));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "memory")
+    public ResilientObjectStore inMemoryObjectStore() {
+        return resilient(new InMemoryObjectStore());
+    }
+
+    private ResilientObjectStore resilient(ObjectStore backend) {
+        return new ResilientObjectStore(backend, new CircuitBreaker(failureThreshold, openDuration),
+                maxAttempts, backoff, maxBackoff, deadline);
+    }
+}
@@ -0,0 +1,71 @@
+package cipestudio.controller;
+
+import cipestudio.dto.admin.CacheStatsDTO;
+import cipestudio.dto.admin.ContentCacheStatsDTO;
+import cipestudio.dto.admin.StorageCleanupStatsDTO;
+import cipestudio.dto.admin.StorageKeyMigrationStatsDTO;
+import cipestudio.dto.admin.StorageMetricsDTO;
+import cipestudio.service.CacheStatsService;
+import cipestudio.service.ContentDiskCache;
+import cipestudio.service.StorageCleanupService;
+import cipestudio.service.StorageKeyMigrationService;
+import cipestudio.service.storage.ResilientObjectStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    private final CacheStatsService cacheStatsService;
+    private final StorageCleanupService storageCleanupService;
+    private final ContentDiskCache contentDiskCache;
+    private final ResilientObjectStore objectStore;
+    private final StorageKeyMigrationService storageKeyMigrationService;
+
+    @GetMapping("/caches")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStats());
+    }
+
+    @GetMapping("/storage-cleanup")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public ResponseEntity<StorageCleanupStatsDTO> getStorageCleanupStats() {
+        return ResponseEntity.ok(storageCleanupService.getStats());
+    }
+
+    @GetMapping("/content-cache")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public ResponseEntity<ContentCacheStatsDTO> getContentCacheStats() {
+        return ResponseEntity.ok(contentDiskCache.getStats());
+    }
+
+    @GetMapping("/storage-metrics")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public ResponseEntity<StorageMetricsDTO> getStorageMetrics() {
+        return ResponseEntity.ok(objectStore.getStats());
+    }
+
+    @GetMapping("/storage-key-migration")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public ResponseEntity<StorageKeyMigrationStatsDTO> getStorageKeyMigration() {
+        return ResponseEntity.ok(storageKeyMigrationService.getStats());
+    }
+
+    // 202 : la migration tourne en arrière-plan, suivie par le GET ; 409 si elle tourne déjà
+    @PostMapping("/storage-key-migration")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public ResponseEntity<StorageKeyMigrationStatsDTO> startStorageKeyMigration() {
+        HttpStatus status = storageKeyMigrationService.start() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(storageKeyMigrationService.getStats());
+    }
+}
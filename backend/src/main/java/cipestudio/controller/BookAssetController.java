@@ -0,0 +1,53 @@
+package cipestudio.controller;
+
+import cipestudio.dto.asset.AssetManifestDTO;
+import cipestudio.dto.asset.BookAssetDTO;
+import cipestudio.service.BookAssetService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+/**
+ * Fichiers d'une histoire. Les gros fichiers passent par les envois reprenables (/uploads),
+ * qui les ajoutent ici une fois terminés.
+ */
+@RestController
+@RequestMapping("/books/{bookId}/assets")
+@RequiredArgsConstructor
+public class BookAssetController {
+
+    private final BookAssetService bookAssetService;
+
+    @PreAuthorize("@bookSecurity.isBookOwner(#bookId, authentication)")
+    @GetMapping
+    public ResponseEntity<List<BookAssetDTO>> getAssets(@PathVariable Long bookId) {
+        return ResponseEntity.ok(bookAssetService.list(bookId));
+    }
+
+    // Le lecteur revalide le manifeste par ETag avant de précharger les fichiers
+    @GetMapping("/manifest")
+    public ResponseEntity<AssetManifestDTO> getManifest(@PathVariable Long bookId, WebRequest request) {
+        AssetManifestDTO manifest = bookAssetService.getManifest(bookId);
+        return ConditionalResponses.ok(request, "\"" + manifest.getVersion() + "\"", () -> manifest);
+    }
+
+    @PreAuthorize("@bookSecurity.isBookOwner(#bookId, authentication)")
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BookAssetDTO> addAsset(@PathVariable Long bookId, @RequestParam("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookAssetService.add(bookId, file));
+    }
+
+    @PreAuthorize("@bookSecurity.isBookOwner(#bookId, authentication)")
+    @DeleteMapping("/{assetId}")
+    public ResponseEntity<Void> deleteAsset(@PathVariable Long bookId, @PathVariable Long assetId) {
+        bookAssetService.delete(bookId, assetId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,9 +1,21 @@
 package cipestudio.controller;
 
+import cipestudio.dto.book.BookPageResponseDTO;
 import cipestudio.dto.book.BookRequestDTO;
 import cipestudio.dto.book.BookResponseDTO;
+import cipestudio.dto.book.BookSuggestionDTO;
+import cipestudio.dto.book.BulkBookRequestDTO;
+import cipestudio.dto.book.BulkBookResponseDTO;
+import cipestudio.dto.upload.FinalizeUploadRequestDTO;
+import cipestudio.dto.upload.UploadUrlRequestDTO;
+import cipestudio.dto.upload.UploadUrlResponseDTO;
 import cipestudio.dto.user.URLResponseDTO;
+import cipestudio.enums.BookSort;
+import cipestudio.enums.UploadTarget;
 import cipestudio.service.BookService;
+import cipestudio.service.DirectUploadService;
+import cipestudio.service.ETagService;
+import cipestudio.service.search.SuggestService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -13,9 +25,11 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/books")
@@ -23,6 +37,9 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final SuggestService suggestService;
+    private final ETagService eTagService;
+    private final DirectUploadService directUploadService;
 
     @GetMapping("/{id}")
     public ResponseEntity<BookResponseDTO> getBookById(@PathVariable Long id) {
@@ -49,11 +66,33 @@ public class BookController {
 
     @PreAuthorize("@bookSecurity.isBookOwner(#bookId, authentication)")
     @PostMapping(value = "/{bookId}/cover", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<URLResponseDTO> uploadBookCover(
+    public CompletableFuture<ResponseEntity<URLResponseDTO>> uploadBookCover(
             @PathVariable Long bookId,
             @RequestParam("file") MultipartFile file
     ) {
-        return ResponseEntity.ok(bookService.updateBookCover(bookId, file));
+        return bookService.updateBookCover(bookId, file).thenApply(ResponseEntity::ok);
+    }
+
+    @PreAuthorize("@bookSecurity.isBookOwner(#bookId, authentication)")
+    @PostMapping("/{bookId}/cover/upload-url")
+    public ResponseEntity<UploadUrlResponseDTO> createCoverUploadUrl(
+            @PathVariable Long bookId,
+            @Valid @RequestBody UploadUrlRequestDTO request
+    ) {
+        Long userId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(directUploadService.createUploadUrl(UploadTarget.BOOK_COVER, bookId, userId, request));
+    }
+
+    @PreAuthorize("@bookSecurity.isBookOwner(#bookId, authentication)")
+    @PostMapping("/{bookId}/cover/finalize")
+    public CompletableFuture<ResponseEntity<URLResponseDTO>> finalizeCoverUpload(
+            @PathVariable Long bookId,
+            @Valid @RequestBody FinalizeUploadRequestDTO request
+    ) {
+        Long userId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return directUploadService.finalizeImage(UploadTarget.BOOK_COVER, bookId, userId, request.getObjectKey(),
+                        cover -> bookService.updateBookCover(bookId, cover))
+                .thenApply(ResponseEntity::ok);
     }
 
     @PreAuthorize("@bookSecurity.isBookOwner(#bookId, authentication)")
@@ -78,16 +117,72 @@ public class BookController {
     }
     @PreAuthorize("hasAuthority('SCOPE_ROLE_ENFANT')")
     @GetMapping("/bag")
-    public ResponseEntity<List<BookResponseDTO>> getMyBag() {
+    public ResponseEntity<List<BookResponseDTO>> getMyBag(WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         Long userId = Long.valueOf(authentication.getName());
-        return ResponseEntity.ok(bookService.getMyBag(userId));
+        return ConditionalResponses.ok(request, eTagService.bagETag(userId), () -> bookService.getMyBag(userId));
     }
     @PreAuthorize("hasAuthority('SCOPE_ROLE_ENFANT')")
     @GetMapping("/public")
-    public ResponseEntity<List<BookResponseDTO>> getPublicLibrary() {
-        return ResponseEntity.ok(bookService.getPublicLibraryBooks());
+    public ResponseEntity<List<BookResponseDTO>> getPublicLibrary(WebRequest request) {
+        return ConditionalResponses.ok(request, eTagService.publicLibraryETag(), bookService::getPublicLibraryBooks);
+    }
+
+    @GetMapping("/author/page")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_AUTEUR')")
+    public ResponseEntity<BookPageResponseDTO> getMyBooksPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Long authorId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(bookService.getAuthorPage(authorId, cursor, limit));
+    }
+
+    @GetMapping("/published/page")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_EDITEUR')")
+    public ResponseEntity<BookPageResponseDTO> getPublishedBooksPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "NEWEST") BookSort sort,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookService.getPublishedPage(cursor, sort, limit));
+    }
+
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ENFANT')")
+    @GetMapping("/bag/page")
+    public ResponseEntity<BookPageResponseDTO> getMyBagPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Long userId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(bookService.getMyBagPage(userId, cursor, limit));
     }
-}
 
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ENFANT')")
+    @GetMapping("/public/page")
+    public ResponseEntity<BookPageResponseDTO> getPublicLibraryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "NEWEST") BookSort sort,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookService.getPublicLibraryPage(cursor, sort, limit));
+    }
 
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestionDTO>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, limit));
+    }
+
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_AUTEUR')")
+    @PatchMapping("/bulk/status")
+    public ResponseEntity<BulkBookResponseDTO> bulkUpdateStatus(@Valid @RequestBody BulkBookRequestDTO request) {
+        Long authorId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(bookService.bulkUpdateStatus(authorId, request.getBookIds(), request.getStatus()));
+    }
+
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_AUTEUR')")
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkBookResponseDTO> bulkDelete(@Valid @RequestBody BulkBookRequestDTO request) {
+        Long authorId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(bookService.bulkDelete(authorId, request.getBookIds()));
+    }
+}
@@ -1,11 +1,19 @@
 package cipestudio.controller;
 
 import cipestudio.dto.book.AddBookRequestDTO;
+import cipestudio.dto.book.BulkBookRequestDTO;
+import cipestudio.dto.book.BulkBookResponseDTO;
 import cipestudio.dto.collection.CollectionDetailResponseDTO;
 import cipestudio.dto.collection.CollectionRequestDTO;
 import cipestudio.dto.collection.CollectionResponseDTO;
+import cipestudio.dto.upload.FinalizeUploadRequestDTO;
+import cipestudio.dto.upload.UploadUrlRequestDTO;
+import cipestudio.dto.upload.UploadUrlResponseDTO;
 import cipestudio.dto.user.URLResponseDTO;
+import cipestudio.enums.UploadTarget;
 import cipestudio.service.CollectionService;
+import cipestudio.service.DirectUploadService;
+import cipestudio.service.ETagService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -15,15 +23,19 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/collections")
 @RequiredArgsConstructor
 public class CollectionController {
     private final CollectionService collectionService;
+    private final ETagService eTagService;
+    private final DirectUploadService directUploadService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('SCOPE_ROLE_EDITEUR')")
@@ -34,14 +46,30 @@ public class CollectionController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CollectionDetailResponseDTO> getCollectionById(@PathVariable Long id) {
-        return ResponseEntity.ok(collectionService.getCollectionById(id));
+    public ResponseEntity<CollectionDetailResponseDTO> getCollectionById(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.ok(request, eTagService.collectionETag(id), () -> collectionService.getCollectionById(id));
     }
 
     @PostMapping(value = "/{id}/cover", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("@collectionSecurity.isCollectionOwner(#id, authentication)")
-    public ResponseEntity<URLResponseDTO> uploadCover(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
-        return ResponseEntity.ok(collectionService.updateCollectionCover(id, file));
+    public CompletableFuture<ResponseEntity<URLResponseDTO>> uploadCover(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        return collectionService.updateCollectionCover(id, file).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/{id}/cover/upload-url")
+    @PreAuthorize("@collectionSecurity.isCollectionOwner(#id, authentication)")
+    public ResponseEntity<UploadUrlResponseDTO> createCoverUploadUrl(@PathVariable Long id, @Valid @RequestBody UploadUrlRequestDTO request) {
+        Long editorId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(directUploadService.createUploadUrl(UploadTarget.COLLECTION_COVER, id, editorId, request));
+    }
+
+    @PostMapping("/{id}/cover/finalize")
+    @PreAuthorize("@collectionSecurity.isCollectionOwner(#id, authentication)")
+    public CompletableFuture<ResponseEntity<URLResponseDTO>> finalizeCoverUpload(@PathVariable Long id, @Valid @RequestBody FinalizeUploadRequestDTO request) {
+        Long editorId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return directUploadService.finalizeImage(UploadTarget.COLLECTION_COVER, id, editorId, request.getObjectKey(),
+                        cover -> collectionService.updateCollectionCover(id, cover))
+                .thenApply(ResponseEntity::ok);
     }
 
     @GetMapping
@@ -59,6 +87,18 @@ public class CollectionController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/{id}/books/bulk")
+    @PreAuthorize("@collectionSecurity.isCollectionOwner(#id, authentication)")
+    public ResponseEntity<BulkBookResponseDTO> addBooksToCollection(@PathVariable Long id, @Valid @RequestBody BulkBookRequestDTO request) {
+        return ResponseEntity.ok(collectionService.addBooksToCollection(id, request.getBookIds()));
+    }
+
+    @PostMapping("/{id}/books/bulk/remove")
+    @PreAuthorize("@collectionSecurity.isCollectionOwner(#id, authentication)")
+    public ResponseEntity<BulkBookResponseDTO> removeBooksFromCollection(@PathVariable Long id, @Valid @RequestBody BulkBookRequestDTO request) {
+        return ResponseEntity.ok(collectionService.removeBooksFromCollection(id, request.getBookIds()));
+    }
+
     @DeleteMapping("/{id}/books/{bookId}")
     @PreAuthorize("@collectionSecurity.isCollectionOwner(#id, authentication)")
     public ResponseEntity<Void> removeBookFromCollection(@PathVariable Long id, @PathVariable Long bookId) {
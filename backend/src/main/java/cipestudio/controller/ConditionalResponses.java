@@ -0,0 +1,37 @@
+package cipestudio.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Réponses conditionnelles (If-None-Match / If-Modified-Since) : le corps n'est construit
+ * que si la copie du client est périmée.
+ */
+final class ConditionalResponses {
+    // Le client garde sa copie mais revalide à chaque visite ; "private" car les réponses dépendent du compte.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> ok(WebRequest request, String eTag, Supplier<T> body) {
+        return ok(request, eTag, -1, body);
+    }
+
+    static <T> ResponseEntity<T> ok(WebRequest request, String eTag, long lastModified, Supplier<T> body) {
+        if (eTag == null) {
+            return ResponseEntity.ok(body.get());
+        }
+        boolean notModified = request.checkNotModified(eTag, lastModified);
+        ResponseEntity.BodyBuilder builder = notModified ? ResponseEntity.status(HttpStatus.NOT_MODIFIED) : ResponseEntity.ok();
+        builder.eTag(eTag).cacheControl(REVALIDATE);
+        if (lastModified >= 0) {
+            builder.lastModified(lastModified);
+        }
+        return notModified ? builder.build() : builder.body(body.get());
+    }
+}
@@ -0,0 +1,85 @@
+package cipestudio.controller;
+
+import cipestudio.service.ContentDiskCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Envoi d'un fichier JSON gzip du cache disque, avec prise en charge de Range.
+ * <p>
+ * Le contenu est écrit depuis le canal déjà ouvert par le cache (FileChannel.transferTo) et non confié
+ * au sendfile de Tomcat : celui-ci rouvre le fichier par son nom après le retour du servlet, quand une
+ * éviction a pu le supprimer.
+ */
+final class ContentResponses {
+    private ContentResponses() {
+    }
+
+    static void sendGzipJson(HttpServletRequest request, HttpServletResponse response, ContentDiskCache.Entry entry) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (!acceptsGzip(request)) {
+            // Client rare sans gzip : contenu décompressé à la volée, sans Range (les positions seraient celles du gzip).
+            try (InputStream in = new GZIPInputStream(Channels.newInputStream(entry.channel().position(0)))) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long length = entry.length();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        List<HttpRange> ranges = List.of();
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(entry.eTag()))) {
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                // Range mal formé : ignoré, on renvoie tout le contenu.
+            }
+        }
+        // Plusieurs plages : autorisé de répondre avec le contenu entier plutôt qu'en multipart.
+        if (ranges.size() != 1) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            send(response, entry, 0, length);
+            return;
+        }
+        long start = ranges.get(0).getRangeStart(length);
+        long end = ranges.get(0).getRangeEnd(length);
+        if (start >= length || start > end) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        send(response, entry, start, end - start + 1);
+    }
+
+    private static void send(HttpServletResponse response, ContentDiskCache.Entry entry, long start, long count) throws IOException {
+        response.setContentLengthLong(count);
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        long end = start + count;
+        while (position < end) {
+            position += entry.channel().transferTo(position, end - position, out);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+}
@@ -2,19 +2,45 @@ package cipestudio.controller;
 
 import cipestudio.dto.page.BookContentRequestDTO;
 import cipestudio.dto.page.BookContentResponseDTO;
+import cipestudio.dto.page.DraftDocumentDTO;
+import cipestudio.dto.page.DraftPatchResponseDTO;
+import cipestudio.dto.page.StoryGraphDTO;
+import cipestudio.dto.upload.FinalizeUploadRequestDTO;
+import cipestudio.dto.upload.UploadUrlRequestDTO;
+import cipestudio.dto.upload.UploadUrlResponseDTO;
+import cipestudio.enums.UploadTarget;
+import cipestudio.service.ContentDiskCache;
+import cipestudio.service.DirectUploadService;
+import cipestudio.service.DraftService;
+import cipestudio.service.ETagService;
 import cipestudio.service.PageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/page")
 @RequiredArgsConstructor
 public class PageController {
     private final PageService pageService;
+    private final ETagService eTagService;
+    private final DraftService draftService;
+    private final DirectUploadService directUploadService;
 
     @PutMapping(value = "/{bookId}/content", consumes = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("@pageSecurity.isPageOwner(#bookId, authentication) or hasAuthority('SCOPE_ROLE_AUTEUR')")
@@ -23,6 +49,24 @@ public class PageController {
             @Valid @RequestBody BookContentRequestDTO request) {
         return ResponseEntity.ok(pageService.updateBookContent(bookId,request));
     }
+
+    @PostMapping("/{bookId}/content/upload-url")
+    @PreAuthorize("@pageSecurity.isPageOwner(#bookId, authentication) or hasAuthority('SCOPE_ROLE_AUTEUR')")
+    public ResponseEntity<UploadUrlResponseDTO> createContentUploadUrl(
+            @PathVariable Long bookId,
+            @Valid @RequestBody UploadUrlRequestDTO request) {
+        Long userId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(directUploadService.createUploadUrl(UploadTarget.BOOK_CONTENT, bookId, userId, request));
+    }
+
+    @PostMapping("/{bookId}/content/finalize")
+    @PreAuthorize("@pageSecurity.isPageOwner(#bookId, authentication) or hasAuthority('SCOPE_ROLE_AUTEUR')")
+    public ResponseEntity<BookContentResponseDTO> finalizeContentUpload(
+            @PathVariable Long bookId,
+            @Valid @RequestBody FinalizeUploadRequestDTO request) {
+        Long userId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(directUploadService.finalizeContent(bookId, userId, request));
+    }
     @GetMapping(value = "{bookId}/draft/content")
     @PreAuthorize("@pageSecurity.isPageOwner(#bookId, authentication) or hasAuthority('SCOPE_ROLE_AUTEUR')")
     public ResponseEntity<BookContentResponseDTO> getDraftContent(
@@ -30,10 +74,101 @@ public class PageController {
         return ResponseEntity.ok(pageService.getDraftContent(bookId));
     }
 
+    @GetMapping(value = "{bookId}/draft/document")
+    @PreAuthorize("@pageSecurity.isPageOwner(#bookId, authentication) or hasAuthority('SCOPE_ROLE_AUTEUR')")
+    public ResponseEntity<DraftDocumentDTO> getDraftDocument(@PathVariable Long bookId) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(draftService.getDocument(bookId));
+    }
+
+    /**
+     * Autosauvegarde incrémentale : JSON Patch (RFC 6902) appliqué au brouillon dont la version est
+     * donnée par If-Match. 409 si le brouillon a changé depuis : l'éditeur renvoie alors le contenu complet.
+     */
+    @PatchMapping(value = "{bookId}/draft", consumes = "application/json-patch+json")
+    @PreAuthorize("@pageSecurity.isPageOwner(#bookId, authentication) or hasAuthority('SCOPE_ROLE_AUTEUR')")
+    public ResponseEntity<DraftPatchResponseDTO> patchDraft(
+            @PathVariable Long bookId,
+            @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch,
+            @RequestBody JsonNode operations) {
+        DraftPatchResponseDTO response = draftService.applyPatch(bookId, parseDraftVersion(ifMatch), operations);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(response.getDraftVersion()))
+                .body(response);
+    }
+
     @GetMapping(value = "{bookId}/published/content")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<BookContentResponseDTO> getPublishedContent(
-            @PathVariable Long bookId) {
-        return ResponseEntity.ok(pageService.getPublishedContent(bookId));
+            @PathVariable Long bookId, WebRequest request) {
+        String eTag = eTagService.publishedContentETag(bookId);
+        if (eTag == null) {
+            return ResponseEntity.ok(pageService.getPublishedContent(bookId));
+        }
+        return ConditionalResponses.ok(request, eTag, () -> pageService.getPublishedContent(bookId));
+    }
+
+    /** Contenu publié servi par le backend depuis le cache disque (contrôle d'accès, Range, If-None-Match). */
+    @GetMapping(value = "{bookId}/published/stream")
+    @PreAuthorize("isAuthenticated()")
+    public void streamPublishedContent(
+            @PathVariable Long bookId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        streamObject(pageService.getPublishedContentKey(bookId, currentUserId()), request, response);
+    }
+
+    /** Sommaire de l'histoire découpée : chapitres, scènes, tailles et mini-jeux, sans les dialogues. */
+    @GetMapping(value = "{bookId}/published/manifest")
+    @PreAuthorize("isAuthenticated()")
+    public void streamPublishedManifest(
+            @PathVariable Long bookId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        streamObject(pageService.getPublishedManifestKey(bookId, currentUserId()), request, response);
+    }
+
+    /** Scènes et transitions de l'histoire publiée (accessibilité, impasses, liens), compilées à la publication. */
+    @GetMapping(value = "{bookId}/published/graph")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StoryGraphDTO> getPublishedGraph(@PathVariable Long bookId, WebRequest request) {
+        Long userId = currentUserId();
+        String eTag = eTagService.storyGraphETag(bookId);
+        if (eTag == null) {
+            return ResponseEntity.ok(pageService.getPublishedGraph(bookId, userId));
+        }
+        return ConditionalResponses.ok(request, eTag, () -> pageService.getPublishedGraph(bookId, userId));
+    }
+
+    /** Une scène de l'histoire publiée, par position du chapitre et de la scène dans le sommaire. */
+    @GetMapping(value = "{bookId}/published/scenes/{chapter}/{scene}")
+    @PreAuthorize("isAuthenticated()")
+    public void streamPublishedScene(
+            @PathVariable Long bookId, @PathVariable int chapter, @PathVariable int scene,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        streamObject(pageService.getPublishedSceneKey(bookId, currentUserId(), chapter, scene), request, response);
+    }
+
+    private void streamObject(String objectKey, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader("Cache-Control", "no-cache, private");
+        // L'ETag ne dépend que de la clé : une copie à jour est validée sans toucher au cache ni au bucket.
+        if (new ServletWebRequest(request, response).checkNotModified(ContentDiskCache.eTagOf(objectKey))) {
+            return;
+        }
+        try (ContentDiskCache.Entry entry = pageService.getPublishedContentFile(objectKey)) {
+            ContentResponses.sendGzipJson(request, response, entry);
+        }
+    }
+
+    // If-Match: "12" (ou W/"12") -> 12
+    private static long parseDraftVersion(String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match doit contenir la version du brouillon");
+        }
+    }
+
+    private static Long currentUserId() {
+        return Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
     }
 }
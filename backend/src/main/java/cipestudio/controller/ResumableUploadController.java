@@ -0,0 +1,75 @@
+package cipestudio.controller;
+
+import cipestudio.dto.upload.ResumableUploadRequestDTO;
+import cipestudio.dto.upload.ResumableUploadResponseDTO;
+import cipestudio.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Envois reprenables, sur le modèle de tus : POST ouvre l'envoi, PATCH ajoute un morceau à la position
+ * Upload-Offset, HEAD (ou GET) rend la position acquise pour reprendre après une coupure, DELETE abandonne.
+ */
+@RestController
+@RequestMapping("/uploads")
+@RequiredArgsConstructor
+public class ResumableUploadController {
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final ResumableUploadService resumableUploadService;
+
+    @PostMapping
+    @PreAuthorize("@bookSecurity.isBookOwner(#request.bookId, authentication)")
+    public ResponseEntity<ResumableUploadResponseDTO> createUpload(@Valid @RequestBody ResumableUploadRequestDTO request) {
+        ResumableUploadResponseDTO upload = resumableUploadService.create(currentUserId(), request);
+        return withOffset(ResponseEntity.created(URI.create("/uploads/" + upload.getId())), upload);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ResumableUploadResponseDTO> getUpload(@PathVariable String id) {
+        return withOffset(ResponseEntity.ok().cacheControl(CacheControl.noStore()),
+                resumableUploadService.getStatus(id, currentUserId()));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = "application/offset+octet-stream")
+    public ResponseEntity<ResumableUploadResponseDTO> appendChunk(@PathVariable String id,
+                                                                  @RequestHeader(UPLOAD_OFFSET) long offset,
+                                                                  HttpServletRequest request) throws IOException {
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED, "Taille du morceau requise (Content-Length)");
+        }
+        return withOffset(ResponseEntity.ok(),
+                resumableUploadService.appendChunk(id, currentUserId(), offset, request.getInputStream(), length));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelUpload(@PathVariable String id) {
+        resumableUploadService.cancel(id, currentUserId());
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<ResumableUploadResponseDTO> withOffset(ResponseEntity.BodyBuilder response,
+                                                                         ResumableUploadResponseDTO upload) {
+        return response
+                .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(upload.getSize()))
+                .body(upload);
+    }
+
+    private static Long currentUserId() {
+        return Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+}
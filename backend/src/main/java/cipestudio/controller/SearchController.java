@@ -0,0 +1,30 @@
+package cipestudio.controller;
+
+import cipestudio.dto.search.SearchResultDTO;
+import cipestudio.enums.SearchType;
+import cipestudio.service.search.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+@RequiredArgsConstructor
+public class SearchController {
+    private final SearchService searchService;
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SearchResultDTO>> search(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) SearchType type,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(searchService.search(query, type, limit));
+    }
+}
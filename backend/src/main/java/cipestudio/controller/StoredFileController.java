@@ -0,0 +1,106 @@
+package cipestudio.controller;
+
+import cipestudio.exceptions.StorageUnavailableException;
+import cipestudio.service.SeaweedFStorageService;
+import cipestudio.service.storage.CircuitOpenException;
+import cipestudio.service.storage.ObjectStore;
+import cipestudio.service.storage.StoredObject;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.util.unit.DataSize;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+
+/**
+ * Fichiers publics servis par l'application quand il n'y a pas de SeaweedFS devant
+ * (storage.backend = filesystem ou memory) : même chemin /{bucket}/{clé} que les URL S3.
+ * Reçoit aussi les envois directs, sur un lien signé par SeaweedFStorageService.presignUpload.
+ */
+@RestController
+@RequestMapping("/files")
+@ConditionalOnExpression("'${storage.backend:s3}' != 's3'")
+public class StoredFileController {
+    private final ObjectStore objectStore;
+    private final SeaweedFStorageService storageService;
+    private final String bucketName;
+    private final long maxUploadSize;
+
+    public StoredFileController(ObjectStore objectStore, SeaweedFStorageService storageService,
+                                @Value("${seaweedfs.bucket-name}") String bucketName,
+                                @Value("${storage.upload.max-content-size:20MB}") DataSize maxUploadSize) {
+        this.objectStore = objectStore;
+        this.storageService = storageService;
+        this.bucketName = bucketName;
+        this.maxUploadSize = maxUploadSize.toBytes();
+    }
+
+    @GetMapping("/{bucket}/**")
+    public ResponseEntity<InputStreamResource> getFile(@PathVariable String bucket, HttpServletRequest request) throws IOException {
+        String key = objectKey(bucket, request);
+        StoredObject object;
+        try {
+            object = objectStore.get(key);
+        } catch (NoSuchFileException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier non trouvé");
+        } catch (CircuitOpenException e) {
+            throw new StorageUnavailableException(e.getRetryAfterMillis(), e);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(object.contentType() != null
+                        ? MediaType.parseMediaType(object.contentType())
+                        : MediaType.APPLICATION_OCTET_STREAM);
+        if (object.size() >= 0) {
+            response.contentLength(object.size());
+        }
+        object.headers().forEach(response::header);
+        return response.body(new InputStreamResource(object.stream()));
+    }
+
+    /** Envoi direct : la signature couvre la clé, le Content-Type et l'expiration. */
+    @PutMapping("/{bucket}/**")
+    public ResponseEntity<Void> putFile(@PathVariable String bucket, @RequestParam long expires, @RequestParam String signature,
+                                        HttpServletRequest request) throws IOException {
+        String key = objectKey(bucket, request);
+        if (!storageService.isValidUploadSignature(key, request.getContentType(), expires, signature)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Lien d'envoi invalide ou expiré");
+        }
+        // La taille exacte est revérifiée à la finalisation ; ceci évite seulement de stocker un envoi démesuré.
+        long size = request.getContentLengthLong();
+        if (size < 0) {
+            throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED, "Taille de l'envoi requise (Content-Length)");
+        }
+        if (size > maxUploadSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Fichier trop volumineux");
+        }
+        try {
+            objectStore.put(key, request.getInputStream(), size, request.getContentType(), Map.of());
+        } catch (CircuitOpenException e) {
+            throw new StorageUnavailableException(e.getRetryAfterMillis(), e);
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private String objectKey(String bucket, HttpServletRequest request) {
+        String prefix = request.getContextPath() + "/files/" + bucket + "/";
+        if (!bucket.equals(bucketName) || !request.getRequestURI().startsWith(prefix)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier non trouvé");
+        }
+        return UriUtils.decode(request.getRequestURI().substring(prefix.length()), StandardCharsets.UTF_8);
+    }
+}
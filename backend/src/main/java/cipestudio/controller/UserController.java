@@ -1,12 +1,16 @@
 package cipestudio.controller;
 
 import cipestudio.dto.auth.*;
-import cipestudio.dto.user.URLResponseDTO;
+import cipestudio.dto.upload.FinalizeUploadRequestDTO;
+import cipestudio.dto.upload.UploadUrlRequestDTO;
+import cipestudio.dto.upload.UploadUrlResponseDTO;
 import cipestudio.dto.user.UpdateUserRequestDTO;
+import cipestudio.enums.UploadTarget;
 import cipestudio.model.RefreshToken;
 import cipestudio.security.JwtUtils;
 import cipestudio.security.UsersPrincipal;
 import cipestudio.service.BookService;
+import cipestudio.service.DirectUploadService;
 import cipestudio.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +25,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -30,6 +35,7 @@ public class UserController {
     private final UserService userService;
     private final JwtUtils jwtUtils;
     private final BookService bookService;
+    private final DirectUploadService directUploadService;
 
     @Value("${jwt.cookie-secure}")
     private boolean isCookieSecure;
@@ -103,12 +109,26 @@ public class UserController {
     }
 
     @PostMapping(value = "/users/me/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Map<String, String>> uploadAvatar(@RequestParam("file") MultipartFile file) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> uploadAvatar(@RequestParam("file") MultipartFile file) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         Long userId = Long.valueOf(authentication.getName());
-        URLResponseDTO urlResponseDTO = userService.updateAvatar(userId, file);
 
-        return ResponseEntity.ok(Map.of("avatarUrl", urlResponseDTO.getUrl()));
+        return userService.updateAvatar(userId, file)
+                .thenApply(urlResponseDTO -> ResponseEntity.ok(Map.of("avatarUrl", urlResponseDTO.getUrl())));
+    }
+
+    @PostMapping("/users/me/avatar/upload-url")
+    public ResponseEntity<UploadUrlResponseDTO> createAvatarUploadUrl(@Valid @RequestBody UploadUrlRequestDTO request) {
+        Long userId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return ResponseEntity.ok(directUploadService.createUploadUrl(UploadTarget.AVATAR, userId, userId, request));
+    }
+
+    @PostMapping("/users/me/avatar/finalize")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> finalizeAvatarUpload(@Valid @RequestBody FinalizeUploadRequestDTO request) {
+        Long userId = Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+        return directUploadService.finalizeImage(UploadTarget.AVATAR, userId, userId, request.getObjectKey(),
+                        avatar -> userService.updateAvatar(userId, avatar))
+                .thenApply(urlResponseDTO -> ResponseEntity.ok(Map.of("avatarUrl", urlResponseDTO.getUrl())));
     }
     @PostMapping(value = "/users/me/bag/{bookId}")
     public ResponseEntity<Void> addBookToBag(@PathVariable Long bookId){
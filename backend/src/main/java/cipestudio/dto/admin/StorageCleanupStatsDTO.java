@@ -0,0 +1,20 @@
+package cipestudio.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageCleanupStatsDTO {
+    // Tâches en file (y compris celles en attente de nouvel essai), dont prêtes maintenant, et abandonnées.
+    private long queued;
+    private long due;
+    private long abandoned;
+    private long deletedTotal;
+    private long failedAttemptsTotal;
+    private LocalDateTime lastRunAt;
+}
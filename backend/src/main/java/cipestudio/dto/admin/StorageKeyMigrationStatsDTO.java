@@ -0,0 +1,20 @@
+package cipestudio.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageKeyMigrationStatsDTO {
+    private boolean running;
+    // Fichiers examinés, déplacés sous le préfixe de leur entité, et en échec (repris au prochain passage).
+    private long scanned;
+    private long moved;
+    private long failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
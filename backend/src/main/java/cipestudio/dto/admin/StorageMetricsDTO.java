@@ -0,0 +1,21 @@
+package cipestudio.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageMetricsDTO {
+    // CLOSED, OPEN ou HALF_OPEN ; retryAfterMs = délai avant l'appel d'essai quand le circuit est ouvert.
+    private String circuitState;
+    private int consecutiveFailures;
+    private long timesOpened;
+    private LocalDateTime lastOpenedAt;
+    private long retryAfterMs;
+    private List<StorageOperationStatsDTO> operations;
+}
@@ -0,0 +1,27 @@
+package cipestudio.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageOperationStatsDTO {
+    private String operation;
+    // Appels reçus, dont échoués après nouveaux essais et refusés par le circuit ouvert.
+    private long calls;
+    private long failures;
+    private long retries;
+    private long rejected;
+    // Latence d'un appel complet, nouveaux essais compris.
+    private double meanMs;
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+    // Appels par seau de latence, indexés par borne haute en ms.
+    private Map<String, Long> histogram;
+}
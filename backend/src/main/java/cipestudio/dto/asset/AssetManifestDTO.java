@@ -0,0 +1,18 @@
+package cipestudio.dto.asset;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AssetManifestDTO {
+    private Long bookId;
+    // Change dès qu'un fichier est ajouté ou retiré : sert d'ETag au lecteur
+    private String version;
+    private long totalSize;
+    private List<BookAssetDTO> assets;
+}
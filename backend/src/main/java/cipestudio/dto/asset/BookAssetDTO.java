@@ -0,0 +1,20 @@
+package cipestudio.dto.asset;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookAssetDTO {
+    private Long id;
+    private String url;
+    private String hash;
+    private String contentType;
+    private long size;
+    private String name;
+    private LocalDateTime createdAt;
+}
@@ -14,6 +14,9 @@ public class UserDTO {
     private String email;
     private Role role;
     private String avatar;
+    private String avatarThumbnailUrl;
+    private String avatarCardUrl;
+    private String avatarPlaceholder;
     private Boolean isVerified;
     private Integer signalements;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package cipestudio.dto.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookPageResponseDTO {
+    private List<BookSummaryDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
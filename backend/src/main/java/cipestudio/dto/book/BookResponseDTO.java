@@ -16,6 +16,9 @@ public class BookResponseDTO {
     private String title;
     private String description;
     private String coverUrl;
+    private String coverThumbnailUrl;
+    private String coverCardUrl;
+    private String coverPlaceholder;
     private BookStatus status;
     
     private Long authorId;
@@ -0,0 +1,18 @@
+package cipestudio.dto.book;
+
+import cipestudio.enums.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Suggestion d'autocomplétion : un titre (id = livre) ou un auteur (id = utilisateur).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSuggestionDTO {
+    private SuggestionType type;
+    private Long id;
+    private String text;
+}
@@ -0,0 +1,33 @@
+package cipestudio.dto.book;
+
+import cipestudio.enums.BookStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version allégée de {@link BookResponseDTO} pour les listes paginées :
+ * la description (jusqu'à 10000 caractères) n'est jamais chargée.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSummaryDTO {
+
+    private Long id;
+    private String title;
+    private String coverUrl;
+    private String coverThumbnailUrl;
+    private String coverCardUrl;
+    private String coverPlaceholder;
+    private BookStatus status;
+
+    private Long authorId;
+    private String authorName;
+
+    private Integer views;
+    private Integer reportsCount;
+    private LocalDateTime createdAt;
+}
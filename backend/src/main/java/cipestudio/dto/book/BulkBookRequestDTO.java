@@ -0,0 +1,19 @@
+package cipestudio.dto.book;
+
+import cipestudio.enums.BookStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkBookRequestDTO {
+    @NotEmpty(message = "La liste des livres est obligatoire")
+    @Size(max = 1000, message = "1000 livres maximum par opération")
+    private List<@NotNull Long> bookIds;
+
+    // Utilisé uniquement par le changement de statut en masse.
+    private BookStatus status;
+}
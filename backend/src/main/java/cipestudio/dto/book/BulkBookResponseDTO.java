@@ -0,0 +1,21 @@
+package cipestudio.dto.book;
+
+import cipestudio.enums.BulkItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkBookResponseDTO {
+    private int done;
+    private List<BulkBookResultDTO> results;
+
+    public static BulkBookResponseDTO of(List<BulkBookResultDTO> results) {
+        int done = (int) results.stream().filter(r -> r.getStatus() == BulkItemStatus.DONE).count();
+        return new BulkBookResponseDTO(done, results);
+    }
+}
@@ -0,0 +1,14 @@
+package cipestudio.dto.book;
+
+import cipestudio.enums.BulkItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkBookResultDTO {
+    private Long bookId;
+    private BulkItemStatus status;
+}
@@ -8,6 +8,9 @@
         private String name;
         private String description;
         private String coverUrl;
+        private String coverThumbnailUrl;
+        private String coverCardUrl;
+        private String coverPlaceholder;
         private String tags;
         private String icon;
         private Integer booksCount;
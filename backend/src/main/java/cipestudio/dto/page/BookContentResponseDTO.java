@@ -10,4 +10,10 @@ import java.time.LocalDateTime;
 public class BookContentResponseDTO {
     private String s3OriginalUrl;
     private LocalDateTime updateAt;
+    // Version du brouillon, base des patchs suivants (null pour le contenu publié).
+    private Long draftVersion;
+
+    public BookContentResponseDTO(String s3OriginalUrl, LocalDateTime updateAt) {
+        this(s3OriginalUrl, updateAt, null);
+    }
 }
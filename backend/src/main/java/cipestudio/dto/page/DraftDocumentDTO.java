@@ -0,0 +1,13 @@
+package cipestudio.dto.page;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DraftDocumentDTO {
+    // Version du document, base des patchs suivants.
+    private long draftVersion;
+    private JsonNode document;
+}
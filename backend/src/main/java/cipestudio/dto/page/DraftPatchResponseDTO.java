@@ -0,0 +1,13 @@
+package cipestudio.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class DraftPatchResponseDTO {
+    private long draftVersion;
+    private LocalDateTime updateAt;
+}
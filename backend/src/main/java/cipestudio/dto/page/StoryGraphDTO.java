@@ -0,0 +1,16 @@
+package cipestudio.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Structure de la version publiée d'une histoire, lue en base sans télécharger le JSON. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoryGraphDTO {
+    private List<StorySceneDTO> scenes;
+    private List<StoryTransitionDTO> transitions;
+}
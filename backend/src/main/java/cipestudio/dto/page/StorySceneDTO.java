@@ -0,0 +1,19 @@
+package cipestudio.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorySceneDTO {
+    private Long id;
+    private String chapter;
+    // Indices de /page/{id}/published/scenes/{chapter}/{scene}
+    private int chapterIndex;
+    private int sceneIndex;
+    private int dialogs;
+    private boolean reachable;
+    private boolean deadEnd;
+}
@@ -0,0 +1,21 @@
+package cipestudio.dto.page;
+
+import cipestudio.enums.TransitionKind;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoryTransitionDTO {
+    private Long sourceSceneId;
+    // null : lien cassé, la cible écrite dans l'histoire est dans targetRef
+    private Long targetSceneId;
+    private TransitionKind kind;
+    private Integer sourceDialog;
+    private Integer targetDialog;
+    private String targetRef;
+    private String text;
+    private String miniGameId;
+}
@@ -0,0 +1,17 @@
+package cipestudio.dto.search;
+
+import cipestudio.enums.SearchType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchResultDTO {
+    private SearchType type;
+    private Long id;
+    private String title;
+    private String coverUrl;
+    private double score;
+}
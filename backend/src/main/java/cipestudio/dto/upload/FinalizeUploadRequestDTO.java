@@ -0,0 +1,18 @@
+package cipestudio.dto.upload;
+
+import cipestudio.enums.BookStatus;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FinalizeUploadRequestDTO {
+    @NotBlank(message = "La clé de l'objet envoyé est obligatoire")
+    private String objectKey;
+
+    // Contenu d'histoire uniquement : DRAFT ou PUBLISHED
+    private BookStatus bookStatus;
+}
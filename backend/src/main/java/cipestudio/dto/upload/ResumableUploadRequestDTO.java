@@ -0,0 +1,22 @@
+package cipestudio.dto.upload;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumableUploadRequestDTO {
+    @NotNull(message = "Le livre est obligatoire")
+    private Long bookId;
+
+    @NotBlank(message = "Le type du fichier est obligatoire")
+    private String contentType;
+
+    @Positive(message = "La taille du fichier doit être positive")
+    private long size;
+}
@@ -0,0 +1,22 @@
+package cipestudio.dto.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumableUploadResponseDTO {
+    // Le client envoie le morceau suivant à partir de offset, de chunkSize octets (le dernier plus court).
+    private String id;
+    private long offset;
+    private long size;
+    private long chunkSize;
+    private LocalDateTime expiresAt;
+    // URL publique du fichier, une fois l'envoi terminé
+    private String url;
+    private Long assetId;
+}
@@ -0,0 +1,20 @@
+package cipestudio.dto.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadUrlResponseDTO {
+    // Le client envoie le fichier par <method> sur uploadUrl avec ces en-têtes, puis finalise avec objectKey.
+    private String uploadUrl;
+    private String method;
+    private Map<String, String> headers;
+    private String objectKey;
+    private LocalDateTime expiresAt;
+}
@@ -9,4 +9,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class URLResponseDTO {
     private String url;
+
+    // Variantes d'une image envoyée (url = variante « full ») ; nulles pour les autres fichiers
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String placeholder;
+
+    public URLResponseDTO(String url) {
+        this.url = url;
+    }
 }
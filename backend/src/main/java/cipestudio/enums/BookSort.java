@@ -0,0 +1,6 @@
+package cipestudio.enums;
+
+public enum BookSort {
+    NEWEST,
+    MOST_READ
+}
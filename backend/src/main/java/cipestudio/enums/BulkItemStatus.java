@@ -0,0 +1,10 @@
+package cipestudio.enums;
+
+public enum BulkItemStatus {
+    DONE,
+    UNCHANGED,
+    NOT_FOUND,
+    FORBIDDEN,
+    // PUBLISHED demandé pour un livre jamais publié par l'éditeur
+    NO_PUBLISHED_CONTENT
+}
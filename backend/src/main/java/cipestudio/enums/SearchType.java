@@ -0,0 +1,6 @@
+package cipestudio.enums;
+
+public enum SearchType {
+    BOOK,
+    COLLECTION
+}
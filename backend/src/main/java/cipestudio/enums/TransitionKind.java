@@ -0,0 +1,14 @@
+package cipestudio.enums;
+
+/** Origine d'un passage d'une scène à une autre dans une histoire compilée. */
+public enum TransitionKind {
+    NEXT,
+    JUMP,
+    CHOICE,
+    RANDOM,
+    CONDITION,
+    TIMER,
+    VIDEO,
+    MINIGAME_SUCCESS,
+    MINIGAME_FAILURE
+}
@@ -0,0 +1,25 @@
+package cipestudio.enums;
+
+/** Destination d'un envoi direct vers le bucket ; slug = segment de la clé de dépôt. */
+public enum UploadTarget {
+    BOOK_COVER("book-cover", true),
+    COLLECTION_COVER("collection-cover", true),
+    AVATAR("avatar", true),
+    BOOK_CONTENT("book-content", false);
+
+    private final String slug;
+    private final boolean image;
+
+    UploadTarget(String slug, boolean image) {
+        this.slug = slug;
+        this.image = image;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public boolean isImage() {
+        return image;
+    }
+}
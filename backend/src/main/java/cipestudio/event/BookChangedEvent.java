@@ -0,0 +1,8 @@
+package cipestudio.event;
+
+/**
+ * Publié par les services dès qu'un livre est créé, modifié, publié ou supprimé.
+ * Les écouteurs rechargent l'état depuis la base : l'événement ne porte que l'id.
+ */
+public record BookChangedEvent(Long bookId) {
+}
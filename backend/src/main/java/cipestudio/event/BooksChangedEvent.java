@@ -0,0 +1,10 @@
+package cipestudio.event;
+
+import java.util.List;
+
+/**
+ * Variante groupée de {@link BookChangedEvent} pour les opérations en masse :
+ * les écouteurs rechargent tous les livres en une requête au lieu d'une par id.
+ */
+public record BooksChangedEvent(List<Long> bookIds) {
+}
@@ -0,0 +1,7 @@
+package cipestudio.event;
+
+/**
+ * Publié par les services dès qu'une collection ou la liste de ses livres change.
+ */
+public record CollectionChangedEvent(Long collectionId) {
+}
@@ -0,0 +1,8 @@
+package cipestudio.exceptions;
+
+/** Échec d'un appel au stockage objet (502), avec l'erreur du backend en cause. */
+public class StorageException extends RuntimeException {
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
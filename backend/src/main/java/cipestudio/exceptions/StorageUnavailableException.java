@@ -0,0 +1,15 @@
+package cipestudio.exceptions;
+
+/** Stockage objet indisponible (circuit ouvert) : l'appel est refusé sans être tenté (503). */
+public class StorageUnavailableException extends StorageException {
+    private final long retryAfterMillis;
+
+    public StorageUnavailableException(long retryAfterMillis, Throwable cause) {
+        super("Stockage indisponible, réessayez plus tard", cause);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
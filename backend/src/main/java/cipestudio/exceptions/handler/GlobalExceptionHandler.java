@@ -2,6 +2,9 @@ package cipestudio.exceptions.handler;
 
 import cipestudio.exceptions.EmailAlreadyExistsException;
 import cipestudio.exceptions.ResourceNotFoundException;
+import cipestudio.exceptions.StorageException;
+import cipestudio.exceptions.StorageUnavailableException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -9,9 +12,12 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -45,6 +51,49 @@ public class GlobalExceptionHandler {
         return error;
     }
 
+    // Sans ce gestionnaire, le statut porté par l'exception (404, 409...) finirait en 500 ci-dessous.
+    @ExceptionHandler(ResponseStatusException.class)
+    public org.springframework.http.ResponseEntity<Map<String, String>> handleResponseStatusException(ResponseStatusException ex) {
+        Map<String, String> error = new HashMap<>();
+        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
+        error.put("error", status != null ? status.getReasonPhrase() : String.valueOf(ex.getStatusCode().value()));
+        error.put("message", ex.getReason());
+        return new org.springframework.http.ResponseEntity<>(error, ex.getHeaders(), ex.getStatusCode());
+    }
+
+    // Circuit du stockage ouvert : le client peut réessayer après Retry-After.
+    @ExceptionHandler(StorageUnavailableException.class)
+    public org.springframework.http.ResponseEntity<Map<String, String>> handleStorageUnavailableException(StorageUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        error.put("message", ex.getMessage());
+        org.springframework.http.ResponseEntity.BodyBuilder response = org.springframework.http.ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+        if (ex.getRetryAfterMillis() > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf((ex.getRetryAfterMillis() + 999) / 1000));
+        }
+        return response.body(error);
+    }
+
+    @ResponseStatus(HttpStatus.BAD_GATEWAY)
+    @ExceptionHandler(StorageException.class)
+    public Map<String, String> handleStorageException(StorageException ex) {
+        System.err.println("Erreur du stockage objet: " + ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", HttpStatus.BAD_GATEWAY.getReasonPhrase());
+        error.put("message", ex.getMessage());
+        return error;
+    }
+
+    // Upload asynchrone trop long (storage.upload.timeout-ms) ou requête asynchrone expirée.
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    @ExceptionHandler({TimeoutException.class, AsyncRequestTimeoutException.class})
+    public Map<String, String> handleTimeoutException(Exception ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", HttpStatus.GATEWAY_TIMEOUT.getReasonPhrase());
+        error.put("message", "Le stockage n'a pas répondu à temps");
+        return error;
+    }
+
     @ExceptionHandler(Exception.class)
     public org.springframework.http.ResponseEntity<Object> handleAllExceptions(Exception ex) {
         ex.printStackTrace();
@@ -15,7 +15,11 @@ public interface CollectionMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "editor", source = "editor")
     @Mapping(target = "coverUrl", ignore = true)
+    @Mapping(target = "coverThumbnailUrl", ignore = true)
+    @Mapping(target = "coverCardUrl", ignore = true)
+    @Mapping(target = "coverPlaceholder", ignore = true)
     @Mapping(target = "books", ignore = true)
+    @Mapping(target = "updateAt", ignore = true)
     Collection toEntity(CollectionRequestDTO request, User editor);
 
     @Mapping(target = "editorId", source = "editor.id")
@@ -26,7 +30,11 @@ public interface CollectionMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "editor", ignore = true)
     @Mapping(target = "coverUrl", ignore = true)
+    @Mapping(target = "coverThumbnailUrl", ignore = true)
+    @Mapping(target = "coverCardUrl", ignore = true)
+    @Mapping(target = "coverPlaceholder", ignore = true)
     @Mapping(target = "books", ignore = true)
     @Mapping(target = "booksCount", ignore = true)
+    @Mapping(target = "updateAt", ignore = true)
     void updateCollectionFromDto(CollectionRequestDTO request, @MappingTarget Collection collection);
 }
@@ -4,7 +4,6 @@ import cipestudio.enums.BookStatus;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -21,6 +20,11 @@ public class Book {
     @Column(length = 10000)
     private String description;
     private String coverUrl;
+    // Variantes réduites de la couverture (coverUrl = variante « full ») et aperçu flou en data URI
+    private String coverThumbnailUrl;
+    private String coverCardUrl;
+    @Column(length = 2048)
+    private String coverPlaceholder;
 
     @Enumerated(EnumType.STRING)
     private BookStatus status = BookStatus.DRAFT;
@@ -34,13 +38,22 @@ public class Book {
 
     @OneToOne(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
     private Page pages;
-    @Formula( "(SELECT COUNT(*) FROM reading_progress rp WHERE rp.book_id = id)")
+
+    // Compteurs matérialisés : jamais écrits par le flush de l'entité, uniquement par CounterService.
+    @Column(updatable = false, columnDefinition = "integer default 0")
     private Integer views = 0;
 
-    @Formula("(SELECT COUNT(*) FROM report r WHERE r.book_id = id)")
+    @Column(updatable = false, columnDefinition = "integer default 0")
     private Integer reportsCount = 0;
 
     @Temporal(TemporalType.TIMESTAMP)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Column(name = "update_at")
+    private LocalDateTime updateAt;
+
+    @PrePersist @PreUpdate
+    public void onUpdate() {
+        this.updateAt = LocalDateTime.now();
+    }
 }
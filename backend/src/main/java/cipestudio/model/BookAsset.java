@@ -0,0 +1,40 @@
+package cipestudio.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fichier d'une histoire (illustration, son, vidéo), rangé sous le préfixe du livre (books/{id}/assets/).
+ * Un même contenu (même SHA-256) n'est stocké qu'une fois par livre.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "book_asset", uniqueConstraints = @UniqueConstraint(name = "uk_book_asset_hash", columnNames = {"bookId", "hash"}))
+public class BookAsset {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false, length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 1024)
+    private String objectKey;
+
+    @Column(nullable = false, length = 1024)
+    private String url;
+
+    private String contentType;
+    private long sizeBytes;
+
+    // Nom du fichier d'origine, pour l'éditeur
+    private String name;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
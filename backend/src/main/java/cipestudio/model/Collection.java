@@ -3,8 +3,8 @@ package cipestudio.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.Formula;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,6 +17,11 @@ public class Collection {
     private String name;
     private String description;
     private String coverUrl;
+    // Variantes réduites de la couverture (coverUrl = variante « full ») et aperçu flou en data URI
+    private String coverThumbnailUrl;
+    private String coverCardUrl;
+    @Column(length = 2048)
+    private String coverPlaceholder;
     private String tags;
     private String icon;
 
@@ -28,10 +33,20 @@ public class Collection {
     @JoinTable(
             name = "book_collection",
             joinColumns = @JoinColumn(name = "collection_id"),
-            inverseJoinColumns = @JoinColumn(name = "book_id"))
+            inverseJoinColumns = @JoinColumn(name = "book_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_book_collection", columnNames = {"collection_id", "book_id"}))
     private List<Book> books = new ArrayList<>();
-    @Formula("(SELECT COUNT(*) FROM book_collection bc WHERE bc.collection_id = id)")
-    private Integer booksCount;
+
+    @Column(updatable = false, columnDefinition = "integer default 0")
+    private Integer booksCount = 0;
+
+    @Column(name = "update_at")
+    private LocalDateTime updateAt;
+
+    @PrePersist @PreUpdate
+    public void onUpdate() {
+        this.updateAt = LocalDateTime.now();
+    }
 
     public void addBook(Book book) {
         this.books.add(book);
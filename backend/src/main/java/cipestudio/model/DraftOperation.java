@@ -0,0 +1,39 @@
+package cipestudio.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrée du journal des brouillons : un JSON Patch qui fait passer le brouillon de version - 1 à version.
+ * Le brouillon courant = l'instantané de la page (Page.draftUrl) + les opérations postérieures.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "draft_operation", uniqueConstraints = @UniqueConstraint(name = "uk_draft_operation_version", columnNames = {"bookId", "version"}))
+public class DraftOperation {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    private long version;
+
+    @Lob
+    @Column(nullable = false)
+    private String patch;
+
+    private int sizeBytes;
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public DraftOperation(Long bookId, long version, String patch, int sizeBytes) {
+        this.bookId = bookId;
+        this.version = version;
+        this.patch = patch;
+        this.sizeBytes = sizeBytes;
+    }
+}
@@ -13,7 +13,14 @@ public class Page {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String draftUrl;
+    // Version courante du brouillon, et version contenue dans l'instantané draftUrl (le reste est dans draft_operation).
+    private long draftVersion;
+    private long draftSnapshotVersion;
     private String publishedUrl;
+    // Sommaire de la version publiée découpée par scène (null pour les publications antérieures).
+    private String publishedManifestUrl;
+    // Date de la dernière publication : contrairement à update_at, les enregistrements du brouillon n'y touchent pas.
+    private LocalDateTime publishedAt;
 
     @Column(name = "update_at")
     private LocalDateTime updateAt;
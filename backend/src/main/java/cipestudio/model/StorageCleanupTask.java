@@ -0,0 +1,35 @@
+package cipestudio.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Objet du stockage à supprimer, enregistré dans la même transaction que la suppression métier.
+ * Un rollback annule donc aussi la tâche ; nextAttemptAt à null = abandonnée après trop d'échecs.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "storage_cleanup_task", indexes = @Index(name = "idx_cleanup_next_attempt", columnList = "nextAttemptAt"))
+public class StorageCleanupTask {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 1024)
+    private String objectKey;
+
+    private int attempts = 0;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(length = 500)
+    private String lastError;
+
+    public StorageCleanupTask(String objectKey, LocalDateTime nextAttemptAt) {
+        this.objectKey = objectKey;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
@@ -0,0 +1,32 @@
+package cipestudio.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Objet du stockage adressé par son contenu (SHA-256) : un même fichier envoyé plusieurs fois
+ * n'est stocké qu'une fois. refCount compte les colonnes (couverture, avatar, brouillon...) qui
+ * pointent vers lui ; l'objet n'est supprimé que lorsqu'il retombe à zéro.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "stored_blob")
+public class StoredBlob {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String hash;
+
+    @Column(nullable = false, unique = true)
+    private String objectKey;
+
+    private long sizeBytes;
+    private String contentType;
+    private int refCount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package cipestudio.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Scène de la version publiée d'une histoire, indexée à la publication (voir StoryGraphService) :
+ * la structure se lit en base, sans télécharger le JSON.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "story_scene", indexes = @Index(name = "idx_story_scene_page", columnList = "page_id, chapter_index, scene_index"))
+public class StoryScene {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "page_id", nullable = false)
+    private Page page;
+
+    private String chapter;
+
+    // Mêmes indices que le sommaire et /page/{id}/published/scenes/{chapter}/{scene}
+    @Column(name = "chapter_index")
+    private int chapterIndex;
+
+    @Column(name = "scene_index")
+    private int sceneIndex;
+
+    private int dialogs;
+
+    // Atteignable depuis le chapitre de départ (ou un bouton du menu)
+    private boolean reachable;
+
+    // Aucune sortie : fin de l'histoire, voulue ou non
+    private boolean deadEnd;
+}
@@ -1,5 +1,6 @@
 package cipestudio.model;
 
+import cipestudio.enums.TransitionKind;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,4 +20,25 @@ public class Transition {
     @ManyToOne
     @JoinColumn(name = "target_page_id")
     private Page targetPage;
+
+    @Enumerated(EnumType.STRING)
+    private TransitionKind kind;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_scene_id")
+    private StoryScene sourceScene;
+
+    // null : cible introuvable (lien cassé), voir targetRef
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "target_scene_id")
+    private StoryScene targetScene;
+
+    // Dialogue de départ (null pour un choix au niveau de la scène) et d'arrivée
+    private Integer sourceDialog;
+    private Integer targetDialog;
+
+    // Cible telle qu'écrite dans l'histoire ("chapitre" ou "chapitre,scène,dialogue")
+    private String targetRef;
+
+    private String miniGameId;
 }
@@ -0,0 +1,57 @@
+package cipestudio.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Envoi reprenable d'un fichier d'histoire : uploadOffset octets sont déjà dans le stockage, en parties
+ * de chunkSize octets d'un envoi multipart (uploadId) dont partTags garde les étiquettes, dans l'ordre.
+ * url est renseignée une fois l'objet assemblé ; une session inactive expire à expiresAt.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "upload_session", indexes = @Index(name = "idx_upload_session_expires", columnList = "expiresAt"))
+public class UploadSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false, length = 1024)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private String uploadId;
+
+    private long totalSize;
+    private long chunkSize;
+    private long uploadOffset;
+
+    @Column(columnDefinition = "TEXT")
+    private String partTags = "";
+
+    @Column(length = 1024)
+    private String url;
+
+    // Fichier du livre créé (ou retrouvé) à la fin de l'envoi
+    private Long assetId;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime expiresAt;
+
+    // Deux morceaux envoyés en même temps pour la même position : le second est refusé
+    @Version
+    private Long version;
+}
@@ -6,7 +6,6 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -31,6 +30,11 @@ public class User {
     private String password;
 
     private String avatar;
+    // Variantes réduites de l'avatar (avatar = variante « full ») et aperçu flou en data URI
+    private String avatarThumbnailUrl;
+    private String avatarCardUrl;
+    @Column(length = 2048)
+    private String avatarPlaceholder;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -42,7 +46,7 @@ public class User {
 
     private Boolean isBlocked = false;
 
-    @Formula("(SELECT COUNT(r.id) FROM report r JOIN book b ON r.book_id = b.id WHERE b.author_id = id)")
+    @Column(updatable = false, columnDefinition = "integer default 0")
     private Integer signalements = 0;
 
     private LocalDateTime derniereConnexion;
@@ -0,0 +1,26 @@
+package cipestudio.repository;
+
+import cipestudio.model.BookAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookAssetRepository extends JpaRepository<BookAsset, Long> {
+
+    List<BookAsset> findByBookIdOrderByIdAsc(Long bookId);
+
+    Optional<BookAsset> findByBookIdAndHash(Long bookId, String hash);
+
+    Optional<BookAsset> findByIdAndBookId(Long id, Long bookId);
+
+    @Modifying
+    @Query("DELETE FROM BookAsset a WHERE a.bookId IN :bookIds")
+    void deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
+}
@@ -1,17 +1,150 @@
 package cipestudio.repository;
 
+import cipestudio.dto.book.BookSummaryDTO;
 import cipestudio.enums.BookStatus;
+import cipestudio.service.BookOwnership;
+import cipestudio.service.ContentVersion;
+import cipestudio.service.search.SearchPopularity;
+import cipestudio.service.search.SearchSource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import cipestudio.model.Book;
 import cipestudio.model.User;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+
+    String SUMMARY_SELECT = "SELECT new cipestudio.dto.book.BookSummaryDTO("
+            + "b.id, b.title, b.coverUrl, b.coverThumbnailUrl, b.coverCardUrl, b.coverPlaceholder, b.status, a.id, a.nom, b.views, b.reportsCount, b.createdAt) ";
+    String AFTER_NEWEST = "(:createdAt IS NULL OR b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) ";
+    String AFTER_MOST_READ = "(:views IS NULL OR b.views < :views OR (b.views = :views AND b.id < :id)) ";
+    String ORDER_NEWEST = "ORDER BY b.createdAt DESC, b.id DESC";
+    String ORDER_MOST_READ = "ORDER BY b.views DESC, b.id DESC";
+    String VERSION_SELECT = "SELECT new cipestudio.service.ContentVersion(COUNT(b.id), SUM(b.id), SUM(b.id * b.id), "
+            + "MAX(b.updateAt), SUM(b.views), SUM(b.reportsCount)) ";
+
+    // Les listes sont mappées en BookResponseDTO (author.nom) : on charge l'auteur et la page
+    // (OneToOne inverse, toujours chargé) dans la même requête pour éviter un SELECT par livre.
+    @EntityGraph(attributePaths = {"author", "pages"})
     List<Book> findByAuthor(User author);
 
+    @EntityGraph(attributePaths = {"author", "pages"})
     List<Book> findByStatus(BookStatus bookStatus);
 
+    @EntityGraph(attributePaths = {"author", "pages"})
     List<Book> findDistinctByCollectionsIsNotEmptyAndStatus(BookStatus bookStatus);
-}
\ No newline at end of file
+
+    @Query(SUMMARY_SELECT + "FROM Book b JOIN b.author a "
+            + "WHERE b.status = :status AND b.collections IS NOT EMPTY AND " + AFTER_NEWEST + ORDER_NEWEST)
+    List<BookSummaryDTO> findLibraryPageByNewest(@Param("status") BookStatus status,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Book b JOIN b.author a "
+            + "WHERE b.status = :status AND b.collections IS NOT EMPTY AND " + AFTER_MOST_READ + ORDER_MOST_READ)
+    List<BookSummaryDTO> findLibraryPageByMostRead(@Param("status") BookStatus status,
+                                                   @Param("views") Integer views,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Book b JOIN b.author a "
+            + "WHERE b.status = :status AND " + AFTER_NEWEST + ORDER_NEWEST)
+    List<BookSummaryDTO> findStatusPageByNewest(@Param("status") BookStatus status,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Book b JOIN b.author a "
+            + "WHERE b.status = :status AND " + AFTER_MOST_READ + ORDER_MOST_READ)
+    List<BookSummaryDTO> findStatusPageByMostRead(@Param("status") BookStatus status,
+                                                  @Param("views") Integer views,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Book b JOIN b.author a "
+            + "WHERE a.id = :authorId AND " + AFTER_NEWEST + ORDER_NEWEST)
+    List<BookSummaryDTO> findAuthorPageByNewest(@Param("authorId") Long authorId,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM ReadingProgress rp JOIN rp.book b JOIN b.author a "
+            + "WHERE rp.reader.id = :readerId AND rp.isOwned = true AND " + AFTER_NEWEST + ORDER_NEWEST)
+    List<BookSummaryDTO> findBagPageByNewest(@Param("readerId") Long readerId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Book b JOIN b.author a WHERE b.status = :status AND b.id IN :ids")
+    List<BookSummaryDTO> findSummariesByIds(@Param("status") BookStatus status, @Param("ids") java.util.Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.views = COALESCE(b.views, 0) + :delta WHERE b.id = :id")
+    int incrementViews(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.reportsCount = COALESCE(b.reportsCount, 0) + :delta WHERE b.id = :id")
+    int incrementReportsCount(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.views = (SELECT COUNT(rp) FROM ReadingProgress rp WHERE rp.book = b) "
+            + "WHERE b.views IS NULL OR b.views <> (SELECT COUNT(rp) FROM ReadingProgress rp WHERE rp.book = b)")
+    int reconcileViews();
+
+    @Modifying
+    @Query("UPDATE Book b SET b.reportsCount = (SELECT COUNT(r) FROM Report r WHERE r.book = b) "
+            + "WHERE b.reportsCount IS NULL OR b.reportsCount <> (SELECT COUNT(r) FROM Report r WHERE r.book = b)")
+    int reconcileReportsCount();
+
+    @Query("SELECT new cipestudio.service.search.SearchSource(b.id, b.title, b.description, COALESCE(b.coverThumbnailUrl, b.coverUrl), b.views) "
+            + "FROM Book b WHERE b.status = :status AND b.id > :afterId ORDER BY b.id")
+    List<SearchSource> findSearchSources(@Param("status") BookStatus status, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new cipestudio.service.search.SearchSource(b.id, b.title, b.description, COALESCE(b.coverThumbnailUrl, b.coverUrl), b.views) "
+            + "FROM Book b WHERE b.status = :status AND b.id IN :ids")
+    List<SearchSource> findSearchSourcesByIds(@Param("status") BookStatus status, @Param("ids") java.util.Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.status = :status AND (b.updateAt IS NULL OR b.updateAt > :since)")
+    List<Long> findIdsByStatusUpdatedSince(@Param("status") BookStatus status, @Param("since") LocalDateTime since);
+
+    @Query("SELECT new cipestudio.service.search.SearchPopularity(b.id, b.views) FROM Book b WHERE b.status = :status")
+    List<SearchPopularity> findSearchPopularities(@Param("status") BookStatus status);
+
+    @Query(VERSION_SELECT + "FROM Book b WHERE b.status = :status AND b.collections IS NOT EMPTY")
+    ContentVersion findLibraryVersion(@Param("status") BookStatus status);
+
+    @Query(VERSION_SELECT + "FROM ReadingProgress rp JOIN rp.book b WHERE rp.reader.id = :readerId AND rp.isOwned = true")
+    ContentVersion findBagVersion(@Param("readerId") Long readerId);
+
+    @Query("SELECT new cipestudio.service.BookOwnership(b.id, b.author.id, b.status, b.coverUrl, b.coverThumbnailUrl, b.coverCardUrl, p.publishedUrl) "
+            + "FROM Book b LEFT JOIN b.pages p WHERE b.id IN :ids")
+    List<BookOwnership> findOwnershipByIds(@Param("ids") java.util.Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.author.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    // Fait entrer dans les empreintes (update_at) un changement venu d'ailleurs, comme le nom de l'auteur.
+    @Modifying
+    @Query("UPDATE Book b SET b.updateAt = :now WHERE b.id IN :ids")
+    int touch(@Param("ids") java.util.Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.status = :status, b.updateAt = :now WHERE b.id IN :ids")
+    int updateStatus(@Param("ids") java.util.Collection<Long> ids, @Param("status") BookStatus status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM Book b WHERE b.id IN :ids")
+    int deleteAllByIds(@Param("ids") java.util.Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") java.util.Collection<Long> ids);
+}
@@ -2,12 +2,88 @@ package cipestudio.repository;
 
 import cipestudio.model.Collection;
 import cipestudio.model.User;
+import jakarta.persistence.LockModeType;
+import cipestudio.service.ContentVersion;
+import cipestudio.service.search.SearchPopularity;
+import cipestudio.service.search.SearchSource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CollectionRepository extends JpaRepository<Collection, Long> {
     List<Collection> findByEditor(User editor);
+
+    @EntityGraph(attributePaths = {"books", "books.author", "books.pages"})
+    Optional<Collection> findWithBooksById(Long id);
+
+    @Modifying
+    @Query("UPDATE Collection c SET c.booksCount = COALESCE(c.booksCount, 0) + :delta WHERE c.id IN :ids")
+    int incrementBooksCount(@Param("ids") java.util.Collection<Long> ids, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Collection c SET c.booksCount = SIZE(c.books) "
+            + "WHERE c.booksCount IS NULL OR c.booksCount <> SIZE(c.books)")
+    int reconcileBooksCount();
+
+    @Query("SELECT new cipestudio.service.search.SearchSource(c.id, c.name, c.tags, COALESCE(c.coverThumbnailUrl, c.coverUrl), c.booksCount) "
+            + "FROM Collection c WHERE c.id > :afterId ORDER BY c.id")
+    List<SearchSource> findSearchSources(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new cipestudio.service.search.SearchSource(c.id, c.name, c.tags, COALESCE(c.coverThumbnailUrl, c.coverUrl), c.booksCount) "
+            + "FROM Collection c WHERE c.id IN :ids")
+    List<SearchSource> findSearchSourcesByIds(@Param("ids") java.util.Collection<Long> ids);
+
+    @Query("SELECT c.id FROM Collection c WHERE c.updateAt IS NULL OR c.updateAt > :since")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new cipestudio.service.search.SearchPopularity(c.id, c.booksCount) FROM Collection c")
+    List<SearchPopularity> findSearchPopularities();
+
+    @Query("SELECT c.id FROM Collection c JOIN c.books b WHERE b.id = :bookId")
+    List<Long> findIdsByBookId(@Param("bookId") Long bookId);
+
+    // Les champs propres à la collection entrent via update_at et booksCount (MAX sur une seule ligne).
+    @Query("SELECT new cipestudio.service.ContentVersion(COUNT(b.id), SUM(b.id), SUM(b.id * b.id), "
+            + "GREATEST(COALESCE(MAX(c.updateAt), MAX(b.updateAt)), COALESCE(MAX(b.updateAt), MAX(c.updateAt))), "
+            + "COALESCE(SUM(b.views), 0) + COALESCE(MAX(c.booksCount), 0), SUM(b.reportsCount)) "
+            + "FROM Collection c LEFT JOIN c.books b WHERE c.id = :id GROUP BY c.id")
+    Optional<ContentVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT b.id FROM Collection c JOIN c.books b WHERE c.id = :collectionId AND b.id IN :bookIds")
+    List<Long> findMemberBookIds(@Param("collectionId") Long collectionId, @Param("bookIds") java.util.Collection<Long> bookIds);
+
+    // Une ligne par appartenance : un id de collection revient autant de fois qu'elle contient de ces livres.
+    @Query("SELECT c.id FROM Collection c JOIN c.books b WHERE b.id IN :bookIds")
+    List<Long> findIdsByBookIds(@Param("bookIds") java.util.Collection<Long> bookIds);
+
+    // Verrou de la ligne : les ajouts groupés à une même collection lisent ses membres l'un après l'autre.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Collection c WHERE c.id = :id")
+    Optional<Collection> lockById(@Param("id") Long id);
+
+    // NOT EXISTS : une appartenance déjà présente n'est pas dupliquée (uk_book_collection en dernier recours).
+    @Modifying
+    @Query(value = "INSERT INTO book_collection (collection_id, book_id) SELECT :collectionId, b.id FROM book b "
+            + "WHERE b.id IN :bookIds AND NOT EXISTS (SELECT 1 FROM book_collection bc "
+            + "WHERE bc.collection_id = :collectionId AND bc.book_id = b.id)",
+            nativeQuery = true)
+    int insertBooks(@Param("collectionId") Long collectionId, @Param("bookIds") java.util.Collection<Long> bookIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_collection WHERE collection_id = :collectionId AND book_id IN :bookIds", nativeQuery = true)
+    int deleteBooks(@Param("collectionId") Long collectionId, @Param("bookIds") java.util.Collection<Long> bookIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_collection WHERE book_id IN :bookIds", nativeQuery = true)
+    int deleteMembershipsOfBooks(@Param("bookIds") java.util.Collection<Long> bookIds);
 }
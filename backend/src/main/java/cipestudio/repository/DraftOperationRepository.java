@@ -0,0 +1,30 @@
+package cipestudio.repository;
+
+import cipestudio.model.DraftOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DraftOperationRepository extends JpaRepository<DraftOperation, Long> {
+
+    List<DraftOperation> findByBookIdAndVersionGreaterThanOrderByVersion(Long bookId, long version);
+
+    @Modifying
+    @Query("DELETE FROM DraftOperation o WHERE o.bookId = :bookId AND o.version <= :version")
+    int deleteUpTo(@Param("bookId") Long bookId, @Param("version") long version);
+
+    @Modifying
+    @Query("DELETE FROM DraftOperation o WHERE o.bookId IN :bookIds")
+    int deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Journaux devenus trop longs à rejouer : à fusionner dans un nouvel instantané.
+    @Query("SELECT o.bookId FROM DraftOperation o GROUP BY o.bookId " +
+            "HAVING SUM(o.sizeBytes) > :maxBytes OR COUNT(o) > :maxOperations")
+    List<Long> findBookIdsToCompact(@Param("maxBytes") long maxBytes, @Param("maxOperations") long maxOperations);
+}
@@ -1,10 +1,35 @@
 package cipestudio.repository;
 
 import cipestudio.model.Page;
+import cipestudio.service.PublishedContentSource;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PageRepository  extends JpaRepository<Page, Long> {
     Optional<Page> findByBookId(Long bookId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Page p WHERE p.book.id = :bookId")
+    Optional<Page> findByBookIdForUpdate(@Param("bookId") Long bookId);
+
+    @Query("SELECT p.publishedUrl FROM Page p WHERE p.book.id = :bookId AND p.publishedUrl IS NOT NULL")
+    Optional<String> findPublishedUrlByBookId(@Param("bookId") Long bookId);
+
+    @Query("SELECT new cipestudio.service.PublishedContentSource(p.publishedUrl, p.publishedManifestUrl, b.status, b.author.id) " +
+            "FROM Page p JOIN p.book b WHERE b.id = :bookId")
+    Optional<PublishedContentSource> findPublishedContentSource(@Param("bookId") Long bookId);
+
+    List<Page> findByBookIdIn(Collection<Long> bookIds);
+
+    @Modifying
+    @Query("DELETE FROM Page p WHERE p.book.id IN :bookIds")
+    int deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
 }
@@ -3,8 +3,13 @@ package cipestudio.repository;
 import cipestudio.model.Book;
 import cipestudio.model.ReadingProgress;
 import cipestudio.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +17,17 @@ public interface ReadingProgressRepository extends JpaRepository<ReadingProgress
     Optional<ReadingProgress> findByReaderAndBook(User reader, Book book);
     Optional<ReadingProgress> findByReaderIdAndBookId(Long readerId, Long bookId);
     void deleteByBook(Book book);
+    @EntityGraph(attributePaths = {"book", "book.author", "book.pages"})
     List<ReadingProgress> findByReaderAndIsOwnedTrue(User reader);
     List<ReadingProgress> findByBook(Book book);
+
+    @Modifying
+    @Query("DELETE FROM ReadingProgress rp WHERE rp.book.id IN :bookIds")
+    int deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Un livre sorti de toutes les collections n'est plus dans le sac des lecteurs.
+    @Modifying
+    @Query("UPDATE ReadingProgress rp SET rp.isOwned = false WHERE rp.isOwned = true AND rp.book.id IN "
+            + "(SELECT b.id FROM Book b WHERE b.id IN :bookIds AND b.collections IS EMPTY)")
+    int disownBooksOutsideCollections(@Param("bookIds") Collection<Long> bookIds);
 }
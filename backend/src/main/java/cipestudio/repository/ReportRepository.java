@@ -4,12 +4,22 @@ import cipestudio.model.Book;
 import cipestudio.model.Report;
 import cipestudio.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ReportRepository  extends JpaRepository<Report, Long>{
     List<Report> findByBookId(Long bookId);
     boolean existsByReporterAndBook(User reporter, Book book);
+
+    long countByBookIdIn(Collection<Long> bookIds);
+
+    @Modifying
+    @Query("DELETE FROM Report r WHERE r.book.id IN :bookIds")
+    int deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
 }
@@ -0,0 +1,22 @@
+package cipestudio.repository;
+
+import cipestudio.model.StorageCleanupTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StorageCleanupTaskRepository extends JpaRepository<StorageCleanupTask, Long> {
+
+    @Query("SELECT t FROM StorageCleanupTask t WHERE t.nextAttemptAt <= :now ORDER BY t.nextAttemptAt, t.id")
+    List<StorageCleanupTask> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByNextAttemptAtLessThanEqual(LocalDateTime now);
+
+    long countByNextAttemptAtIsNull();
+}
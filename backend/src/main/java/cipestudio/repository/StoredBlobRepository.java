@@ -0,0 +1,41 @@
+package cipestudio.repository;
+
+import cipestudio.model.StoredBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    // Insertion ou incrément atomique : deux envois simultanés du même contenu ne créent qu'une ligne.
+    @Modifying
+    @Query(value = "INSERT INTO stored_blob (hash, object_key, size_bytes, content_type, ref_count, created_at) " +
+            "VALUES (:hash, :objectKey, :sizeBytes, :contentType, 1, :now) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    void upsertReference(@Param("hash") String hash,
+                         @Param("objectKey") String objectKey,
+                         @Param("sizeBytes") long sizeBytes,
+                         @Param("contentType") String contentType,
+                         @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.refCount FROM StoredBlob b WHERE b.hash = :hash")
+    Optional<Integer> findRefCountByHash(@Param("hash") String hash);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = CASE WHEN b.refCount > :count THEN b.refCount - :count ELSE 0 END " +
+            "WHERE b.objectKey = :objectKey")
+    void decrementRefCount(@Param("objectKey") String objectKey, @Param("count") int count);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.objectKey IN :objectKeys AND b.refCount <= 0")
+    List<StoredBlob> findUnreferencedForUpdate(@Param("objectKeys") List<String> objectKeys);
+}
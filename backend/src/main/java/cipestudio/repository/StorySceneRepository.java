@@ -0,0 +1,28 @@
+package cipestudio.repository;
+
+import cipestudio.dto.page.StorySceneDTO;
+import cipestudio.model.StoryScene;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StorySceneRepository extends JpaRepository<StoryScene, Long> {
+
+    @Query("SELECT new cipestudio.dto.page.StorySceneDTO(s.id, s.chapter, s.chapterIndex, s.sceneIndex, s.dialogs, s.reachable, s.deadEnd) " +
+            "FROM StoryScene s WHERE s.page.book.id = :bookId ORDER BY s.chapterIndex, s.sceneIndex")
+    List<StorySceneDTO> findGraphScenes(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query("DELETE FROM StoryScene s WHERE s.page.id IN :pageIds")
+    int deleteByPageIds(@Param("pageIds") Collection<Long> pageIds);
+
+    @Modifying
+    @Query("DELETE FROM StoryScene s WHERE s.page.id IN (SELECT p.id FROM Page p WHERE p.book.id IN :bookIds)")
+    int deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
+}
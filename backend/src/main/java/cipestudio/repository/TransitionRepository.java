@@ -0,0 +1,30 @@
+package cipestudio.repository;
+
+import cipestudio.dto.page.StoryTransitionDTO;
+import cipestudio.model.Transition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TransitionRepository extends JpaRepository<Transition, Long> {
+
+    @Query("SELECT new cipestudio.dto.page.StoryTransitionDTO(t.sourceScene.id, t.targetScene.id, t.kind, t.sourceDialog, " +
+            "t.targetDialog, t.targetRef, t.text, t.miniGameId) " +
+            "FROM Transition t WHERE t.sourcePage.book.id = :bookId ORDER BY t.id")
+    List<StoryTransitionDTO> findGraphTransitions(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query("DELETE FROM Transition t WHERE t.sourcePage.id IN :pageIds OR t.targetPage.id IN :pageIds")
+    int deleteByPageIds(@Param("pageIds") Collection<Long> pageIds);
+
+    @Modifying
+    @Query("DELETE FROM Transition t WHERE t.sourcePage.id IN (SELECT p.id FROM Page p WHERE p.book.id IN :bookIds) " +
+            "OR t.targetPage.id IN (SELECT p.id FROM Page p WHERE p.book.id IN :bookIds)")
+    int deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
+}
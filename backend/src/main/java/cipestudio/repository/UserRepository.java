@@ -3,6 +3,9 @@ package cipestudio.repository;
 import cipestudio.model.User;
 import cipestudio.enums.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -24,4 +27,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findAllByIsBlocked(boolean isBlocked);
     Optional<User> findByAvatar(String avatar);
 
+    @Modifying
+    @Query("UPDATE User u SET u.signalements = COALESCE(u.signalements, 0) + :delta WHERE u.id = :id")
+    int incrementSignalements(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE User u SET u.signalements = (SELECT COUNT(r) FROM Report r WHERE r.book.author = u) "
+            + "WHERE u.signalements IS NULL OR u.signalements <> (SELECT COUNT(r) FROM Report r WHERE r.book.author = u)")
+    int reconcileSignalements();
 }
@@ -5,6 +5,7 @@ import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -44,6 +45,10 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
                     .requestMatchers("/auth/register","/auth/verify-otp","/refresh","/auth/login","/auth/forgot-password","/auth/reset-password","/error").permitAll()
+                    // Fichiers publics servis hors S3 (StoredFileController), comme le serait le bucket
+                    .requestMatchers(HttpMethod.GET, "/files/**").permitAll()
+                    // Envois directs hors S3 : autorisés par la signature du lien (DirectUploadService)
+                    .requestMatchers(HttpMethod.PUT, "/files/**").permitAll()
                     .requestMatchers("/api/minigames/**").hasAnyAuthority("SCOPE_ROLE_AUTEUR", "SCOPE_ROLE_EDITEUR", "SCOPE_ROLE_ADMIN")
                     .anyRequest().authenticated())
             .csrf(AbstractHttpConfigurer::disable)
@@ -59,7 +64,10 @@ public class SecurityConfig {
 
         configuration.setAllowedOrigins(Arrays.asList(corsAllowedOrigins.split(",")));
 
-        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(List.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+
+        // Position des envois reprenables, lue par le client pour reprendre
+        configuration.setExposedHeaders(List.of("Location", "Upload-Offset", "Upload-Length"));
 
         configuration.setAllowedHeaders(List.of("*"));
 
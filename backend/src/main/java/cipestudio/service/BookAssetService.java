@@ -0,0 +1,167 @@
+package cipestudio.service;
+
+import cipestudio.dto.asset.AssetManifestDTO;
+import cipestudio.dto.asset.BookAssetDTO;
+import cipestudio.model.BookAsset;
+import cipestudio.repository.BookAssetRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fichiers d'une histoire (illustrations, sons, vidéos) : registre par livre, rangés sous books/{id}/assets/
+ * (voir ObjectKeys).
+ * <p>
+ * Un fichier est identifié par son SHA-256 : renvoyer un contenu déjà présent dans le livre rend
+ * le fichier existant sans rien stocker. Le manifeste liste tous les fichiers du livre pour que le
+ * lecteur les précharge en une requête.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookAssetService {
+    private final BookAssetRepository bookAssetRepository;
+    private final SeaweedFStorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+
+    @Value("${storage.assets.allowed-types:image/jpeg,image/png,image/gif,image/webp,audio/mpeg,audio/ogg,audio/wav,audio/mp4,video/mp4,video/webm}")
+    private String[] allowedTypes;
+
+    public List<BookAssetDTO> list(Long bookId) {
+        return bookAssetRepository.findByBookIdOrderByIdAsc(bookId).stream().map(BookAssetService::toDTO).toList();
+    }
+
+    public AssetManifestDTO getManifest(Long bookId) {
+        List<BookAssetDTO> assets = list(bookId);
+        MessageDigest digest = sha256();
+        assets.forEach(asset -> digest.update((asset.getId() + ":" + asset.getHash() + "\n").getBytes(StandardCharsets.UTF_8)));
+        String version = HexFormat.of().formatHex(digest.digest(), 0, 8);
+        return new AssetManifestDTO(bookId, version, assets.stream().mapToLong(BookAssetDTO::getSize).sum(), assets);
+    }
+
+    /** Type accepté pour un fichier d'histoire, sinon 415. */
+    public void checkContentType(String contentType) {
+        if (!Arrays.asList(allowedTypes).contains(contentType)) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Type de fichier non supporté: " + contentType);
+        }
+    }
+
+    /** Ajoute le fichier au livre, ou rend celui de même contenu déjà présent. Lu deux fois en flux : empreinte, puis envoi. */
+    public BookAssetDTO add(Long bookId, MultipartFile file) {
+        String contentType = DirectUploadService.mediaType(file.getContentType());
+        checkContentType(contentType);
+        String hash;
+        try (InputStream in = file.getInputStream()) {
+            hash = hash(in);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Fichier illisible");
+        }
+        BookAsset existing = bookAssetRepository.findByBookIdAndHash(bookId, hash).orElse(null);
+        if (existing != null) {
+            return toDTO(existing);
+        }
+
+        // Clé propre à cet envoi : après suppression puis nouvel ajout du même fichier, la suppression encore
+        // programmée vise l'ancien objet, pas celui-ci.
+        String objectKey = ObjectKeys.bookAssets(bookId) + hash + "-" + UUID.randomUUID();
+        String url;
+        try (InputStream in = file.getInputStream()) {
+            url = storageService.uploadObject(objectKey, in, file.getSize(), contentType);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Fichier illisible");
+        }
+        return register(bookId, hash, objectKey, url, contentType, file.getSize(), file.getOriginalFilename());
+    }
+
+    /**
+     * Enregistre un fichier déjà stocké sous le préfixe du livre (envoi reprenable terminé).
+     * Relu une fois pour son empreinte ; s'il double un fichier existant, il est supprimé.
+     */
+    public BookAssetDTO registerUploaded(Long bookId, String objectKey, String url, String contentType, long size) {
+        String hash;
+        try (InputStream in = storageService.openObject(objectKey).stream()) {
+            hash = hash(in);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Fichier envoyé illisible");
+        }
+        BookAsset existing = bookAssetRepository.findByBookIdAndHash(bookId, hash).orElse(null);
+        if (existing != null) {
+            storageCleanupService.scheduleKeyAt(objectKey, LocalDateTime.now());
+            return toDTO(existing);
+        }
+        return register(bookId, hash, objectKey, url, contentType, size, null);
+    }
+
+    @Transactional
+    public void delete(Long bookId, Long assetId) {
+        BookAsset asset = bookAssetRepository.findByIdAndBookId(assetId, bookId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier introuvable"));
+        bookAssetRepository.delete(asset);
+        storageCleanupService.scheduleKeyAt(asset.getObjectKey(), LocalDateTime.now());
+    }
+
+    /** Registre des livres supprimés ; les fichiers partent avec le préfixe du livre (voir BookService). */
+    @Transactional
+    public void deleteByBookIds(Collection<Long> bookIds) {
+        bookAssetRepository.deleteByBookIds(bookIds);
+    }
+
+    private BookAssetDTO register(Long bookId, String hash, String objectKey, String url, String contentType,
+                                  long size, String name) {
+        BookAsset asset = new BookAsset();
+        asset.setBookId(bookId);
+        asset.setHash(hash);
+        asset.setObjectKey(objectKey);
+        asset.setUrl(url);
+        asset.setContentType(contentType);
+        asset.setSizeBytes(size);
+        asset.setName(name);
+        try {
+            return toDTO(bookAssetRepository.save(asset));
+        } catch (DataIntegrityViolationException e) {
+            // Même contenu ajouté en même temps par une autre requête : notre copie, sous sa propre clé, est jetée
+            BookAsset winner = bookAssetRepository.findByBookIdAndHash(bookId, hash).orElseThrow(() -> e);
+            storageCleanupService.scheduleKeyAt(objectKey, LocalDateTime.now());
+            return toDTO(winner);
+        }
+    }
+
+    private static String hash(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(content, digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BookAssetDTO toDTO(BookAsset asset) {
+        return new BookAssetDTO(asset.getId(), asset.getUrl(), asset.getHash(), asset.getContentType(),
+                asset.getSizeBytes(), asset.getName(), asset.getCreatedAt());
+    }
+}
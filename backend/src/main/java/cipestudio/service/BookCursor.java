@@ -0,0 +1,51 @@
+package cipestudio.service;
+
+import cipestudio.enums.BookSort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de pagination par clé (keyset) : la dernière valeur de tri vue
+ * (createdAt ou views) et l'id du dernier livre, qui départage les égalités.
+ */
+record BookCursor(BookSort sort, LocalDateTime createdAt, Integer views, Long id) {
+
+    static BookCursor first() {
+        return new BookCursor(null, null, null, null);
+    }
+
+    static BookCursor after(BookSort sort, LocalDateTime createdAt, Integer views, Long id) {
+        return new BookCursor(sort, createdAt, views, id);
+    }
+
+    String encode() {
+        String sortValue = sort == BookSort.MOST_READ ? String.valueOf(views) : String.valueOf(createdAt);
+        String raw = sort.name() + "|" + sortValue + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static BookCursor decode(String cursor, BookSort expectedSort) {
+        if (cursor == null || cursor.isBlank()) {
+            return first();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            BookSort sort = BookSort.valueOf(parts[0]);
+            if (parts.length != 3 || sort != expectedSort) {
+                throw new IllegalArgumentException("Curseur incompatible avec le tri demandé");
+            }
+            Long id = Long.valueOf(parts[2]);
+            if (sort == BookSort.MOST_READ) {
+                return after(sort, null, Integer.valueOf(parts[1]), id);
+            }
+            return after(sort, LocalDateTime.parse(parts[1]), null, id);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur de pagination invalide");
+        }
+    }
+}
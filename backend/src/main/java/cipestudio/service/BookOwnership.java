@@ -0,0 +1,8 @@
+package cipestudio.service;
+
+import cipestudio.enums.BookStatus;
+
+/** Ligne minimale chargée pour vérifier en une requête la propriété d'un lot de livres. */
+public record BookOwnership(Long id, Long authorId, BookStatus status, String coverUrl,
+                            String coverThumbnailUrl, String coverCardUrl, String publishedUrl) {
+}
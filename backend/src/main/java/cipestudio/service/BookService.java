@@ -1,39 +1,79 @@
 package cipestudio.service;
 
+import cipestudio.dto.book.BookPageResponseDTO;
 import cipestudio.dto.book.BookRequestDTO;
 import cipestudio.dto.book.BookResponseDTO;
+import cipestudio.dto.book.BookSummaryDTO;
+import cipestudio.dto.book.BulkBookResponseDTO;
+import cipestudio.dto.book.BulkBookResultDTO;
 import cipestudio.dto.user.URLResponseDTO;
+import cipestudio.enums.BookSort;
 import cipestudio.enums.BookStatus;
+import cipestudio.enums.BulkItemStatus;
+import cipestudio.config.CacheConfig;
+import cipestudio.event.BookChangedEvent;
+import cipestudio.event.BooksChangedEvent;
+import cipestudio.event.CollectionChangedEvent;
 import cipestudio.mapper.BookMapper;
 import cipestudio.mapper.ReadingProgressMapper;
 import cipestudio.model.*;
 import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import cipestudio.repository.DraftOperationRepository;
+import cipestudio.repository.PageRepository;
 import cipestudio.repository.ReadingProgressRepository;
 import cipestudio.repository.ReportRepository;
 import cipestudio.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookService{
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final BookMapper bookMapper;
-    private final SeaweedFStorageService seaweedFStorageService;
+    private final ImageVariantService imageVariantService;
     private final ReadingProgressRepository readingProgressRepository;
     private final ReadingProgressMapper readingProgressMapper;
     private final ReportRepository reportRepository;
     private final PageService pageService;
+    private final CounterService counterService;
+    private final StorageCleanupService storageCleanupService;
+    private final CollectionRepository collectionRepository;
+    private final PageRepository pageRepository;
+    private final DraftOperationRepository draftOperationRepository;
+    private final StoryGraphService storyGraphService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final BookAssetService bookAssetService;
+
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id")
     public BookResponseDTO getBookById(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Livre non trouvé"));
@@ -46,30 +86,32 @@ public class BookService{
         User author = userRepository.findById(authorId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Auteur non trouvé"));
 
-        Book book = bookMapper.toEntity(request,author);
+        Book book = bookRepository.save(bookMapper.toEntity(request,author));
+        eventPublisher.publishEvent(new BookChangedEvent(book.getId()));
 
-        return bookMapper.toResponse(bookRepository.save(book));
+        return bookMapper.toResponse(book);
     }
 
-    @Transactional
-    public URLResponseDTO updateBookCover(Long bookId, MultipartFile file) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Livre non trouvé"));
-
-        if (book.getCoverUrl() != null && !book.getCoverUrl().isBlank()) {
-            try {
-                seaweedFStorageService.deleteFile(book.getCoverUrl());
-            } catch (Exception e) {
-                System.err.println("Erreur suppression ancienne cover : " + e.getMessage());
-            }
+    /** La couverture est enregistrée en base une fois ses variantes stockées, sans bloquer le thread de la requête. */
+    public CompletableFuture<URLResponseDTO> updateBookCover(Long bookId, InputStreamSource file) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Livre non trouvé");
         }
+        return imageVariantService.storeAndCommit(ObjectKeys.bookCover(bookId), file, cover -> transactionTemplate.execute(status -> {
+            Book book = bookRepository.findById(bookId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Livre non trouvé"));
 
-        String imageUrl = seaweedFStorageService.uploadFile(file);
+            storageCleanupService.schedule(book.getCoverUrl(), book.getCoverThumbnailUrl(), book.getCoverCardUrl());
 
-        book.setCoverUrl(imageUrl);
-        bookRepository.save(book);
+            book.setCoverUrl(cover.fullUrl());
+            book.setCoverThumbnailUrl(cover.thumbnailUrl());
+            book.setCoverCardUrl(cover.cardUrl());
+            book.setCoverPlaceholder(cover.placeholder());
+            bookRepository.save(book);
+            eventPublisher.publishEvent(new BookChangedEvent(bookId));
 
-        return new URLResponseDTO(imageUrl);
+            return cover.toResponse();
+        }));
     }
 
 
@@ -95,6 +137,7 @@ public class BookService{
         bookMapper.updateBookFromDto(request, book);
         
         book = bookRepository.save(book);
+        eventPublisher.publishEvent(new BookChangedEvent(id));
         return bookMapper.toResponse(book);
     }
 
@@ -102,24 +145,28 @@ public class BookService{
     public void deleteBook(Long id) {
         Book book = bookRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Livre non trouvé"));
-        if(book.getCoverUrl() != null && !book.getCoverUrl().isBlank()) {
-            try {
-                seaweedFStorageService.deleteFile(book.getCoverUrl());
-            } catch (Exception e) {
-                System.err.println("Erreur suppression ancienne cover : " + e.getMessage());
-            }
+        List<String> fileUrls = new ArrayList<>(Arrays.asList(book.getCoverUrl(), book.getCoverThumbnailUrl(), book.getCoverCardUrl()));
+        if (book.getPages() != null) {
+            fileUrls.addAll(pageService.contentUrls(book.getPages()));
         }
+        storageCleanupService.scheduleEntity(ObjectKeys.Entity.BOOK, book.getId(), fileUrls);
         if(book.getCollections() != null){
+            List<Long> collectionIds = book.getCollections().stream().map(Collection::getId).toList();
             for(Collection collection : book.getCollections()){
                 collection.getBooks().remove(book);
             }
             book.getCollections().clear();
+            counterService.booksRemovedFromCollections(collectionIds, 1);
+            collectionIds.forEach(collectionId -> eventPublisher.publishEvent(new CollectionChangedEvent(collectionId)));
         }
         pageService.deleteBookContent(book);
+        bookAssetService.deleteByBookIds(List.of(book.getId()));
         readingProgressRepository.deleteByBook(book);
         List<Report> reports = reportRepository.findByBookId(book.getId());
         reportRepository.deleteAll(reports);
+        counterService.reportsRemoved(book.getId(), book.getAuthor() != null ? book.getAuthor().getId() : null, reports.size());
         bookRepository.delete(book);
+        eventPublisher.publishEvent(new BookChangedEvent(id));
     }
 
     @Transactional
@@ -140,6 +187,7 @@ public class BookService{
         } else {
             ReadingProgress newProgress = readingProgressMapper.toNewEntity(reader, book);
             readingProgressRepository.save(newProgress);
+            counterService.readingProgressAdded(book.getId());
         }
 
     }
@@ -161,11 +209,164 @@ public class BookService{
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(cacheNames = CacheConfig.LIBRARY, key = "'public'")
     public List<BookResponseDTO> getPublicLibraryBooks() {
         return bookRepository.findDistinctByCollectionsIsNotEmptyAndStatus(BookStatus.PUBLISHED).stream()
                 .map(bookMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Change le statut d'un lot de livres de l'auteur : une requête pour la propriété, un UPDATE pour le lot.
+     * Ne publie rien : PUBLISHED n'est accepté que pour un livre qui a déjà une version publiée
+     * (republication après dépublication), les autres passent par l'éditeur.
+     */
+    @Transactional
+    public BulkBookResponseDTO bulkUpdateStatus(Long authorId, List<Long> bookIds, BookStatus status) {
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Le statut est obligatoire");
+        }
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(bookIds));
+        Map<Long, BookOwnership> rows = loadOwnership(ids);
+        List<BulkBookResultDTO> results = new ArrayList<>(ids.size());
+        List<Long> changed = new ArrayList<>();
+        for (Long id : ids) {
+            BookOwnership row = rows.get(id);
+            BulkItemStatus error = ownershipError(row, authorId);
+            if (error != null) {
+                results.add(new BulkBookResultDTO(id, error));
+            } else if (row.status() == status) {
+                results.add(new BulkBookResultDTO(id, BulkItemStatus.UNCHANGED));
+            } else if (status == BookStatus.PUBLISHED && row.publishedUrl() == null) {
+                results.add(new BulkBookResultDTO(id, BulkItemStatus.NO_PUBLISHED_CONTENT));
+            } else {
+                changed.add(id);
+                results.add(new BulkBookResultDTO(id, BulkItemStatus.DONE));
+            }
+        }
+        if (!changed.isEmpty()) {
+            bookRepository.updateStatus(changed, status, LocalDateTime.now());
+            eventPublisher.publishEvent(new BooksChangedEvent(changed));
+        }
+        return BulkBookResponseDTO.of(results);
+    }
+
+    /**
+     * Supprime un lot de livres de l'auteur avec des DELETE ensemblistes (appartenances, pages, progressions,
+     * signalements, livres) au lieu du parcours entité par entité de {@link #deleteBook(Long)}.
+     */
+    @Transactional
+    public BulkBookResponseDTO bulkDelete(Long authorId, List<Long> bookIds) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(bookIds));
+        Map<Long, BookOwnership> rows = loadOwnership(ids);
+        List<BulkBookResultDTO> results = new ArrayList<>(ids.size());
+        List<Long> owned = new ArrayList<>();
+        for (Long id : ids) {
+            BulkItemStatus error = ownershipError(rows.get(id), authorId);
+            results.add(new BulkBookResultDTO(id, error != null ? error : BulkItemStatus.DONE));
+            if (error == null) {
+                owned.add(id);
+            }
+        }
+        if (owned.isEmpty()) {
+            return BulkBookResponseDTO.of(results);
+        }
+
+        Map<Long, Long> removedPerCollection = collectionRepository.findIdsByBookIds(owned).stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        removedPerCollection.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                .forEach((count, collectionIds) -> counterService.booksRemovedFromCollections(collectionIds, count.intValue()));
+        collectionRepository.deleteMembershipsOfBooks(owned);
+
+        // Un préfixe par livre ; seuls les fichiers rangés ailleurs sont suivis un par un
+        Map<Long, List<String>> fileUrls = new HashMap<>();
+        owned.forEach(id -> {
+            BookOwnership row = rows.get(id);
+            fileUrls.put(id, new ArrayList<>(Arrays.asList(row.coverUrl(), row.coverThumbnailUrl(), row.coverCardUrl())));
+        });
+        pageRepository.findByBookIdIn(owned).forEach(page -> fileUrls.get(page.getBook().getId()).addAll(pageService.contentUrls(page)));
+        fileUrls.forEach((id, urls) -> storageCleanupService.scheduleEntity(ObjectKeys.Entity.BOOK, id, urls));
+        bookAssetService.deleteByBookIds(owned);
+
+        storyGraphService.deleteByBookIds(owned);
+        pageRepository.deleteByBookIds(owned);
+        draftOperationRepository.deleteByBookIds(owned);
+        readingProgressRepository.deleteByBookIds(owned);
+        counterService.authorReportsRemoved(authorId, reportRepository.countByBookIdIn(owned));
+        reportRepository.deleteByBookIds(owned);
+        bookRepository.deleteAllByIds(owned);
+
+        eventPublisher.publishEvent(new BooksChangedEvent(owned));
+        removedPerCollection.keySet().forEach(collectionId -> eventPublisher.publishEvent(new CollectionChangedEvent(collectionId)));
+        return BulkBookResponseDTO.of(results);
+    }
+
+    public BookPageResponseDTO getPublicLibraryPage(String cursor, BookSort sort, Integer limit) {
+        BookCursor after = BookCursor.decode(cursor, sort);
+        int size = pageSize(limit);
+        List<BookSummaryDTO> rows = sort == BookSort.MOST_READ
+                ? bookRepository.findLibraryPageByMostRead(BookStatus.PUBLISHED, after.views(), after.id(), probe(size))
+                : bookRepository.findLibraryPageByNewest(BookStatus.PUBLISHED, after.createdAt(), after.id(), probe(size));
+        return toPage(rows, size, sort);
+    }
+
+    public BookPageResponseDTO getPublishedPage(String cursor, BookSort sort, Integer limit) {
+        BookCursor after = BookCursor.decode(cursor, sort);
+        int size = pageSize(limit);
+        List<BookSummaryDTO> rows = sort == BookSort.MOST_READ
+                ? bookRepository.findStatusPageByMostRead(BookStatus.PUBLISHED, after.views(), after.id(), probe(size))
+                : bookRepository.findStatusPageByNewest(BookStatus.PUBLISHED, after.createdAt(), after.id(), probe(size));
+        return toPage(rows, size, sort);
+    }
+
+    public BookPageResponseDTO getAuthorPage(Long authorId, String cursor, Integer limit) {
+        BookCursor after = BookCursor.decode(cursor, BookSort.NEWEST);
+        int size = pageSize(limit);
+        return toPage(bookRepository.findAuthorPageByNewest(authorId, after.createdAt(), after.id(), probe(size)),
+                size, BookSort.NEWEST);
+    }
 
+    public BookPageResponseDTO getMyBagPage(Long userId, String cursor, Integer limit) {
+        BookCursor after = BookCursor.decode(cursor, BookSort.NEWEST);
+        int size = pageSize(limit);
+        return toPage(bookRepository.findBagPageByNewest(userId, after.createdAt(), after.id(), probe(size)),
+                size, BookSort.NEWEST);
+    }
+
+    private Map<Long, BookOwnership> loadOwnership(List<Long> ids) {
+        return bookRepository.findOwnershipByIds(ids).stream()
+                .collect(Collectors.toMap(BookOwnership::id, Function.identity()));
+    }
+
+    private static BulkItemStatus ownershipError(BookOwnership row, Long authorId) {
+        if (row == null) {
+            return BulkItemStatus.NOT_FOUND;
+        }
+        return authorId.equals(row.authorId()) ? null : BulkItemStatus.FORBIDDEN;
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // On lit une ligne de plus que demandé pour savoir s'il reste une page, sans requête COUNT.
+    private Pageable probe(int size) {
+        return PageRequest.ofSize(size + 1);
+    }
+
+    private BookPageResponseDTO toPage(List<BookSummaryDTO> rows, int size, BookSort sort) {
+        boolean hasMore = rows.size() > size;
+        List<BookSummaryDTO> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            BookSummaryDTO last = items.get(items.size() - 1);
+            nextCursor = BookCursor.after(sort, last.getCreatedAt(), last.getViews(), last.getId()).encode();
+        }
+        return new BookPageResponseDTO(items, nextCursor, hasMore);
+    }
 }
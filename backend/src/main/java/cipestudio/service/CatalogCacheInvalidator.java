@@ -0,0 +1,56 @@
+package cipestudio.service;
+
+import cipestudio.config.CacheConfig;
+import cipestudio.event.BookChangedEvent;
+import cipestudio.event.BooksChangedEvent;
+import cipestudio.event.CollectionChangedEvent;
+import cipestudio.repository.CollectionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Invalide les caches de lecture du catalogue après validation des écritures.
+ * <p>
+ * Un livre modifié sort de son entrée, de la bibliothèque publique et du détail des collections
+ * qui le contiennent ; une collection modifiée sort de son entrée et de la bibliothèque publique.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheInvalidator {
+    private static final String PUBLIC_LIBRARY_KEY = "public";
+
+    private final CacheManager cacheManager;
+    private final CollectionRepository collectionRepository;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        evict(CacheConfig.BOOKS, event.bookId());
+        evict(CacheConfig.LIBRARY, PUBLIC_LIBRARY_KEY);
+        collectionRepository.findIdsByBookId(event.bookId())
+                .forEach(collectionId -> evict(CacheConfig.COLLECTIONS, collectionId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        event.bookIds().forEach(bookId -> evict(CacheConfig.BOOKS, bookId));
+        evict(CacheConfig.LIBRARY, PUBLIC_LIBRARY_KEY);
+        collectionRepository.findIdsByBookIds(event.bookIds()).stream().distinct()
+                .forEach(collectionId -> evict(CacheConfig.COLLECTIONS, collectionId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        evict(CacheConfig.COLLECTIONS, event.collectionId());
+        evict(CacheConfig.LIBRARY, PUBLIC_LIBRARY_KEY);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
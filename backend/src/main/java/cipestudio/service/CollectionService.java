@@ -1,9 +1,14 @@
 package cipestudio.service;
 
+import cipestudio.config.CacheConfig;
+import cipestudio.dto.book.BulkBookResponseDTO;
+import cipestudio.dto.book.BulkBookResultDTO;
 import cipestudio.dto.collection.CollectionDetailResponseDTO;
 import cipestudio.dto.collection.CollectionRequestDTO;
 import cipestudio.dto.collection.CollectionResponseDTO;
 import cipestudio.dto.user.URLResponseDTO;
+import cipestudio.enums.BulkItemStatus;
+import cipestudio.event.CollectionChangedEvent;
 import cipestudio.mapper.CollectionMapper;
 import cipestudio.model.Book;
 import cipestudio.model.Collection;
@@ -14,13 +19,22 @@ import cipestudio.repository.CollectionRepository;
 import cipestudio.repository.ReadingProgressRepository;
 import cipestudio.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,9 +43,13 @@ public class CollectionService{
     private final CollectionRepository collectionRepository;
     private final UserRepository userRepository;
     private final CollectionMapper collectionMapper;
-    private final SeaweedFStorageService SEAWEEDFSStorageService;
+    private final ImageVariantService imageVariantService;
     private final BookRepository bookRepository;
     private final ReadingProgressRepository readingProgressRepository;
+    private final CounterService counterService;
+    private final StorageCleanupService storageCleanupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
 
     @Transactional
@@ -39,26 +57,28 @@ public class CollectionService{
         User editor = userRepository.findById(editorId).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Éditeur non trouvé")
         );
-        Collection collection = collectionMapper.toEntity(request, editor);
-        return collectionMapper.toResponse(collectionRepository.save(collection));
+        Collection collection = collectionRepository.save(collectionMapper.toEntity(request, editor));
+        eventPublisher.publishEvent(new CollectionChangedEvent(collection.getId()));
+        return collectionMapper.toResponse(collection);
     }
 
-    @Transactional
-    public URLResponseDTO updateCollectionCover(Long collectionId, MultipartFile file) {
-        Collection collection = collectionRepository.findById(collectionId).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.NOT_FOUND,  "Collection non trouvée")
-        );
-        if(collection.getCoverUrl() != null && !collection.getCoverUrl().isBlank()) {
-            try {
-                SEAWEEDFSStorageService.deleteFile(collection.getCoverUrl());
-            }catch (Exception e) {
-                System.err.println("Erreur suppression ancienne cover : " + e.getMessage());
-            }
+    public CompletableFuture<URLResponseDTO> updateCollectionCover(Long collectionId, InputStreamSource file) {
+        if (!collectionRepository.existsById(collectionId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Collection non trouvée");
         }
-        String url = SEAWEEDFSStorageService.uploadFile(file);
-        collection.setCoverUrl(url);
-        collectionRepository.save(collection);
-        return new URLResponseDTO(url);
+        return imageVariantService.storeAndCommit(ObjectKeys.collectionCover(collectionId), file, cover -> transactionTemplate.execute(status -> {
+            Collection collection = collectionRepository.findById(collectionId).orElseThrow(
+                    () -> new ResponseStatusException(HttpStatus.NOT_FOUND,  "Collection non trouvée")
+            );
+            storageCleanupService.schedule(collection.getCoverUrl(), collection.getCoverThumbnailUrl(), collection.getCoverCardUrl());
+            collection.setCoverUrl(cover.fullUrl());
+            collection.setCoverThumbnailUrl(cover.thumbnailUrl());
+            collection.setCoverCardUrl(cover.cardUrl());
+            collection.setCoverPlaceholder(cover.placeholder());
+            collectionRepository.save(collection);
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionId));
+            return cover.toResponse();
+        }));
     }
 
     public List<CollectionResponseDTO> getMyCollections(Long editorId){
@@ -81,11 +101,68 @@ public class CollectionService{
         if (!collection.getBooks().contains(book)) {
             collection.addBook(book);
             collectionRepository.save(collection);
+            counterService.booksAddedToCollections(List.of(collectionId), 1);
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionId));
+        }
+    }
+
+    /**
+     * Ajoute un lot de livres : deux lectures (existants, déjà membres) puis un seul INSERT ... SELECT.
+     * La ligne de la collection est verrouillée d'abord : deux ajouts concurrents ne lisent pas les mêmes membres.
+     */
+    @Transactional
+    public BulkBookResponseDTO addBooksToCollection(Long collectionId, List<Long> bookIds) {
+        if (collectionRepository.lockById(collectionId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Collection non trouvée");
+        }
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(bookIds));
+        Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(ids));
+        Set<Long> members = new HashSet<>(collectionRepository.findMemberBookIds(collectionId, ids));
+        List<BulkBookResultDTO> results = new ArrayList<>(ids.size());
+        List<Long> added = new ArrayList<>();
+        for (Long id : ids) {
+            if (!existing.contains(id)) {
+                results.add(new BulkBookResultDTO(id, BulkItemStatus.NOT_FOUND));
+            } else if (members.contains(id)) {
+                results.add(new BulkBookResultDTO(id, BulkItemStatus.UNCHANGED));
+            } else {
+                added.add(id);
+                results.add(new BulkBookResultDTO(id, BulkItemStatus.DONE));
+            }
+        }
+        if (!added.isEmpty()) {
+            collectionRepository.insertBooks(collectionId, added);
+            counterService.booksAddedToCollections(List.of(collectionId), added.size());
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionId));
+        }
+        return BulkBookResponseDTO.of(results);
+    }
+
+    /** Retire un lot de livres ; ceux qui ne sont plus dans aucune collection sortent du sac des lecteurs. */
+    @Transactional
+    public BulkBookResponseDTO removeBooksFromCollection(Long collectionId, List<Long> bookIds) {
+        requireCollection(collectionId);
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(bookIds));
+        Set<Long> members = new HashSet<>(collectionRepository.findMemberBookIds(collectionId, ids));
+        Set<Long> existing = members.size() == ids.size() ? members : new HashSet<>(bookRepository.findExistingIds(ids));
+        List<BulkBookResultDTO> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BulkItemStatus status = members.contains(id) ? BulkItemStatus.DONE
+                    : existing.contains(id) ? BulkItemStatus.UNCHANGED : BulkItemStatus.NOT_FOUND;
+            results.add(new BulkBookResultDTO(id, status));
+        }
+        if (!members.isEmpty()) {
+            collectionRepository.deleteBooks(collectionId, members);
+            counterService.booksRemovedFromCollections(List.of(collectionId), members.size());
+            readingProgressRepository.disownBooksOutsideCollections(members);
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionId));
         }
+        return BulkBookResponseDTO.of(results);
     }
 
+    @Cacheable(cacheNames = CacheConfig.COLLECTIONS, key = "#id")
     public CollectionDetailResponseDTO getCollectionById(Long id) {
-        Collection collection = collectionRepository.findById(id).orElseThrow(
+        Collection collection = collectionRepository.findWithBooksById(id).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Collection non trouvée")
         );
         return collectionMapper.toDetailResponse(collection);
@@ -99,8 +176,13 @@ public class CollectionService{
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Livre non trouvé"));
 
+        boolean removed = collection.getBooks().contains(book);
         collection.removeBook(book);
         collectionRepository.save(collection);
+        if (removed) {
+            counterService.booksRemovedFromCollections(List.of(collectionId), 1);
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionId));
+        }
         if (book.getCollections().isEmpty()) {
             List<ReadingProgress> progresses = readingProgressRepository.findByBook(book);
             progresses.forEach(p -> p.setIsOwned(false));
@@ -114,13 +196,8 @@ public class CollectionService{
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Collection non trouvée")
         );
 
-        if (collection.getCoverUrl() != null && !collection.getCoverUrl().isBlank()) {
-            try {
-                SEAWEEDFSStorageService.deleteFile(collection.getCoverUrl());
-            } catch (Exception e) {
-                System.err.println("Erreur suppression cover MinIO : " + e.getMessage());
-            }
-        }
+        storageCleanupService.scheduleEntity(ObjectKeys.Entity.COLLECTION, id,
+                Arrays.asList(collection.getCoverUrl(), collection.getCoverThumbnailUrl(), collection.getCoverCardUrl()));
         List<Book> affectedBooks = List.copyOf(collection.getBooks());
 
         if (collection.getBooks() != null) {
@@ -132,6 +209,7 @@ public class CollectionService{
 
         collectionRepository.saveAndFlush(collection);
         collectionRepository.delete(collection);
+        eventPublisher.publishEvent(new CollectionChangedEvent(id));
 
         for (Book book : affectedBooks) {
             Book freshBook = bookRepository.findById(book.getId()).orElseThrow(null);
@@ -152,8 +230,15 @@ public class CollectionService{
         
         
         collectionMapper.updateCollectionFromDto(request, collection);
-        
-        return collectionMapper.toResponse(collectionRepository.save(collection));
+        collection = collectionRepository.save(collection);
+        eventPublisher.publishEvent(new CollectionChangedEvent(collectionId));
+
+        return collectionMapper.toResponse(collection);
+    }
+
+    private void requireCollection(Long collectionId) {
+        if (!collectionRepository.existsById(collectionId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Collection non trouvée");
+        }
     }
-    
 }
@@ -0,0 +1,250 @@
+package cipestudio.service;
+
+import cipestudio.dto.admin.ContentCacheStatsDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Copie locale, sur disque, des contenus publiés lus depuis le bucket.
+ * <p>
+ * Chaque objet est stocké une fois, compressé en gzip, sous le SHA-256 de sa clé : les clés publiées
+ * ne sont jamais réécrites (version unique par publication ou adressage par contenu), un fichier en cache
+ * ne devient donc jamais périmé. Au-delà du budget disque, les fichiers les moins récemment servis sont supprimés.
+ * <p>
+ * Chaque {@link Entry} tient le fichier ouvert : une éviction pendant l'envoi supprime le nom, pas le contenu
+ * en cours de lecture. L'appelant ferme l'entrée une fois la réponse écrite.
+ */
+@Service
+@RequiredArgsConstructor
+public class ContentDiskCache {
+    private static final String SUFFIX = ".json.gz";
+
+    private final SeaweedFStorageService storageService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${content-cache.path:data/content-cache}")
+    private String cachePath;
+
+    @Value("${content-cache.max-size:1GB}")
+    private DataSize maxSize;
+
+    /** Fichier ouvert, prêt à être servi tel quel (Content-Encoding: gzip). */
+    public record Entry(Path file, FileChannel channel, long length, String eTag) implements Closeable {
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private Path directory;
+    // Ordre d'accès : le premier élément est le moins récemment servi. Protégé par "this".
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private final Map<String, CompletableFuture<Void>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** Reprend les fichiers déjà présents (les plus anciens en premier dans l'ordre LRU). */
+    @PostConstruct
+    public void initialize() {
+        directory = Path.of(cachePath);
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.toList();
+            }
+            List<Path> cached = files.stream().filter(file -> file.toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(ContentDiskCache::lastModified)).toList();
+            // Restes d'un remplissage interrompu.
+            for (Path file : files) {
+                if (!file.toString().endsWith(SUFFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            synchronized (this) {
+                for (Path file : cached) {
+                    long size = Files.size(file);
+                    sizes.put(file.getFileName().toString(), size);
+                    totalBytes += size;
+                }
+                evictOverBudget(null);
+            }
+            System.out.println("Cache de contenu : " + cached.size() + " fichier(s) repris dans " + directory.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'initialiser le cache de contenu " + cachePath, e);
+        }
+    }
+
+    /** ETag du contenu d'une clé, calculable sans lire le contenu (la clé ne change jamais de contenu). */
+    public static String eTagOf(String objectKey) {
+        return "\"" + fileNameOf(objectKey).substring(0, 32) + "\"";
+    }
+
+    /** Renvoie le fichier en cache, après l'avoir téléchargé depuis le bucket si besoin. */
+    public Entry get(String objectKey) {
+        String name = fileNameOf(objectKey);
+        Path file = directory.resolve(name);
+        // Ouvert sous le verrou : l'éviction, qui le prend aussi, ne peut pas passer entre le test et l'ouverture.
+        synchronized (this) {
+            Long size = sizes.get(name);
+            if (size != null) {
+                try {
+                    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                    hits.incrementAndGet();
+                    return new Entry(file, channel, size, eTagOf(objectKey));
+                } catch (NoSuchFileException e) {
+                    // Supprimé hors de l'application : rechargé comme un absent.
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Impossible d'ouvrir " + file, e);
+                }
+            }
+        }
+        misses.incrementAndGet();
+
+        // Un seul téléchargement par clé, même si plusieurs lecteurs la demandent en même temps.
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> pending = loading.putIfAbsent(name, mine);
+        if (pending != null) {
+            try {
+                pending.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+            // Chaque lecteur ouvre sa propre entrée.
+            return get(objectKey);
+        }
+        try {
+            Entry entry = fill(objectKey, file);
+            synchronized (this) {
+                Long previous = sizes.put(name, entry.length());
+                totalBytes += entry.length() - (previous == null ? 0 : previous);
+                evictOverBudget(name);
+            }
+            mine.complete(null);
+            return entry;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(name, mine);
+        }
+    }
+
+    public ContentCacheStatsDTO getStats() {
+        synchronized (this) {
+            return new ContentCacheStatsDTO(sizes.size(), totalBytes, maxSize.toBytes(),
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+
+    // Écrit dans un fichier temporaire puis renomme : un lecteur ne voit jamais un fichier partiel.
+    private Entry fill(String objectKey, Path file) {
+        Path tmp = null;
+        try (SeaweedFStorageService.ObjectContent object = storageService.openObject(objectKey);
+             InputStream gzip = toGzip(object)) {
+            tmp = Files.createTempFile(directory, "fill-", ".tmp");
+            long length = Files.copy(gzip, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // Pas encore dans "sizes" : aucune éviction ne peut le supprimer avant son ouverture.
+            return new Entry(file, FileChannel.open(file, StandardOpenOption.READ), length, eTagOf(objectKey));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de mettre en cache " + objectKey, e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // Nettoyé au prochain démarrage.
+                }
+            }
+        }
+    }
+
+    /**
+     * Tout est mis en cache au même format : gzip du JSON brut. Les objets compressés sont copiés tels quels,
+     * les anciens objets encodés deux fois (une chaîne JSON contenant le JSON) sont déballés.
+     */
+    private InputStream toGzip(SeaweedFStorageService.ObjectContent object) throws IOException {
+        if ("gzip".equalsIgnoreCase(object.contentEncoding())) {
+            return object.stream();
+        }
+        BufferedInputStream raw = new BufferedInputStream(object.stream());
+        if (StoredJson.isDoubleEncoded(raw)) {
+            return GzipContentStream.of(objectMapper.readValue(raw, String.class));
+        }
+        return GzipContentStream.of(raw);
+    }
+
+    // Appelé sous le verrou. "keep" : fichier qui vient d'être rempli et va être servi.
+    private void evictOverBudget(String keep) {
+        Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+        while (totalBytes > maxSize.toBytes() && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            try {
+                // Un lecteur qui a déjà ouvert le fichier continue de le lire après sa suppression.
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            } catch (IOException e) {
+                System.err.println("Impossible de supprimer du cache " + entry.getKey() + " : " + e.getMessage());
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static String fileNameOf(String objectKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime();
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package cipestudio.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Empreinte agrégée d'une liste de livres, calculée en base sans charger les entités.
+ * Le nombre et les sommes d'ids couvrent les ajouts/retraits, update_at les modifications,
+ * les sommes de compteurs les colonnes matérialisées (mises à jour sans toucher update_at).
+ */
+public record ContentVersion(Long count, Long idSum, Long idSquareSum, LocalDateTime lastUpdate,
+                             Long viewsSum, Long reportsSum) {
+}
@@ -0,0 +1,86 @@
+package cipestudio.service;
+
+import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import cipestudio.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Compteurs matérialisés de Book, Collection et User.
+ * Les services les incrémentent par UPDATE atomique dans leur propre transaction,
+ * et {@link #reconcile()} recalcule depuis les tables sources pour corriger toute dérive.
+ */
+@Service
+@RequiredArgsConstructor
+public class CounterService {
+    private final BookRepository bookRepository;
+    private final CollectionRepository collectionRepository;
+    private final UserRepository userRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void readingProgressAdded(Long bookId) {
+        bookRepository.incrementViews(bookId, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reportsAdded(Long bookId, Long authorId, int count) {
+        bookRepository.incrementReportsCount(bookId, count);
+        if (authorId != null) {
+            userRepository.incrementSignalements(authorId, count);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reportsRemoved(Long bookId, Long authorId, int count) {
+        if (count > 0) {
+            reportsAdded(bookId, authorId, -count);
+        }
+    }
+
+    // Suppression en masse : les livres disparaissent, seul le compteur de l'auteur reste à corriger.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void authorReportsRemoved(Long authorId, long count) {
+        if (authorId != null && count > 0) {
+            userRepository.incrementSignalements(authorId, (int) -count);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void booksAddedToCollections(Collection<Long> collectionIds, int count) {
+        if (!collectionIds.isEmpty()) {
+            collectionRepository.incrementBooksCount(collectionIds, count);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void booksRemovedFromCollections(Collection<Long> collectionIds, int count) {
+        booksAddedToCollections(collectionIds, -count);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${counters.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    @Transactional
+    public int reconcile() {
+        int repaired = bookRepository.reconcileViews()
+                + bookRepository.reconcileReportsCount()
+                + collectionRepository.reconcileBooksCount()
+                + userRepository.reconcileSignalements();
+        if (repaired > 0) {
+            System.out.println("Compteurs réconciliés : " + repaired + " ligne(s) corrigée(s)");
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,191 @@
+package cipestudio.service;
+
+import cipestudio.dto.page.BookContentRequestDTO;
+import cipestudio.dto.page.BookContentResponseDTO;
+import cipestudio.dto.upload.FinalizeUploadRequestDTO;
+import cipestudio.dto.upload.UploadUrlRequestDTO;
+import cipestudio.dto.upload.UploadUrlResponseDTO;
+import cipestudio.enums.BookStatus;
+import cipestudio.enums.UploadTarget;
+import cipestudio.exceptions.StorageException;
+import cipestudio.service.storage.ObjectInfo;
+import cipestudio.validation.StoryContentScanner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Envois directs vers le bucket, en deux temps : le client obtient une URL signée, y dépose le fichier,
+ * puis finalise. Le fichier ne transite plus par l'application à l'envoi.
+ * <p>
+ * La clé de dépôt (uploads/{utilisateur}/{cible}/{id}/{uuid}) lie l'envoi à son auteur et à sa cible :
+ * la finalisation refuse toute autre clé, vérifie taille et type de l'objet déposé, puis le passe aux
+ * traitements habituels (variantes d'image, contrôle et découpage du contenu). Le dépôt est supprimé
+ * ensuite ; sa suppression est aussi programmée dès la signature, pour les envois jamais finalisés.
+ */
+@Service
+@RequiredArgsConstructor
+public class DirectUploadService {
+    private static final String STAGING_PREFIX = "uploads/";
+    private static final Set<String> IMAGE_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/bmp");
+    private static final String CONTENT_TYPE = "application/json";
+
+    private final SeaweedFStorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+    private final PageService pageService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${storage.upload.presign-expiry:15m}")
+    private Duration presignExpiry;
+
+    // Délai laissé pour finaliser après l'expiration du lien, avant suppression du dépôt
+    @Value("${storage.upload.finalize-grace:1h}")
+    private Duration finalizeGrace;
+
+    @Value("${storage.upload.max-image-size:5MB}")
+    private DataSize maxImageSize;
+
+    @Value("${storage.upload.max-content-size:20MB}")
+    private DataSize maxContentSize;
+
+    public UploadUrlResponseDTO createUploadUrl(UploadTarget target, Long targetId, Long userId, UploadUrlRequestDTO request) {
+        String contentType = mediaType(request.getContentType());
+        checkType(target, contentType);
+        checkSize(target, request.getSize());
+
+        String objectKey = stagingPrefix(target, targetId, userId) + UUID.randomUUID();
+        String uploadUrl = storageService.presignUpload(objectKey, contentType, presignExpiry);
+        LocalDateTime expiresAt = LocalDateTime.now().plus(presignExpiry);
+        storageCleanupService.scheduleKeyAt(objectKey, expiresAt.plus(finalizeGrace));
+        return new UploadUrlResponseDTO(uploadUrl, "PUT", Map.of(HttpHeaders.CONTENT_TYPE, contentType), objectKey, expiresAt);
+    }
+
+    /**
+     * Passe l'image déposée à store (variantes puis enregistrement, voir ImageVariantService.storeAndCommit).
+     * Le dépôt est supprimé une fois store terminé, avec ou sans succès.
+     */
+    public <T> CompletableFuture<T> finalizeImage(UploadTarget target, Long targetId, Long userId, String objectKey,
+                                                  Function<InputStreamSource, CompletableFuture<T>> store) {
+        InputStreamSource staged = claim(target, targetId, userId, objectKey);
+        CompletableFuture<T> stored;
+        try {
+            stored = store.apply(staged);
+        } catch (RuntimeException e) {
+            discard(objectKey);
+            throw e;
+        }
+        return stored.whenComplete((result, error) -> discard(objectKey));
+    }
+
+    /** Contenu déposé enregistré comme un PUT /page/{bookId}/content, après le même contrôle de sûreté. */
+    public BookContentResponseDTO finalizeContent(Long bookId, Long userId, FinalizeUploadRequestDTO request) {
+        if (request.getBookStatus() != BookStatus.DRAFT && request.getBookStatus() != BookStatus.PUBLISHED) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Statut de livre non supporté");
+        }
+        String objectKey = request.getObjectKey();
+        claim(UploadTarget.BOOK_CONTENT, bookId, userId, objectKey);
+        try {
+            String content = readContent(objectKey);
+            StoryContentScanner.scan(content).ifPresent(violation -> {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violation.message());
+            });
+
+            BookContentRequestDTO contentRequest = new BookContentRequestDTO();
+            contentRequest.setBookContent(content);
+            contentRequest.setBookStatus(request.getBookStatus());
+            return pageService.updateBookContent(bookId, contentRequest);
+        } finally {
+            discard(objectKey);
+        }
+    }
+
+    // Dépôt de cet utilisateur pour cette cible, présent, de taille et de type acceptés.
+    private InputStreamSource claim(UploadTarget target, Long targetId, Long userId, String objectKey) {
+        if (objectKey == null || !objectKey.startsWith(stagingPrefix(target, targetId, userId)) || objectKey.contains("..")) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cet envoi ne correspond pas à cette ressource");
+        }
+        ObjectInfo info = storageService.statObject(objectKey)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier envoyé introuvable (envoi non terminé ou expiré)"));
+        try {
+            checkSize(target, info.size());
+            checkType(target, mediaType(info.contentType()));
+        } catch (ResponseStatusException e) {
+            discard(objectKey);
+            throw e;
+        }
+        return () -> storageService.openObject(objectKey).stream();
+    }
+
+    // Lecture bornée : l'objet a pu être remplacé depuis la vérification de sa taille.
+    private String readContent(String objectKey) {
+        long limit = maxContentSize.toBytes();
+        try (InputStream in = StoredJson.rawJson(storageService.openObject(objectKey), objectMapper)) {
+            byte[] bytes = in.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, limit + 1));
+            if (bytes.length > limit) {
+                throw tooLarge(UploadTarget.BOOK_CONTENT);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new StorageException("Erreur lors de la lecture du fichier envoyé: " + e.getMessage(), e);
+        }
+    }
+
+    private void discard(String objectKey) {
+        storageCleanupService.scheduleKeyAt(objectKey, LocalDateTime.now());
+    }
+
+    private void checkType(UploadTarget target, String contentType) {
+        boolean accepted = target.isImage() ? IMAGE_TYPES.contains(contentType) : CONTENT_TYPE.equals(contentType);
+        if (!accepted) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, target.isImage()
+                    ? "Format d'image non supporté (JPEG, PNG, GIF ou BMP)"
+                    : "Le contenu doit être envoyé en application/json");
+        }
+    }
+
+    private void checkSize(UploadTarget target, long size) {
+        if (size > maxSize(target).toBytes()) {
+            throw tooLarge(target);
+        }
+    }
+
+    private ResponseStatusException tooLarge(UploadTarget target) {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Fichier trop volumineux (maximum " + maxSize(target).toMegabytes() + " Mo)");
+    }
+
+    private DataSize maxSize(UploadTarget target) {
+        return target.isImage() ? maxImageSize : maxContentSize;
+    }
+
+    private static String stagingPrefix(UploadTarget target, Long targetId, Long userId) {
+        return STAGING_PREFIX + userId + "/" + target.getSlug() + "/" + targetId + "/";
+    }
+
+    // "image/JPEG; charset=..." -> "image/jpeg"
+    static String mediaType(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        int parameters = contentType.indexOf(';');
+        return (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,290 @@
+package cipestudio.service;
+
+import cipestudio.dto.page.DraftDocumentDTO;
+import cipestudio.dto.page.DraftPatchResponseDTO;
+import cipestudio.model.DraftOperation;
+import cipestudio.model.Page;
+import cipestudio.repository.DraftOperationRepository;
+import cipestudio.repository.PageRepository;
+import cipestudio.validation.StoryContentScanner;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sauvegarde incrémentale des brouillons.
+ * <p>
+ * L'éditeur envoie un JSON Patch (RFC 6902) par autosauvegarde au lieu de l'histoire entière. Les patchs
+ * sont journalisés en base (draft_operation) et appliqués au document gardé en mémoire ; le journal est
+ * fusionné dans un nouvel instantané (Page.draftUrl) dès qu'il devient trop long, par la tâche planifiée seulement :
+ * la relecture sert le document en mémoire (voir getDocument) sans rien réécrire.
+ * Chaque patch porte la version sur laquelle il a été calculé : une version dépassée est refusée (409)
+ * et l'éditeur renvoie alors le contenu complet.
+ */
+@Service
+@RequiredArgsConstructor
+public class DraftService {
+    private static final int LOCK_STRIPES = 64;
+
+    private final PageRepository pageRepository;
+    private final DraftOperationRepository draftOperationRepository;
+    private final SeaweedFStorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${drafts.compaction.max-log-size:256KB}")
+    private DataSize maxLogSize;
+
+    @Value("${drafts.compaction.max-operations:500}")
+    private long maxOperations;
+
+    // Budget des documents gardés en mémoire (poids approché : taille JSON de l'instantané + des patchs)
+    @Value("${drafts.memory-budget:64MB}")
+    private DataSize memoryBudget;
+
+    // Sérialise les écritures d'un même brouillon sur cette instance (le verrou de ligne protège entre instances).
+    private final Object[] locks = newLocks();
+    private Cache<Long, Materialized> documents;
+
+    /** Document du brouillon à une version donnée ; modifié sur place par les patchs suivants. */
+    private record Materialized(long version, JsonNode document, long weight) {
+    }
+
+    @PostConstruct
+    void initialize() {
+        documents = Caffeine.newBuilder()
+                .maximumWeight(memoryBudget.toBytes())
+                .weigher((Long bookId, Materialized doc) -> (int) Math.min(Integer.MAX_VALUE, doc.weight()))
+                .build();
+    }
+
+    public DraftPatchResponseDTO applyPatch(Long bookId, long baseVersion, JsonNode operations) {
+        if (operations == null || !operations.isArray()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "le patch doit être un tableau d'opérations");
+        }
+        String patch = toJson(operations);
+        // Même contrôle que pour le contenu complet : un patch ne doit pas permettre d'injecter du code
+        StoryContentScanner.scan(patch).ifPresent(violation -> {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violation.message());
+        });
+        int size = patch.getBytes(StandardCharsets.UTF_8).length;
+
+        synchronized (lockFor(bookId)) {
+            Page page = findPage(bookId);
+            if (page.getDraftUrl() == null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "aucun brouillon enregistré : envoyer le contenu complet");
+            }
+            if (page.getDraftVersion() != baseVersion) {
+                throw conflict(page.getDraftVersion());
+            }
+            try {
+                Materialized current = materialize(page);
+                JsonNode next = JsonPatch.apply(current.document(), operations);
+                long version = baseVersion + 1;
+                transactionTemplate.executeWithoutResult(status -> {
+                    Page locked = pageRepository.findByBookIdForUpdate(bookId).orElseThrow();
+                    if (locked.getDraftVersion() != baseVersion) {
+                        throw conflict(locked.getDraftVersion());
+                    }
+                    draftOperationRepository.save(new DraftOperation(bookId, version, patch, size));
+                    locked.setDraftVersion(version);
+                });
+                documents.put(bookId, new Materialized(version, next, current.weight() + size));
+                return new DraftPatchResponseDTO(version, LocalDateTime.now());
+            } catch (IllegalArgumentException e) {
+                // Le document a pu être modifié en partie avant l'opération fautive
+                documents.invalidate(bookId);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            } catch (RuntimeException e) {
+                documents.invalidate(bookId);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Enregistre un brouillon complet : il devient l'instantané de référence et le journal est vidé.
+     * Retourne l'URL du nouvel instantané.
+     */
+    public String saveFull(Page page, String content) {
+        Long bookId = page.getBook().getId();
+        synchronized (lockFor(bookId)) {
+            String draftUrl = storageService.uploadJsonContent(content, ObjectKeys.bookDraft(bookId));
+            transactionTemplate.executeWithoutResult(status -> {
+                // Relu sous verrou : une compaction a pu remplacer l'instantané depuis le chargement de la page.
+                Page current = pageRepository.findByBookIdForUpdate(bookId).orElse(page);
+                long version = current.getDraftVersion() + 1;
+                // Après l'upload : si celui-ci échoue, l'ancien brouillon reste référencé et ne doit pas disparaître.
+                storageCleanupService.schedule(current.getDraftUrl());
+                // Ligne verrouillée modifiée seule : page, chargée plus tôt, écraserait une publication concurrente
+                current.setDraftUrl(draftUrl);
+                current.setDraftVersion(version);
+                current.setDraftSnapshotVersion(version);
+                pageRepository.save(current);
+                draftOperationRepository.deleteUpTo(bookId, version);
+                // Copie pour l'appelant (version rendue au client), jamais réenregistrée
+                page.setDraftUrl(draftUrl);
+                page.setDraftVersion(version);
+                page.setDraftSnapshotVersion(version);
+            });
+            documents.invalidate(bookId);
+            return draftUrl;
+        }
+    }
+
+    /**
+     * Brouillon à sa dernière version : instantané et journal appliqués, depuis la mémoire si possible.
+     * Rien n'est écrit au stockage ; la fusion reste l'affaire de compactLongLogs.
+     */
+    public DraftDocumentDTO getDocument(Long bookId) {
+        synchronized (lockFor(bookId)) {
+            Page page = findPage(bookId);
+            if (page.getDraftUrl() == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "aucun brouillon enregistré");
+            }
+            Materialized current = materialize(page);
+            documents.put(bookId, current);
+            // Copie sous le verrou : les patchs suivants modifient le document sur place
+            return new DraftDocumentDTO(current.version(), current.document().deepCopy());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${drafts.compaction.interval-ms:30000}",
+            initialDelayString = "${drafts.compaction.interval-ms:30000}")
+    public void compactLongLogs() {
+        for (Long bookId : draftOperationRepository.findBookIdsToCompact(maxLogSize.toBytes(), maxOperations)) {
+            try {
+                compact(bookId);
+            } catch (Exception e) {
+                System.err.println("Compaction du brouillon " + bookId + " impossible : " + e.getMessage());
+            }
+        }
+    }
+
+    public void compact(Long bookId) {
+        long version;
+        String json;
+        synchronized (lockFor(bookId)) {
+            Page page = findPage(bookId);
+            if (page.getDraftVersion() <= page.getDraftSnapshotVersion()) {
+                return;
+            }
+            Materialized current = materialize(page);
+            version = current.version();
+            // Sérialisé sous le verrou : les patchs suivants modifient le document sur place.
+            json = toJson(current.document());
+        }
+        // Upload hors verrou : les autosauvegardes continuent pendant ce temps.
+        String snapshotUrl = storageService.uploadJsonContent(json, ObjectKeys.bookDraft(bookId));
+        boolean applied = transactionTemplate.execute(status -> {
+            Page locked = pageRepository.findByBookIdForUpdate(bookId).orElseThrow();
+            if (locked.getDraftSnapshotVersion() >= version) {
+                // Un brouillon complet a été enregistré entre-temps
+                return false;
+            }
+            storageCleanupService.schedule(locked.getDraftUrl());
+            locked.setDraftUrl(snapshotUrl);
+            locked.setDraftSnapshotVersion(version);
+            draftOperationRepository.deleteUpTo(bookId, version);
+            return true;
+        });
+        if (!applied) {
+            storageCleanupService.schedule(snapshotUrl);
+        }
+    }
+
+    private Materialized materialize(Page page) {
+        Long bookId = page.getBook().getId();
+        Materialized cached = documents.getIfPresent(bookId);
+        if (cached != null && cached.version() == page.getDraftVersion()) {
+            return cached;
+        }
+        try (SeaweedFStorageService.ObjectContent object = storageService.openObject(storageService.objectKey(page.getDraftUrl()));
+             CountingInputStream in = new CountingInputStream(StoredJson.rawJson(object, objectMapper))) {
+            JsonNode document = objectMapper.readTree(in);
+            long version = page.getDraftSnapshotVersion();
+            long weight = in.count;
+            List<DraftOperation> operations =
+                    draftOperationRepository.findByBookIdAndVersionGreaterThanOrderByVersion(bookId, version);
+            for (DraftOperation operation : operations) {
+                document = JsonPatch.apply(document, objectMapper.readTree(operation.getPatch()));
+                version = operation.getVersion();
+                weight += operation.getSizeBytes();
+            }
+            return new Materialized(version, document, weight);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la lecture du brouillon : " + e.getMessage(), e);
+        }
+    }
+
+    private Page findPage(Long bookId) {
+        return pageRepository.findByBookId(bookId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "page non trouvé"));
+    }
+
+    private String toJson(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ResponseStatusException conflict(long currentVersion) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "brouillon modifié ailleurs (version actuelle " + currentVersion + ")");
+    }
+
+    private Object lockFor(Long bookId) {
+        return locks[Math.floorMod(bookId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package cipestudio.service;
+
+import cipestudio.enums.BookStatus;
+import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import cipestudio.repository.PageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ETags des lectures fréquentes, calculés par une requête d'agrégat sans construire la réponse.
+ * Un ETag null signifie « ressource introuvable » : le contrôleur laisse alors le chemin normal répondre.
+ */
+@Service
+@RequiredArgsConstructor
+public class ETagService {
+    // À incrémenter quand la forme des DTO change, pour invalider les copies des clients.
+    private static final String FORMAT_VERSION = "1";
+
+    private final BookRepository bookRepository;
+    private final CollectionRepository collectionRepository;
+    private final PageRepository pageRepository;
+
+    public String bagETag(Long readerId) {
+        return of("bag", readerId, bookRepository.findBagVersion(readerId));
+    }
+
+    public String publicLibraryETag() {
+        return of("library", bookRepository.findLibraryVersion(BookStatus.PUBLISHED));
+    }
+
+    public String collectionETag(Long collectionId) {
+        return collectionRepository.findVersionById(collectionId)
+                .map(version -> of("collection", collectionId, version))
+                .orElse(null);
+    }
+
+    // Clé de la version publiée : elle ne change qu'à la publication, pas aux enregistrements du brouillon.
+    public String publishedContentETag(Long bookId) {
+        return pageRepository.findPublishedUrlByBookId(bookId)
+                .map(publishedUrl -> of("page", bookId, publishedUrl))
+                .orElse(null);
+    }
+
+    // L'index des scènes est remplacé avec la version publiée.
+    public String storyGraphETag(Long bookId) {
+        return pageRepository.findPublishedUrlByBookId(bookId)
+                .map(publishedUrl -> of("graph", bookId, publishedUrl))
+                .orElse(null);
+    }
+
+    private static String of(Object... parts) {
+        StringBuilder sb = new StringBuilder(FORMAT_VERSION);
+        for (Object part : parts) {
+            sb.append('|').append(part);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,117 @@
+package cipestudio.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * Flux gzip produit au fil de la lecture d'une chaîne : ni copie UTF-8 complète, ni tampon compressé
+ * complet, la mémoire utilisée reste de quelques Ko quelle que soit la taille du contenu.
+ * L'en-tête n'a pas de date : un même contenu donne toujours les mêmes octets (utile en mode adressé par contenu).
+ */
+final class GzipContentStream {
+    private static final int BUFFER_SIZE = 8192;
+    // Magic, méthode deflate, aucun drapeau, date à 0, pas d'indication de niveau, système inconnu.
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private GzipContentStream() {
+    }
+
+    static InputStream of(CharSequence content) {
+        return of(new Utf8InputStream(content));
+    }
+
+    /** Compresse des octets déjà encodés, lus au fur et à mesure. */
+    static InputStream of(InputStream raw) {
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        InputStream body = new DeflaterInputStream(new CheckedInputStream(raw, crc), deflater, BUFFER_SIZE);
+
+        return new SequenceInputStream(new Enumeration<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < 3;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                switch (next++) {
+                    case 0: return new ByteArrayInputStream(HEADER);
+                    case 1: return body;
+                    case 2: return new ByteArrayInputStream(trailer(crc, deflater));
+                    default: throw new NoSuchElementException();
+                }
+            }
+        });
+    }
+
+    // Demandé seulement une fois le corps entièrement lu : CRC et taille sont alors connus.
+    private static byte[] trailer(CRC32 crc, Deflater deflater) {
+        long crcValue = crc.getValue();
+        long size = deflater.getBytesRead();
+        deflater.end();
+        byte[] trailer = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            trailer[i] = (byte) (crcValue >>> (8 * i));
+            trailer[4 + i] = (byte) (size >>> (8 * i));
+        }
+        return trailer;
+    }
+
+    /** Encodage UTF-8 paresseux d'une chaîne, par blocs. */
+    private static final class Utf8InputStream extends InputStream {
+        private final CharBuffer chars;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        private boolean flushed = false;
+
+        private Utf8InputStream(CharSequence content) {
+            this.chars = CharBuffer.wrap(content);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            while (!bytes.hasRemaining()) {
+                if (flushed) {
+                    return -1;
+                }
+                bytes.clear();
+                CoderResult result = encoder.encode(chars, bytes, true);
+                if (result.isUnderflow()) {
+                    encoder.flush(bytes);
+                    flushed = true;
+                }
+                bytes.flip();
+            }
+            int count = Math.min(length, bytes.remaining());
+            bytes.get(buffer, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package cipestudio.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Chaîne de traitement des images envoyées (couvertures, avatars).
+ * <p>
+ * L'image est décodée une seule fois, directement sous-échantillonnée vers la plus grande variante,
+ * puis réduite en cascade : full → card → thumbnail → aperçu flou. Les variantes sont réencodées
+ * (JPEG, ou PNG si l'image a de la transparence) et rangées sous un même préfixe.
+ * Le décodage et les réductions tournent sur un pool borné : au-delà, la requête est refusée (503)
+ * plutôt que de laisser la mémoire grossir avec le nombre d'envois simultanés. Les variantes sont
+ * ensuite envoyées en parallèle par les uploads asynchrones du stockage.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageVariantService {
+
+    /** Variantes produites, de la plus grande à la plus petite : taille du plus grand côté, qualité JPEG. */
+    enum Variant {
+        FULL(1600, 0.85f),
+        CARD(480, 0.8f),
+        THUMBNAIL(160, 0.75f);
+
+        final int size;
+        final float quality;
+
+        Variant(int size, float quality) {
+            this.size = size;
+            this.quality = quality;
+        }
+    }
+
+    private static final int PLACEHOLDER_SIZE = 16;
+    private static final float PLACEHOLDER_QUALITY = 0.5f;
+
+    /** Variantes encodées, prêtes à être stockées. */
+    record EncodedImages(String extension, String contentType, byte[] full, byte[] card, byte[] thumbnail,
+                         String placeholder) {
+    }
+
+    private final SeaweedFStorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+
+    @Value("${images.workers:2}")
+    private int workers;
+
+    @Value("${images.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${images.timeout-ms:30000}")
+    private long timeoutMs;
+
+    // Refus avant décodage : un PNG de quelques Mo peut décrire une image de plusieurs centaines de mégapixels.
+    @Value("${images.max-pixels:40000000}")
+    private long maxPixels;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Traite l'image sur le pool, envoie ses trois variantes en parallèle, puis applique commit
+     * (la transaction qui les référence). Si l'un des envois ou commit échoue, les variantes
+     * déjà stockées sont confiées au nettoyage.
+     *
+     * @param keyPrefix préfixe propre à cette image (voir ObjectKeys.bookCover...), "/" final compris
+     */
+    public <T> CompletableFuture<T> storeAndCommit(String keyPrefix, InputStreamSource file, Function<ImageVariants, T> commit) {
+        return encodeAsync(file).thenCompose(images -> upload(images, keyPrefix)).thenApply(variants -> {
+            try {
+                return commit.apply(variants);
+            } catch (RuntimeException e) {
+                storageCleanupService.schedule(variants.fullUrl(), variants.cardUrl(), variants.thumbnailUrl());
+                throw e;
+            }
+        });
+    }
+
+    private CompletableFuture<EncodedImages> encodeAsync(InputStreamSource file) {
+        CompletableFuture<EncodedImages> encoded = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try (InputStream in = file.getInputStream()) {
+                    encoded.complete(encode(in, maxPixels));
+                } catch (Throwable e) {
+                    encoded.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Trop d'images en cours de traitement, réessayez plus tard");
+        }
+        encoded.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((images, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        return encoded.exceptionally(error -> {
+            if (error instanceof TimeoutException) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Traitement de l'image trop long");
+            }
+            throw error instanceof RuntimeException runtime ? runtime : new CompletionException(error);
+        });
+    }
+
+    private CompletableFuture<ImageVariants> upload(EncodedImages images, String prefix) {
+        CompletableFuture<String> full = storageService.uploadBytesAsync(images.full(), images.contentType(), prefix + "full." + images.extension());
+        CompletableFuture<String> card = storageService.uploadBytesAsync(images.card(), images.contentType(), prefix + "card." + images.extension());
+        CompletableFuture<String> thumbnail = storageService.uploadBytesAsync(images.thumbnail(), images.contentType(), prefix + "thumbnail." + images.extension());
+        // allOf attend la fin des trois envois, même en cas d'échec de l'un d'eux
+        return CompletableFuture.allOf(full, card, thumbnail).handle((done, error) -> {
+            if (error != null) {
+                storageCleanupService.scheduleAll(Stream.of(full, card, thumbnail)
+                        .filter(upload -> !upload.isCompletedExceptionally())
+                        .map(CompletableFuture::join)
+                        .toList());
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            return new ImageVariants(full.join(), card.join(), thumbnail.join(), images.placeholder());
+        });
+    }
+
+    static EncodedImages encode(InputStream input, long maxPixels) throws IOException {
+        BufferedImage full = scaleToFit(decode(input, maxPixels, Variant.FULL.size), Variant.FULL.size);
+        BufferedImage card = scaleToFit(full, Variant.CARD.size);
+        BufferedImage thumbnail = scaleToFit(card, Variant.THUMBNAIL.size);
+        BufferedImage tiny = scaleToFit(thumbnail, PLACEHOLDER_SIZE);
+        String placeholder = "data:image/jpeg;base64,"
+                + Base64.getEncoder().encodeToString(jpeg(opaque(tiny), PLACEHOLDER_QUALITY, false));
+
+        if (full.getColorModel().hasAlpha()) {
+            return new EncodedImages("png", "image/png", png(full), png(card), png(thumbnail), placeholder);
+        }
+        return new EncodedImages("jpg", "image/jpeg",
+                jpeg(full, Variant.FULL.quality, true),
+                jpeg(card, Variant.CARD.quality, false),
+                jpeg(thumbnail, Variant.THUMBNAIL.quality, false),
+                placeholder);
+    }
+
+    // Dimensions lues dans l'en-tête, puis décimation au décodage : le plus grand côté décodé reste
+    // sous 2 × targetSize, la mémoire ne dépend donc plus de la résolution d'origine.
+    private static BufferedImage decode(InputStream input, long maxPixels, int targetSize) throws IOException {
+        try (ImageInputStream in = new MemoryCacheImageInputStream(input)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format d'image non supporté (JPEG, PNG, GIF ou BMP attendu)");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Image trop grande (" + width + "×" + height + " pixels)");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / targetSize);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return toWorkingImage(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IIOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image illisible: " + e.getMessage());
+        }
+    }
+
+    // Images indexées, en niveaux de gris ou CMJN ramenées en RGB (ou ARGB) pour les réductions et l'encodage.
+    private static BufferedImage toWorkingImage(BufferedImage image) {
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        if (image.getType() == type) {
+            return image;
+        }
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), type);
+        Graphics2D graphics = converted.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return converted;
+    }
+
+    /** Réduit l'image pour que son plus grand côté tienne dans size ; jamais d'agrandissement. */
+    static BufferedImage scaleToFit(BufferedImage source, int size) {
+        double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage current = source;
+        // Au plus une division par deux à chaque passe : au-delà, l'interpolation bilinéaire saute des pixels.
+        while (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height, current.getType());
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = next;
+        }
+        return current;
+    }
+
+    private static BufferedImage opaque(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage flattened = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = flattened.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return flattened;
+    }
+
+    private static byte[] jpeg(BufferedImage image, float quality, boolean progressive) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        if (progressive) {
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,11 @@
+package cipestudio.service;
+
+import cipestudio.dto.user.URLResponseDTO;
+
+/** Variantes stockées d'une image envoyée, et son aperçu flou (data URI) à afficher pendant le chargement. */
+public record ImageVariants(String fullUrl, String cardUrl, String thumbnailUrl, String placeholder) {
+
+    public URLResponseDTO toResponse() {
+        return new URLResponseDTO(fullUrl, thumbnailUrl, cardUrl, placeholder);
+    }
+}
@@ -0,0 +1,154 @@
+package cipestudio.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application d'un JSON Patch (RFC 6902) : add, remove, replace, move, copy, test.
+ * <p>
+ * Le document est modifié sur place ; en cas d'erreur il peut être partiellement modifié,
+ * l'appelant doit alors l'abandonner. Les erreurs sont des IllegalArgumentException au message lisible.
+ */
+final class JsonPatch {
+
+    private JsonPatch() {
+    }
+
+    /** @return la nouvelle racine (différente de document si une opération remplace la racine) */
+    static JsonNode apply(JsonNode document, JsonNode operations) {
+        if (operations == null || !operations.isArray()) {
+            throw new IllegalArgumentException("Le patch doit être un tableau d'opérations");
+        }
+        JsonNode root = document;
+        for (JsonNode operation : operations) {
+            String op = operation.path("op").asText();
+            List<String> path = parsePointer(required(operation, "path"));
+            switch (op) {
+                case "add" -> root = add(root, path, required(operation, "value").deepCopy());
+                case "remove" -> root = remove(root, path);
+                case "replace" -> {
+                    resolve(root, path);
+                    root = add(remove(root, path), path, required(operation, "value").deepCopy());
+                }
+                case "move" -> {
+                    List<String> from = parsePointer(required(operation, "from"));
+                    if (path.size() > from.size() && path.subList(0, from.size()).equals(from)) {
+                        throw new IllegalArgumentException("Impossible de déplacer un nœud dans lui-même : " + operation.path("path").asText());
+                    }
+                    JsonNode value = resolve(root, from);
+                    root = add(remove(root, from), path, value);
+                }
+                case "copy" -> root = add(root, path, resolve(root, parsePointer(required(operation, "from"))).deepCopy());
+                case "test" -> {
+                    if (!resolve(root, path).equals(required(operation, "value"))) {
+                        throw new IllegalArgumentException("Test échoué sur " + operation.path("path").asText());
+                    }
+                }
+                default -> throw new IllegalArgumentException("Opération de patch inconnue : " + op);
+            }
+        }
+        return root;
+    }
+
+    private static JsonNode required(JsonNode operation, String field) {
+        JsonNode value = operation.get(field);
+        if (value == null || (!field.equals("value") && !value.isTextual())) {
+            throw new IllegalArgumentException("Champ \"" + field + "\" manquant ou invalide dans l'opération " + operation);
+        }
+        return value;
+    }
+
+    // Pointeur JSON (RFC 6901) : "" = racine, segments séparés par "/", "~1" = "/", "~0" = "~".
+    static List<String> parsePointer(JsonNode pointer) {
+        String text = pointer.asText();
+        List<String> segments = new ArrayList<>();
+        if (text.isEmpty()) {
+            return segments;
+        }
+        if (text.charAt(0) != '/') {
+            throw new IllegalArgumentException("Chemin invalide : " + text);
+        }
+        for (String segment : text.substring(1).split("/", -1)) {
+            segments.add(segment.replace("~1", "/").replace("~0", "~"));
+        }
+        return segments;
+    }
+
+    private static JsonNode resolve(JsonNode root, List<String> path) {
+        JsonNode node = root;
+        for (String segment : path) {
+            if (node instanceof ObjectNode object) {
+                node = object.get(segment);
+            } else if (node instanceof ArrayNode array) {
+                int index = index(segment, array.size() - 1);
+                node = array.get(index);
+            } else {
+                node = null;
+            }
+            if (node == null) {
+                throw new IllegalArgumentException("Chemin inexistant : /" + String.join("/", path));
+            }
+        }
+        return node;
+    }
+
+    private static JsonNode add(JsonNode root, List<String> path, JsonNode value) {
+        if (path.isEmpty()) {
+            return value;
+        }
+        ContainerNode<?> parent = parent(root, path);
+        String last = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode object) {
+            object.set(last, value);
+        } else {
+            ArrayNode array = (ArrayNode) parent;
+            if (last.equals("-")) {
+                array.add(value);
+            } else {
+                array.insert(index(last, array.size()), value);
+            }
+        }
+        return root;
+    }
+
+    private static JsonNode remove(JsonNode root, List<String> path) {
+        if (path.isEmpty()) {
+            return null;
+        }
+        ContainerNode<?> parent = parent(root, path);
+        String last = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode object) {
+            if (object.remove(last) == null) {
+                throw new IllegalArgumentException("Chemin inexistant : /" + String.join("/", path));
+            }
+        } else {
+            ArrayNode array = (ArrayNode) parent;
+            array.remove(index(last, array.size() - 1));
+        }
+        return root;
+    }
+
+    private static ContainerNode<?> parent(JsonNode root, List<String> path) {
+        JsonNode parent = resolve(root, path.subList(0, path.size() - 1));
+        if (!(parent instanceof ContainerNode<?> container)) {
+            throw new IllegalArgumentException("Le parent de /" + String.join("/", path) + " n'est ni un objet ni un tableau");
+        }
+        return container;
+    }
+
+    private static int index(String segment, int max) {
+        if (!segment.matches("0|[1-9][0-9]{0,8}")) {
+            throw new IllegalArgumentException("Index de tableau invalide : " + segment);
+        }
+        int index = Integer.parseInt(segment);
+        if (index > max) {
+            throw new IllegalArgumentException("Index de tableau hors limites : " + segment);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,92 @@
+package cipestudio.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Organisation des clés du bucket : chaque objet est rangé sous son entité, puis sous sa nature.
+ * <pre>
+ * books/{id}/cover/{uuid}/full.jpg         couverture (et card, thumbnail)
+ * books/{id}/drafts/{uuid}.json            instantanés du brouillon
+ * books/{id}/published/{version}.json      versions publiées (et leur découpage {version}/...)
+ * books/{id}/assets/{sha256}-{uuid}        fichiers de l'histoire (un objet par envoi)
+ * collections/{id}/cover/{uuid}/...        couverture d'une collection
+ * users/{id}/avatar/{uuid}/...             avatar
+ * </pre>
+ * Tout ce qui appartient à une entité se liste, se copie ou se supprime par son préfixe : c'est le
+ * rangement par défaut. Restent hors de ce schéma les dépôts temporaires (uploads/, multipart/), les clés
+ * d'avant la migration et, seulement si storage.content-addressed est activé, les blobs partagés (blobs/),
+ * comptés par références. Ceux-là sont encore suivis URL par URL.
+ */
+public final class ObjectKeys {
+    // Objets écrits sans entité connue ; aucun appel de l'application n'en produit plus.
+    private static final String UNASSIGNED_PREFIX = "misc/";
+
+    public enum Entity {
+        BOOK("books"), COLLECTION("collections"), USER("users");
+
+        private final String directory;
+
+        Entity(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    private ObjectKeys() {
+    }
+
+    /** Préfixe de tous les objets de l'entité, "/" final compris. */
+    public static String entityPrefix(Entity entity, Long id) {
+        return entity.directory + "/" + Objects.requireNonNull(id) + "/";
+    }
+
+    public static String bookPrefix(Long bookId) {
+        return entityPrefix(Entity.BOOK, bookId);
+    }
+
+    /** Préfixe d'une nouvelle couverture (ses trois variantes). */
+    public static String bookCover(Long bookId) {
+        return bookPrefix(bookId) + "cover/" + UUID.randomUUID() + "/";
+    }
+
+    public static String collectionCover(Long collectionId) {
+        return entityPrefix(Entity.COLLECTION, collectionId) + "cover/" + UUID.randomUUID() + "/";
+    }
+
+    public static String userAvatar(Long userId) {
+        return entityPrefix(Entity.USER, userId) + "avatar/" + UUID.randomUUID() + "/";
+    }
+
+    public static String bookDraft(Long bookId) {
+        return bookPrefix(bookId) + "drafts/" + UUID.randomUUID() + ".json";
+    }
+
+    /**
+     * Segment de version d'une nouvelle publication : date lisible suivie d'un UUID. Deux publications,
+     * même dans la même seconde, n'écrivent jamais sous les mêmes clés (caches et ETag en dépendent).
+     */
+    public static String newPublishedVersion() {
+        return DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss").format(LocalDateTime.now()) + "_" + UUID.randomUUID();
+    }
+
+    /** Version publiée : version + ".json" pour le contenu complet, version + "/" pour son découpage. */
+    public static String bookPublished(Long bookId, String version) {
+        return bookPrefix(bookId) + "published/" + version;
+    }
+
+    public static String bookAssets(Long bookId) {
+        return bookPrefix(bookId) + "assets/";
+    }
+
+    /** Fichier sans entité connue : nom d'origine précédé d'un UUID, sous misc/. */
+    public static String unassigned(String name) {
+        return UNASSIGNED_PREFIX + UUID.randomUUID() + "_" + name.replace(" ", "_");
+    }
+
+    /** Vrai si la clé est déjà rangée sous le préfixe de l'entité. */
+    public static boolean belongsTo(String objectKey, Entity entity, Long id) {
+        return objectKey != null && objectKey.startsWith(entityPrefix(entity, id));
+    }
+}
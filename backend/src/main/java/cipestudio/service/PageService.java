@@ -2,17 +2,25 @@ package cipestudio.service;
 
 import cipestudio.dto.page.BookContentRequestDTO;
 import cipestudio.dto.page.BookContentResponseDTO;
+import cipestudio.dto.page.StoryGraphDTO;
 import cipestudio.enums.BookStatus;
+import cipestudio.event.BookChangedEvent;
 import cipestudio.model.Book;
 import cipestudio.model.Page;
 import cipestudio.repository.BookRepository;
+import cipestudio.repository.DraftOperationRepository;
 import cipestudio.repository.PageRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +28,14 @@ public class PageService {
     private final BookRepository bookRepository;
     private final SeaweedFStorageService seaweedFStorageService;
     private final PageRepository pageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StorageCleanupService storageCleanupService;
+    private final ContentDiskCache contentDiskCache;
+    private final StoryChunkService storyChunkService;
+    private final DraftService draftService;
+    private final DraftOperationRepository draftOperationRepository;
+    private final StoryGraphService storyGraphService;
+    private final TransactionTemplate transactionTemplate;
 
     public BookContentResponseDTO updateBookContent(Long bookId, BookContentRequestDTO requestDTO) {
         Book book = bookRepository.findById(bookId)
@@ -28,6 +44,7 @@ public class PageService {
         Page page = getOrCreatePage(book);
         String url;
 
+        // Page enregistrée sur la ligne verrouillée, par handlePublishing ou DraftService
         switch (requestDTO.getBookStatus()){
             case BookStatus.PUBLISHED :
                 url = handlePublishing(page, requestDTO.getBookContent(), bookId);
@@ -38,20 +55,31 @@ public class PageService {
             default :
                 throw new IllegalArgumentException("Statut de livre non supporté");
         }
-        
-        pageRepository.save(page);
-        return new BookContentResponseDTO(url, LocalDateTime.now());
+
+        Long draftVersion = requestDTO.getBookStatus() == BookStatus.DRAFT ? page.getDraftVersion() : null;
+        return new BookContentResponseDTO(url, LocalDateTime.now(), draftVersion);
     }
 
+    /** Journal et index du livre ; ses fichiers partent avec son préfixe (voir contentUrls). */
     public void deleteBookContent(Book book) {
         if (book.getPages() == null) return;
-        
-        if (book.getPages().getDraftUrl() != null) {
-            seaweedFStorageService.deleteFile(book.getPages().getDraftUrl());
-        }
-        if (book.getPages().getPublishedUrl() != null) {
-            seaweedFStorageService.deleteFile(book.getPages().getPublishedUrl());
+
+        draftOperationRepository.deleteByBookIds(List.of(book.getId()));
+        storyGraphService.deleteByBookIds(List.of(book.getId()));
+    }
+
+    /**
+     * Brouillon, version publiée et son découpage, pour StorageCleanupService.scheduleEntity. Les scènes ne
+     * sont relues dans le sommaire que s'il est hors du préfixe du livre (clé d'avant la migration, ou blob en
+     * mode adressé par contenu) : dans le cas courant, elles partent avec le préfixe sans relecture.
+     */
+    public List<String> contentUrls(Page page) {
+        List<String> urls = new ArrayList<>(Arrays.asList(page.getDraftUrl(), page.getPublishedUrl()));
+        String manifestKey = seaweedFStorageService.objectKey(page.getPublishedManifestUrl());
+        if (manifestKey != null && !ObjectKeys.belongsTo(manifestKey, ObjectKeys.Entity.BOOK, page.getBook().getId())) {
+            urls.addAll(storyChunkService.chunkUrls(page.getPublishedManifestUrl()));
         }
+        return urls;
     }
 
     private Page getOrCreatePage(Book book) {
@@ -68,45 +96,125 @@ public class PageService {
         }
     }
 
-    private String handlePublishing(Page page, Object content, Long bookId) {
-        String timestamp = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss").format(LocalDateTime.now());
-        String customFileName = "books/" + bookId + "/published/" + timestamp + ".json";
+    /**
+     * Envoie la version complète et son découpage, puis bascule la page dans une seule transaction :
+     * URLs, index des scènes, nettoyage de l'ancien découpage et statut du livre sont validés ensemble.
+     * Si la bascule échoue, la page garde l'ancienne version et la nouvelle, référencée par rien, est nettoyée.
+     */
+    private String handlePublishing(Page page, String content, Long bookId) {
+        String version = ObjectKeys.newPublishedVersion();
+        String customFileName = ObjectKeys.bookPublished(bookId, version) + ".json";
 
-        String publishedUrl = seaweedFStorageService.uploadJson(content, customFileName);
-        page.setPublishedUrl(publishedUrl);
-        
-        // Mise à jour automatique du statut du livre en base de données
-        Book book = page.getBook();
-        if (book.getStatus() != BookStatus.PUBLISHED) {
-            book.setStatus(BookStatus.PUBLISHED);
-            bookRepository.save(book);
+        String publishedUrl = seaweedFStorageService.uploadJsonContent(content, customFileName);
+        String manifestUrl;
+        StoryChunkService.PublishedStory published;
+        try {
+            published = storyChunkService.publish(bookId, content, ObjectKeys.bookPublished(bookId, version) + "/");
+            manifestUrl = published.manifestUrl();
+        } catch (RuntimeException e) {
+            storageCleanupService.schedule(publishedUrl);
+            throw e;
         }
-        
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Page locked = pageRepository.findByBookIdForUpdate(bookId).orElseThrow();
+                if (publishedUrl.equals(locked.getPublishedUrl())
+                        && StoredBlobService.isBlobKey(seaweedFStorageService.objectKey(publishedUrl))) {
+                    // Contenu identique en mode adressé par contenu : la page ne garde qu'une référence.
+                    storageCleanupService.schedule(publishedUrl);
+                }
+                String previousManifestUrl = locked.getPublishedManifestUrl();
+                locked.setPublishedUrl(publishedUrl);
+                locked.setPublishedManifestUrl(manifestUrl);
+                locked.setPublishedAt(LocalDateTime.now());
+                storyGraphService.replace(locked, published.graph());
+                // Le découpage n'est qu'un format de diffusion (l'historique est le JSON complet) : l'ancien est libéré.
+                // Chaque publication a sa propre version : une URL identique ne peut venir que du mode adressé
+                // par contenu, où la suppression ne fait que rendre la référence prise par cette publication.
+                if (previousManifestUrl != null) {
+                    storageCleanupService.scheduleAll(storyChunkService.chunkUrls(previousManifestUrl));
+                }
+                pageRepository.save(locked);
+
+                // Mise à jour automatique du statut du livre en base de données
+                Book book = locked.getBook();
+                if (book.getStatus() != BookStatus.PUBLISHED) {
+                    book.setStatus(BookStatus.PUBLISHED);
+                    bookRepository.save(book);
+                    eventPublisher.publishEvent(new BookChangedEvent(bookId));
+                }
+            });
+        } catch (RuntimeException e) {
+            List<String> discarded = new ArrayList<>(storyChunkService.chunkUrls(manifestUrl));
+            discarded.add(publishedUrl);
+            storageCleanupService.scheduleAll(discarded);
+            throw e;
+        }
+        // Copie pour l'appelant, la page enregistrée est la ligne verrouillée
+        page.setPublishedUrl(publishedUrl);
+        page.setPublishedManifestUrl(manifestUrl);
         return publishedUrl;
     }
 
-    private String handleDrafting(Page page, Object content) {
-        if(page.getDraftUrl() != null && !page.getDraftUrl().isEmpty()){
-            try {
-                seaweedFStorageService.deleteFile(page.getDraftUrl());
-            } catch (Exception e){
-                System.err.println("Erreur suppression ancien brouillon : "+e.getMessage());
-            }
-        }
-        
-        String draftUrl = seaweedFStorageService.uploadJson(content);
-        page.setDraftUrl(draftUrl);
-        return draftUrl;
+    private String handleDrafting(Page page, String content) {
+        return draftService.saveFull(page, content);
     }
 
     public BookContentResponseDTO getDraftContent(Long bookId) {
         Page page = pageRepository.findByBookId(bookId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "page non trouvé"));
-        return new BookContentResponseDTO(page.getDraftUrl(), page.getUpdateAt());
+        // URL de l'instantané, éventuellement en retard sur draftVersion : le document à jour est servi
+        // par GET /page/{id}/draft/document, sans fusion du journal à la lecture.
+        return new BookContentResponseDTO(page.getDraftUrl(), page.getUpdateAt(), page.getDraftVersion());
     }
     public BookContentResponseDTO getPublishedContent(Long bookId) {
         Page page = pageRepository.findByBookId(bookId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "page non trouvé"));
-        return new BookContentResponseDTO(page.getPublishedUrl(), page.getUpdateAt());
+        // Date de publication et non update_at : la réponse suit l'ETag (URL publiée), pas les enregistrements du brouillon.
+        return new BookContentResponseDTO(page.getPublishedUrl(), page.getPublishedAt());
+    }
+
+    /**
+     * Clé de l'objet publié, si le lecteur y a accès : tout utilisateur connecté pour un livre publié,
+     * seulement l'auteur sinon. Un livre non accessible est signalé comme absent.
+     */
+    public String getPublishedContentKey(Long bookId, Long userId) {
+        return seaweedFStorageService.objectKey(accessibleSource(bookId, userId).publishedUrl());
+    }
+
+    public String getPublishedManifestKey(Long bookId, Long userId) {
+        String manifestUrl = accessibleSource(bookId, userId).publishedManifestUrl();
+        if (manifestUrl == null) {
+            // Publié avant le découpage par scène : le lecteur se rabat sur le contenu complet.
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "sommaire non disponible, republier le livre");
+        }
+        return seaweedFStorageService.objectKey(manifestUrl);
+    }
+
+    public String getPublishedSceneKey(Long bookId, Long userId, int chapter, int scene) {
+        StoryManifest manifest = storyChunkService.readManifest(getPublishedManifestKey(bookId, userId));
+        if (chapter < 0 || chapter >= manifest.chapters().size()
+                || scene < 0 || scene >= manifest.chapters().get(chapter).scenes().size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "scène non trouvée");
+        }
+        return manifest.chapters().get(chapter).scenes().get(scene).key();
+    }
+
+    /** Scènes et transitions de la version publiée, depuis l'index construit à la publication. */
+    public StoryGraphDTO getPublishedGraph(Long bookId, Long userId) {
+        accessibleSource(bookId, userId);
+        return storyGraphService.getGraph(bookId);
+    }
+
+    public ContentDiskCache.Entry getPublishedContentFile(String objectKey) {
+        return contentDiskCache.get(objectKey);
+    }
+
+    private PublishedContentSource accessibleSource(Long bookId, Long userId) {
+        return pageRepository.findPublishedContentSource(bookId)
+                .filter(source -> source.publishedUrl() != null)
+                .filter(source -> source.status() == BookStatus.PUBLISHED || source.authorId().equals(userId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "contenu publié non trouvé"));
     }
 }
@@ -0,0 +1,7 @@
+package cipestudio.service;
+
+import cipestudio.enums.BookStatus;
+
+/** Ce qu'il faut pour servir le contenu publié d'un livre : l'objet, et de quoi vérifier l'accès. */
+public record PublishedContentSource(String publishedUrl, String publishedManifestUrl, BookStatus status, Long authorId) {
+}
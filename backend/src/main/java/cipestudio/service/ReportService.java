@@ -21,6 +21,7 @@ public class ReportService {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final ReportMapper reportMapper;
+    private final CounterService counterService;
 
     @Transactional
     public void createReport(ReportRequestDTO request, Long reporterId){
@@ -35,5 +36,6 @@ public class ReportService {
         }
         Report report = reportMapper.toNewEntity(request, reporter, book);
         reportRepository.save(report);
+        counterService.reportsAdded(book.getId(), book.getAuthor() != null ? book.getAuthor().getId() : null, 1);
     }
 }
@@ -0,0 +1,180 @@
+package cipestudio.service;
+
+import cipestudio.dto.asset.BookAssetDTO;
+import cipestudio.dto.upload.ResumableUploadRequestDTO;
+import cipestudio.dto.upload.ResumableUploadResponseDTO;
+import cipestudio.model.UploadSession;
+import cipestudio.repository.UploadSessionRepository;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Envois reprenables (à la tus) des fichiers d'une histoire : illustrations, sons, vidéos.
+ * <p>
+ * Le client ouvre l'envoi en annonçant taille et type, puis envoie des morceaux de chunkSize octets
+ * (le dernier plus court) en indiquant leur position. Chaque morceau part aussitôt au stockage comme
+ * une partie de l'envoi multipart, en flux depuis la requête : rien n'est gardé sur le serveur
+ * d'application entre deux morceaux. Après une coupure, le client relit la position acquise et reprend
+ * de là ; un morceau interrompu est simplement renvoyé. Une session inactive pendant session-ttl expire,
+ * et ses parties sont abandonnées.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResumableUploadService {
+    // Taille minimale d'une partie (sauf la dernière) imposée par S3.
+    private static final long MIN_CHUNK_SIZE = 5L * 1024 * 1024;
+    private static final int EXPIRY_BATCH_SIZE = 100;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final SeaweedFStorageService storageService;
+    private final BookAssetService bookAssetService;
+
+    @Value("${storage.resumable.chunk-size:5MB}")
+    private DataSize chunkSize;
+
+    @Value("${storage.resumable.max-size:200MB}")
+    private DataSize maxSize;
+
+    @Value("${storage.resumable.session-ttl:24h}")
+    private Duration sessionTtl;
+
+    public ResumableUploadResponseDTO create(Long userId, ResumableUploadRequestDTO request) {
+        String contentType = DirectUploadService.mediaType(request.getContentType());
+        bookAssetService.checkContentType(contentType);
+        if (request.getSize() > maxSize.toBytes()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Fichier trop volumineux (maximum " + maxSize.toMegabytes() + " Mo)");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setUserId(userId);
+        session.setBookId(request.getBookId());
+        session.setObjectKey(ObjectKeys.bookAssets(request.getBookId()) + session.getId());
+        session.setContentType(contentType);
+        session.setTotalSize(request.getSize());
+        session.setChunkSize(Math.max(MIN_CHUNK_SIZE, chunkSize.toBytes()));
+        session.setUploadId(storageService.startMultipart(session.getObjectKey(), contentType));
+        session.setExpiresAt(LocalDateTime.now().plus(sessionTtl));
+        return toResponse(uploadSessionRepository.save(session));
+    }
+
+    public ResumableUploadResponseDTO getStatus(String id, Long userId) {
+        return toResponse(findOwned(id, userId));
+    }
+
+    /**
+     * Ajoute le morceau qui commence à offset. Le même morceau renvoyé après une coupure remplace
+     * la partie éventuellement reçue à moitié ; le dernier morceau assemble l'objet et l'ajoute
+     * aux fichiers du livre (dédoublonné : l'URL rendue peut être celle d'un fichier déjà présent).
+     */
+    public ResumableUploadResponseDTO appendChunk(String id, Long userId, long offset, InputStream content, long length) {
+        UploadSession session = findOwned(id, userId);
+        if (session.getUrl() != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Envoi déjà terminé");
+        }
+        if (offset != session.getUploadOffset()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Position attendue: " + session.getUploadOffset());
+        }
+        long expected = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+        if (length != expected) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Morceau de " + expected + " octets attendu");
+        }
+
+        int partNumber = (int) (offset / session.getChunkSize()) + 1;
+        CountingInputStream received = new CountingInputStream(ByteStreams.limit(content, length));
+        String tag = storageService.uploadPart(session.getObjectKey(), session.getUploadId(), partNumber, received, length);
+        // Requête coupée : la partie est incomplète, la position n'avance pas
+        if (received.getCount() != length) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Morceau incomplet, à renvoyer depuis la position " + offset);
+        }
+
+        List<String> tags = partTags(session);
+        tags.add(tag);
+        session.setPartTags(String.join(",", tags));
+        session.setUploadOffset(offset + length);
+        session.setExpiresAt(LocalDateTime.now().plus(sessionTtl));
+        if (session.getUploadOffset() == session.getTotalSize()) {
+            String url = storageService.completeMultipart(session.getObjectKey(), session.getUploadId(),
+                    session.getContentType(), tags);
+            BookAssetDTO asset = bookAssetService.registerUploaded(session.getBookId(), session.getObjectKey(), url,
+                    session.getContentType(), session.getTotalSize());
+            session.setAssetId(asset.getId());
+            session.setUrl(asset.getUrl());
+        }
+        try {
+            return toResponse(uploadSessionRepository.save(session));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Morceau envoyé deux fois en parallèle");
+        }
+    }
+
+    /** Abandonne l'envoi ; un envoi terminé garde son fichier, seule la session disparaît. */
+    public void cancel(String id, Long userId) {
+        UploadSession session = findOwned(id, userId);
+        if (session.getUrl() == null) {
+            storageService.abortMultipart(session.getObjectKey(), session.getUploadId(), partTags(session).size());
+        }
+        uploadSessionRepository.delete(session);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.resumable.expiry-check-ms:600000}", initialDelayString = "${storage.resumable.expiry-check-ms:600000}")
+    public void expireSessions() {
+        List<UploadSession> batch;
+        int expired;
+        do {
+            batch = uploadSessionRepository.findByExpiresAtBefore(LocalDateTime.now(), PageRequest.ofSize(EXPIRY_BATCH_SIZE));
+            expired = 0;
+            for (UploadSession session : batch) {
+                try {
+                    if (session.getUrl() == null) {
+                        storageService.abortMultipart(session.getObjectKey(), session.getUploadId(), partTags(session).size());
+                    }
+                    uploadSessionRepository.delete(session);
+                    expired++;
+                } catch (Exception e) {
+                    // Reprise au prochain passage
+                    System.err.println("Expiration de l'envoi " + session.getId() + " impossible : " + e.getMessage());
+                }
+            }
+            if (expired > 0) {
+                System.out.println("Envois reprenables expirés : " + expired);
+            }
+        } while (batch.size() == EXPIRY_BATCH_SIZE && expired > 0);
+    }
+
+    // Session d'un autre utilisateur : introuvable, sans révéler qu'elle existe.
+    private UploadSession findOwned(String id, Long userId) {
+        return uploadSessionRepository.findById(id)
+                .filter(session -> session.getUserId().equals(userId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Envoi introuvable ou expiré"));
+    }
+
+    private static List<String> partTags(UploadSession session) {
+        return session.getPartTags() == null || session.getPartTags().isEmpty()
+                ? new ArrayList<>()
+                : new ArrayList<>(Arrays.asList(session.getPartTags().split(",")));
+    }
+
+    private static ResumableUploadResponseDTO toResponse(UploadSession session) {
+        return new ResumableUploadResponseDTO(session.getId(), session.getUploadOffset(), session.getTotalSize(),
+                session.getChunkSize(), session.getExpiresAt(), session.getUrl(), session.getAssetId());
+    }
+}
@@ -1,22 +1,69 @@
 package cipestudio.service;
 
+import cipestudio.exceptions.StorageException;
+import cipestudio.exceptions.StorageUnavailableException;
+import cipestudio.service.storage.CircuitOpenException;
+import cipestudio.service.storage.ObjectInfo;
+import cipestudio.service.storage.ObjectStore;
+import cipestudio.service.storage.StoredObject;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.minio.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Fichiers de l'application (histoires, images...) : nommage des objets, URL publiques,
+ * compression et mode adressé par contenu. Les lectures et écritures passent par
+ * l'{@link ObjectStore} configuré (storage.backend).
+ * <p>
+ * Les variantes *Async rendent la main tout de suite : l'upload tourne sur un thread virtuel, au plus
+ * storage.upload.max-concurrency à la fois, et échoue après storage.upload.timeout-ms. Annuler le
+ * futur (ou le dépassement du délai) interrompt le thread, ce qui ferme sa connexion en cours.
+ * Les échecs remontent en {@link StorageException} (502), ou {@link StorageUnavailableException} (503)
+ * quand le circuit du stockage est ouvert : les envois asynchrones sont alors refusés d'emblée.
+ */
 @Service
 public class SeaweedFStorageService {
+    private static final Map<String, String> GZIP_HEADERS = Map.of("Content-Encoding", "gzip");
+    // Clés jamais réécrites : les navigateurs peuvent garder l'objet sans revalider.
+    private static final Map<String, String> IMMUTABLE_HEADERS = Map.of("Cache-Control", "public, max-age=31536000, immutable");
+
     @Autowired
-    private MinioClient minioClient;
+    private ObjectStore objectStore;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -27,69 +74,421 @@ public class SeaweedFStorageService {
     @Value("${seaweedfs.public-url}")
     private String publicUrl;
 
+    @Autowired
+    private StoredBlobService storedBlobService;
+
+    // Mode adressé par contenu (optionnel) : clé = SHA-256, upload évité si le contenu est déjà stocké,
+    // mais les objets sortent du préfixe de leur entité (voir ObjectKeys).
+    @Value("${storage.content-addressed:false}")
+    private boolean contentAddressed;
+
+    @Value("${storage.upload.max-concurrency:16}")
+    private int maxConcurrentUploads;
+
+    @Value("${storage.upload.timeout-ms:60000}")
+    private long uploadTimeoutMs;
+
+    // Signe les liens d'envoi direct servis par l'application (backends hors S3) ; partagée entre instances.
+    @Value("${storage.upload.signing-key:}")
+    private String uploadSigningKey;
+
+    @Value("${storage.backend:s3}")
+    private String storageBackend;
+
+    private ExecutorService uploadExecutor;
+    private Semaphore uploadPermits;
+    private byte[] signingKey;
+
+    @PostConstruct
+    void startUploads() {
+        if (uploadSigningKey != null && !uploadSigningKey.isBlank()) {
+            signingKey = uploadSigningKey.getBytes(StandardCharsets.UTF_8);
+        } else if (!"s3".equals(storageBackend)) {
+            // Une clé tirée au démarrage invaliderait les liens signés par une autre instance ou avant un redémarrage.
+            throw new IllegalStateException("storage.upload.signing-key est obligatoire avec storage.backend="
+                    + storageBackend + " (liens d'envoi signés par l'application)");
+        }
+        uploadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        uploadPermits = new Semaphore(maxConcurrentUploads);
+    }
+
+    @PreDestroy
+    void stopUploads() {
+        uploadExecutor.shutdownNow();
+    }
+
+    /** Objet lu depuis le bucket ; contentEncoding vaut "gzip" pour les contenus compressés, null sinon. */
+    public record ObjectContent(InputStream stream, String contentEncoding) implements Closeable {
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface StreamSource {
+        InputStream open() throws IOException;
+    }
+
     public String uploadJson(Object content) {
         return uploadJson(content, null);
     }
 
+    /** customName : clé de l'objet (voir ObjectKeys) ; sans clé, rangé sous misc/. */
     public String uploadJson(Object content, String customName) {
         try {
             String jsonString = objectMapper.writeValueAsString(content);
             byte[] contentBytes = jsonString.getBytes(StandardCharsets.UTF_8);
+            if (contentAddressed) {
+                return storeBlob(() -> new ByteArrayInputStream(contentBytes), contentBytes.length, "application/json", Map.of());
+            }
             InputStream inputStream = new ByteArrayInputStream(contentBytes);
-            
-            String fileName = (customName != null && !customName.isBlank()) 
-                ? customName 
-                : UUID.randomUUID() + "_story.json";
-
-            minioClient.putObject(
-                PutObjectArgs.builder()
-                .bucket(bucketName)
-                .object(fileName)
-                .stream(inputStream, contentBytes.length, -1)
-                .contentType("application/json")
-                .build());
+            String fileName = keyOrUnassigned(customName, "story.json");
+            objectStore.put(fileName, inputStream, contentBytes.length, "application/json", Map.of());
             
             return publicUrl + "/" + bucketName + "/" + fileName;
         } catch (Exception e) {
-            throw new RuntimeException("Erreur lors de l'upload JSON MinIO: " + e.getMessage());
+            throw failure("Erreur lors de l'upload JSON MinIO", e);
         }
     }
 
-    public String uploadFile(MultipartFile file) {
+    /**
+     * Contenu d'histoire déjà sérialisé par le client : stocké tel quel (sans second encodage JSON),
+     * compressé en gzip pendant l'envoi. Les navigateurs le décompressent d'eux-mêmes via Content-Encoding.
+     */
+    public String uploadJsonContent(String json, String customName) {
+        try {
+            if (contentAddressed) {
+                return storeBlob(() -> GzipContentStream.of(json), -1, "application/json", GZIP_HEADERS);
+            }
+            String fileName = keyOrUnassigned(customName, "story.json");
+            try (InputStream inputStream = GzipContentStream.of(json)) {
+                objectStore.put(fileName, inputStream, -1, "application/json", GZIP_HEADERS);
+            }
+            return publicUrl + "/" + bucketName + "/" + fileName;
+        } catch (Exception e) {
+            throw failure("Erreur lors de l'upload JSON MinIO", e);
+        }
+    }
+
+    /** Fichier rangé sous keyPrefix (préfixe d'entité, voir ObjectKeys), sous le nom d'origine précédé d'un UUID. */
+    public String uploadFile(MultipartFile file, String keyPrefix) {
+        if (contentAddressed) {
+            try {
+                return storeBlob(file::getInputStream, file.getSize(), file.getContentType(), Map.of());
+            } catch (Exception e) {
+                throw failure("Erreur lors de l'upload MinIO", e);
+            }
+        }
         try (InputStream inputStream = file.getInputStream()) {
-        String fileName = UUID.randomUUID() + "_" + Objects.requireNonNull(file.getOriginalFilename()).replace(" ", "_");
-        minioClient.putObject(
-            PutObjectArgs.builder()
-            .bucket(bucketName)
-            .object(fileName)
-            .stream(inputStream, file.getSize(),-1)
-            .contentType(file.getContentType())
-            .build());
-        return publicUrl + "/" + bucketName + "/" + fileName;
-    }catch (Exception e){
-        throw new RuntimeException("Erreur lors de l'upload MinIO: " + e.getMessage());}
+            String fileName = keyPrefix + UUID.randomUUID() + "_"
+                    + Objects.requireNonNull(file.getOriginalFilename()).replace(" ", "_");
+            objectStore.put(fileName, inputStream, file.getSize(), file.getContentType(), Map.of());
+            return publicUrl + "/" + bucketName + "/" + fileName;
+        } catch (Exception e) {
+            throw failure("Erreur lors de l'upload MinIO", e);
+        }
+    }
+
+    private static String keyOrUnassigned(String customName, String defaultName) {
+        return customName != null && !customName.isBlank() ? customName : ObjectKeys.unassigned(defaultName);
+    }
+
+    /**
+     * Contenu produit par le serveur (variantes d'image...), rangé sous la clé donnée,
+     * sauf en mode adressé par contenu où la clé reste l'empreinte.
+     */
+    public String uploadBytes(byte[] content, String contentType, String objectKey) {
+        try {
+            if (contentAddressed) {
+                return storeBlob(() -> new ByteArrayInputStream(content), content.length, contentType, IMMUTABLE_HEADERS);
+            }
+            objectStore.put(objectKey, new ByteArrayInputStream(content), content.length, contentType, IMMUTABLE_HEADERS);
+            return publicUrl + "/" + bucketName + "/" + objectKey;
+        } catch (Exception e) {
+            throw failure("Erreur lors de l'upload MinIO", e);
+        }
+    }
+
+    public CompletableFuture<String> uploadJsonContentAsync(String json, String customName) {
+        return async(() -> uploadJsonContent(json, customName));
+    }
+
+    public CompletableFuture<String> uploadBytesAsync(byte[] content, String contentType, String objectKey) {
+        return async(() -> uploadBytes(content, contentType, objectKey));
+    }
+
+    private <T> CompletableFuture<T> async(Callable<T> upload) {
+        // Circuit ouvert : l'envoi est refusé plutôt que mis en attente d'un permis
+        if (!objectStore.isAvailable()) {
+            return CompletableFuture.failedFuture(new StorageUnavailableException(0, null));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = uploadExecutor.submit(() -> {
+            try {
+                uploadPermits.acquire();
+            } catch (InterruptedException e) {
+                result.completeExceptionally(new CancellationException("Upload annulé avant son démarrage"));
+                return;
+            }
+            try {
+                result.complete(upload.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                uploadPermits.release();
+            }
+        });
+        // Annulé par l'appelant ou délai dépassé : on interrompt l'upload en cours.
+        result.whenComplete((url, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        return result.orTimeout(uploadTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Circuit ouvert : 503 sans détail du backend ; sinon l'erreur d'origine reste en cause.
+    private static StorageException failure(String message, Exception e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CircuitOpenException open) {
+                return new StorageUnavailableException(open.getRetryAfterMillis(), open);
+            }
+        }
+        return e instanceof StorageException storage ? storage : new StorageException(message + ": " + e.getMessage(), e);
+    }
+
+    // Deux lectures du flux : l'empreinte (et la taille) d'abord, puis l'envoi seulement si le contenu est nouveau.
+    private String storeBlob(StreamSource source, long size, String contentType, Map<String, String> headers) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        long length;
+        try (InputStream in = new DigestInputStream(source.open(), digest)) {
+            length = in.transferTo(OutputStream.nullOutputStream());
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        String objectKey = StoredBlobService.objectKeyFor(hash);
+        storedBlobService.acquire(hash, length, contentType, () -> {
+            try (InputStream in = source.open()) {
+                objectStore.put(objectKey, in, length, contentType, headers);
+            }
+        });
+        return publicUrl + "/" + bucketName + "/" + objectKey;
+    }
+
+    /**
+     * URL d'envoi direct (PUT) de l'objet, valable expiry : signée par le backend S3 si possible,
+     * sinon par l'application, qui reçoit alors l'envoi sous /files.
+     */
+    public String presignUpload(String objectKey, String contentType, Duration expiry) {
+        try {
+            Optional<String> presigned = objectStore.presignPut(objectKey, expiry);
+            if (presigned.isPresent()) {
+                return presigned.get();
+            }
+            long expires = Instant.now().plus(expiry).getEpochSecond();
+            return publicUrl + "/" + bucketName + "/" + objectKey
+                    + "?expires=" + expires + "&signature=" + uploadSignature(objectKey, contentType, expires);
+        } catch (Exception e) {
+            throw failure("Erreur lors de la signature de l'envoi", e);
+        }
+    }
+
+    /** Vérifie un lien d'envoi signé par l'application : même clé, même type, non expiré. */
+    public boolean isValidUploadSignature(String objectKey, String contentType, long expires, String signature) {
+        if (signature == null || expires < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        return MessageDigest.isEqual(uploadSignature(objectKey, contentType, expires).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String uploadSignature(String objectKey, String contentType, long expires) {
+        if (signingKey == null) {
+            throw new IllegalStateException("Aucune clé de signature : le backend " + storageBackend + " aurait dû signer l'envoi");
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(signingKey, "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal((objectKey + "\n" + contentType + "\n" + expires).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Taille et type de l'objet, vide s'il n'existe pas. */
+    public Optional<ObjectInfo> statObject(String objectKey) {
+        try {
+            return Optional.of(objectStore.stat(objectKey));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (Exception e) {
+            throw failure("Erreur lors de la lecture MinIO", e);
+        }
+    }
+
+    public ObjectContent openObject(String objectKey) {
+        try {
+            StoredObject object = objectStore.get(objectKey);
+            return new ObjectContent(object.stream(), object.contentEncoding());
+        } catch (Exception e) {
+            throw failure("Erreur lors de la lecture MinIO", e);
+        }
+    }
+
+    /**
+     * Objet rangé sous la clé donnée, même en mode adressé par contenu : la clé est choisie par
+     * l'appelant, qui gère lui-même le dédoublonnage (fichiers d'un livre...). Lu en flux.
+     */
+    public String uploadObject(String objectKey, InputStream content, long size, String contentType) {
+        try {
+            objectStore.put(objectKey, content, size, contentType, IMMUTABLE_HEADERS);
+            return publicUrl + "/" + bucketName + "/" + objectKey;
+        } catch (Exception e) {
+            throw failure("Erreur lors de l'upload MinIO", e);
+        }
+    }
+
+    /** Envoi en plusieurs parties (voir ObjectStore.createMultipart) ; rend son identifiant. */
+    public String startMultipart(String objectKey, String contentType) {
+        try {
+            return objectStore.createMultipart(objectKey, contentType);
+        } catch (Exception e) {
+            throw failure("Erreur lors de l'ouverture de l'envoi MinIO", e);
+        }
+    }
+
+    public String uploadPart(String objectKey, String uploadId, int partNumber, InputStream content, long size) {
+        try {
+            return objectStore.uploadPart(objectKey, uploadId, partNumber, content, size);
+        } catch (Exception e) {
+            throw failure("Erreur lors de l'envoi d'une partie MinIO", e);
+        }
+    }
+
+    /** Assemble les parties et rend l'URL publique de l'objet. */
+    public String completeMultipart(String objectKey, String uploadId, String contentType, List<String> partTags) {
+        try {
+            objectStore.completeMultipart(objectKey, uploadId, contentType, partTags);
+            return publicUrl + "/" + bucketName + "/" + objectKey;
+        } catch (Exception e) {
+            throw failure("Erreur lors de l'assemblage de l'envoi MinIO", e);
+        }
+    }
+
+    public void abortMultipart(String objectKey, String uploadId, int partCount) {
+        try {
+            objectStore.abortMultipart(objectKey, uploadId, partCount);
+        } catch (Exception e) {
+            throw failure("Erreur lors de l'abandon de l'envoi MinIO", e);
+        }
     }
 
+    /**
+     * Supprime un objet par son URL. Un échec est levé (StorageUnavailableException si le stockage est
+     * coupé) : confié à StorageCleanupService, il est retenté avec son délai d'attente.
+     */
     public void deleteFile(String fileUrl) {
         if (fileUrl == null || fileUrl.isBlank()){
             return;
         }
+        // Clé complète : la couper au dernier "/" visait un autre objet pour les clés imbriquées
+        String fileName = objectKey(fileUrl);
+        if (fileName == null) {
+            throw new IllegalArgumentException("URL hors du bucket: " + fileUrl);
+        }
+        Map<String, String> failures;
         try {
-            String fileName = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+            failures = deleteObjects(List.of(fileName));
+        } catch (Exception e) {
+            throw failure("Erreur lors de la suppression MinIO", e);
+        }
+        if (!failures.isEmpty()) {
+            throw new StorageException("Impossible de supprimer " + fileName + ": " + failures.get(fileName), null);
+        }
+        System.out.println("Fichier supprimé de Minio: " + fileName);
+    }
 
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(fileName)
-                            .build()
+    /**
+     * Clé de l'objet dans le bucket à partir de son URL publique (ou d'une clé déjà nue).
+     * Null pour une URL étrangère au bucket : mieux vaut ne rien supprimer qu'un autre objet.
+     */
+    public String objectKey(String fileUrl) {
+        if (fileUrl == null || fileUrl.isBlank()) {
+            return null;
+        }
+        String prefix = publicUrl + "/" + bucketName + "/";
+        if (fileUrl.startsWith(prefix)) {
+            return fileUrl.substring(prefix.length());
+        }
+        String marker = "/" + bucketName + "/";
+        int start = fileUrl.indexOf(marker);
+        if (start >= 0) {
+            return fileUrl.substring(start + marker.length());
+        }
+        return fileUrl.contains("://") ? null : fileUrl;
+    }
 
-            );
-            System.out.println("Fichier supprimé de Minio: " + fileName);
-        }catch (Exception e){
-            System.err.println("Impossible de supprimer le fichier: " + e.getMessage());
+    /**
+     * Suppression groupée (DeleteObjects par paquets de 1000 clés sur S3).
+     * Une clé déjà absente compte comme supprimée.
+     *
+     * @return les clés non supprimées, avec le message d'erreur
+     */
+    public Map<String, String> deleteObjects(List<String> objectKeys) {
+        return objectStore.delete(objectKeys);
+    }
+
+    /** Clés des objets sous le préfixe. */
+    public List<String> listObjects(String prefix) {
+        try {
+            return objectStore.list(prefix);
+        } catch (Exception e) {
+            throw failure("Erreur lors du listage MinIO", e);
         }
     }
 
+    /** URL publique de l'objet. */
+    public String publicUrl(String objectKey) {
+        return publicUrl + "/" + bucketName + "/" + objectKey;
+    }
 
+    /** Copie l'objet sous une autre clé (côté serveur sur S3) et rend l'URL de la copie. */
+    public String copyObject(String sourceKey, String targetKey) {
+        try {
+            objectStore.copy(sourceKey, targetKey);
+            return publicUrl(targetKey);
+        } catch (Exception e) {
+            throw failure("Erreur lors de la copie MinIO", e);
+        }
+    }
 
+    /**
+     * Copie tous les objets sous sourcePrefix vers targetPrefix, en gardant la suite de leur clé.
+     *
+     * @return les clés copiées
+     */
+    public List<String> copyPrefix(String sourcePrefix, String targetPrefix) {
+        List<String> copied = new ArrayList<>();
+        for (String key : listObjects(sourcePrefix)) {
+            String target = targetPrefix + key.substring(sourcePrefix.length());
+            copyObject(key, target);
+            copied.add(target);
+        }
+        return copied;
+    }
+
+    /**
+     * Supprime tous les objets sous le préfixe : un listage puis des suppressions groupées.
+     *
+     * @return les clés non supprimées (ou le préfixe si le listage a échoué), avec le message d'erreur
+     */
+    public Map<String, String> deletePrefix(String prefix) {
+        List<String> keys;
+        try {
+            keys = objectStore.list(prefix);
+        } catch (Exception e) {
+            return Map.of(prefix, String.valueOf(e.getMessage()));
+        }
+        return keys.isEmpty() ? Map.of() : objectStore.delete(keys);
+    }
 }
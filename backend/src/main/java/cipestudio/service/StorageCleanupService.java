@@ -0,0 +1,186 @@
+package cipestudio.service;
+
+import cipestudio.dto.admin.StorageCleanupStatsDTO;
+import cipestudio.model.StorageCleanupTask;
+import cipestudio.repository.StorageCleanupTaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Suppression différée des fichiers du stockage objet.
+ * <p>
+ * Les services enregistrent des tâches dans leur transaction (aucun appel réseau pendant qu'elle
+ * tient la connexion) ; un worker planifié les traite ensuite par lots avec DeleteObjects,
+ * et replanifie les échecs avec un backoff exponentiel.
+ */
+@Service
+@RequiredArgsConstructor
+public class StorageCleanupService {
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_SECONDS = 30;
+    private static final long MAX_BACKOFF_SECONDS = 6 * 3600;
+
+    private final StorageCleanupTaskRepository taskRepository;
+    private final SeaweedFStorageService storageService;
+    private final StoredBlobService storedBlobService;
+
+    private final AtomicLong deletedTotal = new AtomicLong();
+    private final AtomicLong failedAttemptsTotal = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+
+    /** Programme la suppression ; elle n'aura lieu que si la transaction appelante est validée. */
+    @Transactional
+    public void schedule(String... fileUrls) {
+        scheduleAll(Arrays.asList(fileUrls));
+    }
+
+    @Transactional
+    public void scheduleAll(Collection<String> fileUrls) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> keys = fileUrls.stream()
+                .map(storageService::objectKey)
+                .filter(Objects::nonNull)
+                .toList();
+        List<String> blobKeys = keys.stream().filter(StoredBlobService::isBlobKey).toList();
+        if (!blobKeys.isEmpty()) {
+            // Objet partagé : on rend la référence, le worker vérifiera qu'elle était la dernière.
+            storedBlobService.release(blobKeys);
+        }
+        List<StorageCleanupTask> tasks = keys.stream()
+                .distinct()
+                .map(key -> new StorageCleanupTask(key, now))
+                .toList();
+        if (!tasks.isEmpty()) {
+            taskRepository.saveAll(tasks);
+        }
+    }
+
+    /**
+     * Programme la suppression d'un objet non partagé, désignée par sa clé, à une date donnée
+     * (envoi direct jamais finalisé...). Un objet déjà supprimé d'ici là compte comme supprimé.
+     */
+    @Transactional
+    public void scheduleKeyAt(String objectKey, LocalDateTime dueAt) {
+        taskRepository.save(new StorageCleanupTask(objectKey, dueAt));
+    }
+
+    /**
+     * Programme la suppression de tous les objets sous le préfixe (qui finit par "/"), comme
+     * les fichiers d'un livre : un seul listage au traitement, sans suivre chaque objet.
+     */
+    @Transactional
+    public void schedulePrefix(String prefix) {
+        if (!prefix.endsWith("/")) {
+            throw new IllegalArgumentException("Préfixe sans / final: " + prefix);
+        }
+        taskRepository.save(new StorageCleanupTask(prefix, LocalDateTime.now()));
+    }
+
+    /**
+     * Programme la suppression de tout ce qui appartient à l'entité : son préfixe d'un bloc (voir ObjectKeys),
+     * plus celles des URLs données qui n'y sont pas rangées (clés d'avant la migration, blobs partagés si le
+     * mode adressé par contenu est activé). Avec le rangement par défaut, le préfixe suffit.
+     */
+    @Transactional
+    public void scheduleEntity(ObjectKeys.Entity entity, Long id, Collection<String> fileUrls) {
+        schedulePrefix(ObjectKeys.entityPrefix(entity, id));
+        scheduleAll(fileUrls.stream()
+                .filter(url -> !ObjectKeys.belongsTo(storageService.objectKey(url), entity, id))
+                .toList());
+    }
+
+    // Pas de transaction englobante : les lectures/écritures de tâches sont courtes, l'appel au stockage est hors transaction.
+    @Scheduled(fixedDelayString = "${storage.cleanup.interval-ms:5000}", initialDelayString = "${storage.cleanup.interval-ms:5000}")
+    public void processDueTasks() {
+        lastRunAt = LocalDateTime.now();
+        List<StorageCleanupTask> batch;
+        do {
+            batch = taskRepository.findDue(LocalDateTime.now(), PageRequest.ofSize(BATCH_SIZE));
+            if (!batch.isEmpty()) {
+                process(batch);
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    public StorageCleanupStatsDTO getStats() {
+        long abandoned = taskRepository.countByNextAttemptAtIsNull();
+        return new StorageCleanupStatsDTO(
+                taskRepository.count() - abandoned,
+                taskRepository.countByNextAttemptAtLessThanEqual(LocalDateTime.now()),
+                abandoned,
+                deletedTotal.get(),
+                failedAttemptsTotal.get(),
+                lastRunAt);
+    }
+
+    private void process(List<StorageCleanupTask> batch) {
+        Map<Boolean, List<String>> prefixesOrKeys = batch.stream()
+                .map(StorageCleanupTask::getObjectKey)
+                .distinct()
+                .collect(Collectors.partitioningBy(StorageCleanupService::isPrefix));
+        Map<Boolean, List<String>> keysByKind = prefixesOrKeys.get(false).stream()
+                .collect(Collectors.partitioningBy(StoredBlobService::isBlobKey));
+        Map<String, String> failures = new HashMap<>();
+        for (String prefix : prefixesOrKeys.get(true)) {
+            // Un échec sur l'un des objets fait rejouer tout le préfixe ; ceux déjà supprimés n'y figurent plus
+            storageService.deletePrefix(prefix).values().stream().findFirst()
+                    .ifPresent(error -> failures.put(prefix, error));
+        }
+        if (!keysByKind.get(false).isEmpty()) {
+            failures.putAll(storageService.deleteObjects(keysByKind.get(false)));
+        }
+        if (!keysByKind.get(true).isEmpty()) {
+            failures.putAll(storedBlobService.deleteUnreferenced(keysByKind.get(true), storageService::deleteObjects));
+        }
+        List<StorageCleanupTask> done = new ArrayList<>();
+        List<StorageCleanupTask> retry = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (StorageCleanupTask task : batch) {
+            String error = failures.get(task.getObjectKey());
+            if (error == null) {
+                done.add(task);
+                continue;
+            }
+            task.setAttempts(task.getAttempts() + 1);
+            task.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+            if (task.getAttempts() >= MAX_ATTEMPTS) {
+                task.setNextAttemptAt(null);
+                System.err.println("Suppression abandonnée après " + MAX_ATTEMPTS + " essais : " + task.getObjectKey() + " (" + error + ")");
+            } else {
+                task.setNextAttemptAt(now.plusSeconds(backoffSeconds(task.getAttempts())));
+            }
+            retry.add(task);
+        }
+        taskRepository.deleteAllInBatch(done);
+        taskRepository.saveAll(retry);
+        deletedTotal.addAndGet(done.size());
+        failedAttemptsTotal.addAndGet(retry.size());
+    }
+
+    private static boolean isPrefix(String objectKey) {
+        return objectKey.endsWith("/");
+    }
+
+    // 30 s, 1 min, 2 min... plafonné à 6 h, avec ±20 % d'aléa pour ne pas relancer tous les échecs ensemble.
+    private static long backoffSeconds(int attempts) {
+        long base = Math.min(MAX_BACKOFF_SECONDS, BASE_BACKOFF_SECONDS << Math.min(attempts - 1, 20));
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Math.round(base * jitter);
+    }
+}
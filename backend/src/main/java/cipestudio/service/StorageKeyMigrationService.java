@@ -0,0 +1,220 @@
+package cipestudio.service;
+
+import cipestudio.dto.admin.StorageKeyMigrationStatsDTO;
+import cipestudio.event.BookChangedEvent;
+import cipestudio.event.CollectionChangedEvent;
+import cipestudio.model.Book;
+import cipestudio.model.Collection;
+import cipestudio.model.Page;
+import cipestudio.model.User;
+import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import cipestudio.repository.PageRepository;
+import cipestudio.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Range sous le préfixe de leur entité (voir ObjectKeys) les objets écrits avec l'ancien nommage :
+ * images/{uuid}/... pour les couvertures et avatars, {uuid}_story.json à la racine pour les brouillons.
+ * <p>
+ * Pour chaque entité : copie des objets (côté serveur sur S3), puis bascule des URLs en base seulement
+ * si elles n'ont pas changé entre-temps ; sinon la copie est jetée. L'ancien objet est supprimé après
+ * storage.key-migration.grace, le temps que caches et navigateurs oublient l'ancienne URL. Les blobs
+ * partagés (mode adressé par contenu) restent où ils sont. Relancer la migration ne refait rien
+ * de ce qui est déjà rangé.
+ */
+@Service
+@RequiredArgsConstructor
+public class StorageKeyMigrationService {
+    private static final int BATCH_SIZE = 100;
+    private static final String LEGACY_IMAGE_PREFIX = "images/";
+
+    private final BookRepository bookRepository;
+    private final CollectionRepository collectionRepository;
+    private final UserRepository userRepository;
+    private final PageRepository pageRepository;
+    private final SeaweedFStorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${storage.key-migration.on-startup:false}")
+    private boolean onStartup;
+
+    @Value("${storage.key-migration.grace:7d}")
+    private Duration grace;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong moved = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // Champ d'URL d'une entité, rangé sous kind/ dans le préfixe de l'entité.
+    private record UrlField<E>(String kind, Function<E, String> getter, BiConsumer<E, String> setter) {
+    }
+
+    private static final List<UrlField<Book>> BOOK_FIELDS = List.of(
+            new UrlField<>("cover", Book::getCoverUrl, Book::setCoverUrl),
+            new UrlField<>("cover", Book::getCoverCardUrl, Book::setCoverCardUrl),
+            new UrlField<>("cover", Book::getCoverThumbnailUrl, Book::setCoverThumbnailUrl));
+    private static final List<UrlField<Collection>> COLLECTION_FIELDS = List.of(
+            new UrlField<>("cover", Collection::getCoverUrl, Collection::setCoverUrl),
+            new UrlField<>("cover", Collection::getCoverCardUrl, Collection::setCoverCardUrl),
+            new UrlField<>("cover", Collection::getCoverThumbnailUrl, Collection::setCoverThumbnailUrl));
+    private static final List<UrlField<User>> USER_FIELDS = List.of(
+            new UrlField<>("avatar", User::getAvatar, User::setAvatar),
+            new UrlField<>("avatar", User::getAvatarCardUrl, User::setAvatarCardUrl),
+            new UrlField<>("avatar", User::getAvatarThumbnailUrl, User::setAvatarThumbnailUrl));
+    private static final List<UrlField<Page>> PAGE_FIELDS = List.of(
+            new UrlField<>("drafts", Page::getDraftUrl, Page::setDraftUrl),
+            new UrlField<>("published", Page::getPublishedUrl, Page::setPublishedUrl));
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (onStartup) {
+            start();
+        }
+    }
+
+    /** Lance la migration en arrière-plan ; faux si elle tourne déjà. */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("storage-key-migration").start(() -> {
+            try {
+                migrateAll();
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public StorageKeyMigrationStatsDTO getStats() {
+        return new StorageKeyMigrationStatsDTO(running.get(), scanned.get(), moved.get(), failed.get(), startedAt, finishedAt);
+    }
+
+    void migrateAll() {
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        scanned.set(0);
+        moved.set(0);
+        failed.set(0);
+        System.out.println("Migration des clés du stockage : démarrage");
+
+        forEach(bookRepository, book -> migrate(ObjectKeys.Entity.BOOK, book.getId(), book, BOOK_FIELDS,
+                () -> bookRepository.findById(book.getId()), bookRepository::save,
+                () -> eventPublisher.publishEvent(new BookChangedEvent(book.getId()))));
+        forEach(collectionRepository, collection -> migrate(ObjectKeys.Entity.COLLECTION, collection.getId(), collection,
+                COLLECTION_FIELDS, () -> collectionRepository.findById(collection.getId()), collectionRepository::save,
+                () -> eventPublisher.publishEvent(new CollectionChangedEvent(collection.getId()))));
+        forEach(userRepository, user -> migrate(ObjectKeys.Entity.USER, user.getId(), user, USER_FIELDS,
+                () -> userRepository.findById(user.getId()), userRepository::save, () -> { }));
+        // Verrou de la page, comme les enregistrements de brouillon : pas de bascule sur un brouillon remplacé
+        forEach(pageRepository, page -> {
+            Long bookId = page.getBook().getId();
+            migrate(ObjectKeys.Entity.BOOK, bookId, page, PAGE_FIELDS,
+                    () -> pageRepository.findByBookIdForUpdate(bookId), pageRepository::save, () -> { });
+        });
+
+        finishedAt = LocalDateTime.now();
+        System.out.println("Migration des clés du stockage : " + moved.get() + " fichiers déplacés, " + failed.get() + " en échec");
+    }
+
+    private <E> void forEach(JpaRepository<E, Long> repository, Consumer<E> action) {
+        int page = 0;
+        List<E> batch;
+        do {
+            batch = repository.findAll(PageRequest.of(page++, BATCH_SIZE, Sort.by("id"))).getContent();
+            batch.forEach(action);
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    /** Déplace les fichiers mal rangés d'une entité. */
+    private <E> void migrate(ObjectKeys.Entity entity, Long id, E loaded, List<UrlField<E>> fields,
+                             Supplier<Optional<E>> reload, Consumer<E> save, Runnable changed) {
+        // Ancienne URL -> nouvelle, une fois l'objet copié
+        Map<String, String> copies = new LinkedHashMap<>();
+        for (UrlField<E> field : fields) {
+            String url = field.getter().apply(loaded);
+            String key = storageService.objectKey(url);
+            if (key == null || copies.containsKey(url) || StoredBlobService.isBlobKey(key) || ObjectKeys.belongsTo(key, entity, id)) {
+                continue;
+            }
+            scanned.incrementAndGet();
+            String target = ObjectKeys.entityPrefix(entity, id) + field.kind() + "/"
+                    + (key.startsWith(LEGACY_IMAGE_PREFIX) ? key.substring(LEGACY_IMAGE_PREFIX.length()) : key);
+            try {
+                copies.put(url, storageService.copyObject(key, target));
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                System.err.println("Déplacement de " + key + " impossible : " + e.getMessage());
+            }
+        }
+        if (copies.isEmpty()) {
+            return;
+        }
+
+        List<String> unused = new ArrayList<>(copies.values());
+        int switched;
+        try {
+            switched = transactionTemplate.execute(status -> {
+                E current = reload.get().orElse(null);
+                if (current == null) {
+                    return 0;
+                }
+                LocalDateTime dueAt = LocalDateTime.now().plus(grace);
+                int count = 0;
+                for (UrlField<E> field : fields) {
+                    String url = field.getter().apply(current);
+                    String copy = url != null ? copies.get(url) : null;
+                    if (copy != null) {
+                        field.setter().accept(current, copy);
+                        storageCleanupService.scheduleKeyAt(storageService.objectKey(url), dueAt);
+                        count++;
+                    }
+                }
+                // Copies restées sans référence : l'URL a changé pendant la copie
+                fields.forEach(field -> unused.remove(field.getter().apply(current)));
+                unused.forEach(copy -> storageCleanupService.scheduleKeyAt(storageService.objectKey(copy), LocalDateTime.now()));
+                save.accept(current);
+                return count;
+            });
+        } catch (RuntimeException e) {
+            failed.addAndGet(copies.size());
+            copies.values().forEach(copy -> storageCleanupService.scheduleKeyAt(storageService.objectKey(copy), LocalDateTime.now()));
+            System.err.println("Migration des fichiers de " + ObjectKeys.entityPrefix(entity, id) + " impossible : " + e.getMessage());
+            return;
+        }
+        if (switched > 0) {
+            moved.addAndGet(switched);
+            changed.run();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package cipestudio.service;
+
+import cipestudio.model.StoredBlob;
+import cipestudio.repository.StoredBlobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compteurs de références des objets adressés par contenu (clés {@value #KEY_PREFIX}...).
+ * <p>
+ * Une référence est prise à chaque upload et rendue quand l'URL est programmée pour suppression ;
+ * le worker de nettoyage ne supprime l'objet que si le compteur est toujours à zéro.
+ */
+@Service
+@RequiredArgsConstructor
+public class StoredBlobService {
+    public static final String KEY_PREFIX = "blobs/";
+
+    private final StoredBlobRepository blobRepository;
+
+    @FunctionalInterface
+    public interface Upload {
+        void run() throws Exception;
+    }
+
+    public static String objectKeyFor(String hash) {
+        return KEY_PREFIX + hash.substring(0, 2) + "/" + hash;
+    }
+
+    public static boolean isBlobKey(String objectKey) {
+        return objectKey != null && objectKey.startsWith(KEY_PREFIX);
+    }
+
+    /**
+     * Prend une référence sur le contenu et ne l'envoie que s'il n'était pas déjà stocké.
+     * La ligne reste verrouillée jusqu'à la fin de la transaction : un nettoyage concurrent
+     * attend, et un échec d'upload annule la référence.
+     */
+    @Transactional
+    public void acquire(String hash, long sizeBytes, String contentType, Upload upload) {
+        blobRepository.upsertReference(hash, objectKeyFor(hash), sizeBytes, contentType, LocalDateTime.now());
+        // 1 = ligne créée, ou recréée après un nettoyage : l'objet peut manquer, on le (ré)envoie.
+        if (blobRepository.findRefCountByHash(hash).orElse(0) == 1) {
+            try {
+                upload.run();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Erreur lors de l'upload MinIO: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Rend une référence par occurrence de clé (une URL citée deux fois rend deux références). */
+    @Transactional
+    public void release(Collection<String> objectKeys) {
+        objectKeys.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .forEach((key, count) -> blobRepository.decrementRefCount(key, count.intValue()));
+    }
+
+    /**
+     * Supprime les objets dont le compteur est à zéro ; ceux de nouveau référencés entre-temps sont ignorés.
+     * Le verrou est tenu pendant l'appel au stockage pour qu'un upload du même contenu ne passe pas
+     * entre la suppression de l'objet et celle de sa ligne.
+     *
+     * @return les clés non supprimées, avec le message d'erreur
+     */
+    @Transactional
+    public Map<String, String> deleteUnreferenced(List<String> objectKeys, Function<List<String>, Map<String, String>> deleter) {
+        List<StoredBlob> unreferenced = blobRepository.findUnreferencedForUpdate(objectKeys);
+        if (unreferenced.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> failures = deleter.apply(unreferenced.stream().map(StoredBlob::getObjectKey).toList());
+        blobRepository.deleteAllInBatch(unreferenced.stream()
+                .filter(blob -> !failures.containsKey(blob.getObjectKey()))
+                .toList());
+        return failures;
+    }
+}
@@ -0,0 +1,46 @@
+package cipestudio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lecture des contenus d'histoire stockés, quel que soit leur format d'écriture : JSON brut compressé
+ * (actuel), JSON brut, ou ancien JSON encodé deux fois (une chaîne JSON contenant le JSON).
+ */
+final class StoredJson {
+
+    private StoredJson() {
+    }
+
+    /** Octets du JSON brut, non compressé. */
+    static InputStream rawJson(SeaweedFStorageService.ObjectContent object, ObjectMapper objectMapper) throws IOException {
+        InputStream in = "gzip".equalsIgnoreCase(object.contentEncoding())
+                ? new GZIPInputStream(object.stream())
+                : object.stream();
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        if (isDoubleEncoded(buffered)) {
+            return new ByteArrayInputStream(objectMapper.readValue(buffered, String.class).getBytes(StandardCharsets.UTF_8));
+        }
+        return buffered;
+    }
+
+    static boolean isDoubleEncoded(BufferedInputStream in) throws IOException {
+        return firstSignificantByte(in) == '"';
+    }
+
+    private static int firstSignificantByte(BufferedInputStream in) throws IOException {
+        in.mark(4096);
+        int b;
+        do {
+            b = in.read();
+        } while (b == ' ' || b == '\n' || b == '\r' || b == '\t');
+        in.reset();
+        return b;
+    }
+}
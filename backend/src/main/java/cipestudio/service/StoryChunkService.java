@@ -0,0 +1,189 @@
+package cipestudio.service;
+
+import cipestudio.config.CacheConfig;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Découpage d'une histoire publiée (format TuesdayJS) en un sommaire et un fichier par scène,
+ * pour que le lecteur affiche le premier dialogue sans attendre l'histoire entière.
+ * <p>
+ * Les chapitres sont les entrées de premier niveau de type tableau, chaque élément étant une scène.
+ * Le JSON est parcouru en flux : une seule scène est en mémoire sous forme d'arbre à la fois.
+ * Le même parcours compile le graphe des scènes (voir {@link StoryGraphCompiler}).
+ */
+@Service
+@RequiredArgsConstructor
+public class StoryChunkService {
+    // Entrées de premier niveau gérées par l'éditeur, jamais des chapitres.
+    private static final List<String> NOT_CHAPTERS = List.of("parameters", "blocks");
+
+    private final SeaweedFStorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+    private final ContentDiskCache contentDiskCache;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    /** URL du sommaire, et graphe de l'histoire compilé pendant le même parcours. */
+    public record PublishedStory(String manifestUrl, StoryGraph graph) {
+    }
+
+    /** Envoie les scènes en parallèle pendant le parcours, puis le sommaire une fois toutes stockées. */
+    public PublishedStory publish(Long bookId, String storyJson, String keyPrefix) {
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(storyJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Le contenu du livre n'est pas une histoire valide");
+            }
+            Map<String, JsonNode> root = new LinkedHashMap<>();
+            Map<String, List<CompletableFuture<StoryManifest.Scene>>> chapters = new LinkedHashMap<>();
+            StoryGraphCompiler graph = new StoryGraphCompiler();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY || NOT_CHAPTERS.contains(name)) {
+                    root.put(name, parser.readValueAsTree());
+                    continue;
+                }
+                List<CompletableFuture<StoryManifest.Scene>> scenes = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    JsonNode scene = parser.readValueAsTree();
+                    String sceneJson = objectMapper.writeValueAsString(scene);
+                    CompletableFuture<String> upload = storageService.uploadJsonContentAsync(sceneJson,
+                            keyPrefix + "scenes/" + chapters.size() + "-" + scenes.size() + ".json");
+                    uploads.add(upload);
+                    int size = sceneJson.getBytes(StandardCharsets.UTF_8).length;
+                    int dialogs = scene.path("dialogs").size();
+                    List<StoryManifest.MiniGameTrigger> miniGames = miniGameTriggers(scene);
+                    scenes.add(upload.thenApply(url ->
+                            new StoryManifest.Scene(storageService.objectKey(url), size, dialogs, miniGames)));
+                    graph.scene(name, scene, miniGames);
+                }
+                chapters.put(name, scenes);
+            }
+            List<StoryManifest.Chapter> stored = new ArrayList<>();
+            chapters.forEach((name, scenes) ->
+                    stored.add(new StoryManifest.Chapter(name, scenes.stream().map(CompletableFuture::join).toList())));
+            String launchStory = launchStory(root, stored);
+            StoryManifest manifest = new StoryManifest(StoryManifest.FORMAT, bookId, launchStory, root, stored);
+            String manifestUrl = storageService.uploadJsonContent(objectMapper.writeValueAsString(manifest), keyPrefix + "manifest.json");
+            return new PublishedStory(manifestUrl, graph.compile(launchStory, root.get("parameters")));
+        } catch (IOException e) {
+            discard(uploads);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Le contenu du livre n'est pas un JSON valide");
+        } catch (CompletionException e) {
+            discard(uploads);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } catch (RuntimeException e) {
+            discard(uploads);
+            throw e;
+        }
+    }
+
+    // Échec en cours de route : une fois tous les envois terminés, les scènes stockées ne seront référencées par rien.
+    private void discard(List<CompletableFuture<String>> uploads) {
+        CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                .handle((done, error) -> null)
+                .join();
+        storageCleanupService.scheduleAll(uploads.stream()
+                .filter(upload -> !upload.isCompletedExceptionally())
+                .map(CompletableFuture::join)
+                .toList());
+    }
+
+    /** Sommaire lu depuis le cache disque ; une clé publiée ne change jamais de contenu, d'où un cache sans invalidation. */
+    @Cacheable(cacheNames = CacheConfig.MANIFESTS, key = "#manifestKey")
+    public StoryManifest readManifest(String manifestKey) {
+        try (ContentDiskCache.Entry entry = contentDiskCache.get(manifestKey);
+             InputStream in = new GZIPInputStream(Channels.newInputStream(entry.channel()))) {
+            return objectMapper.readValue(in, StoryManifest.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Sommaire illisible " + manifestKey + " : " + e.getMessage(), e);
+        }
+    }
+
+    /** URLs d'une version découpée (sommaire et scènes), pour les programmer en suppression. */
+    public List<String> chunkUrls(String manifestUrl) {
+        List<String> urls = new ArrayList<>();
+        if (manifestUrl == null || manifestUrl.isBlank()) {
+            return urls;
+        }
+        urls.add(manifestUrl);
+        String prefix = manifestUrl.substring(0, manifestUrl.length() - storageService.objectKey(manifestUrl).length());
+        try {
+            cachedManifest(storageService.objectKey(manifestUrl)).chapters()
+                    .forEach(chapter -> chapter.scenes().forEach(scene -> urls.add(prefix + scene.key())));
+        } catch (RuntimeException e) {
+            System.err.println("Scènes non nettoyées, sommaire illisible " + manifestUrl + " : " + e.getMessage());
+        }
+        return urls;
+    }
+
+    // Appel interne : readManifest passerait à côté du proxy de @Cacheable, d'où le cache lu directement.
+    private StoryManifest cachedManifest(String manifestKey) {
+        Cache manifests = cacheManager.getCache(CacheConfig.MANIFESTS);
+        return manifests != null ? manifests.get(manifestKey, () -> readManifest(manifestKey)) : readManifest(manifestKey);
+    }
+
+    private static String launchStory(Map<String, JsonNode> root, List<StoryManifest.Chapter> chapters) {
+        JsonNode parameters = root.get("parameters");
+        String launch = parameters == null ? null : text(parameters.path("launch_story"));
+        if (launch != null && !launch.isBlank()) {
+            return launch;
+        }
+        return chapters.isEmpty() ? null : chapters.get(0).name();
+    }
+
+    // L'éditeur attache un mini-jeu à un dialogue via des variables, en objet {name, value} ou en tableau [nom, op, valeur].
+    private static List<StoryManifest.MiniGameTrigger> miniGameTriggers(JsonNode scene) {
+        List<StoryManifest.MiniGameTrigger> triggers = new ArrayList<>();
+        JsonNode dialogs = scene.path("dialogs");
+        for (int i = 0; i < dialogs.size(); i++) {
+            JsonNode variables = dialogs.get(i).path("variables");
+            String gameId = variable(variables, "trigger_game_id");
+            if (gameId != null) {
+                triggers.add(new StoryManifest.MiniGameTrigger(i, gameId,
+                        variable(variables, "minigame_type"),
+                        variable(variables, "success_target"),
+                        variable(variables, "fail_target")));
+            }
+        }
+        return triggers;
+    }
+
+    private static String variable(JsonNode variables, String name) {
+        for (JsonNode variable : variables) {
+            if (variable.isObject() && name.equals(variable.path("name").asText())) {
+                return text(variable.path("value"));
+            }
+            if (variable.isArray() && name.equals(variable.path(0).asText())) {
+                return text(variable.path(2));
+            }
+        }
+        return null;
+    }
+
+    private static String text(JsonNode node) {
+        return node.isMissingNode() || node.isNull() ? null : node.asText();
+    }
+}
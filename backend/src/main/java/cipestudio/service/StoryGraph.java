@@ -0,0 +1,36 @@
+package cipestudio.service;
+
+import cipestudio.enums.TransitionKind;
+
+import java.util.List;
+
+/**
+ * Graphe d'une histoire publiée : scènes (dans l'ordre des chapitres) et transitions entre elles.
+ * Les transitions référencent les scènes par leur position dans {@code scenes}.
+ */
+public record StoryGraph(List<Scene> scenes, List<Edge> transitions) {
+
+    public record Scene(String chapter, int chapterIndex, int sceneIndex, int dialogs, boolean reachable, boolean deadEnd) {
+    }
+
+    /**
+     * @param target      position de la scène cible, null si la cible n'existe pas (lien cassé)
+     * @param dialog      dialogue de départ, null pour un choix au niveau de la scène
+     * @param targetRef   cible telle qu'écrite dans l'histoire
+     */
+    public record Edge(int source, Integer target, TransitionKind kind, Integer dialog, Integer targetDialog,
+                       String targetRef, String text, String miniGameId) {
+    }
+
+    public long unreachableCount() {
+        return scenes.stream().filter(scene -> !scene.reachable()).count();
+    }
+
+    public long deadEndCount() {
+        return scenes.stream().filter(Scene::deadEnd).count();
+    }
+
+    public long brokenLinkCount() {
+        return transitions.stream().filter(edge -> edge.target() == null).count();
+    }
+}
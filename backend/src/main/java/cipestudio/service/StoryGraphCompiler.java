@@ -0,0 +1,215 @@
+package cipestudio.service;
+
+import cipestudio.enums.TransitionKind;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Construction du graphe d'une histoire TuesdayJS au fil du découpage en scènes (StoryChunkService) :
+ * chaque scène est vue une seule fois, seules ses sorties sont retenues.
+ * <p>
+ * Sorties reconnues, comme le moteur de lecture (tuesday.js) : go_to d'un dialogue, choix, minuterie,
+ * fin de vidéo, random_choice et legacy_choice de la scène, cibles de réussite/échec des mini-jeux, et
+ * passage à la scène suivante quand rien n'interrompt la scène. Une cible est "chapitre" ou
+ * "chapitre,scène,dialogue" ; "tue_go" désigne la scène suivante.
+ */
+final class StoryGraphCompiler {
+    private static final String NEXT_SCENE = "tue_go";
+    // Valeurs de go_to qui ne changent pas de scène (audio, plein écran, choix sans effet...)
+    private static final Set<String> NOT_NAVIGATING = Set.of("tue_no", "tue_audio", "tue_fullScreen", "tue_update_scene");
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private record Node(int chapterIndex, int sceneIndex, int dialogs, boolean fallsThrough) {
+    }
+
+    private record PendingEdge(int source, TransitionKind kind, Integer dialog, String targetRef, String text, String miniGameId) {
+    }
+
+    private final List<String> chapters = new ArrayList<>();
+    private final List<Integer> chapterStarts = new ArrayList<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<PendingEdge> pending = new ArrayList<>();
+
+    void scene(String chapter, JsonNode scene, List<StoryManifest.MiniGameTrigger> miniGames) {
+        if (chapters.isEmpty() || !chapters.get(chapters.size() - 1).equals(chapter)) {
+            chapters.add(chapter);
+            chapterStarts.add(nodes.size());
+        }
+        int chapterIndex = chapters.size() - 1;
+        int source = nodes.size();
+        boolean fallsThrough = true;
+        JsonNode dialogs = scene.path("dialogs");
+
+        if (scene.path("random_choice").size() > 0) {
+            // Tirage dès l'entrée dans la scène : ses dialogues ne sont jamais affichés
+            scene.path("random_choice").forEach(entry -> edge(source, TransitionKind.RANDOM, null, text(entry.path(1)), null, null));
+            nodes.add(new Node(chapterIndex, source - chapterStarts.get(chapterIndex), dialogs.size(), false));
+            return;
+        }
+        // Conditions sur les variables ; si aucune n'est remplie, la scène suivante
+        scene.path("legacy_choice").forEach(entry -> edge(source, TransitionKind.CONDITION, null, text(entry.path(3)), null, null));
+
+        for (StoryManifest.MiniGameTrigger game : miniGames) {
+            edge(source, TransitionKind.MINIGAME_SUCCESS, game.dialog(), game.successTarget(), null, game.gameId());
+            edge(source, TransitionKind.MINIGAME_FAILURE, game.dialog(), game.failTarget(), null, game.gameId());
+        }
+        for (int i = 0; i < dialogs.size() && fallsThrough; i++) {
+            JsonNode dialog = dialogs.get(i);
+            if (dialog.path("timer").isArray()) {
+                edge(source, TransitionKind.TIMER, i, text(dialog.path("timer").path(1)), null, null);
+            }
+            edge(source, TransitionKind.VIDEO, i, text(dialog.path("video").path("go_to")), null, null);
+            String goTo = text(dialog.path("go_to"));
+            if (goTo != null && !NOT_NAVIGATING.contains(goTo)) {
+                edge(source, TransitionKind.JUMP, i, goTo, null, null);
+                fallsThrough = false;
+            }
+            for (JsonNode choice : dialog.path("choice")) {
+                for (String target : targets(choice.path("go_to"))) {
+                    if (edge(source, TransitionKind.CHOICE, i, target, text(choice.path("text")), null)) {
+                        // Un choix qui mène quelque part bloque la lecture jusqu'à ce qu'il soit fait
+                        fallsThrough = false;
+                    }
+                }
+            }
+        }
+        nodes.add(new Node(chapterIndex, source - chapterStarts.get(chapterIndex), dialogs.size(), fallsThrough));
+    }
+
+    /**
+     * @param launchStory chapitre de départ
+     * @param parameters  paramètres de l'histoire : les boutons du menu peuvent mener à un chapitre
+     */
+    StoryGraph compile(String launchStory, JsonNode parameters) {
+        Map<String, Integer> chapterIndexes = new HashMap<>();
+        for (int i = 0; i < chapters.size(); i++) {
+            chapterIndexes.putIfAbsent(chapters.get(i), i);
+        }
+        List<StoryGraph.Edge> edges = new ArrayList<>();
+        for (PendingEdge edge : pending) {
+            int[] target = resolve(edge.source(), edge.targetRef(), chapterIndexes);
+            edges.add(new StoryGraph.Edge(edge.source(), target == null ? null : target[0], edge.kind(), edge.dialog(),
+                    target == null ? null : target[1], edge.targetRef(), edge.text(), edge.miniGameId()));
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i).fallsThrough() && hasNextInChapter(i)) {
+                edges.add(new StoryGraph.Edge(i, i + 1, TransitionKind.NEXT, null, 0, null, null, null));
+            }
+        }
+
+        List<List<Integer>> adjacency = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            adjacency.add(new ArrayList<>());
+        }
+        edges.stream().filter(edge -> edge.target() != null)
+                .forEach(edge -> adjacency.get(edge.source()).add(edge.target()));
+
+        Set<Integer> roots = new LinkedHashSet<>();
+        Integer launch = launchStory == null ? null : chapterIndexes.get(launchStory);
+        if (launch != null) {
+            roots.add(chapterStarts.get(launch));
+        } else if (!nodes.isEmpty()) {
+            roots.add(0);
+        }
+        JsonNode buttons = parameters == null ? MissingNode.getInstance() : parameters.path("buttons");
+        for (JsonNode button : buttons) {
+            Integer chapter = chapterIndexes.get(button.path("name").asText());
+            if (chapter != null) {
+                roots.add(chapterStarts.get(chapter));
+            }
+        }
+        BitSet reachable = new BitSet(nodes.size());
+        Deque<Integer> queue = new ArrayDeque<>(roots);
+        roots.forEach(reachable::set);
+        while (!queue.isEmpty()) {
+            for (int next : adjacency.get(queue.poll())) {
+                if (!reachable.get(next)) {
+                    reachable.set(next);
+                    queue.add(next);
+                }
+            }
+        }
+
+        List<StoryGraph.Scene> scenes = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            scenes.add(new StoryGraph.Scene(chapters.get(node.chapterIndex()), node.chapterIndex(), node.sceneIndex(),
+                    node.dialogs(), reachable.get(i), adjacency.get(i).isEmpty()));
+        }
+        return new StoryGraph(scenes, edges);
+    }
+
+    // Retient une sortie ; false si la valeur ne mène nulle part
+    private boolean edge(int source, TransitionKind kind, Integer dialog, String targetRef, String text, String miniGameId) {
+        if (targetRef == null || targetRef.isBlank() || NOT_NAVIGATING.contains(targetRef)) {
+            return false;
+        }
+        if (text != null && text.length() > MAX_TEXT_LENGTH) {
+            text = text.substring(0, MAX_TEXT_LENGTH);
+        }
+        pending.add(new PendingEdge(source, kind, dialog, targetRef, text, miniGameId));
+        return true;
+    }
+
+    // {scène, dialogue}, ou null si la cible n'existe pas
+    private int[] resolve(int source, String targetRef, Map<String, Integer> chapterIndexes) {
+        if (NEXT_SCENE.equals(targetRef)) {
+            return hasNextInChapter(source) ? new int[]{source + 1, 0} : null;
+        }
+        String[] parts = targetRef.split(",");
+        Integer chapter = chapterIndexes.get(parts[0].trim());
+        if (chapter == null) {
+            return null;
+        }
+        try {
+            int scene = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0;
+            int dialog = parts.length > 2 ? Integer.parseInt(parts[2].trim()) : 0;
+            int start = chapterStarts.get(chapter);
+            int end = chapter + 1 < chapterStarts.size() ? chapterStarts.get(chapter + 1) : nodes.size();
+            if (scene < 0 || start + scene >= end || dialog < 0) {
+                return null;
+            }
+            return new int[]{start + scene, dialog};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean hasNextInChapter(int node) {
+        return node + 1 < nodes.size() && nodes.get(node + 1).chapterIndex() == nodes.get(node).chapterIndex();
+    }
+
+    // go_to d'un choix : une cible, ou une cible par langue
+    private static List<String> targets(JsonNode goTo) {
+        if (goTo.isObject()) {
+            List<String> targets = new ArrayList<>();
+            goTo.forEach(value -> {
+                String target = text(value);
+                if (target != null && !targets.contains(target)) {
+                    targets.add(target);
+                }
+            });
+            return targets;
+        }
+        String target = text(goTo);
+        return target == null ? List.of() : List.of(target);
+    }
+
+    // Texte simple, ou la première langue d'un texte traduit
+    private static String text(JsonNode node) {
+        if (node.isObject()) {
+            return node.isEmpty() ? null : text(node.elements().next());
+        }
+        return node.isValueNode() && !node.isNull() ? node.asText() : null;
+    }
+}
@@ -0,0 +1,79 @@
+package cipestudio.service;
+
+import cipestudio.dto.page.StoryGraphDTO;
+import cipestudio.model.Page;
+import cipestudio.model.StoryScene;
+import cipestudio.model.Transition;
+import cipestudio.repository.StorySceneRepository;
+import cipestudio.repository.TransitionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Index en base de la structure des histoires publiées (scènes et transitions), remplacé à chaque publication.
+ * Navigation du lecteur, préchargement et statistiques le lisent sans télécharger ni analyser le JSON.
+ */
+@Service
+@RequiredArgsConstructor
+public class StoryGraphService {
+    private final StorySceneRepository storySceneRepository;
+    private final TransitionRepository transitionRepository;
+
+    @Transactional
+    public void replace(Page page, StoryGraph graph) {
+        transitionRepository.deleteByPageIds(List.of(page.getId()));
+        storySceneRepository.deleteByPageIds(List.of(page.getId()));
+
+        List<StoryScene> scenes = new ArrayList<>(graph.scenes().size());
+        for (StoryGraph.Scene node : graph.scenes()) {
+            StoryScene scene = new StoryScene();
+            scene.setPage(page);
+            scene.setChapter(node.chapter());
+            scene.setChapterIndex(node.chapterIndex());
+            scene.setSceneIndex(node.sceneIndex());
+            scene.setDialogs(node.dialogs());
+            scene.setReachable(node.reachable());
+            scene.setDeadEnd(node.deadEnd());
+            scenes.add(scene);
+        }
+        scenes = storySceneRepository.saveAll(scenes);
+
+        List<Transition> transitions = new ArrayList<>(graph.transitions().size());
+        for (StoryGraph.Edge edge : graph.transitions()) {
+            Transition transition = new Transition();
+            transition.setSourcePage(page);
+            transition.setTargetPage(page);
+            transition.setKind(edge.kind());
+            transition.setSourceScene(scenes.get(edge.source()));
+            transition.setTargetScene(edge.target() == null ? null : scenes.get(edge.target()));
+            transition.setSourceDialog(edge.dialog());
+            transition.setTargetDialog(edge.targetDialog());
+            transition.setTargetRef(edge.targetRef());
+            transition.setText(edge.text());
+            transition.setMiniGameId(edge.miniGameId());
+            transitions.add(transition);
+        }
+        transitionRepository.saveAll(transitions);
+
+        if (graph.unreachableCount() > 0 || graph.brokenLinkCount() > 0) {
+            System.out.println("Histoire " + page.getBook().getId() + " : " + graph.unreachableCount() + " scène(s) inaccessible(s), "
+                    + graph.brokenLinkCount() + " lien(s) cassé(s), " + graph.deadEndCount() + " fin(s)");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public StoryGraphDTO getGraph(Long bookId) {
+        return new StoryGraphDTO(storySceneRepository.findGraphScenes(bookId), transitionRepository.findGraphTransitions(bookId));
+    }
+
+    @Transactional
+    public void deleteByBookIds(Collection<Long> bookIds) {
+        transitionRepository.deleteByBookIds(bookIds);
+        storySceneRepository.deleteByBookIds(bookIds);
+    }
+}
@@ -0,0 +1,27 @@
+package cipestudio.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sommaire d'une histoire publiée découpée par scène : ce qu'il faut au lecteur pour démarrer
+ * (paramètres, liste des chapitres et des scènes) sans télécharger les dialogues.
+ *
+ * @param root       entrées de premier niveau qui ne sont pas des chapitres (parameters, blocks...)
+ * @param launchStory chapitre de départ
+ */
+public record StoryManifest(int format, Long bookId, String launchStory, Map<String, JsonNode> root, List<Chapter> chapters) {
+    public static final int FORMAT = 1;
+
+    public record Chapter(String name, List<Scene> scenes) {
+    }
+
+    /** @param size taille du JSON de la scène en octets (non compressé) */
+    public record Scene(String key, long size, int dialogs, List<MiniGameTrigger> miniGames) {
+    }
+
+    public record MiniGameTrigger(int dialog, String gameId, String type, String successTarget, String failTarget) {
+    }
+}
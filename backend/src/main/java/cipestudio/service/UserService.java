@@ -4,15 +4,19 @@ package cipestudio.service;
 import cipestudio.dto.auth.*;
 import cipestudio.dto.user.URLResponseDTO;
 import cipestudio.dto.user.UpdateUserRequestDTO;
+import cipestudio.event.BooksChangedEvent;
 import cipestudio.exceptions.EmailAlreadyExistsException;
 import cipestudio.mapper.UserMapper;
 import cipestudio.model.RefreshToken;
 import cipestudio.model.User;
+import cipestudio.repository.BookRepository;
 import cipestudio.repository.RefreshTokenRepository;
 import cipestudio.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
@@ -20,13 +24,15 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -39,7 +45,11 @@ public class UserService{
     private final RefreshTokenRepository refreshTokenRepository;
     private final RefreshTokenService refreshTokenService;
     private final Environment env;
-    private final SeaweedFStorageService seaweedFSStorageService;
+    private final ImageVariantService imageVariantService;
+    private final StorageCleanupService storageCleanupService;
+    private final TransactionTemplate transactionTemplate;
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public UserDTO registerUser(RegistrationRequestDTO registrationRequest) {
@@ -214,8 +224,15 @@ public class UserService{
         User user = userRepository.findById(userId).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "User not found")
         );
-        if (updateUserRequestDTO.getNom() != null && !updateUserRequestDTO.getNom().isBlank()) {
+        if (updateUserRequestDTO.getNom() != null && !updateUserRequestDTO.getNom().isBlank()
+                && !updateUserRequestDTO.getNom().equals(user.getNom())) {
             user.setNom(updateUserRequestDTO.getNom());
+            // Le nom de l'auteur est affiché avec ses livres : leurs empreintes et caches doivent changer aussi.
+            List<Long> bookIds = bookRepository.findIdsByAuthorId(userId);
+            if (!bookIds.isEmpty()) {
+                bookRepository.touch(bookIds, LocalDateTime.now());
+                eventPublisher.publishEvent(new BooksChangedEvent(bookIds));
+            }
         }
         if(updateUserRequestDTO.getEmail() != null && !updateUserRequestDTO.getEmail().isBlank() && !updateUserRequestDTO.getEmail().equals(user.getEmail())) {
             if(userRepository.existsByEmail(updateUserRequestDTO.getEmail())) {
@@ -231,18 +248,22 @@ public class UserService{
         }
         return userMapper.toDto(userRepository.save(user));
     }
-    @Transactional
-    public URLResponseDTO updateAvatar(Long userId, MultipartFile file) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "User not found")
-        );
-        if(user.getAvatar() != null && !user.getAvatar().isBlank()) {
-            seaweedFSStorageService.deleteFile(user.getAvatar());
+    public CompletableFuture<URLResponseDTO> updateAvatar(Long userId, InputStreamSource file) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User not found");
         }
-        URLResponseDTO avatarUrl = new URLResponseDTO(seaweedFSStorageService.uploadFile(file));
-        user.setAvatar(avatarUrl.getUrl());
-        userRepository.save(user);
-        return avatarUrl;
+        return imageVariantService.storeAndCommit(ObjectKeys.userAvatar(userId), file, avatar -> transactionTemplate.execute(status -> {
+            User user = userRepository.findById(userId).orElseThrow(
+                    () -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "User not found")
+            );
+            storageCleanupService.schedule(user.getAvatar(), user.getAvatarThumbnailUrl(), user.getAvatarCardUrl());
+            user.setAvatar(avatar.fullUrl());
+            user.setAvatarThumbnailUrl(avatar.thumbnailUrl());
+            user.setAvatarCardUrl(avatar.cardUrl());
+            user.setAvatarPlaceholder(avatar.placeholder());
+            userRepository.save(user);
+            return avatar.toResponse();
+        }));
     }
 
     @Transactional
@@ -0,0 +1,93 @@
+package cipestudio.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Découpe un texte français en termes indexables : minuscules, suppression des accents
+ * et ligatures, élisions (l', d', qu'...), mots vides et racinisation légère
+ * (pluriels et féminins simples), pour que « Châteaux » trouve « chateau ».
+ */
+public final class FrenchAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "avec", "ce", "ces", "dans", "de", "des", "du", "elle", "en", "et", "eux",
+            "il", "je", "la", "le", "les", "leur", "lui", "ma", "mais", "me", "meme", "mes", "moi", "mon",
+            "ne", "nos", "notre", "nous", "on", "ou", "par", "pas", "pour", "qu", "que", "qui", "sa", "se",
+            "ses", "son", "sur", "ta", "te", "tes", "toi", "ton", "tu", "un", "une", "vos", "votre", "vous",
+            "y", "est", "sont", "etait");
+
+    private static final Set<String> ELISIONS = Set.of(
+            "l", "d", "j", "m", "n", "s", "t", "c", "qu", "jusqu", "lorsqu", "puisqu", "quoiqu");
+
+    private FrenchAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) start = i;
+            } else if (start >= 0) {
+                addTerm(terms, folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static boolean isStopWord(String folded) {
+        return STOP_WORDS.contains(folded) || ELISIONS.contains(folded);
+    }
+
+    /** Minuscules sans accents ni ligatures ; l'apostrophe typographique devient une apostrophe simple. */
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.FRENCH)
+                .replace("œ", "oe")
+                .replace("æ", "ae")
+                .replace('’', '\'');
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (ELISIONS.contains(token) || STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    /** Racinisation minimale inspirée de Lucene (FrenchMinimalStemmer), sur texte déjà sans accents. */
+    static String stem(String token) {
+        int len = token.length();
+        if (len < 5 || !Character.isLetter(token.charAt(len - 1))) {
+            return token;
+        }
+        if (token.endsWith("aux") && !token.endsWith("eaux")) {
+            return token.substring(0, len - 3) + "al";
+        }
+        if (token.endsWith("x") || token.endsWith("s")) {
+            len--;
+        }
+        if (token.charAt(len - 1) == 'e' && len > 4) {
+            len--;
+        }
+        return token.substring(0, len);
+    }
+}
@@ -0,0 +1,379 @@
+package cipestudio.service.search;
+
+import cipestudio.enums.SearchType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire sur deux champs (titre/nom et description/tags), classé par BM25
+ * pondéré par la popularité.
+ * <p>
+ * Les documents reçoivent un numéro interne croissant ; une mise à jour supprime logiquement
+ * l'ancien numéro et en ajoute un nouveau. Les listes de postings sont compactées quand les
+ * documents supprimés deviennent majoritaires.
+ */
+class SearchIndex {
+
+    static final int PRIMARY = 0;
+    static final int SECONDARY = 1;
+    private static final double[] FIELD_WEIGHTS = {2.0, 1.0};
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double POPULARITY_WEIGHT = 0.15;
+    private static final int MAX_TF = 0xFFFF;
+    private static final int MIN_TOMBSTONES_BEFORE_COMPACTION = 1024;
+    private static final int MAX_QUERY_TERMS = 32;
+
+    private static final int SNAPSHOT_MAGIC = 0x43495345;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    record Hit(SearchType type, long id, String title, String coverUrl, double score) {
+    }
+
+    private static final class Doc {
+        final SearchType type;
+        final long id;
+        final String title;
+        final String coverUrl;
+        volatile int popularity;
+        final int[] lengths;
+        final String[] terms;
+        final int[] tfs;
+
+        Doc(SearchType type, long id, String title, String coverUrl, int popularity,
+            int[] lengths, String[] terms, int[] tfs) {
+            this.type = type;
+            this.id = id;
+            this.title = title;
+            this.coverUrl = coverUrl;
+            this.popularity = popularity;
+            this.lengths = lengths;
+            this.terms = terms;
+            this.tfs = tfs;
+        }
+    }
+
+    /** Numéros de documents croissants avec, pour chacun, les fréquences des deux champs (16 bits chacune). */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] tfs = new int[4];
+        int size;
+        int liveDf;
+
+        void add(int doc, int packedTf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            docs[size] = doc;
+            tfs[size] = packedTf;
+            size++;
+            liveDf++;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<SearchType, Map<Long, Integer>> live = new EnumMap<>(SearchType.class);
+    private final long[] fieldLengthSums = new long[2];
+    private Doc[] docs = new Doc[1024];
+    private int docCount;
+    private int liveCount;
+    private int tombstones;
+
+    SearchIndex() {
+        for (SearchType type : SearchType.values()) {
+            live.put(type, new HashMap<>());
+        }
+    }
+
+    void upsert(SearchType type, long id, String title, String text, String coverUrl, int popularity) {
+        Doc doc = analyze(type, id, title, text, coverUrl, popularity);
+        lock.writeLock().lock();
+        try {
+            Integer previous = live.get(type).get(id);
+            if (previous != null) {
+                removeInternal(previous);
+            }
+            addInternal(doc);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(SearchType type, long id) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = live.get(type).get(id);
+            if (previous != null) {
+                removeInternal(previous);
+                maybeCompact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void updatePopularity(SearchType type, long id, int popularity) {
+        lock.readLock().lock();
+        try {
+            Integer docId = live.get(type).get(id);
+            if (docId != null) {
+                docs[docId].popularity = popularity;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Set<Long> ids(SearchType type) {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(live.get(type).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Hit> search(String query, SearchType typeFilter, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(FrenchAnalyzer.analyze(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return List.of();
+            }
+            double[] avgLengths = {
+                    Math.max(1.0, fieldLengthSums[PRIMARY] / (double) liveCount),
+                    Math.max(1.0, fieldLengthSums[SECONDARY] / (double) liveCount)
+            };
+            float[] scores = new float[docCount];
+            byte[] matched = new byte[docCount];
+            int[] touched = new int[16];
+            int touchedCount = 0;
+
+            for (String term : terms) {
+                Postings p = postings.get(term);
+                if (p == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (liveCount - p.liveDf + 0.5) / (p.liveDf + 0.5));
+                for (int k = 0; k < p.size; k++) {
+                    int docId = p.docs[k];
+                    Doc doc = docs[docId];
+                    if (doc == null || (typeFilter != null && doc.type != typeFilter)) {
+                        continue;
+                    }
+                    double score = 0;
+                    for (int field = PRIMARY; field <= SECONDARY; field++) {
+                        int tf = field == PRIMARY ? p.tfs[k] >>> 16 : p.tfs[k] & MAX_TF;
+                        if (tf == 0) {
+                            continue;
+                        }
+                        double norm = K1 * (1 - B + B * doc.lengths[field] / avgLengths[field]);
+                        score += FIELD_WEIGHTS[field] * idf * tf * (K1 + 1) / (tf + norm);
+                    }
+                    if (matched[docId] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = docId;
+                    }
+                    matched[docId]++;
+                    scores[docId] += (float) score;
+                }
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Hit::score));
+            for (int i = 0; i < touchedCount; i++) {
+                int docId = touched[i];
+                Doc doc = docs[docId];
+                // Les documents qui contiennent tous les termes passent devant les correspondances partielles.
+                double coordination = matched[docId] / (double) terms.size();
+                double popularityBoost = 1 + POPULARITY_WEIGHT * Math.log1p(Math.max(0, doc.popularity));
+                double score = scores[docId] * coordination * popularityBoost;
+                if (top.size() == limit && score <= top.peek().score()) {
+                    continue;
+                }
+                top.add(new Hit(doc.type, doc.id, doc.title, doc.coverUrl, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(liveCount);
+            for (int docId = 0; docId < docCount; docId++) {
+                Doc doc = docs[docId];
+                if (doc == null) {
+                    continue;
+                }
+                out.writeByte(doc.type.ordinal());
+                out.writeLong(doc.id);
+                writeNullable(out, doc.title);
+                writeNullable(out, doc.coverUrl);
+                out.writeInt(doc.popularity);
+                out.writeInt(doc.lengths[PRIMARY]);
+                out.writeInt(doc.lengths[SECONDARY]);
+                out.writeInt(doc.terms.length);
+                for (int i = 0; i < doc.terms.length; i++) {
+                    out.writeUTF(doc.terms[i]);
+                    out.writeInt(doc.tfs[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static SearchIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Format de snapshot d'index inconnu");
+        }
+        SearchIndex index = new SearchIndex();
+        int count = in.readInt();
+        SearchType[] types = SearchType.values();
+        for (int n = 0; n < count; n++) {
+            SearchType type = types[in.readByte()];
+            long id = in.readLong();
+            String title = readNullable(in);
+            String coverUrl = readNullable(in);
+            int popularity = in.readInt();
+            int[] lengths = {in.readInt(), in.readInt()};
+            int termCount = in.readInt();
+            String[] terms = new String[termCount];
+            int[] tfs = new int[termCount];
+            for (int i = 0; i < termCount; i++) {
+                terms[i] = in.readUTF();
+                tfs[i] = in.readInt();
+            }
+            index.addInternal(new Doc(type, id, title, coverUrl, popularity, lengths, terms, tfs));
+        }
+        return index;
+    }
+
+    private static Doc analyze(SearchType type, long id, String title, String text, String coverUrl, int popularity) {
+        Map<String, int[]> frequencies = new LinkedHashMap<>();
+        List<String> primary = FrenchAnalyzer.analyze(title);
+        List<String> secondary = FrenchAnalyzer.analyze(text);
+        for (String term : primary) {
+            frequencies.computeIfAbsent(term, t -> new int[2])[PRIMARY]++;
+        }
+        for (String term : secondary) {
+            frequencies.computeIfAbsent(term, t -> new int[2])[SECONDARY]++;
+        }
+        String[] terms = new String[frequencies.size()];
+        int[] tfs = new int[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+            terms[i] = entry.getKey();
+            tfs[i] = Math.min(entry.getValue()[PRIMARY], MAX_TF) << 16 | Math.min(entry.getValue()[SECONDARY], MAX_TF);
+            i++;
+        }
+        return new Doc(type, id, title, coverUrl, popularity, new int[]{primary.size(), secondary.size()}, terms, tfs);
+    }
+
+    private void addInternal(Doc doc) {
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        int docId = docCount++;
+        docs[docId] = doc;
+        live.get(doc.type).put(doc.id, docId);
+        liveCount++;
+        fieldLengthSums[PRIMARY] += doc.lengths[PRIMARY];
+        fieldLengthSums[SECONDARY] += doc.lengths[SECONDARY];
+        for (int i = 0; i < doc.terms.length; i++) {
+            postings.computeIfAbsent(doc.terms[i], t -> new Postings()).add(docId, doc.tfs[i]);
+        }
+    }
+
+    private void removeInternal(int docId) {
+        Doc doc = docs[docId];
+        docs[docId] = null;
+        live.get(doc.type).remove(doc.id);
+        liveCount--;
+        tombstones++;
+        fieldLengthSums[PRIMARY] -= doc.lengths[PRIMARY];
+        fieldLengthSums[SECONDARY] -= doc.lengths[SECONDARY];
+        for (String term : doc.terms) {
+            Postings p = postings.get(term);
+            if (p != null && --p.liveDf == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void maybeCompact() {
+        if (tombstones < MIN_TOMBSTONES_BEFORE_COMPACTION || tombstones < liveCount) {
+            return;
+        }
+        Doc[] previous = docs;
+        int previousCount = docCount;
+        docs = new Doc[Math.max(1024, liveCount * 2)];
+        docCount = 0;
+        liveCount = 0;
+        tombstones = 0;
+        fieldLengthSums[PRIMARY] = 0;
+        fieldLengthSums[SECONDARY] = 0;
+        postings.clear();
+        live.values().forEach(Map::clear);
+        for (int docId = 0; docId < previousCount; docId++) {
+            if (previous[docId] != null) {
+                addInternal(previous[docId]);
+            }
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,4 @@
+package cipestudio.service.search;
+
+public record SearchPopularity(Long id, Integer popularity) {
+}
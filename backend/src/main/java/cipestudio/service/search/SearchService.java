@@ -0,0 +1,239 @@
+package cipestudio.service.search;
+
+import cipestudio.dto.search.SearchResultDTO;
+import cipestudio.enums.BookStatus;
+import cipestudio.enums.SearchType;
+import cipestudio.event.BookChangedEvent;
+import cipestudio.event.BooksChangedEvent;
+import cipestudio.event.CollectionChangedEvent;
+import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Recherche plein texte sur les livres publiés et les collections.
+ * <p>
+ * L'index vit en mémoire, suit les événements {@link BookChangedEvent} / {@link CollectionChangedEvent}
+ * et est sauvegardé sur disque. Au démarrage on recharge le snapshot puis on ne réindexe que ce qui
+ * a changé depuis (colonne update_at), au lieu de tout reconstruire.
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 50;
+    private static final int BATCH_SIZE = 500;
+    // Marge pour les transactions validées pendant l'écriture du snapshot.
+    private static final long SNAPSHOT_SAFETY_MINUTES = 5;
+
+    private final BookRepository bookRepository;
+    private final CollectionRepository collectionRepository;
+
+    @Value("${search.snapshot-path:}")
+    private String snapshotPath;
+
+    private volatile SearchIndex index = new SearchIndex();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public List<SearchResultDTO> search(String query, SearchType type, Integer limit) {
+        int size = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return index.search(query, type, size).stream()
+                .map(hit -> new SearchResultDTO(hit.type(), hit.id(), hit.title(), hit.coverUrl(), hit.score()))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        LocalDateTime snapshotTakenAt = loadSnapshot();
+        if (snapshotTakenAt == null) {
+            rebuild();
+        } else {
+            synchronize(snapshotTakenAt.minusMinutes(SNAPSHOT_SAFETY_MINUTES));
+        }
+        System.out.println("Index de recherche prêt : " + index.size() + " document(s)");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        try {
+            reindexBooks(List.of(event.bookId()));
+        } catch (Exception e) {
+            System.err.println("Erreur indexation livre " + event.bookId() + " : " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        try {
+            reindexBooks(event.bookIds());
+        } catch (Exception e) {
+            System.err.println("Erreur indexation de " + event.bookIds().size() + " livre(s) : " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        try {
+            reindexCollections(List.of(event.collectionId()));
+        } catch (Exception e) {
+            System.err.println("Erreur indexation collection " + event.collectionId() + " : " + e.getMessage());
+        }
+    }
+
+    /** Les compteurs (vues, nombre de livres) changent sans événement : on les resynchronise périodiquement. */
+    @Scheduled(fixedDelayString = "${search.refresh-interval-ms:600000}", initialDelayString = "${search.refresh-interval-ms:600000}")
+    public void refreshPopularityAndSnapshot() {
+        bookRepository.findSearchPopularities(BookStatus.PUBLISHED)
+                .forEach(p -> index.updatePopularity(SearchType.BOOK, p.id(), valueOf(p.popularity())));
+        collectionRepository.findSearchPopularities()
+                .forEach(p -> index.updatePopularity(SearchType.COLLECTION, p.id(), valueOf(p.popularity())));
+        dirty.set(true);
+        saveSnapshot();
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank() || !dirty.getAndSet(false)) {
+            return;
+        }
+        LocalDateTime takenAt = LocalDateTime.now();
+        Path target = Path.of(snapshotPath);
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeUTF(takenAt.toString());
+                index.writeTo(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            System.err.println("Impossible d'écrire le snapshot de l'index : " + e.getMessage());
+        }
+    }
+
+    private LocalDateTime loadSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank() || !Files.exists(Path.of(snapshotPath))) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Path.of(snapshotPath))))) {
+            LocalDateTime takenAt = LocalDateTime.parse(in.readUTF());
+            index = SearchIndex.readFrom(in);
+            return takenAt;
+        } catch (Exception e) {
+            System.err.println("Snapshot de l'index illisible, reconstruction complète : " + e.getMessage());
+            index = new SearchIndex();
+            return null;
+        }
+    }
+
+    private void rebuild() {
+        SearchIndex fresh = new SearchIndex();
+        long afterId = 0;
+        List<SearchSource> batch;
+        do {
+            batch = bookRepository.findSearchSources(BookStatus.PUBLISHED, afterId, PageRequest.ofSize(BATCH_SIZE));
+            batch.forEach(s -> upsert(fresh, SearchType.BOOK, s));
+            afterId = batch.isEmpty() ? afterId : batch.get(batch.size() - 1).id();
+        } while (batch.size() == BATCH_SIZE);
+        afterId = 0;
+        do {
+            batch = collectionRepository.findSearchSources(afterId, PageRequest.ofSize(BATCH_SIZE));
+            batch.forEach(s -> upsert(fresh, SearchType.COLLECTION, s));
+            afterId = batch.isEmpty() ? afterId : batch.get(batch.size() - 1).id();
+        } while (batch.size() == BATCH_SIZE);
+        index = fresh;
+        dirty.set(true);
+        saveSnapshot();
+    }
+
+    /** Rattrape les ajouts, suppressions et modifications survenus depuis le snapshot. */
+    private void synchronize(LocalDateTime since) {
+        Set<Long> bookIds = new HashSet<>();
+        bookRepository.findSearchPopularities(BookStatus.PUBLISHED).forEach(p -> {
+            bookIds.add(p.id());
+            index.updatePopularity(SearchType.BOOK, p.id(), valueOf(p.popularity()));
+        });
+        Set<Long> staleBooks = new HashSet<>(bookRepository.findIdsByStatusUpdatedSince(BookStatus.PUBLISHED, since));
+        staleBooks.addAll(difference(bookIds, index.ids(SearchType.BOOK)));
+        staleBooks.addAll(difference(index.ids(SearchType.BOOK), bookIds));
+        reindexBooks(staleBooks);
+
+        Set<Long> collectionIds = new HashSet<>();
+        collectionRepository.findSearchPopularities().forEach(p -> {
+            collectionIds.add(p.id());
+            index.updatePopularity(SearchType.COLLECTION, p.id(), valueOf(p.popularity()));
+        });
+        Set<Long> staleCollections = new HashSet<>(collectionRepository.findIdsUpdatedSince(since));
+        staleCollections.addAll(difference(collectionIds, index.ids(SearchType.COLLECTION)));
+        staleCollections.addAll(difference(index.ids(SearchType.COLLECTION), collectionIds));
+        reindexCollections(staleCollections);
+    }
+
+    private void reindexBooks(Collection<Long> ids) {
+        reindex(SearchType.BOOK, ids, chunk -> bookRepository.findSearchSourcesByIds(BookStatus.PUBLISHED, chunk));
+    }
+
+    private void reindexCollections(Collection<Long> ids) {
+        reindex(SearchType.COLLECTION, ids, collectionRepository::findSearchSourcesByIds);
+    }
+
+    // Un id absent du résultat (supprimé, ou livre qui n'est plus publié) sort de l'index.
+    private void reindex(SearchType type, Collection<Long> ids, Function<List<Long>, List<SearchSource>> loader) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += BATCH_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(from + BATCH_SIZE, all.size()));
+            Set<Long> missing = new HashSet<>(chunk);
+            for (SearchSource source : loader.apply(chunk)) {
+                upsert(index, type, source);
+                missing.remove(source.id());
+            }
+            missing.forEach(id -> index.remove(type, id));
+        }
+        dirty.set(true);
+    }
+
+    private static void upsert(SearchIndex target, SearchType type, SearchSource source) {
+        target.upsert(type, source.id(), source.title(), source.text(), source.coverUrl(), valueOf(source.popularity()));
+    }
+
+    private static Set<Long> difference(Set<Long> left, Set<Long> right) {
+        Set<Long> result = new HashSet<>(left);
+        result.removeAll(right);
+        return result;
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,8 @@
+package cipestudio.service.search;
+
+/**
+ * Projection des colonnes indexées : titre (ou nom) et texte secondaire
+ * (description d'un livre, tags d'une collection). coverUrl est la vignette quand elle existe.
+ */
+public record SearchSource(Long id, String title, String text, String coverUrl, Integer popularity) {
+}
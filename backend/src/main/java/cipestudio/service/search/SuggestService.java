@@ -0,0 +1,207 @@
+package cipestudio.service.search;
+
+import cipestudio.dto.book.BookSuggestionDTO;
+import cipestudio.dto.book.BookSummaryDTO;
+import cipestudio.enums.BookStatus;
+import cipestudio.enums.SuggestionType;
+import cipestudio.event.BookChangedEvent;
+import cipestudio.event.BooksChangedEvent;
+import cipestudio.repository.BookRepository;
+import cipestudio.service.search.SuggestionIndex.Suggestion;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Autocomplétion sur les titres publiés et les noms d'auteurs, classée par popularité (vues).
+ * <p>
+ * La structure de préfixes est reconstruite en bloc (démarrage, planification) ; entre deux
+ * reconstructions, les livres publiés ou retirés passent par une petite surcouche consultée
+ * à chaque requête, pour qu'un livre soit suggéré dès sa publication. Quand la surcouche devient trop
+ * grande, la reconstruction part sur un thread dédié : les requêtes continuent d'être servies par
+ * l'index courant et la surcouche jusqu'à la bascule.
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestService {
+    private static final int DEFAULT_LIMIT = 8;
+    private static final int MAX_LIMIT = 20;
+    private static final int BATCH_SIZE = 1000;
+    // Au-delà, la surcouche coûte plus cher à parcourir qu'une reconstruction.
+    private static final int MAX_OVERLAY_SIZE = 256;
+
+    private final BookRepository bookRepository;
+
+    @Value("${suggest.memory-budget:32MB}")
+    private DataSize memoryBudget;
+
+    private volatile SuggestionIndex index = SuggestionIndex.build(List.of(), 0);
+    // Livres modifiés depuis la dernière reconstruction : masqués dans l'index, remplacés par la surcouche.
+    private final Set<Long> changedBooks = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Suggestion> addedTitles = new ConcurrentHashMap<>();
+    private final Map<Long, Suggestion> addedAuthors = new ConcurrentHashMap<>();
+    // Une seule reconstruction en attente à la fois, quel que soit le nombre d'événements qui la demandent.
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private ExecutorService rebuildExecutor;
+
+    @PostConstruct
+    void start() {
+        rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public List<BookSuggestionDTO> suggest(String prefix, Integer limit) {
+        int size = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        String normalized = SuggestionIndex.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<Suggestion> candidates = new ArrayList<>(index.topK(normalized, size,
+                s -> s.type() != SuggestionType.TITLE || !changedBooks.contains(s.id())));
+        if (!changedBooks.isEmpty()) {
+            addedTitles.values().stream().filter(s -> SuggestionIndex.matches(s.text(), normalized)).forEach(candidates::add);
+            addedAuthors.values().stream().filter(s -> SuggestionIndex.matches(s.text(), normalized)).forEach(candidates::add);
+            candidates.sort(Comparator.comparingInt(Suggestion::popularity).reversed());
+        }
+        Map<String, Suggestion> distinct = new LinkedHashMap<>();
+        for (Suggestion s : candidates) {
+            distinct.putIfAbsent(s.type() + ":" + s.id(), s);
+        }
+        return distinct.values().stream()
+                .limit(size)
+                .map(s -> new BookSuggestionDTO(s.type(), s.id(), s.text()))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${suggest.refresh-interval-ms:600000}", initialDelayString = "${suggest.refresh-interval-ms:600000}")
+    public synchronized void rebuild() {
+        Set<Long> pending = Set.copyOf(changedBooks);
+        Map<Long, Suggestion> titles = new HashMap<>();
+        Map<Long, Suggestion> authors = new HashMap<>();
+        LocalDateTime createdAt = null;
+        Long lastId = null;
+        List<BookSummaryDTO> batch;
+        do {
+            batch = bookRepository.findStatusPageByNewest(BookStatus.PUBLISHED, createdAt, lastId, PageRequest.ofSize(BATCH_SIZE));
+            for (BookSummaryDTO book : batch) {
+                add(titles, authors, book);
+            }
+            if (!batch.isEmpty()) {
+                createdAt = batch.get(batch.size() - 1).getCreatedAt();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        List<Suggestion> all = new ArrayList<>(titles.values());
+        all.addAll(authors.values());
+        index = SuggestionIndex.build(all, memoryBudget.toBytes());
+        // Les changements arrivés pendant la lecture restent dans la surcouche.
+        changedBooks.removeAll(pending);
+        pending.forEach(addedTitles::remove);
+        if (changedBooks.isEmpty()) {
+            addedAuthors.clear();
+        }
+        System.out.println("Index de suggestions prêt : " + index.keyCount() + " clé(s), ~"
+                + index.estimatedBytes() / 1024 + " Ko");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        applyChanges(List.of(event.bookId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        applyChanges(event.bookIds());
+    }
+
+    private void applyChanges(List<Long> bookIds) {
+        try {
+            Map<Long, BookSummaryDTO> found = new HashMap<>();
+            bookRepository.findSummariesByIds(BookStatus.PUBLISHED, bookIds).forEach(book -> found.put(book.getId(), book));
+            for (Long bookId : bookIds) {
+                changedBooks.add(bookId);
+                BookSummaryDTO book = found.get(bookId);
+                if (book == null) {
+                    addedTitles.remove(bookId);
+                    continue;
+                }
+                addedTitles.put(bookId, title(book));
+                // Popularité provisoire (ce seul livre) jusqu'à la prochaine reconstruction.
+                if (book.getAuthorId() != null && book.getAuthorName() != null) {
+                    addedAuthors.putIfAbsent(book.getAuthorId(), author(book));
+                }
+            }
+            if (changedBooks.size() > MAX_OVERLAY_SIZE) {
+                scheduleRebuild();
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur suggestions pour " + bookIds.size() + " livre(s) : " + e.getMessage());
+        }
+    }
+
+    // Hors du thread de l'événement : celui-ci vient de valider une transaction et ne doit pas attendre la relecture.
+    private void scheduleRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildExecutor.execute(() -> {
+            rebuildQueued.set(false);
+            try {
+                rebuild();
+            } catch (Exception e) {
+                System.err.println("Erreur reconstruction des suggestions : " + e.getMessage());
+            }
+        });
+    }
+
+    private static void add(Map<Long, Suggestion> titles, Map<Long, Suggestion> authors, BookSummaryDTO book) {
+        titles.put(book.getId(), title(book));
+        if (book.getAuthorId() != null && book.getAuthorName() != null) {
+            authors.merge(book.getAuthorId(), author(book),
+                    (a, b) -> new Suggestion(a.type(), a.id(), a.text(), a.popularity() + b.popularity()));
+        }
+    }
+
+    private static Suggestion title(BookSummaryDTO book) {
+        return new Suggestion(SuggestionType.TITLE, book.getId(), book.getTitle(), views(book));
+    }
+
+    private static Suggestion author(BookSummaryDTO book) {
+        return new Suggestion(SuggestionType.AUTHOR, book.getAuthorId(), book.getAuthorName(), views(book));
+    }
+
+    private static int views(BookSummaryDTO book) {
+        return book.getViews() == null ? 0 : book.getViews();
+    }
+}
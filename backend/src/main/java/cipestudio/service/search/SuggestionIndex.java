@@ -0,0 +1,267 @@
+package cipestudio.service.search;
+
+import cipestudio.enums.SuggestionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Structure de préfixes compacte et immuable pour l'autocomplétion.
+ * <p>
+ * Chaque texte produit une clé par mot significatif (le texte entier, puis chaque suffixe
+ * commençant à un mot qui n'est pas un mot vide) : « Le dragon de Noël » répond à « le d »,
+ * « dra » et « noe ». Les clés triées sont concaténées dans un seul {@code char[]} ; un arbre
+ * de segments sur la popularité renvoie les k meilleures sources d'une plage de préfixe
+ * en O(k log n), sans parcourir toute la plage.
+ */
+final class SuggestionIndex {
+
+    record Suggestion(SuggestionType type, long id, String text, int popularity) {
+    }
+
+    // Coût estimé hors texte : offset, référence source et deux cases de l'arbre par clé.
+    private static final int ENTRY_OVERHEAD_BYTES = 16;
+    private static final int SOURCE_OVERHEAD_BYTES = 64;
+    private static final int MAX_POPS_PER_RESULT = 64;
+
+    private final Suggestion[] sources;
+    private final char[] keys;
+    private final int[] offsets;
+    private final int[] sourceOf;
+    private final int[] tree;
+    private final int size;
+    private final long estimatedBytes;
+
+    private SuggestionIndex(Suggestion[] sources, char[] keys, int[] offsets, int[] sourceOf, long estimatedBytes) {
+        this.sources = sources;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.sourceOf = sourceOf;
+        this.size = sourceOf.length;
+        this.estimatedBytes = estimatedBytes;
+        this.tree = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Construit l'index en gardant les sources les plus populaires tant que le budget mémoire estimé
+     * n'est pas dépassé.
+     */
+    static SuggestionIndex build(Collection<Suggestion> candidates, long budgetBytes) {
+        List<Suggestion> byPopularity = new ArrayList<>(candidates);
+        byPopularity.sort(Comparator.comparingInt(Suggestion::popularity).reversed()
+                .thenComparingLong(Suggestion::id));
+
+        List<Suggestion> kept = new ArrayList<>();
+        List<String> entryKeys = new ArrayList<>();
+        List<Integer> entrySources = new ArrayList<>();
+        long used = 0;
+        for (Suggestion candidate : byPopularity) {
+            List<String> candidateKeys = keysOf(candidate.text());
+            long cost = SOURCE_OVERHEAD_BYTES + 2L * candidate.text().length();
+            for (String key : candidateKeys) {
+                cost += ENTRY_OVERHEAD_BYTES + 2L * key.length();
+            }
+            if (candidateKeys.isEmpty() || used + cost > budgetBytes) {
+                continue;
+            }
+            used += cost;
+            for (String key : candidateKeys) {
+                entryKeys.add(key);
+                entrySources.add(kept.size());
+            }
+            kept.add(candidate);
+        }
+
+        Integer[] order = new Integer[entryKeys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(entryKeys::get));
+
+        int totalChars = entryKeys.stream().mapToInt(String::length).sum();
+        char[] keys = new char[totalChars];
+        int[] offsets = new int[order.length + 1];
+        int[] sourceOf = new int[order.length];
+        int cursor = 0;
+        for (int i = 0; i < order.length; i++) {
+            String key = entryKeys.get(order[i]);
+            key.getChars(0, key.length(), keys, cursor);
+            offsets[i] = cursor;
+            cursor += key.length();
+            sourceOf[i] = entrySources.get(order[i]);
+        }
+        offsets[order.length] = cursor;
+        return new SuggestionIndex(kept.toArray(new Suggestion[0]), keys, offsets, sourceOf, used);
+    }
+
+    /** Les k sources les plus populaires dont une clé commence par {@code prefix} (déjà normalisé). */
+    List<Suggestion> topK(String prefix, int k, Predicate<Suggestion> accept) {
+        List<Suggestion> result = new ArrayList<>(k);
+        int lo = lowerBound(prefix);
+        int hi = upperBound(prefix, lo);
+        if (lo >= hi || k <= 0) {
+            return result;
+        }
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                (a, b) -> Integer.compare(sources[sourceOf[b[2]]].popularity(), sources[sourceOf[a[2]]].popularity()));
+        ranges.add(new int[]{lo, hi, argMax(lo, hi)});
+        Set<Integer> seen = new HashSet<>();
+        int pops = 0;
+        while (!ranges.isEmpty() && result.size() < k && pops++ < k * MAX_POPS_PER_RESULT) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            int source = sourceOf[best];
+            if (seen.add(source) && accept.test(sources[source])) {
+                result.add(sources[source]);
+            }
+            if (range[0] < best) {
+                ranges.add(new int[]{range[0], best, argMax(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[]{best + 1, range[1], argMax(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    List<Suggestion> sources() {
+        return List.of(sources);
+    }
+
+    int keyCount() {
+        return size;
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    static boolean matches(String text, String prefix) {
+        for (String key : keysOf(text)) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Texte replié (sans accents, minuscules) où toute suite de séparateurs devient un espace. */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = FrenchAnalyzer.fold(text);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (!sb.isEmpty() && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    static List<String> keysOf(String text) {
+        String normalized = normalize(text);
+        Set<String> result = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        result.add(normalized);
+        int start = 0;
+        while (start < normalized.length()) {
+            int end = normalized.indexOf(' ', start);
+            if (end < 0) {
+                end = normalized.length();
+            }
+            if (start > 0 && !FrenchAnalyzer.isStopWord(normalized.substring(start, end))) {
+                result.add(normalized.substring(start));
+            }
+            start = end + 1;
+        }
+        return new ArrayList<>(result);
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        int pa = sources[sourceOf[a]].popularity();
+        int pb = sources[sourceOf[b]].popularity();
+        return pa > pb || (pa == pb && a < b) ? a : b;
+    }
+
+    private int argMax(int from, int to) {
+        int best = -1;
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = better(best, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = better(best, tree[--r]);
+            }
+        }
+        return best;
+    }
+
+    // <0 si la clé est avant le préfixe, 0 si elle commence par le préfixe, >0 sinon.
+    private int comparePrefix(int entry, String prefix) {
+        int start = offsets[entry];
+        int length = offsets[entry + 1] - start;
+        int n = Math.min(length, prefix.length());
+        for (int i = 0; i < n; i++) {
+            int diff = keys[start + i] - prefix.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length >= prefix.length() ? 0 : -1;
+    }
+
+    private int lowerBound(String prefix) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(mid, prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int lo = from;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(mid, prefix) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,109 @@
+package cipestudio.service.storage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.LongSupplier;
+
+/**
+ * Disjoncteur à trois états. Fermé : tout passe, et failureThreshold échecs consécutifs l'ouvrent.
+ * Ouvert : tout est refusé pendant openDuration. Ensuite, un seul appel d'essai passe (semi-ouvert) :
+ * sa réussite referme le circuit, son échec le rouvre pour une nouvelle période.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probing;
+    private long timesOpened;
+    private LocalDateTime lastOpenedAt;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /** Vrai si l'appel peut être tenté ; en semi-ouvert, seul le premier appelant obtient l'essai. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probing) {
+                    yield false;
+                }
+                probing = true;
+                yield true;
+            }
+        };
+    }
+
+    /** Même règle que tryAcquire, sans réserver l'essai du semi-ouvert. */
+    public synchronized boolean isAvailable() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> nanoClock.getAsLong() - openedAtNanos >= openNanos;
+            case HALF_OPEN -> !probing;
+        };
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                timesOpened++;
+                lastOpenedAt = LocalDateTime.now();
+            }
+            state = State.OPEN;
+            openedAtNanos = nanoClock.getAsLong();
+            probing = false;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long timesOpened() {
+        return timesOpened;
+    }
+
+    public synchronized LocalDateTime lastOpenedAt() {
+        return lastOpenedAt;
+    }
+
+    /** Temps restant avant l'appel d'essai, 0 si le circuit n'est pas ouvert. */
+    public synchronized long retryAfterMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, (openedAtNanos + openNanos - nanoClock.getAsLong()) / 1_000_000);
+    }
+}
@@ -0,0 +1,17 @@
+package cipestudio.service.storage;
+
+import java.io.IOException;
+
+/** Appel refusé par le circuit ouvert de {@link ResilientObjectStore}, sans contacter le backend. */
+public class CircuitOpenException extends IOException {
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(long retryAfterMillis) {
+        super("Stockage indisponible (circuit ouvert)");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,160 @@
+package cipestudio.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Objets stockés sous un répertoire local, la clé servant de chemin relatif.
+ * <p>
+ * Chaque objet est un seul fichier : un en-tête (taille sur 4 octets, puis lignes "Nom: valeur",
+ * Content-Type en premier) suivi du contenu. L'écriture se fait dans un fichier temporaire du même
+ * répertoire, synchronisé sur disque puis renommé atomiquement : contenu et métadonnées changent ensemble.
+ */
+public class FileSystemObjectStore implements ObjectStore {
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    private final Path root;
+
+    public FileSystemObjectStore(Path root) throws IOException {
+        this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size, String contentType, Map<String, String> headers) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temporary = target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(content)) {
+                ByteBuffer header = encodeHeader(contentType, headers);
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                long position = channel.position();
+                long transferred;
+                // transferFrom rend 0 une fois la source épuisée
+                while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public StoredObject get(String key) throws IOException {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchFileException(key);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(channel, length);
+            ByteBuffer header = ByteBuffer.allocate(length.flip().getInt());
+            readFully(channel, header);
+            Map<String, String> headers = decodeHeader(header.flip());
+            String contentType = headers.remove(CONTENT_TYPE);
+            long size = channel.size() - channel.position();
+            // Le flux lit le canal à partir de la fin de l'en-tête
+            return new StoredObject(Channels.newInputStream(channel), size, contentType, headers);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<String> list(String prefix) throws IOException {
+        // Parcours limité au répertoire le plus profond désigné par le préfixe
+        int lastSlash = prefix.lastIndexOf('/');
+        Path directory = lastSlash < 0 ? root : resolve(prefix.substring(0, lastSlash));
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    // Fichiers temporaires d'une écriture en cours
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .map(file -> root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                    .filter(key -> key.startsWith(prefix))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @Override
+    public Map<String, String> delete(List<String> keys) {
+        Map<String, String> failures = new HashMap<>();
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(resolve(key));
+            } catch (IOException | IllegalArgumentException e) {
+                failures.put(key, e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    // Refuse les clés qui sortiraient du répertoire racine (../, chemin absolu).
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Clé d'objet invalide: " + key);
+        }
+        return path;
+    }
+
+    private static ByteBuffer encodeHeader(String contentType, Map<String, String> headers) {
+        StringBuilder text = new StringBuilder();
+        text.append(CONTENT_TYPE).append(": ").append(contentType == null ? "application/octet-stream" : contentType).append('\n');
+        headers.forEach((name, value) -> text.append(name).append(": ").append(value).append('\n'));
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).flip();
+    }
+
+    private static Map<String, String> decodeHeader(ByteBuffer header) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String line : StandardCharsets.UTF_8.decode(header).toString().split("\n")) {
+            int separator = line.indexOf(": ");
+            if (separator > 0) {
+                headers.put(line.substring(0, separator), line.substring(separator + 2));
+            }
+        }
+        return headers;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Objet tronqué");
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package cipestudio.service.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Objets gardés en mémoire, sans limite de taille : réservé aux tests et aux mesures,
+ * où il remplace un vrai stockage sans en masquer les lectures et écritures.
+ */
+public class InMemoryObjectStore implements ObjectStore {
+
+    private record Entry(byte[] content, String contentType, Map<String, String> headers) {
+    }
+
+    private final Map<String, Entry> objects = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String key, InputStream content, long size, String contentType, Map<String, String> headers) throws IOException {
+        // Lu en entier avant l'insertion : l'objet n'est visible qu'une fois complet.
+        objects.put(key, new Entry(content.readAllBytes(), contentType, Map.copyOf(headers)));
+    }
+
+    @Override
+    public StoredObject get(String key) throws IOException {
+        Entry entry = objects.get(key);
+        if (entry == null) {
+            throw new NoSuchFileException(key);
+        }
+        return new StoredObject(new ByteArrayInputStream(entry.content()), entry.content().length,
+                entry.contentType(), entry.headers());
+    }
+
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        Entry entry = objects.get(sourceKey);
+        if (entry == null) {
+            throw new NoSuchFileException(sourceKey);
+        }
+        objects.put(targetKey, entry);
+    }
+
+    @Override
+    public List<String> list(String prefix) {
+        return objects.keySet().stream().filter(key -> key.startsWith(prefix)).sorted().toList();
+    }
+
+    @Override
+    public Map<String, String> delete(List<String> keys) {
+        keys.forEach(objects::remove);
+        return Map.of();
+    }
+
+    public boolean contains(String key) {
+        return objects.containsKey(key);
+    }
+
+    public int size() {
+        return objects.size();
+    }
+}
@@ -0,0 +1,80 @@
+package cipestudio.service.storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences à seaux fixes, sans verrou.
+ * Un percentile rend la borne haute de son seau : précision suffisante pour repérer un nœud lent.
+ */
+public class LatencyHistogram {
+    // Bornes hautes des seaux, en millisecondes ; un dernier seau reçoit tout le reste.
+    static final long[] BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long millis = nanos / 1_000_000;
+        int bucket = 0;
+        while (bucket < BOUNDS_MS.length && millis >= BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /** Borne haute (ms) du seau contenant le quantile demandé, 0 sans mesure. */
+    public double percentileMs(double quantile) {
+        long[] counts = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return BOUNDS_MS[i];
+            }
+        }
+        return maxMs();
+    }
+
+    public double meanMs() {
+        long count = count();
+        return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    public double maxMs() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /** Nombre de mesures par seau (non cumulé), indexé par borne haute en ms ("+Inf" pour le dernier). */
+    public Map<String, Long> buckets() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            result.put(String.valueOf(BOUNDS_MS[i]), buckets.get(i));
+        }
+        result.put("+Inf", buckets.get(BOUNDS_MS.length));
+        return result;
+    }
+}
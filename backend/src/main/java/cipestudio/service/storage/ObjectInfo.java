@@ -0,0 +1,5 @@
+package cipestudio.service.storage;
+
+/** Métadonnées d'un objet stocké ; size vaut -1 si le backend ne la connaît pas. */
+public record ObjectInfo(long size, String contentType) {
+}
@@ -0,0 +1,130 @@
+package cipestudio.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Interface de stockage objet utilisée par {@link cipestudio.service.SeaweedFStorageService}.
+ * <p>
+ * Le backend est choisi par {@code storage.backend} : {@code s3} (SeaweedFS/MinIO, par défaut),
+ * {@code filesystem} (un répertoire local, pour un déploiement sur un seul nœud) ou {@code memory}
+ * (tests et mesures). Les clés peuvent contenir des "/" ; les URL publiques restent construites
+ * par le service.
+ */
+public interface ObjectStore {
+
+    /**
+     * Écrit l'objet, en remplaçant l'éventuel objet de même clé : un lecteur voit l'ancien contenu
+     * ou le nouveau, jamais un objet partiel.
+     *
+     * @param size taille du contenu, ou -1 si elle est inconnue
+     * @param headers en-têtes HTTP rendus avec l'objet (Content-Encoding, Cache-Control...)
+     */
+    void put(String key, InputStream content, long size, String contentType, Map<String, String> headers) throws IOException;
+
+    /** Ouvre l'objet ; {@link java.nio.file.NoSuchFileException} s'il n'existe pas. */
+    StoredObject get(String key) throws IOException;
+
+    /** Clés des objets qui commencent par prefix (« books/12/ » : tous les objets du livre 12), triées. */
+    List<String> list(String prefix) throws IOException;
+
+    /**
+     * Copie l'objet sous une autre clé, avec son type et ses en-têtes. Par défaut relu puis réécrit
+     * en flux ; S3 copie côté serveur.
+     */
+    default void copy(String sourceKey, String targetKey) throws IOException {
+        try (StoredObject source = get(sourceKey)) {
+            put(targetKey, source.stream(), source.size(), source.contentType(), source.headers());
+        }
+    }
+
+    /** Taille et type de l'objet sans lire son contenu ; {@link java.nio.file.NoSuchFileException} s'il n'existe pas. */
+    default ObjectInfo stat(String key) throws IOException {
+        try (StoredObject object = get(key)) {
+            return new ObjectInfo(object.size(), object.contentType());
+        }
+    }
+
+    /**
+     * URL d'envoi direct (PUT) vers le backend, valable expiry, sans passer par l'application.
+     * Vide si le backend ne sait pas en signer : l'application sert alors elle-même l'envoi.
+     */
+    default Optional<String> presignPut(String key, Duration expiry) throws IOException {
+        return Optional.empty();
+    }
+
+    /**
+     * Commence un envoi en plusieurs parties, repris d'une requête à l'autre (voir ResumableUploadService).
+     * Par défaut les parties sont des objets ordinaires sous multipart/{id}/, concaténés à la fin ;
+     * S3 utilise son propre envoi multipart.
+     *
+     * @return l'identifiant de l'envoi
+     */
+    default String createMultipart(String key, String contentType) throws IOException {
+        return UUID.randomUUID().toString();
+    }
+
+    /** Envoie la partie partNumber (à partir de 1) ; rend son étiquette, à redonner à completeMultipart. */
+    default String uploadPart(String key, String uploadId, int partNumber, InputStream content, long size) throws IOException {
+        put(partKey(uploadId, partNumber), content, size, "application/octet-stream", Map.of());
+        return String.valueOf(partNumber);
+    }
+
+    /** Assemble les parties dans l'ordre de leurs étiquettes : l'objet n'apparaît qu'une fois complet. */
+    default void completeMultipart(String key, String uploadId, String contentType, List<String> partTags) throws IOException {
+        Iterator<String> tags = partTags.iterator();
+        // Parties ouvertes une à une pendant la copie : aucune n'est chargée en mémoire
+        Enumeration<InputStream> parts = new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return tags.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return get(partKey(uploadId, Integer.parseInt(tags.next()))).stream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        try (InputStream content = new SequenceInputStream(parts)) {
+            put(key, content, -1, contentType, Map.of());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        abortMultipart(key, uploadId, partTags.size());
+    }
+
+    /** Abandonne l'envoi et supprime ses parties ; partCount = nombre de parties envoyées. */
+    default void abortMultipart(String key, String uploadId, int partCount) throws IOException {
+        delete(IntStream.rangeClosed(1, partCount).mapToObj(partNumber -> partKey(uploadId, partNumber)).toList());
+    }
+
+    private static String partKey(String uploadId, int partNumber) {
+        return "multipart/" + uploadId + "/" + partNumber;
+    }
+
+    /**
+     * Supprime les objets ; une clé déjà absente compte comme supprimée.
+     *
+     * @return les clés non supprimées, avec le message d'erreur
+     */
+    Map<String, String> delete(List<String> keys);
+
+    /** Faux quand le stockage refuse les appels (circuit ouvert) : l'appelant peut délester sans attendre. */
+    default boolean isAvailable() {
+        return true;
+    }
+}
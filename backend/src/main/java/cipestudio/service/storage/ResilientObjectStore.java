@@ -0,0 +1,295 @@
+package cipestudio.service.storage;
+
+import cipestudio.dto.admin.StorageMetricsDTO;
+import cipestudio.dto.admin.StorageOperationStatsDTO;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enveloppe d'un {@link ObjectStore} : latences par opération, nouveaux essais et disjoncteur.
+ * <p>
+ * Lectures et suppressions sont rejouées jusqu'à maxAttempts fois, avec une attente aléatoire
+ * (« full jitter ») qui double à chaque essai ; un envoi ne l'est que si son flux peut être rembobiné.
+ * Aucun essai ne démarre au-delà du délai global d'un appel. Le délai de chaque requête est celui
+ * du client du backend (storage.resilience.io-timeout pour S3).
+ * Circuit ouvert : lectures et envois échouent aussitôt ({@link CircuitOpenException}),
+ * les suppressions sont rendues en échec pour que le nettoyage les reprenne plus tard.
+ * Une clé absente n'est pas une panne : elle ne compte ni comme échec ni comme essai. Une erreur de
+ * lecture du flux envoyé (client qui coupe au milieu d'un morceau) non plus : elle vient de l'appelant.
+ */
+public class ResilientObjectStore implements ObjectStore {
+
+    public enum Operation {
+        PUT, GET, DELETE, STAT, LIST, COPY
+    }
+
+    private static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+    }
+
+    /** Erreur de lecture du flux fourni par l'appelant, distincte d'une erreur du backend. */
+    static final class SourceReadException extends IOException {
+        SourceReadException(IOException cause) {
+            super("Lecture du flux envoyé interrompue: " + cause.getMessage(), cause);
+        }
+    }
+
+    // Marque les erreurs du flux de l'appelant, quel que soit l'enrobage ajouté ensuite par le client du backend.
+    private static final class SourceStream extends FilterInputStream {
+        SourceStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw new SourceReadException(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                throw new SourceReadException(e);
+            }
+        }
+    }
+
+    // Un essai, numéroté à partir de 1
+    @FunctionalInterface
+    private interface Attempt<T> {
+        T run(int attempt) throws IOException;
+    }
+
+    private final ObjectStore delegate;
+    private final CircuitBreaker breaker;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final long deadlineNanos;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    public ResilientObjectStore(ObjectStore delegate, CircuitBreaker breaker, int maxAttempts,
+                                Duration backoff, Duration maxBackoff, Duration deadline) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.deadlineNanos = deadline.toNanos();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream source, long size, String contentType, Map<String, String> headers) throws IOException {
+        InputStream content = new SourceStream(source);
+        boolean replayable = content.markSupported();
+        if (replayable) {
+            content.mark(Integer.MAX_VALUE);
+        }
+        call(Operation.PUT, replayable, attempt -> {
+            if (attempt > 1) {
+                content.reset();
+            }
+            delegate.put(key, content, size, contentType, headers);
+            return null;
+        });
+    }
+
+    @Override
+    public StoredObject get(String key) throws IOException {
+        return call(Operation.GET, true, attempt -> delegate.get(key));
+    }
+
+    @Override
+    public ObjectInfo stat(String key) throws IOException {
+        return call(Operation.STAT, true, attempt -> delegate.stat(key));
+    }
+
+    @Override
+    public List<String> list(String prefix) throws IOException {
+        return call(Operation.LIST, true, attempt -> delegate.list(prefix));
+    }
+
+    // Source relue à chaque essai : la copie peut être rejouée
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        call(Operation.COPY, true, attempt -> {
+            delegate.copy(sourceKey, targetKey);
+            return null;
+        });
+    }
+
+    // Signature calculée localement : ni latence ni panne à mesurer
+    @Override
+    public Optional<String> presignPut(String key, Duration expiry) throws IOException {
+        return delegate.presignPut(key, expiry);
+    }
+
+    // Envoi multipart : chaque étape passe par le disjoncteur ; une partie (flux de la requête) n'est pas rejouée
+    @Override
+    public String createMultipart(String key, String contentType) throws IOException {
+        return call(Operation.PUT, false, attempt -> delegate.createMultipart(key, contentType));
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream content, long size) throws IOException {
+        return call(Operation.PUT, false, attempt -> delegate.uploadPart(key, uploadId, partNumber, new SourceStream(content), size));
+    }
+
+    @Override
+    public void completeMultipart(String key, String uploadId, String contentType, List<String> partTags) throws IOException {
+        call(Operation.PUT, false, attempt -> {
+            delegate.completeMultipart(key, uploadId, contentType, partTags);
+            return null;
+        });
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId, int partCount) throws IOException {
+        call(Operation.DELETE, true, attempt -> {
+            delegate.abortMultipart(key, uploadId, partCount);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, String> delete(List<String> keys) {
+        OperationStats operation = stats.get(Operation.DELETE);
+        operation.calls.increment();
+        if (!breaker.tryAcquire()) {
+            operation.rejected.increment();
+            Map<String, String> rejected = new LinkedHashMap<>();
+            keys.forEach(key -> rejected.put(key, "Stockage indisponible (circuit ouvert)"));
+            return rejected;
+        }
+        long start = System.nanoTime();
+        try {
+            Map<String, String> failures = delegate.delete(keys);
+            // Seules les clés en échec sont rejouées
+            for (int attempt = 1; !failures.isEmpty() && attempt < maxAttempts && pause(attempt, start); attempt++) {
+                operation.retries.increment();
+                failures = delegate.delete(List.copyOf(failures.keySet()));
+            }
+            // Toutes les clés en échec : le backend ne répond pas, ce n'est pas une erreur propre à une clé
+            if (!keys.isEmpty() && failures.size() == keys.size()) {
+                operation.failures.increment();
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            return failures;
+        } finally {
+            operation.latency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return breaker.isAvailable() && delegate.isAvailable();
+    }
+
+    private <T> T call(Operation operation, boolean retryable, Attempt<T> body) throws IOException {
+        OperationStats operationStats = stats.get(operation);
+        operationStats.calls.increment();
+        if (!breaker.tryAcquire()) {
+            operationStats.rejected.increment();
+            throw new CircuitOpenException(breaker.retryAfterMillis());
+        }
+        long start = System.nanoTime();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    T result = body.run(attempt);
+                    breaker.onSuccess();
+                    return result;
+                } catch (NoSuchFileException e) {
+                    breaker.onSuccess();
+                    throw e;
+                } catch (IOException e) {
+                    if (isSourceFailure(e)) {
+                        // Le flux de l'appelant est perdu : ni rejoué ni compté contre le backend
+                        breaker.onSuccess();
+                        throw e;
+                    }
+                    if (!retryable || attempt >= maxAttempts || e instanceof InterruptedIOException || !pause(attempt, start)) {
+                        operationStats.failures.increment();
+                        breaker.onFailure();
+                        throw e;
+                    }
+                    operationStats.retries.increment();
+                } catch (RuntimeException e) {
+                    // Clé invalide... : le backend n'est pas en cause
+                    breaker.onSuccess();
+                    throw e;
+                }
+            }
+        } finally {
+            operationStats.latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private static boolean isSourceFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SourceReadException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Attente aléatoire avant l'essai suivant ; faux si elle dépasserait le délai global ou est interrompue.
+    private boolean pause(int attempt, long start) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        long sleepMillis = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+        if (System.nanoTime() + sleepMillis * 1_000_000 - start > deadlineNanos) {
+            return false;
+        }
+        try {
+            Thread.sleep(sleepMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public StorageMetricsDTO getStats() {
+        List<StorageOperationStatsDTO> operations = Arrays.stream(Operation.values())
+                .map(operation -> {
+                    OperationStats operationStats = stats.get(operation);
+                    LatencyHistogram latency = operationStats.latency;
+                    return new StorageOperationStatsDTO(operation.name(),
+                            operationStats.calls.sum(), operationStats.failures.sum(),
+                            operationStats.retries.sum(), operationStats.rejected.sum(),
+                            latency.meanMs(), latency.percentileMs(0.5), latency.percentileMs(0.95),
+                            latency.percentileMs(0.99), latency.maxMs(), latency.buckets());
+                })
+                .toList();
+        return new StorageMetricsDTO(breaker.state().name(), breaker.consecutiveFailures(), breaker.timesOpened(),
+                breaker.lastOpenedAt(), breaker.retryAfterMillis(), operations);
+    }
+}
@@ -0,0 +1,354 @@
+package cipestudio.service.storage;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.CopyObjectArgs;
+import io.minio.CopySource;
+import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.ListObjectsArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import io.minio.messages.Part;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Stockage sur SeaweedFS (ou tout service compatible S3) via le client MinIO.
+ * <p>
+ * Un objet plus grand qu'une partie (ou de taille inconnue qui la dépasse) est envoyé en multipart,
+ * jusqu'à parallelParts parties en vol à la fois : la mémoire reste bornée à parallelParts × partSize,
+ * là où putObject envoie les parties l'une après l'autre.
+ */
+public class S3ObjectStore implements ObjectStore {
+    // Limite de l'API DeleteObjects S3.
+    private static final int MAX_DELETE_BATCH = 1000;
+    // Taille minimale d'une partie (sauf la dernière) imposée par S3.
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final List<String> RETURNED_HEADERS = List.of("Content-Encoding", "Cache-Control");
+
+    private final MinioClient minioClient;
+    private final MinioAsyncClient asyncClient;
+    // Client configuré sur l'URL publique : la signature couvre l'hôte que le navigateur contactera.
+    private final MinioClient presignClient;
+    private final String bucketName;
+    private final int partSize;
+    private final int parallelParts;
+
+    /** Sans client asynchrone : uploads multipart séquentiels de putObject. */
+    public S3ObjectStore(MinioClient minioClient, String bucketName) {
+        this(minioClient, null, minioClient, bucketName, MIN_PART_SIZE, 1);
+    }
+
+    public S3ObjectStore(MinioClient minioClient, MinioAsyncClient asyncClient, MinioClient presignClient,
+                         String bucketName, int partSize, int parallelParts) {
+        this.minioClient = minioClient;
+        this.asyncClient = asyncClient;
+        this.presignClient = presignClient;
+        this.bucketName = bucketName;
+        this.partSize = Math.max(MIN_PART_SIZE, partSize);
+        this.parallelParts = Math.max(1, parallelParts);
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size, String contentType, Map<String, String> headers) throws IOException {
+        try {
+            if (asyncClient == null || (size >= 0 && size <= partSize)) {
+                putObject(key, content, size, contentType, headers);
+                return;
+            }
+            // Taille inconnue ou supérieure à une partie : la première partie lue décide.
+            byte[] first = content.readNBytes(partSize);
+            if (first.length < partSize) {
+                putObject(key, new ByteArrayInputStream(first), first.length, contentType, headers);
+            } else {
+                putMultipart(key, first, content, contentType, headers);
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrompu: " + key, e);
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void putObject(String key, InputStream content, long size, String contentType, Map<String, String> headers) throws Exception {
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(key)
+                        .stream(content, size, size < 0 ? partSize : -1)
+                        .contentType(contentType)
+                        .headers(headers)
+                        .build());
+    }
+
+    // Lecture séquentielle du flux (une partie à la fois), envois en parallèle bornés par le sémaphore.
+    private void putMultipart(String key, byte[] first, InputStream content, String contentType,
+                              Map<String, String> headers) throws Exception {
+        Multimap<String, String> uploadHeaders = HashMultimap.create();
+        headers.forEach(uploadHeaders::put);
+        uploadHeaders.put("Content-Type", contentType);
+        String uploadId = asyncClient.createMultipartUploadAsync(bucketName, null, key, uploadHeaders, null)
+                .get().result().uploadId();
+
+        Semaphore inFlight = new Semaphore(parallelParts);
+        List<CompletableFuture<Part>> parts = new ArrayList<>();
+        try {
+            byte[] part = first;
+            while (part.length > 0) {
+                inFlight.acquire();
+                int partNumber = parts.size() + 1;
+                CompletableFuture<Part> upload = asyncClient
+                        .uploadPartAsync(bucketName, null, key, part, part.length, uploadId, partNumber, null, null)
+                        .thenApply(response -> new Part(partNumber, response.etag()));
+                upload.whenComplete((done, error) -> inFlight.release());
+                parts.add(upload);
+                if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+                part = content.readNBytes(partSize);
+            }
+            Part[] uploaded = new Part[parts.size()];
+            for (int i = 0; i < uploaded.length; i++) {
+                uploaded[i] = parts.get(i).get();
+            }
+            asyncClient.completeMultipartUploadAsync(bucketName, null, key, uploadId, uploaded, null, null).get();
+        } catch (Exception e) {
+            parts.forEach(upload -> upload.cancel(true));
+            try {
+                asyncClient.abortMultipartUploadAsync(bucketName, null, key, uploadId, null, null).get();
+            } catch (Exception abortError) {
+                System.err.println("Abandon de l'upload multipart " + key + " impossible : " + abortError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public StoredObject get(String key) throws IOException {
+        try {
+            GetObjectResponse response = minioClient.getObject(
+                    GetObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(key)
+                            .build());
+            Map<String, String> headers = new HashMap<>();
+            for (String name : RETURNED_HEADERS) {
+                String value = response.headers().get(name);
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            }
+            String length = response.headers().get("Content-Length");
+            return new StoredObject(response, length != null ? Long.parseLong(length) : -1,
+                    response.headers().get("Content-Type"), headers);
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> list(String prefix) throws IOException {
+        try {
+            List<String> keys = new ArrayList<>();
+            // Pages de 1000 clés, demandées au fil du parcours
+            for (Result<Item> result : minioClient.listObjects(
+                    ListObjectsArgs.builder()
+                            .bucket(bucketName)
+                            .prefix(prefix)
+                            .recursive(true)
+                            .build())) {
+                keys.add(result.get().objectName());
+            }
+            return keys;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Copie côté serveur (CopyObject) : le contenu ne transite pas par l'application, les métadonnées suivent.
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        try {
+            minioClient.copyObject(
+                    CopyObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(targetKey)
+                            .source(CopySource.builder().bucket(bucketName).object(sourceKey).build())
+                            .build());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                throw new NoSuchFileException(sourceKey);
+            }
+            throw new IOException(e.getMessage(), e);
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ObjectInfo stat(String key) throws IOException {
+        try {
+            StatObjectResponse response = minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(key)
+                            .build());
+            return new ObjectInfo(response.size(), response.contentType());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /** Signature locale (région configurée sur le client) : aucun appel réseau. */
+    @Override
+    public Optional<String> presignPut(String key, Duration expiry) throws IOException {
+        try {
+            return Optional.of(presignClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(Method.PUT)
+                            .bucket(bucketName)
+                            .object(key)
+                            .expiry((int) expiry.toSeconds())
+                            .build()));
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Envoi multipart S3 : l'identifiant et les parties sont conservés par le backend entre deux requêtes.
+    @Override
+    public String createMultipart(String key, String contentType) throws IOException {
+        if (asyncClient == null) {
+            return ObjectStore.super.createMultipart(key, contentType);
+        }
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put("Content-Type", contentType);
+        return await(() -> asyncClient.createMultipartUploadAsync(bucketName, null, key, headers, null)).result().uploadId();
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream content, long size) throws IOException {
+        if (asyncClient == null) {
+            return ObjectStore.super.uploadPart(key, uploadId, partNumber, content, size);
+        }
+        return await(() -> asyncClient.uploadPartAsync(bucketName, null, key, content, size, uploadId, partNumber, null, null)).etag();
+    }
+
+    @Override
+    public void completeMultipart(String key, String uploadId, String contentType, List<String> partTags) throws IOException {
+        if (asyncClient == null) {
+            ObjectStore.super.completeMultipart(key, uploadId, contentType, partTags);
+            return;
+        }
+        Part[] parts = new Part[partTags.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new Part(i + 1, partTags.get(i));
+        }
+        await(() -> asyncClient.completeMultipartUploadAsync(bucketName, null, key, uploadId, parts, null, null));
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId, int partCount) throws IOException {
+        if (asyncClient == null) {
+            ObjectStore.super.abortMultipart(key, uploadId, partCount);
+            return;
+        }
+        try {
+            await(() -> asyncClient.abortMultipartUploadAsync(bucketName, null, key, uploadId, null, null));
+        } catch (IOException e) {
+            // Envoi déjà terminé ou abandonné
+            if (!(e.getCause() instanceof ErrorResponseException error && "NoSuchUpload".equals(error.errorResponse().code()))) {
+                throw e;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface AsyncCall<T> {
+        CompletableFuture<T> start() throws Exception;
+    }
+
+    private static <T> T await(AsyncCall<T> call) throws IOException {
+        try {
+            return call.start().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Envoi interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            throw new IOException(cause.getMessage(), cause);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /** Suppression groupée via DeleteObjects, par paquets de 1000 clés. */
+    @Override
+    public Map<String, String> delete(List<String> keys) {
+        Map<String, String> failures = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += MAX_DELETE_BATCH) {
+            List<String> chunk = keys.subList(from, Math.min(from + MAX_DELETE_BATCH, keys.size()));
+            try {
+                Iterable<Result<DeleteError>> results = minioClient.removeObjects(
+                        RemoveObjectsArgs.builder()
+                                .bucket(bucketName)
+                                .objects(chunk.stream().map(DeleteObject::new).toList())
+                                .build());
+                // L'itérable est paresseux : c'est le parcours qui envoie la requête.
+                for (Result<DeleteError> result : results) {
+                    DeleteError error = result.get();
+                    if (!"NoSuchKey".equals(error.code())) {
+                        failures.put(error.objectName(), error.message());
+                    }
+                }
+            } catch (Exception e) {
+                chunk.forEach(key -> failures.put(key, e.getMessage()));
+            }
+        }
+        return failures;
+    }
+}
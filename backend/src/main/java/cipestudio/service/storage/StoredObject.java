@@ -0,0 +1,19 @@
+package cipestudio.service.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/** Objet ouvert en lecture ; size vaut -1 si le backend ne la connaît pas. */
+public record StoredObject(InputStream stream, long size, String contentType, Map<String, String> headers) implements Closeable {
+
+    public String contentEncoding() {
+        return headers.get("Content-Encoding");
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
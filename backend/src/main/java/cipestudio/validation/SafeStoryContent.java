@@ -0,0 +1,26 @@
+package cipestudio.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Contenu d'histoire (JSON) sans code injectable : balises script/iframe/object/embed,
+ * URL javascript: ou attributs de gestionnaire d'événement. Voir {@link StoryContentScanner}.
+ */
+@Documented
+@Constraint(validatedBy = SafeStoryContentValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SafeStoryContent {
+    String message() default "Le contenu du livre contient du code non autorisé";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,30 @@
+package cipestudio.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+import java.util.Optional;
+
+public class SafeStoryContentValidator implements ConstraintValidator<SafeStoryContent, String> {
+
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+        Optional<StoryContentScanner.Violation> violation = StoryContentScanner.scan(value);
+        if (violation.isEmpty()) {
+            return true;
+        }
+        // Message précis (élément fautif et son chemin) à la place du message générique
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(escapeTemplate(violation.get().message()))
+                .addConstraintViolation();
+        return false;
+    }
+
+    // Le message contient du contenu utilisateur : pas d'interpolation de {...} ni ${...}
+    private static String escapeTemplate(String message) {
+        return message.replaceAll("([\\\\{}$])", "\\\\$1");
+    }
+}
@@ -0,0 +1,187 @@
+package cipestudio.validation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Queue;
+
+/**
+ * Recherche de code injectable dans un contenu d'histoire, en une seule passe linéaire.
+ * <p>
+ * Le JSON est lu en flux ; chaque nom de champ et chaque chaîne (décodés, donc aussi les {@code <...})
+ * passe dans un automate d'Aho-Corasick qui reconnaît tous les motifs à la fois, sans tenir compte de la casse :
+ * <ul>
+ *     <li>{@code <script}, {@code javascript:}, {@code <iframe}, {@code <object}, {@code <embed} ;</li>
+ *     <li>les attributs de gestionnaire d'événement : {@code on(load|click|mouse|key|error|abort|blur|change|focus|reset|submit|unload)},
+ *     en début de mot, suivi de lettres puis d'espaces et de {@code =}.</li>
+ * </ul>
+ * Mêmes règles que l'ancienne expression régulière, dont l'anticipation négative à chaque caractère
+ * coûtait cher et débordait la pile sur les grandes histoires.
+ */
+public final class StoryContentScanner {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String[] MARKUP = {"<script", "javascript:", "<iframe", "<object", "<embed"};
+    private static final String[] EVENT_HANDLERS = {"onload", "onclick", "onmouse", "onkey", "onerror", "onabort",
+            "onblur", "onchange", "onfocus", "onreset", "onsubmit", "onunload"};
+
+    private static final int ALPHABET = 128;
+    private static final String[] PATTERNS;
+    // Automate déterministe, à plat et insensible à la casse : NEXT[ligne + caractère ASCII] = ligne de l'état
+    // suivant (état * ALPHABET), complémentée (~) quand cet état reconnaît un motif, donné alors par MATCH[état].
+    private static final int[] NEXT;
+    private static final int[] MATCH;
+
+    static {
+        PATTERNS = new String[MARKUP.length + EVENT_HANDLERS.length];
+        System.arraycopy(MARKUP, 0, PATTERNS, 0, MARKUP.length);
+        System.arraycopy(EVENT_HANDLERS, 0, PATTERNS, MARKUP.length, EVENT_HANDLERS.length);
+
+        int maxStates = Arrays.stream(PATTERNS).mapToInt(String::length).sum() + 1;
+        int[][] next = new int[maxStates][ALPHABET];
+        int[] terminal = new int[maxStates];
+        Arrays.fill(terminal, -1);
+        for (int[] row : next) {
+            Arrays.fill(row, -1);
+        }
+        int states = 1;
+        for (int p = 0; p < PATTERNS.length; p++) {
+            int state = 0;
+            for (char c : PATTERNS[p].toCharArray()) {
+                if (next[state][c] < 0) {
+                    next[state][c] = states++;
+                }
+                state = next[state][c];
+            }
+            terminal[state] = p;
+        }
+
+        // Liens d'échec en largeur, repliés dans la table de transitions
+        int[] fail = new int[states];
+        int[] match = new int[states];
+        match[0] = -1;
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (next[0][c] < 0) {
+                next[0][c] = 0;
+            } else {
+                fail[next[0][c]] = 0;
+                queue.add(next[0][c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            match[state] = terminal[state] >= 0 ? terminal[state] : match[fail[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = next[state][c];
+                if (child < 0) {
+                    next[state][c] = next[fail[state]][c];
+                } else {
+                    fail[child] = next[fail[state]][c];
+                    queue.add(child);
+                }
+            }
+        }
+        NEXT = new int[states * ALPHABET];
+        for (int state = 0; state < states; state++) {
+            for (int c = 0; c < ALPHABET; c++) {
+                int target = next[state][c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c];
+                NEXT[state * ALPHABET + c] = match[target] >= 0 ? ~(target * ALPHABET) : target * ALPHABET;
+            }
+        }
+        MATCH = match;
+    }
+
+    private StoryContentScanner() {
+    }
+
+    /** Élément refusé et son emplacement (pointeur JSON). */
+    public record Violation(String path, String message) {
+    }
+
+    public static Optional<Violation> scan(String json) {
+        // Depuis un tableau : le parseur lit directement le texte, sans Reader intermédiaire
+        char[] chars = json.toCharArray();
+        try (JsonParser parser = JSON_FACTORY.createParser(chars, 0, chars.length)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME && token != JsonToken.VALUE_STRING) {
+                    continue;
+                }
+                String found = find(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                if (found != null) {
+                    String path = parser.getParsingContext().pathAsPointer().toString();
+                    return Optional.of(new Violation(path, "Le contenu du livre contient du code non autorisé (« "
+                            + found + " ») en " + (path.isEmpty() ? "/" : path)));
+                }
+            }
+            return Optional.empty();
+        } catch (JsonProcessingException e) {
+            JsonLocation location = e.getLocation();
+            String where = location != null ? " (ligne " + location.getLineNr() + ", colonne " + location.getColumnNr() + ")" : "";
+            return Optional.of(new Violation(null, "Le contenu du livre n'est pas un JSON valide" + where));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Premier motif interdit présent dans text[offset, offset + length), ou null. */
+    static String find(char[] text, int offset, int length) {
+        int end = offset + length;
+        int row = 0;
+        for (int i = offset; i < end; i++) {
+            char c = text[i];
+            if (c >= ALPHABET) {
+                // Aucun motif ne contient de caractère non ASCII
+                row = 0;
+                continue;
+            }
+            row = NEXT[row + c];
+            if (row < 0) {
+                row = ~row;
+                int pattern = MATCH[row / ALPHABET];
+                if (pattern < MARKUP.length || isEventAttribute(text, offset, end, i, PATTERNS[pattern].length())) {
+                    return PATTERNS[pattern];
+                }
+            }
+        }
+        return null;
+    }
+
+    // on... en début de mot, puis [a-z]*\s*= : chaque caractère n'est relu qu'une fois,
+    // un motif à l'intérieur d'un mot étant écarté dès le test de début de mot.
+    private static boolean isEventAttribute(char[] text, int offset, int end, int last, int length) {
+        int start = last - length + 1;
+        if (start > offset && isWordChar(text[start - 1])) {
+            return false;
+        }
+        int i = last + 1;
+        while (i < end && isAsciiLetter(text[i])) {
+            i++;
+        }
+        while (i < end && isWhitespace(text[i])) {
+            i++;
+        }
+        return i < end && text[i] == '=';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWordChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // \s des expressions régulières Java
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,88 @@
+package cipestudio.controller;
+
+import cipestudio.service.ContentDiskCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentResponsesTest {
+
+    @TempDir Path directory;
+
+    @Test
+    void sendGzipJson_ShouldServeRequestedRange() throws Exception {
+        ContentDiskCache.Entry entry = entry("0123456789");
+        MockHttpServletRequest request = gzipRequest();
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ContentResponses.sendGzipJson(request, response, entry);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("2345", response.getContentAsString());
+    }
+
+    @Test
+    void sendGzipJson_ShouldServeEverything_WhenIfRangeDoesNotMatch() throws Exception {
+        ContentDiskCache.Entry entry = entry("0123456789");
+        MockHttpServletRequest request = gzipRequest();
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"ancienne-version\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ContentResponses.sendGzipJson(request, response, entry);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(10, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void sendGzipJson_ShouldAnswer416_WhenRangeStartsAfterTheEnd() throws Exception {
+        MockHttpServletRequest request = gzipRequest();
+        request.addHeader("Range", "bytes=50-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ContentResponses.sendGzipJson(request, response, entry("0123456789"));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void sendGzipJson_ShouldServeTheOpenedFile_EvenIfEvictedMeanwhile() throws Exception {
+        MockHttpServletRequest request = gzipRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try (ContentDiskCache.Entry entry = entry("0123456789")) {
+            Files.delete(entry.file());
+            ContentResponses.sendGzipJson(request, response, entry);
+        }
+
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    // Le contenu n'a pas besoin d'être du vrai gzip : les plages portent sur les octets stockés.
+    private ContentDiskCache.Entry entry(String bytes) throws Exception {
+        Path file = Files.writeString(directory.resolve("content.json.gz"), bytes, StandardCharsets.US_ASCII);
+        return new ContentDiskCache.Entry(file, FileChannel.open(file, StandardOpenOption.READ), bytes.length(), "\"v1\"");
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/page/1/published/stream");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        return request;
+    }
+}
@@ -0,0 +1,203 @@
+package cipestudio.controller;
+
+import cipestudio.enums.BookStatus;
+import cipestudio.enums.Role;
+import cipestudio.model.Book;
+import cipestudio.model.Collection;
+import cipestudio.model.Page;
+import cipestudio.model.ReadingProgress;
+import cipestudio.model.User;
+import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import cipestudio.repository.PageRepository;
+import cipestudio.repository.ReadingProgressRepository;
+import cipestudio.repository.UserRepository;
+import cipestudio.service.CounterService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Garde-fou contre les N+1 : chaque endpoint de lecture est appelé sur un petit puis sur un gros
+ * jeu de données, et le nombre de requêtes SQL (statistiques Hibernate) ne doit ni dépasser
+ * le budget déclaré, ni augmenter avec la taille du résultat.
+ * <p>
+ * Les caches sont désactivés et les tâches planifiées repoussées pour ne compter que la requête HTTP.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "spring.cache.type=none",
+        "storage.cleanup.interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementCountRegressionTest {
+    private static final int SMALL = 3;
+    private static final int LARGE = 60;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private CollectionRepository collectionRepository;
+    @Autowired private PageRepository pageRepository;
+    @Autowired private ReadingProgressRepository readingProgressRepository;
+    @Autowired private CounterService counterService;
+
+    private record Fixture(User author, User editor, User reader, List<Long> bookIds, Long collectionId, Long emptyCollectionId) {
+    }
+
+    private record Scenario(String name, int budget, Function<Fixture, MockHttpServletRequestBuilder> request) {
+    }
+
+    private static final List<Scenario> SCENARIOS = List.of(
+            // BookController
+            new Scenario("GET /books/{id}", 2, f -> get("/books/" + f.bookIds().get(0)).with(as(f.reader(), "ENFANT"))),
+            new Scenario("GET /books/author", 2, f -> get("/books/author").with(as(f.author(), "AUTEUR"))),
+            new Scenario("GET /books/published", 1, f -> get("/books/published").with(as(f.editor(), "EDITEUR"))),
+            new Scenario("GET /books/bag", 3, f -> get("/books/bag").with(as(f.reader(), "ENFANT"))),
+            new Scenario("GET /books/public", 2, f -> get("/books/public").with(as(f.reader(), "ENFANT"))),
+            new Scenario("GET /books/author/page", 1, f -> get("/books/author/page?limit=100").with(as(f.author(), "AUTEUR"))),
+            new Scenario("GET /books/published/page", 1, f -> get("/books/published/page?limit=100").with(as(f.editor(), "EDITEUR"))),
+            new Scenario("GET /books/bag/page", 1, f -> get("/books/bag/page?limit=100").with(as(f.reader(), "ENFANT"))),
+            new Scenario("GET /books/public/page", 1, f -> get("/books/public/page?limit=100").with(as(f.reader(), "ENFANT"))),
+            // CollectionController
+            new Scenario("GET /collections/{id}", 2, f -> get("/collections/" + f.collectionId()).with(as(f.reader(), "ENFANT"))),
+            new Scenario("GET /collections", 2, f -> get("/collections").with(as(f.editor(), "EDITEUR"))),
+            new Scenario("POST /collections/{id}/books/bulk", 7, f -> post("/collections/" + f.emptyCollectionId() + "/books/bulk")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"bookIds\":" + f.bookIds() + "}").with(as(f.editor(), "EDITEUR"))),
+            // UserController
+            new Scenario("GET /users/me", 1, f -> get("/users/me").with(as(f.reader(), "ENFANT"))),
+            new Scenario("POST /users/me/bag/{bookId}", 3, f -> post("/users/me/bag/" + f.bookIds().get(0)).with(as(f.reader(), "ENFANT"))),
+            // PageController
+            new Scenario("GET /page/{id}/published/content", 2, f -> get("/page/" + f.bookIds().get(0) + "/published/content").with(as(f.reader(), "ENFANT"))),
+            new Scenario("GET /page/{id}/draft/content", 2, f -> get("/page/" + f.bookIds().get(0) + "/draft/content").with(as(f.author(), "AUTEUR"))),
+            // En dernier : l'archivage retire les livres des listes publiques
+            new Scenario("PATCH /books/bulk/status", 6, f -> jsonPatch("/books/bulk/status",
+                    "{\"status\":\"ARCHIVED\",\"bookIds\":" + f.bookIds() + "}").with(as(f.author(), "AUTEUR")))
+    );
+
+    @Test
+    void endpoints_ShouldStayWithinBudget_AndNotGrowWithResultSize() throws Exception {
+        Map<String, Long> small = measureAll(seed(SMALL));
+        Map<String, Long> large = measureAll(seed(LARGE));
+
+        List<String> failures = new ArrayList<>();
+        for (Scenario scenario : SCENARIOS) {
+            long smallCount = small.get(scenario.name());
+            long largeCount = large.get(scenario.name());
+            if (largeCount > smallCount) {
+                failures.add(scenario.name() + " : " + smallCount + " requêtes pour " + SMALL + " livres, "
+                        + largeCount + " pour " + LARGE + " (N+1 ?)");
+            }
+            if (largeCount > scenario.budget()) {
+                failures.add(scenario.name() + " : " + largeCount + " requêtes pour un budget de " + scenario.budget());
+            }
+        }
+        assertTrue(failures.isEmpty(), String.join("\n", failures) + "\nMesures : " + small + " / " + large);
+    }
+
+    private Map<String, Long> measureAll(Fixture fixture) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Scenario scenario : SCENARIOS) {
+            statistics.clear();
+            int status = mockMvc.perform(scenario.request().apply(fixture)).andReturn().getResponse().getStatus();
+            assertTrue(status >= 200 && status < 300, scenario.name() + " a répondu " + status);
+            counts.put(scenario.name(), statistics.getPrepareStatementCount());
+        }
+        return counts;
+    }
+
+    private Fixture seed(int size) {
+        User author = userRepository.save(user(Role.AUTEUR));
+        User editor = userRepository.save(user(Role.EDITEUR));
+        User reader = userRepository.save(user(Role.ENFANT));
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Book book = new Book();
+            book.setTitle("Histoire " + i);
+            book.setDescription("Une aventure");
+            book.setStatus(BookStatus.PUBLISHED);
+            book.setAuthor(author);
+            books.add(book);
+        }
+        books = bookRepository.saveAll(books);
+
+        List<Page> pages = new ArrayList<>();
+        List<ReadingProgress> progresses = new ArrayList<>();
+        for (Book book : books) {
+            Page page = new Page();
+            page.setBook(book);
+            page.setDraftUrl("http://localhost:9000/test-bucket/draft-" + book.getId() + ".json");
+            page.setPublishedUrl("http://localhost:9000/test-bucket/books/" + book.getId() + "/published/v1.json");
+            pages.add(page);
+            ReadingProgress progress = new ReadingProgress();
+            progress.setReader(reader);
+            progress.setBook(book);
+            progress.setIsOwned(true);
+            progresses.add(progress);
+        }
+        pageRepository.saveAll(pages);
+        readingProgressRepository.saveAll(progresses);
+
+        Collection collection = new Collection();
+        collection.setName("Collection de " + size);
+        collection.setEditor(editor);
+        collection.getBooks().addAll(books);
+        collection = collectionRepository.save(collection);
+        Collection empty = new Collection();
+        empty.setName("Vide");
+        empty.setEditor(editor);
+        empty = collectionRepository.save(empty);
+        counterService.scheduledReconcile();
+
+        List<Long> bookIds = books.stream().map(Book::getId).collect(Collectors.toList());
+        return new Fixture(author, editor, reader, bookIds, collection.getId(), empty.getId());
+    }
+
+    private static User user(Role role) {
+        User user = new User();
+        user.setNom(role.name().toLowerCase());
+        user.setEmail(UUID.randomUUID() + "@cipe.test");
+        user.setPassword("x");
+        user.setRole(role);
+        return user;
+    }
+
+    private static org.springframework.test.web.servlet.request.RequestPostProcessor as(User user, String role) {
+        return jwt().jwt(token -> token.subject(String.valueOf(user.getId())))
+                .authorities(new SimpleGrantedAuthority("SCOPE_ROLE_" + role));
+    }
+
+    private static MockHttpServletRequestBuilder jsonPatch(String url, String body) {
+        return org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
@@ -0,0 +1,95 @@
+package cipestudio.service;
+
+import cipestudio.dto.asset.BookAssetDTO;
+import cipestudio.model.BookAsset;
+import cipestudio.repository.BookAssetRepository;
+import cipestudio.service.storage.InMemoryObjectStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookAssetServiceTest {
+
+    private final List<BookAsset> assets = new ArrayList<>();
+    private InMemoryObjectStore objectStore;
+    private BookAssetRepository repository;
+    private StorageCleanupService storageCleanupService;
+    private BookAssetService service;
+
+    @BeforeEach
+    void setUp() {
+        objectStore = new InMemoryObjectStore();
+        SeaweedFStorageService storage = new SeaweedFStorageService();
+        ReflectionTestUtils.setField(storage, "objectStore", objectStore);
+        ReflectionTestUtils.setField(storage, "bucketName", "test-bucket");
+        ReflectionTestUtils.setField(storage, "publicUrl", "http://localhost:8080/files");
+
+        repository = mock(BookAssetRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            BookAsset asset = invocation.getArgument(0);
+            asset.setId((long) assets.size() + 1);
+            assets.add(asset);
+            return asset;
+        });
+        when(repository.findByBookIdAndHash(any(), any())).thenAnswer(invocation -> assets.stream()
+                .filter(asset -> asset.getBookId().equals(invocation.getArgument(0)) && asset.getHash().equals(invocation.getArgument(1)))
+                .findFirst());
+        storageCleanupService = mock(StorageCleanupService.class);
+
+        service = new BookAssetService(repository, storage, storageCleanupService);
+        ReflectionTestUtils.setField(service, "allowedTypes", new String[]{"image/png", "audio/mpeg"});
+    }
+
+    @Test
+    void add_ShouldStoreSameContentOnce_UnderTheBookPrefix() {
+        BookAssetDTO first = service.add(3L, new MockMultipartFile("file", "forest.mp3", "audio/mpeg", new byte[]{1, 2, 3}));
+        BookAssetDTO again = service.add(3L, new MockMultipartFile("file", "copy.mp3", "audio/mpeg", new byte[]{1, 2, 3}));
+
+        assertEquals(first.getId(), again.getId());
+        assertTrue(first.getUrl().startsWith("http://localhost:8080/files/test-bucket/books/3/assets/" + first.getHash() + "-"));
+        assertEquals(1, objectStore.size());
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    void delete_ShouldScheduleTheStoredObject() {
+        BookAssetDTO asset = service.add(3L, new MockMultipartFile("file", "a.png", "image/png", new byte[]{9}));
+        when(repository.findByIdAndBookId(asset.getId(), 3L)).thenReturn(Optional.of(assets.get(0)));
+
+        service.delete(3L, asset.getId());
+
+        verify(storageCleanupService).scheduleKeyAt(eq(assets.get(0).getObjectKey()), any());
+    }
+
+    @Test
+    void add_ShouldUseANewKey_WhenTheSameFileComesBackAfterDeletion() {
+        service.add(3L, new MockMultipartFile("file", "a.png", "image/png", new byte[]{9}));
+        String deletedKey = assets.get(0).getObjectKey();
+        assets.clear();
+
+        service.add(3L, new MockMultipartFile("file", "a.png", "image/png", new byte[]{9}));
+
+        // La suppression encore programmée de l'ancien objet ne touche pas au nouveau.
+        assertNotEquals(deletedKey, assets.get(0).getObjectKey());
+    }
+
+    @Test
+    void getManifest_ShouldChangeVersion_WhenAnAssetIsAdded() {
+        String empty = service.getManifest(3L).getVersion();
+        service.add(3L, new MockMultipartFile("file", "a.png", "image/png", new byte[]{9}));
+        when(repository.findByBookIdOrderByIdAsc(3L)).thenReturn(List.copyOf(assets));
+
+        assertNotEquals(empty, service.getManifest(3L).getVersion());
+        assertEquals(1, service.getManifest(3L).getTotalSize());
+    }
+}
@@ -0,0 +1,156 @@
+package cipestudio.service;
+
+import cipestudio.dto.book.BookPageResponseDTO;
+import cipestudio.dto.book.BookSummaryDTO;
+import cipestudio.dto.book.BulkBookResponseDTO;
+import cipestudio.enums.BookSort;
+import cipestudio.enums.BookStatus;
+import cipestudio.enums.BulkItemStatus;
+import cipestudio.event.BooksChangedEvent;
+import cipestudio.mapper.BookMapper;
+import cipestudio.mapper.ReadingProgressMapper;
+import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import cipestudio.repository.PageRepository;
+import cipestudio.repository.ReadingProgressRepository;
+import cipestudio.repository.ReportRepository;
+import cipestudio.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookServiceTest {
+
+    @Mock private BookRepository bookRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private BookMapper bookMapper;
+    @Mock private ImageVariantService imageVariantService;
+    @Mock private ReadingProgressRepository readingProgressRepository;
+    @Mock private ReadingProgressMapper readingProgressMapper;
+    @Mock private ReportRepository reportRepository;
+    @Mock private PageService pageService;
+    @Mock private CounterService counterService;
+    @Mock private StorageCleanupService storageCleanupService;
+    @Mock private CollectionRepository collectionRepository;
+    @Mock private PageRepository pageRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private BookAssetService bookAssetService;
+
+    @InjectMocks
+    private BookService bookService;
+
+    private BookSummaryDTO summary(long id, LocalDateTime createdAt, int views) {
+        return new BookSummaryDTO(id, "Livre " + id, null, null, null, null, BookStatus.PUBLISHED, 1L, "Auteur", views, 0, createdAt);
+    }
+
+    @Test
+    void getPublicLibraryPage_ShouldReturnCursor_WhenMoreRowsThanLimit() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        List<BookSummaryDTO> rows = List.of(summary(3L, now, 0), summary(2L, now.minusDays(1), 0), summary(1L, now.minusDays(2), 0));
+        when(bookRepository.findLibraryPageByNewest(eq(BookStatus.PUBLISHED), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(rows);
+
+        BookPageResponseDTO page = bookService.getPublicLibraryPage(null, BookSort.NEWEST, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertNotNull(page.getNextCursor());
+        verify(bookRepository).findLibraryPageByNewest(eq(BookStatus.PUBLISHED), isNull(), isNull(),
+                argThat(p -> p.getPageSize() == 3));
+
+        // Le curseur renvoyé doit reprendre exactement après le dernier livre de la page
+        when(bookRepository.findLibraryPageByNewest(eq(BookStatus.PUBLISHED), eq(now.minusDays(1)), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(summary(1L, now.minusDays(2), 0)));
+
+        BookPageResponseDTO next = bookService.getPublicLibraryPage(page.getNextCursor(), BookSort.NEWEST, 2);
+
+        assertEquals(1, next.getItems().size());
+        assertFalse(next.isHasMore());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getPublishedPage_ShouldUseViewsAsKey_WhenSortedByMostRead() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookRepository.findStatusPageByMostRead(eq(BookStatus.PUBLISHED), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(List.of(summary(5L, now, 40), summary(4L, now, 12)));
+
+        BookPageResponseDTO page = bookService.getPublishedPage(null, BookSort.MOST_READ, 1);
+
+        when(bookRepository.findStatusPageByMostRead(eq(BookStatus.PUBLISHED), eq(40), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of());
+        bookService.getPublishedPage(page.getNextCursor(), BookSort.MOST_READ, 1);
+
+        verify(bookRepository).findStatusPageByMostRead(eq(BookStatus.PUBLISHED), eq(40), eq(5L), any(Pageable.class));
+        verify(bookRepository, never()).findStatusPageByNewest(any(), any(), any(), any());
+    }
+
+    @Test
+    void getPublishedPage_ShouldRejectCursor_WhenSortDiffers() {
+        when(bookRepository.findStatusPageByNewest(eq(BookStatus.PUBLISHED), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(List.of(summary(2L, LocalDateTime.now(), 0), summary(1L, LocalDateTime.now(), 0)));
+        String cursor = bookService.getPublishedPage(null, BookSort.NEWEST, 1).getNextCursor();
+
+        ResponseStatusException exception = assertThrows(
+                ResponseStatusException.class,
+                () -> bookService.getPublishedPage(cursor, BookSort.MOST_READ, 1)
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void bulkUpdateStatus_ShouldUpdateOnlyOwnedBooks_InOneStatement() {
+        Long authorId = 1L;
+        when(bookRepository.findOwnershipByIds(List.of(10L, 11L, 12L, 13L))).thenReturn(List.of(
+                new BookOwnership(10L, authorId, BookStatus.DRAFT, null, null, null, "http://s3/b/books/10/published/v1.json"),
+                new BookOwnership(11L, authorId, BookStatus.PUBLISHED, null, null, null, "http://s3/b/books/11/published/v1.json"),
+                new BookOwnership(12L, 2L, BookStatus.DRAFT, null, null, null, null)));
+
+        BulkBookResponseDTO response = bookService.bulkUpdateStatus(authorId, List.of(10L, 11L, 12L, 13L, 10L), BookStatus.PUBLISHED);
+
+        assertEquals(1, response.getDone());
+        assertEquals(List.of(BulkItemStatus.DONE, BulkItemStatus.UNCHANGED, BulkItemStatus.FORBIDDEN, BulkItemStatus.NOT_FOUND),
+                response.getResults().stream().map(r -> r.getStatus()).toList());
+        verify(bookRepository).updateStatus(eq(List.of(10L)), eq(BookStatus.PUBLISHED), any());
+        verify(eventPublisher).publishEvent(new BooksChangedEvent(List.of(10L)));
+    }
+
+    @Test
+    void bulkUpdateStatus_ShouldRejectPublished_WhenBookWasNeverPublished() {
+        when(bookRepository.findOwnershipByIds(List.of(10L))).thenReturn(List.of(
+                new BookOwnership(10L, 1L, BookStatus.DRAFT, null, null, null, null)));
+
+        BulkBookResponseDTO response = bookService.bulkUpdateStatus(1L, List.of(10L), BookStatus.PUBLISHED);
+
+        assertEquals(BulkItemStatus.NO_PUBLISHED_CONTENT, response.getResults().get(0).getStatus());
+        verify(bookRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void bulkDelete_ShouldNotTouchAnything_WhenNoBookIsOwned() {
+        when(bookRepository.findOwnershipByIds(List.of(12L))).thenReturn(List.of(new BookOwnership(12L, 2L, BookStatus.DRAFT, null, null, null, null)));
+
+        BulkBookResponseDTO response = bookService.bulkDelete(1L, List.of(12L));
+
+        assertEquals(0, response.getDone());
+        verify(bookRepository, never()).deleteAllByIds(any());
+        verifyNoInteractions(collectionRepository, pageRepository, storageCleanupService, eventPublisher);
+    }
+}
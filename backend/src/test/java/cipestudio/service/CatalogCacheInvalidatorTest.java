@@ -0,0 +1,56 @@
+package cipestudio.service;
+
+import cipestudio.config.CacheConfig;
+import cipestudio.event.BookChangedEvent;
+import cipestudio.event.CollectionChangedEvent;
+import cipestudio.repository.CollectionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogCacheInvalidatorTest {
+
+    private final CacheManager cacheManager =
+            new ConcurrentMapCacheManager(CacheConfig.BOOKS, CacheConfig.COLLECTIONS, CacheConfig.LIBRARY);
+    private final CollectionRepository collectionRepository = mock(CollectionRepository.class);
+    private final CatalogCacheInvalidator invalidator = new CatalogCacheInvalidator(cacheManager, collectionRepository);
+
+    @BeforeEach
+    void fillCaches() {
+        cacheManager.getCache(CacheConfig.BOOKS).put(1L, "livre 1");
+        cacheManager.getCache(CacheConfig.BOOKS).put(2L, "livre 2");
+        cacheManager.getCache(CacheConfig.COLLECTIONS).put(10L, "collection 10");
+        cacheManager.getCache(CacheConfig.COLLECTIONS).put(20L, "collection 20");
+        cacheManager.getCache(CacheConfig.LIBRARY).put("public", "bibliothèque");
+    }
+
+    @Test
+    void onBookChanged_ShouldEvictBook_Library_AndCollectionsContainingIt() {
+        when(collectionRepository.findIdsByBookId(1L)).thenReturn(List.of(10L));
+
+        invalidator.onBookChanged(new BookChangedEvent(1L));
+
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.COLLECTIONS).get(10L));
+        assertNull(cacheManager.getCache(CacheConfig.LIBRARY).get("public"));
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(2L));
+        assertNotNull(cacheManager.getCache(CacheConfig.COLLECTIONS).get(20L));
+    }
+
+    @Test
+    void onCollectionChanged_ShouldEvictOnlyThatCollection_AndLibrary() {
+        invalidator.onCollectionChanged(new CollectionChangedEvent(20L));
+
+        assertNull(cacheManager.getCache(CacheConfig.COLLECTIONS).get(20L));
+        assertNull(cacheManager.getCache(CacheConfig.LIBRARY).get("public"));
+        assertNotNull(cacheManager.getCache(CacheConfig.COLLECTIONS).get(10L));
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+        verifyNoInteractions(collectionRepository);
+    }
+}
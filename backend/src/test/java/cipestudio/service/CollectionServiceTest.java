@@ -1,8 +1,10 @@
 package cipestudio.service;
 
+import cipestudio.dto.book.BulkBookResponseDTO;
 import cipestudio.dto.collection.CollectionRequestDTO;
 import cipestudio.dto.collection.CollectionResponseDTO;
 import cipestudio.dto.user.URLResponseDTO;
+import cipestudio.enums.BulkItemStatus;
 import cipestudio.mapper.CollectionMapper;
 import cipestudio.model.Book;
 import cipestudio.model.Collection;
@@ -17,16 +19,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -37,8 +46,13 @@ class CollectionServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private CollectionMapper collectionMapper;
     @Mock private SeaweedFStorageService seaweedfsStorageService;
+    @Mock private ImageVariantService imageVariantService;
     @Mock private BookRepository bookRepository;
     @Mock private ReadingProgressRepository readingProgressRepository;
+    @Mock private CounterService counterService;
+    @Mock private StorageCleanupService storageCleanupService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private TransactionTemplate transactionTemplate;
 
     @InjectMocks
     private CollectionService collectionService;
@@ -104,6 +118,23 @@ class CollectionServiceTest {
         verify(readingProgressRepository, never()).deleteByBook(any());
     }
 
+    @Test
+    void addBookToCollection_ShouldIncrementBooksCount_OnlyWhenBookIsNew() {
+        Collection collection = new Collection();
+        collection.setId(1L);
+        Book book = new Book();
+        book.setId(2L);
+
+        when(collectionRepository.findById(1L)).thenReturn(Optional.of(collection));
+        when(bookRepository.findById(2L)).thenReturn(Optional.of(book));
+
+        collectionService.addBookToCollection(1L, 2L);
+        collectionService.addBookToCollection(1L, 2L);
+
+        // Le second ajout est ignoré : le compteur ne doit bouger qu'une fois
+        verify(counterService, times(1)).booksAddedToCollections(List.of(1L), 1);
+    }
+
     @Test
     void deleteCollection_ShouldHandleOrphanedBooks() {
         Long colId = 1L;
@@ -272,17 +303,19 @@ class CollectionServiceTest {
         String expectedUrl = "http://localhost:9000/covers/new-cover.jpg";
 
         when(collectionRepository.findById(collectionId)).thenReturn(Optional.of(collection));
-        when(seaweedfsStorageService.uploadFile(file)).thenReturn(expectedUrl);
+        storesCover(collectionId, file, expectedUrl);
         when(collectionRepository.save(collection)).thenReturn(collection);
 
         // ACT
-        URLResponseDTO result = collectionService.updateCollectionCover(collectionId, file);
+        URLResponseDTO result = collectionService.updateCollectionCover(collectionId, file).join();
 
         // ASSERT
         assertNotNull(result);
         assertEquals(expectedUrl, result.getUrl());
+        assertEquals(expectedUrl + ".thumbnail", result.getThumbnailUrl());
         assertEquals(expectedUrl, collection.getCoverUrl());
-        verify(seaweedfsStorageService).uploadFile(file);
+        assertEquals(expectedUrl + ".card", collection.getCoverCardUrl());
+        verify(imageVariantService).storeAndCommit(anyString(), eq(file), any());
         verify(collectionRepository).save(collection);
     }
 
@@ -305,18 +338,19 @@ class CollectionServiceTest {
         collection.setCoverUrl(oldCoverUrl);
 
         when(collectionRepository.findById(collectionId)).thenReturn(Optional.of(collection));
-        when(seaweedfsStorageService.uploadFile(file)).thenReturn(newCoverUrl);
+        storesCover(collectionId, file, newCoverUrl);
         when(collectionRepository.save(collection)).thenReturn(collection);
 
         // ACT
-        URLResponseDTO result = collectionService.updateCollectionCover(collectionId, file);
+        URLResponseDTO result = collectionService.updateCollectionCover(collectionId, file).join();
 
         // ASSERT
         assertNotNull(result);
         assertEquals(newCoverUrl, result.getUrl());
         assertEquals(newCoverUrl, collection.getCoverUrl());
-        verify(seaweedfsStorageService).deleteFile(oldCoverUrl);
-        verify(seaweedfsStorageService).uploadFile(file);
+        verify(storageCleanupService).schedule(oldCoverUrl, null, null);
+        verify(seaweedfsStorageService, never()).deleteFile(any());
+        verify(imageVariantService).storeAndCommit(anyString(), eq(file), any());
     }
 
     @Test
@@ -330,7 +364,7 @@ class CollectionServiceTest {
                 "image content".getBytes()
         );
 
-        when(collectionRepository.findById(collectionId)).thenReturn(Optional.empty());
+        when(collectionRepository.existsById(collectionId)).thenReturn(false);
 
         // ACT & ASSERT
         ResponseStatusException exception = assertThrows(
@@ -339,11 +373,11 @@ class CollectionServiceTest {
         );
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
-        verify(seaweedfsStorageService, never()).uploadFile(any());
+        verify(imageVariantService, never()).storeAndCommit(any(), any(), any());
     }
 
     @Test
-    void updateCollectionCover_ShouldContinue_WhenDeleteOldCoverFails() {
+    void updateCollectionCover_ShouldNotDeleteOldCoverSynchronously() {
         // ARRANGE
         Long collectionId = 1L;
         MockMultipartFile file = new MockMultipartFile(
@@ -361,17 +395,67 @@ class CollectionServiceTest {
         collection.setCoverUrl(oldCoverUrl);
 
         when(collectionRepository.findById(collectionId)).thenReturn(Optional.of(collection));
-        doThrow(new RuntimeException("Storage error")).when(seaweedfsStorageService).deleteFile(oldCoverUrl);
-        when(seaweedfsStorageService.uploadFile(file)).thenReturn(newCoverUrl);
+        storesCover(collectionId, file, newCoverUrl);
         when(collectionRepository.save(collection)).thenReturn(collection);
 
         // ACT
-        URLResponseDTO result = collectionService.updateCollectionCover(collectionId, file);
+        URLResponseDTO result = collectionService.updateCollectionCover(collectionId, file).join();
 
-        // ASSERT - Should still succeed despite delete error
+        // ASSERT - La suppression de l'ancienne cover est différée au worker de nettoyage
         assertNotNull(result);
         assertEquals(newCoverUrl, result.getUrl());
-        verify(seaweedfsStorageService).uploadFile(file);
+        verify(seaweedfsStorageService, never()).deleteFile(any());
+        verify(imageVariantService).storeAndCommit(anyString(), eq(file), any());
         verify(collectionRepository).save(collection);
     }
-}
\ No newline at end of file
+
+    @Test
+    void addBooksToCollection_ShouldInsertOnlyNewExistingBooks_AndCountThem() {
+        Long collectionId = 1L;
+        List<Long> bookIds = List.of(10L, 11L, 12L);
+        when(collectionRepository.lockById(collectionId)).thenReturn(Optional.of(new Collection()));
+        when(bookRepository.findExistingIds(bookIds)).thenReturn(List.of(10L, 11L));
+        when(collectionRepository.findMemberBookIds(collectionId, bookIds)).thenReturn(List.of(11L));
+
+        BulkBookResponseDTO response = collectionService.addBooksToCollection(collectionId, bookIds);
+
+        assertEquals(1, response.getDone());
+        assertEquals(List.of(BulkItemStatus.DONE, BulkItemStatus.UNCHANGED, BulkItemStatus.NOT_FOUND),
+                response.getResults().stream().map(r -> r.getStatus()).toList());
+        verify(collectionRepository).insertBooks(collectionId, List.of(10L));
+        verify(counterService).booksAddedToCollections(List.of(collectionId), 1);
+        verify(collectionRepository, never()).save(any());
+    }
+
+    @Test
+    void updateCollectionCover_ShouldDiscardNewVariants_WhenCollectionDisappearsDuringUpload() {
+        Long collectionId = 1L;
+        MockMultipartFile file = new MockMultipartFile("file", "cover.jpg", "image/jpeg", "image content".getBytes());
+        when(collectionRepository.existsById(collectionId)).thenReturn(true);
+        when(imageVariantService.storeAndCommit(anyString(), eq(file), any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> invocation.<Function<ImageVariants, ?>>getArgument(2).apply(variants("http://localhost:9000/covers/new.jpg"))));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Supprimée pendant l'envoi des variantes
+        when(collectionRepository.findById(collectionId)).thenReturn(Optional.empty());
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> collectionService.updateCollectionCover(collectionId, file).join());
+
+        assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) exception.getCause()).getStatusCode());
+        verify(collectionRepository, never()).save(any());
+    }
+
+    // Variantes stockées puis transaction exécutée directement, comme le ferait ImageVariantService.
+    private void storesCover(Long collectionId, MockMultipartFile file, String fullUrl) {
+        when(collectionRepository.existsById(collectionId)).thenReturn(true);
+        when(imageVariantService.storeAndCommit(anyString(), eq(file), any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Function<ImageVariants, ?>>getArgument(2).apply(variants(fullUrl))));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static ImageVariants variants(String fullUrl) {
+        return new ImageVariants(fullUrl, fullUrl + ".card", fullUrl + ".thumbnail", "data:image/jpeg;base64,AA==");
+    }
+}
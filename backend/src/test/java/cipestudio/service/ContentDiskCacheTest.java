@@ -0,0 +1,95 @@
+package cipestudio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentDiskCacheTest {
+
+    @Mock private SeaweedFStorageService storageService;
+
+    @TempDir Path directory;
+
+    private ContentDiskCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ContentDiskCache(storageService, new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "cachePath", directory.toString());
+        ReflectionTestUtils.setField(cache, "maxSize", DataSize.ofBytes(150));
+        cache.initialize();
+    }
+
+    @Test
+    void get_ShouldReadTheBucketOnlyOnMiss() throws Exception {
+        when(storageService.openObject("books/1/published/a.json")).thenAnswer(inv -> raw("{\"scene\":1}"));
+
+        ContentDiskCache.Entry first = cache.get("books/1/published/a.json");
+        first.close();
+        ContentDiskCache.Entry second = cache.get("books/1/published/a.json");
+        second.close();
+
+        verify(storageService, times(1)).openObject("books/1/published/a.json");
+        assertEquals(first.file(), second.file());
+        assertEquals(first.length(), second.length());
+        assertEquals("{\"scene\":1}", gunzip(second.file()));
+        assertEquals(ContentDiskCache.eTagOf("books/1/published/a.json"), second.eTag());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    void get_ShouldUnwrapLegacyDoubleEncodedContent() throws Exception {
+        when(storageService.openObject("old_story.json")).thenAnswer(inv -> raw("\"{\\\"scene\\\":2}\""));
+
+        assertEquals("{\"scene\":2}", gunzip(cache.get("old_story.json").file()));
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsed_WhenOverBudget() throws Exception {
+        String filler = "x".repeat(40);
+        for (String key : new String[]{"a", "b", "c"}) {
+            when(storageService.openObject(key)).thenAnswer(inv -> raw("{\"" + key + "\":\"" + filler + "\"}"));
+        }
+        ContentDiskCache.Entry first = cache.get("a");
+        // Place pour deux fichiers et demi (ils ont tous la même taille)
+        ReflectionTestUtils.setField(cache, "maxSize", DataSize.ofBytes(first.length() * 5 / 2));
+        Path a = first.file();
+        Path b = cache.get("b").file();
+        cache.get("a");
+        cache.get("c");
+
+        // b est le moins récemment servi : c'est lui qui sort.
+        assertTrue(Files.exists(a));
+        assertFalse(Files.exists(b));
+        assertEquals(1, cache.getStats().getEvictions());
+        assertEquals(2 * first.length(), cache.getStats().getSizeBytes());
+    }
+
+    private static SeaweedFStorageService.ObjectContent raw(String content) {
+        return new SeaweedFStorageService.ObjectContent(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private static String gunzip(Path file) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
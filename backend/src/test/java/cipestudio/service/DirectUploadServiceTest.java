@@ -0,0 +1,108 @@
+package cipestudio.service;
+
+import cipestudio.dto.upload.UploadUrlRequestDTO;
+import cipestudio.dto.upload.UploadUrlResponseDTO;
+import cipestudio.enums.UploadTarget;
+import cipestudio.service.storage.ObjectInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DirectUploadServiceTest {
+
+    private SeaweedFStorageService storage;
+    private StorageCleanupService cleanup;
+    private DirectUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = mock(SeaweedFStorageService.class);
+        cleanup = mock(StorageCleanupService.class);
+        service = new DirectUploadService(storage, cleanup, mock(PageService.class), new ObjectMapper());
+        ReflectionTestUtils.setField(service, "presignExpiry", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(service, "finalizeGrace", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "maxImageSize", DataSize.ofMegabytes(5));
+        ReflectionTestUtils.setField(service, "maxContentSize", DataSize.ofMegabytes(20));
+    }
+
+    @Test
+    void createUploadUrl_ShouldSignAKeyOwnedByTheUser_AndScheduleItsExpiry() {
+        when(storage.presignUpload(anyString(), eq("image/png"), eq(Duration.ofMinutes(15))))
+                .thenAnswer(invocation -> "http://s3/bucket/" + invocation.getArgument(0) + "?X-Amz-Signature=abc");
+
+        UploadUrlResponseDTO response = service.createUploadUrl(UploadTarget.BOOK_COVER, 12L, 7L,
+                new UploadUrlRequestDTO("image/PNG; charset=binary", 1024));
+
+        assertTrue(response.getObjectKey().startsWith("uploads/7/book-cover/12/"));
+        assertEquals("PUT", response.getMethod());
+        assertEquals("image/png", response.getHeaders().get("Content-Type"));
+        verify(cleanup).scheduleKeyAt(eq(response.getObjectKey()), argThat(dueAt -> dueAt.isAfter(LocalDateTime.now().plusMinutes(70))));
+    }
+
+    @Test
+    void createUploadUrl_ShouldReject_WrongTypeOrOversizedFile() {
+        ResponseStatusException wrongType = assertThrows(ResponseStatusException.class, () -> service.createUploadUrl(
+                UploadTarget.AVATAR, 7L, 7L, new UploadUrlRequestDTO("image/svg+xml", 1024)));
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, wrongType.getStatusCode());
+
+        ResponseStatusException tooLarge = assertThrows(ResponseStatusException.class, () -> service.createUploadUrl(
+                UploadTarget.BOOK_CONTENT, 12L, 7L, new UploadUrlRequestDTO("application/json", DataSize.ofMegabytes(21).toBytes())));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, tooLarge.getStatusCode());
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void finalizeImage_ShouldRefuseAnotherUsersUpload() {
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> service.finalizeImage(
+                UploadTarget.BOOK_COVER, 12L, 7L, "uploads/8/book-cover/12/abc", source -> fail("rien à traiter")));
+
+        assertEquals(HttpStatus.FORBIDDEN, error.getStatusCode());
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void finalizeImage_ShouldDeleteAnOversizedUpload_WithoutProcessingIt() {
+        String key = "uploads/7/avatar/7/abc";
+        when(storage.statObject(key)).thenReturn(Optional.of(new ObjectInfo(DataSize.ofMegabytes(6).toBytes(), "image/jpeg")));
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> service.finalizeImage(
+                UploadTarget.AVATAR, 7L, 7L, key, source -> fail("rien à traiter")));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, error.getStatusCode());
+        verify(cleanup).scheduleKeyAt(eq(key), any());
+    }
+
+    @Test
+    void finalizeImage_ShouldReadTheStagedObject_ThenDeleteIt() throws Exception {
+        String key = "uploads/7/collection-cover/3/abc";
+        when(storage.statObject(key)).thenReturn(Optional.of(new ObjectInfo(4, "image/jpeg")));
+        when(storage.openObject(key)).thenReturn(new SeaweedFStorageService.ObjectContent(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}), null));
+
+        Integer read = service.finalizeImage(UploadTarget.COLLECTION_COVER, 3L, 7L, key, source -> {
+            try {
+                return CompletableFuture.completedFuture(source.getInputStream().readAllBytes().length);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }).join();
+
+        assertEquals(4, read);
+        verify(cleanup).scheduleKeyAt(eq(key), any());
+    }
+}
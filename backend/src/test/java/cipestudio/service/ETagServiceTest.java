@@ -0,0 +1,69 @@
+package cipestudio.service;
+
+import cipestudio.enums.BookStatus;
+import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import cipestudio.repository.PageRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ETagServiceTest {
+
+    @Mock private BookRepository bookRepository;
+    @Mock private CollectionRepository collectionRepository;
+    @Mock private PageRepository pageRepository;
+
+    @InjectMocks
+    private ETagService eTagService;
+
+    private static ContentVersion version(long count, long idSum, long views) {
+        return new ContentVersion(count, idSum, idSum * idSum, LocalDateTime.of(2025, 1, 1, 12, 0), views, 0L);
+    }
+
+    @Test
+    void publicLibraryETag_ShouldBeStable_AndChangeWithCountersOrMembership() {
+        when(bookRepository.findLibraryVersion(BookStatus.PUBLISHED))
+                .thenReturn(version(2, 3, 10), version(2, 3, 10), version(2, 3, 11), version(2, 4, 10));
+
+        String first = eTagService.publicLibraryETag();
+        assertEquals(first, eTagService.publicLibraryETag());
+        assertNotEquals(first, eTagService.publicLibraryETag());
+        assertNotEquals(first, eTagService.publicLibraryETag());
+        assertTrue(first.startsWith("\"") && first.endsWith("\""));
+    }
+
+    @Test
+    void bagETag_ShouldDependOnReader_EvenForSameContent() {
+        when(bookRepository.findBagVersion(anyLong())).thenReturn(version(0, 0, 0));
+
+        assertNotEquals(eTagService.bagETag(1L), eTagService.bagETag(2L));
+    }
+
+    @Test
+    void collectionETag_ShouldBeNull_WhenCollectionDoesNotExist() {
+        when(collectionRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertNull(eTagService.collectionETag(99L));
+    }
+
+    @Test
+    void publishedContentETag_ShouldFollowThePublishedVersion_NotDraftSaves() {
+        when(pageRepository.findPublishedUrlByBookId(5L))
+                .thenReturn(Optional.of("http://s3/b/books/5/published/v1.json"), Optional.of("http://s3/b/books/5/published/v1.json"),
+                        Optional.of("http://s3/b/books/5/published/v2.json"));
+
+        String first = eTagService.publishedContentETag(5L);
+        assertEquals(first, eTagService.publishedContentETag(5L));
+        assertNotEquals(first, eTagService.publishedContentETag(5L));
+    }
+}
@@ -0,0 +1,45 @@
+package cipestudio.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipContentStreamTest {
+
+    @Test
+    void of_ShouldProduceStandardGzipOfTheRawUtf8Content() throws Exception {
+        StringBuilder story = new StringBuilder("{\"scenes\":[");
+        for (int i = 0; i < 50_000; i++) {
+            story.append("{\"id\":").append(i).append(",\"texte\":\"Élodie rêve d'un château 🏰\"},");
+        }
+        story.append("{}]}");
+
+        byte[] compressed;
+        try (InputStream in = GzipContentStream.of(story)) {
+            compressed = in.readAllBytes();
+        }
+        String decoded;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            decoded = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // Contenu stocké tel quel : pas de chaîne JSON échappée autour
+        assertEquals(story.toString(), decoded);
+        assertTrue(compressed.length < decoded.length() / 10);
+    }
+
+    @Test
+    void of_ShouldBeDeterministic() throws Exception {
+        try (InputStream first = GzipContentStream.of("{\"a\":1}"); InputStream second = GzipContentStream.of("{\"a\":1}")) {
+            assertArrayEquals(first.readAllBytes(), second.readAllBytes());
+        }
+        try (InputStream empty = new GZIPInputStream(GzipContentStream.of(""))) {
+            assertEquals(0, empty.readAllBytes().length);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package cipestudio.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class ImageVariantServiceTest {
+
+    @Test
+    void encode_ShouldProduceDownscaledJpegVariants_AndPlaceholder() throws Exception {
+        byte[] source = write(photo(4000, 2000), "png");
+
+        ImageVariantService.EncodedImages images = ImageVariantService.encode(new ByteArrayInputStream(source), 40_000_000);
+
+        assertEquals("image/jpeg", images.contentType());
+        assertSize(1600, 800, images.full());
+        assertSize(480, 240, images.card());
+        assertSize(160, 80, images.thumbnail());
+        assertTrue(images.placeholder().startsWith("data:image/jpeg;base64,"));
+        // Tient dans la colonne coverPlaceholder
+        assertTrue(images.placeholder().length() < 2048, "aperçu de " + images.placeholder().length() + " caractères");
+        byte[] tiny = Base64.getDecoder().decode(images.placeholder().substring("data:image/jpeg;base64,".length()));
+        assertSize(16, 8, tiny);
+    }
+
+    @Test
+    void encode_ShouldKeepTransparency_AndNeverUpscale() throws Exception {
+        BufferedImage logo = new BufferedImage(300, 120, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = logo.createGraphics();
+        graphics.setColor(new Color(200, 30, 30, 128));
+        graphics.fillOval(0, 0, 300, 120);
+        graphics.dispose();
+
+        ImageVariantService.EncodedImages images = ImageVariantService.encode(new ByteArrayInputStream(write(logo, "png")), 40_000_000);
+
+        assertEquals("image/png", images.contentType());
+        assertSize(300, 120, images.full());
+        assertSize(300, 120, images.card());
+        assertSize(160, 64, images.thumbnail());
+        assertTrue(ImageIO.read(new ByteArrayInputStream(images.thumbnail())).getColorModel().hasAlpha());
+    }
+
+    @Test
+    void encode_ShouldReject_UnreadableOrOversizedImages() throws Exception {
+        ResponseStatusException notAnImage = assertThrows(ResponseStatusException.class,
+                () -> ImageVariantService.encode(new ByteArrayInputStream("pas une image".getBytes()), 40_000_000));
+        assertEquals(HttpStatus.BAD_REQUEST, notAnImage.getStatusCode());
+
+        ResponseStatusException tooLarge = assertThrows(ResponseStatusException.class,
+                () -> ImageVariantService.encode(new ByteArrayInputStream(write(photo(400, 300), "png")), 100_000));
+        assertEquals(HttpStatus.BAD_REQUEST, tooLarge.getStatusCode());
+    }
+
+    @Test
+    void storeAndCommit_ShouldUploadVariantsUnderOnePrefix_ThenCommit() throws Exception {
+        SeaweedFStorageService storage = mock(SeaweedFStorageService.class);
+        when(storage.uploadBytesAsync(any(), eq("image/jpeg"), startsWith("books/3/cover/")))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> "http://minio/bucket/" + invocation.getArgument(2)));
+        ImageVariantService service = service(storage, mock(StorageCleanupService.class));
+        try {
+            ImageVariants variants = service.storeAndCommit("books/3/cover/1/", new MockMultipartFile("file", "cover.jpg", "image/jpeg",
+                    write(photo(800, 600), "jpeg")), stored -> stored).join();
+
+            String prefix = variants.fullUrl().substring(0, variants.fullUrl().lastIndexOf('/') + 1);
+            assertTrue(variants.fullUrl().endsWith("/full.jpg"));
+            assertEquals(prefix + "card.jpg", variants.cardUrl());
+            assertEquals(prefix + "thumbnail.jpg", variants.thumbnailUrl());
+            assertNotNull(variants.placeholder());
+            verify(storage, times(3)).uploadBytesAsync(any(), eq("image/jpeg"), startsWith("books/3/cover/"));
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    void storeAndCommit_ShouldDiscardStoredVariants_WhenAnUploadFails() throws Exception {
+        SeaweedFStorageService storage = mock(SeaweedFStorageService.class);
+        when(storage.uploadBytesAsync(any(), any(), anyString())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(2);
+            return key.contains("card")
+                    ? CompletableFuture.failedFuture(new RuntimeException("Erreur lors de l'upload MinIO: timeout"))
+                    : CompletableFuture.completedFuture("http://minio/bucket/" + key);
+        });
+        StorageCleanupService cleanup = mock(StorageCleanupService.class);
+        ImageVariantService service = service(storage, cleanup);
+        try {
+            CompletableFuture<ImageVariants> result = service.storeAndCommit("books/3/cover/1/", new MockMultipartFile("file", "cover.jpg",
+                    "image/jpeg", write(photo(800, 600), "jpeg")), stored -> fail("rien à enregistrer"));
+
+            assertThrows(CompletionException.class, result::join);
+            ArgumentCaptor<List<String>> discarded = ArgumentCaptor.forClass(List.class);
+            verify(cleanup).scheduleAll(discarded.capture());
+            assertEquals(2, discarded.getValue().size());
+            assertTrue(discarded.getValue().stream().noneMatch(url -> url.contains("card")));
+        } finally {
+            service.stop();
+        }
+    }
+
+    private static ImageVariantService service(SeaweedFStorageService storage, StorageCleanupService cleanup) {
+        ImageVariantService service = new ImageVariantService(storage, cleanup);
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "timeoutMs", 10_000L);
+        ReflectionTestUtils.setField(service, "maxPixels", 40_000_000L);
+        service.start();
+        return service;
+    }
+
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8 | ((x ^ y) & 0xFF));
+            }
+        }
+        return image;
+    }
+
+    private static byte[] write(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static void assertSize(int width, int height, byte[] encoded) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(encoded));
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+    }
+}
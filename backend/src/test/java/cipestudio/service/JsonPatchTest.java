@@ -0,0 +1,59 @@
+package cipestudio.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonPatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void apply_ShouldApplyAllOperationsInOrder() throws Exception {
+        JsonNode story = objectMapper.readTree("""
+                {"chapitres":[{"titre":"Début","scenes":["a","b"]}],"a/b":1,"m~n":2}""");
+        JsonNode patch = objectMapper.readTree("""
+                [
+                  {"op":"replace","path":"/chapitres/0/titre","value":"Prologue"},
+                  {"op":"add","path":"/chapitres/0/scenes/-","value":"c"},
+                  {"op":"add","path":"/chapitres/0/scenes/0","value":"intro"},
+                  {"op":"remove","path":"/chapitres/0/scenes/2"},
+                  {"op":"copy","from":"/chapitres/0","path":"/chapitres/1"},
+                  {"op":"move","from":"/a~1b","path":"/ab"},
+                  {"op":"test","path":"/m~0n","value":2}
+                ]""");
+
+        JsonNode result = JsonPatch.apply(story, patch);
+
+        assertEquals(objectMapper.readTree("""
+                {"chapitres":[{"titre":"Prologue","scenes":["intro","a","c"]},
+                              {"titre":"Prologue","scenes":["intro","a","c"]}],
+                 "m~n":2,"ab":1}"""), result);
+    }
+
+    @Test
+    void apply_ShouldReplaceWholeDocument_OnEmptyPath() throws Exception {
+        JsonNode result = JsonPatch.apply(objectMapper.readTree("{\"a\":1}"),
+                objectMapper.readTree("[{\"op\":\"replace\",\"path\":\"\",\"value\":[1,2]}]"));
+
+        assertEquals(objectMapper.readTree("[1,2]"), result);
+    }
+
+    @Test
+    void apply_ShouldReject_InvalidOperations() throws Exception {
+        JsonNode story = objectMapper.readTree("{\"scenes\":[\"a\"]}");
+
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(story,
+                objectMapper.readTree("[{\"op\":\"remove\",\"path\":\"/inconnu\"}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(story,
+                objectMapper.readTree("[{\"op\":\"add\",\"path\":\"/scenes/5\",\"value\":1}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(story,
+                objectMapper.readTree("[{\"op\":\"test\",\"path\":\"/scenes/0\",\"value\":\"b\"}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(story,
+                objectMapper.readTree("[{\"op\":\"move\",\"from\":\"/scenes\",\"path\":\"/scenes/0\"}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(story,
+                objectMapper.readTree("[{\"op\":\"explode\",\"path\":\"/scenes\"}]")));
+    }
+}
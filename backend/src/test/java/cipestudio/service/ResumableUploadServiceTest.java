@@ -0,0 +1,126 @@
+package cipestudio.service;
+
+import cipestudio.dto.asset.BookAssetDTO;
+import cipestudio.dto.upload.ResumableUploadRequestDTO;
+import cipestudio.dto.upload.ResumableUploadResponseDTO;
+import cipestudio.model.UploadSession;
+import cipestudio.repository.UploadSessionRepository;
+import cipestudio.service.storage.InMemoryObjectStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ResumableUploadServiceTest {
+    private static final int CHUNK = 5 * 1024 * 1024;
+
+    private final Map<String, UploadSession> sessions = new HashMap<>();
+    private InMemoryObjectStore objectStore;
+    private ResumableUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        objectStore = new InMemoryObjectStore();
+        SeaweedFStorageService storage = new SeaweedFStorageService();
+        ReflectionTestUtils.setField(storage, "objectStore", objectStore);
+        ReflectionTestUtils.setField(storage, "bucketName", "test-bucket");
+        ReflectionTestUtils.setField(storage, "publicUrl", "http://localhost:8080/files");
+
+        UploadSessionRepository repository = mock(UploadSessionRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            UploadSession session = invocation.getArgument(0);
+            sessions.put(session.getId(), session);
+            return session;
+        });
+        when(repository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(sessions.get(invocation.<String>getArgument(0))));
+        when(repository.findByExpiresAtBefore(any(), any())).thenAnswer(invocation -> sessions.values().stream()
+                .filter(session -> session.getExpiresAt().isBefore(invocation.getArgument(0)))
+                .toList());
+        doAnswer(invocation -> sessions.remove(invocation.<UploadSession>getArgument(0).getId())).when(repository).delete(any());
+
+        BookAssetService bookAssetService = mock(BookAssetService.class);
+        when(bookAssetService.registerUploaded(eq(3L), anyString(), anyString(), anyString(), anyLong()))
+                .thenAnswer(invocation -> new BookAssetDTO(1L, invocation.getArgument(2), "hash",
+                        invocation.getArgument(3), invocation.getArgument(4), null, LocalDateTime.now()));
+
+        service = new ResumableUploadService(repository, storage, bookAssetService);
+        ReflectionTestUtils.setField(service, "chunkSize", DataSize.ofMegabytes(5));
+        ReflectionTestUtils.setField(service, "maxSize", DataSize.ofMegabytes(200));
+        ReflectionTestUtils.setField(service, "sessionTtl", Duration.ofHours(24));
+    }
+
+    @Test
+    void appendChunk_ShouldResumeAfterAnInterruptedChunk_AndAssembleTheFile() throws Exception {
+        byte[] file = new byte[2 * CHUNK + 1234];
+        Arrays.fill(file, CHUNK, 2 * CHUNK, (byte) 7);
+        file[file.length - 1] = 42;
+        ResumableUploadResponseDTO upload = service.create(7L, new ResumableUploadRequestDTO(3L, "audio/mpeg", file.length));
+
+        service.appendChunk(upload.getId(), 7L, 0, chunk(file, 0, CHUNK), CHUNK);
+        // Connexion coupée au milieu du deuxième morceau
+        ResponseStatusException cut = assertThrows(ResponseStatusException.class,
+                () -> service.appendChunk(upload.getId(), 7L, CHUNK, chunk(file, CHUNK, CHUNK / 2), CHUNK));
+        assertEquals(HttpStatus.BAD_REQUEST, cut.getStatusCode());
+        assertEquals(CHUNK, service.getStatus(upload.getId(), 7L).getOffset());
+
+        service.appendChunk(upload.getId(), 7L, CHUNK, chunk(file, CHUNK, CHUNK), CHUNK);
+        ResumableUploadResponseDTO done = service.appendChunk(upload.getId(), 7L, 2L * CHUNK, chunk(file, 2 * CHUNK, 1234), 1234);
+
+        assertEquals(file.length, done.getOffset());
+        assertEquals("http://localhost:8080/files/test-bucket/books/3/assets/" + upload.getId(), done.getUrl());
+        try (InputStream stored = objectStore.get("books/3/assets/" + upload.getId()).stream()) {
+            assertArrayEquals(file, stored.readAllBytes());
+        }
+        // Seul l'objet assemblé reste : les parties ont été supprimées
+        assertEquals(1, objectStore.size());
+    }
+
+    @Test
+    void appendChunk_ShouldReject_WrongOffsetOrAnotherUsersSession() {
+        ResumableUploadResponseDTO upload = service.create(7L, new ResumableUploadRequestDTO(3L, "image/png", 2L * CHUNK));
+
+        ResponseStatusException wrongOffset = assertThrows(ResponseStatusException.class,
+                () -> service.appendChunk(upload.getId(), 7L, CHUNK, chunk(new byte[CHUNK], 0, CHUNK), CHUNK));
+        assertEquals(HttpStatus.CONFLICT, wrongOffset.getStatusCode());
+
+        ResponseStatusException foreign = assertThrows(ResponseStatusException.class,
+                () -> service.appendChunk(upload.getId(), 8L, 0, chunk(new byte[CHUNK], 0, CHUNK), CHUNK));
+        assertEquals(HttpStatus.NOT_FOUND, foreign.getStatusCode());
+    }
+
+    @Test
+    void expireSessions_ShouldAbortAbandonedUploads() {
+        ResumableUploadResponseDTO upload = service.create(7L, new ResumableUploadRequestDTO(3L, "image/png", 2L * CHUNK));
+        service.appendChunk(upload.getId(), 7L, 0, chunk(new byte[CHUNK], 0, CHUNK), CHUNK);
+        assertEquals(1, objectStore.size());
+
+        sessions.get(upload.getId()).setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        service.expireSessions();
+
+        assertTrue(sessions.isEmpty());
+        assertEquals(0, objectStore.size());
+    }
+
+    private static InputStream chunk(byte[] file, int from, int length) {
+        return new ByteArrayInputStream(file, from, length);
+    }
+}
@@ -1,5 +1,9 @@
 package cipestudio.service;
 
+import cipestudio.exceptions.StorageException;
+import cipestudio.service.storage.InMemoryObjectStore;
+import cipestudio.service.storage.ObjectStore;
+import cipestudio.service.storage.S3ObjectStore;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,10 +16,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +33,9 @@ class SeaweedFStorageServiceTest {
     @Mock
     private MinioClient minioClient;
 
+    @Mock
+    private StoredBlobService storedBlobService;
+
     @InjectMocks
     private SeaweedFStorageService seaweedFSStorageService;
 
@@ -31,6 +43,7 @@ class SeaweedFStorageServiceTest {
     void setUp() {
         ReflectionTestUtils.setField(Objects.requireNonNull(seaweedFSStorageService), "bucketName", "test-bucket");
         ReflectionTestUtils.setField(Objects.requireNonNull(seaweedFSStorageService), "publicUrl", "http://localhost:9000");
+        ReflectionTestUtils.setField(seaweedFSStorageService, "objectStore", new S3ObjectStore(minioClient, "test-bucket"));
     }
 
     @Test
@@ -43,12 +56,12 @@ class SeaweedFStorageServiceTest {
         );
 
         // ACT
-        String resultUrl = seaweedFSStorageService.uploadFile(file);
+        String resultUrl = seaweedFSStorageService.uploadFile(file, "users/7/avatar/");
 
         // ASSERT
         // 1. Vérifier que l'URL retournée est correcte
         assertNotNull(resultUrl);
-        assertTrue(resultUrl.startsWith("http://localhost:9000/test-bucket/"));
+        assertTrue(resultUrl.startsWith("http://localhost:9000/test-bucket/users/7/avatar/"));
         assertTrue(resultUrl.endsWith("_avatar.jpg")); // Vérifie que le nom d'origine est préservé à la fin
 
         // 2. Vérifier que la méthode putObject de MinIO a bien été appelée avec les bons arguments
@@ -72,9 +85,87 @@ class SeaweedFStorageServiceTest {
 
         // ACT & ASSERT
         Exception exception = assertThrows(RuntimeException.class, () -> {
-            seaweedFSStorageService.uploadFile(file);
+            seaweedFSStorageService.uploadFile(file, "users/7/avatar/");
         });
 
         assertTrue(exception.getMessage().contains("Erreur lors de l'upload MinIO"));
     }
+
+    @Test
+    void objectKey_ShouldKeepNestedPath_AfterBucket() {
+        assertEquals("books/1/published/2025-01-01.json",
+                seaweedFSStorageService.objectKey("http://localhost:9000/test-bucket/books/1/published/2025-01-01.json"));
+        assertEquals("uuid_avatar.jpg",
+                seaweedFSStorageService.objectKey("https://cdn.example.com/test-bucket/uuid_avatar.jpg"));
+        assertNull(seaweedFSStorageService.objectKey(" "));
+        // URL d'un autre stockage : aucune clé plutôt qu'un nom qui désignerait un autre objet
+        assertNull(seaweedFSStorageService.objectKey("https://other.example.com/photos/avatar.jpg"));
+        assertEquals("books/1/drafts/a.json", seaweedFSStorageService.objectKey("books/1/drafts/a.json"));
+    }
+
+    @Test
+    void deleteFile_ShouldDeleteTheNestedKey_NotItsLastSegment() throws Exception {
+        InMemoryObjectStore store = new InMemoryObjectStore();
+        ReflectionTestUtils.setField(seaweedFSStorageService, "objectStore", store);
+        store.put("books/1/cover/u/full.jpg", new ByteArrayInputStream(new byte[1]), 1, "image/jpeg", Map.of());
+        store.put("full.jpg", new ByteArrayInputStream(new byte[1]), 1, "image/jpeg", Map.of());
+
+        seaweedFSStorageService.deleteFile("http://localhost:9000/test-bucket/books/1/cover/u/full.jpg");
+
+        assertFalse(store.contains("books/1/cover/u/full.jpg"));
+        assertTrue(store.contains("full.jpg"));
+    }
+
+    @Test
+    void deleteFile_ShouldPropagateTheFailure_SoTheCleanupCanRetry() {
+        ObjectStore store = mock(ObjectStore.class);
+        ReflectionTestUtils.setField(seaweedFSStorageService, "objectStore", store);
+        when(store.delete(List.of("books/1/cover/u/full.jpg"))).thenReturn(Map.of("books/1/cover/u/full.jpg", "timeout"));
+
+        assertThrows(StorageException.class,
+                () -> seaweedFSStorageService.deleteFile("http://localhost:9000/test-bucket/books/1/cover/u/full.jpg"));
+    }
+
+    @Test
+    void startUploads_ShouldFail_WhenNoSigningKeyOutsideS3() {
+        ReflectionTestUtils.setField(seaweedFSStorageService, "storageBackend", "filesystem");
+        ReflectionTestUtils.setField(seaweedFSStorageService, "uploadSigningKey", "");
+
+        assertThrows(IllegalStateException.class, () -> seaweedFSStorageService.startUploads());
+    }
+
+    @Test
+    void copyPrefix_ShouldKeepTheKeySuffix() throws Exception {
+        InMemoryObjectStore store = new InMemoryObjectStore();
+        ReflectionTestUtils.setField(seaweedFSStorageService, "objectStore", store);
+        store.put("images/u/full.jpg", new ByteArrayInputStream(new byte[1]), 1, "image/jpeg", Map.of());
+        store.put("images/u/card.jpg", new ByteArrayInputStream(new byte[1]), 1, "image/jpeg", Map.of());
+
+        List<String> copied = seaweedFSStorageService.copyPrefix("images/u/", "books/1/cover/u/");
+
+        assertEquals(List.of("books/1/cover/u/card.jpg", "books/1/cover/u/full.jpg"), copied);
+        assertTrue(store.contains("images/u/full.jpg"));
+    }
+
+    @Test
+    void uploadFile_ShouldUseContentHashAsKey_WhenContentAddressed() throws Exception {
+        ReflectionTestUtils.setField(seaweedFSStorageService, "contentAddressed", true);
+        doAnswer(inv -> {
+            inv.<StoredBlobService.Upload>getArgument(3).run();
+            return null;
+        }).when(storedBlobService).acquire(any(), anyLong(), any(), any());
+        MockMultipartFile first = new MockMultipartFile("file", "a.png", "image/png", "pixels".getBytes());
+        MockMultipartFile copy = new MockMultipartFile("file", "b.png", "image/png", "pixels".getBytes());
+
+        String url = seaweedFSStorageService.uploadFile(first, "books/1/");
+
+        // SHA-256 de "pixels"
+        String hash = "6ec9c2b0eb14010746c8bce8939303b382344b296206612eb8a907a37b2b2f37";
+        // Même contenu sous un autre nom : même clé (la déduplication elle-même est faite par StoredBlobService, mocké ici)
+        assertEquals(seaweedFSStorageService.uploadFile(copy, "books/2/"), url);
+        verify(storedBlobService, times(2)).acquire(eq(hash), eq(6L), eq("image/png"), any());
+        ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient, times(2)).putObject(captor.capture());
+        assertEquals("blobs/6e/" + hash, captor.getValue().object());
+    }
 }
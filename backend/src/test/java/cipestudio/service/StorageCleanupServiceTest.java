@@ -0,0 +1,134 @@
+package cipestudio.service;
+
+import cipestudio.model.StorageCleanupTask;
+import cipestudio.repository.StorageCleanupTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageCleanupServiceTest {
+
+    @Mock private StorageCleanupTaskRepository taskRepository;
+    @Mock private SeaweedFStorageService storageService;
+    @Mock private StoredBlobService storedBlobService;
+
+    @InjectMocks
+    private StorageCleanupService storageCleanupService;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void scheduleAll_ShouldQueueDistinctKeys_AndIgnoreEmptyUrls() {
+        when(storageService.objectKey(any())).thenAnswer(inv -> {
+            String url = inv.getArgument(0);
+            return url == null || url.isBlank() ? null : url.substring(url.lastIndexOf('/') + 1);
+        });
+
+        storageCleanupService.scheduleAll(Arrays.asList("http://s3/b/a.png", null, "", "http://s3/b/a.png", "http://s3/b/c.json"));
+
+        ArgumentCaptor<List<StorageCleanupTask>> captor = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).saveAll(captor.capture());
+        assertEquals(List.of("a.png", "c.json"), captor.getValue().stream().map(StorageCleanupTask::getObjectKey).toList());
+        verifyNoMoreInteractions(storageService);
+    }
+
+    @Test
+    void processDueTasks_ShouldDeleteInOneBatch_AndRescheduleFailuresWithBackoff() {
+        StorageCleanupTask ok = new StorageCleanupTask("books/1/cover.png", LocalDateTime.now());
+        StorageCleanupTask ko = new StorageCleanupTask("books/2/cover.png", LocalDateTime.now());
+        when(taskRepository.findDue(any(), any())).thenReturn(List.of(ok, ko));
+        when(storageService.deleteObjects(anyList())).thenReturn(Map.of("books/2/cover.png", "SlowDown"));
+
+        storageCleanupService.processDueTasks();
+
+        verify(storageService, times(1)).deleteObjects(List.of("books/1/cover.png", "books/2/cover.png"));
+        verify(taskRepository).deleteAllInBatch(List.of(ok));
+        verify(taskRepository).saveAll(List.of(ko));
+        assertEquals(1, ko.getAttempts());
+        assertEquals("SlowDown", ko.getLastError());
+        assertTrue(ko.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+        assertEquals(1, storageCleanupService.getStats().getDeletedTotal());
+    }
+
+    @Test
+    void processDueTasks_ShouldAbandonTask_AfterMaxAttempts() {
+        StorageCleanupTask task = new StorageCleanupTask("avatar.png", LocalDateTime.now());
+        task.setAttempts(7);
+        when(taskRepository.findDue(any(), any())).thenReturn(List.of(task));
+        when(storageService.deleteObjects(anyList())).thenReturn(Map.of("avatar.png", "AccessDenied"));
+
+        storageCleanupService.processDueTasks();
+
+        assertEquals(8, task.getAttempts());
+        assertNull(task.getNextAttemptAt());
+    }
+
+    @Test
+    void scheduleAll_ShouldReleaseSharedBlobReferences() {
+        when(storageService.objectKey(any())).thenAnswer(inv -> ((String) inv.getArgument(0)).substring("http://s3/b/".length()));
+
+        storageCleanupService.scheduleAll(List.of("http://s3/b/blobs/ab/abc", "http://s3/b/blobs/ab/abc", "http://s3/b/avatar.png"));
+
+        verify(storedBlobService).release(List.of("blobs/ab/abc", "blobs/ab/abc"));
+    }
+
+    @Test
+    void processDueTasks_ShouldDeleteBlobsOnlyThroughReferenceCheck() {
+        StorageCleanupTask plain = new StorageCleanupTask("avatar.png", LocalDateTime.now());
+        StorageCleanupTask blob = new StorageCleanupTask("blobs/ab/abc", LocalDateTime.now());
+        when(taskRepository.findDue(any(), any())).thenReturn(List.of(plain, blob));
+        when(storageService.deleteObjects(anyList())).thenReturn(Map.of());
+        when(storedBlobService.deleteUnreferenced(eq(List.of("blobs/ab/abc")), any())).thenReturn(Map.of());
+
+        storageCleanupService.processDueTasks();
+
+        verify(storageService).deleteObjects(List.of("avatar.png"));
+        verify(taskRepository).deleteAllInBatch(List.of(plain, blob));
+    }
+
+    @Test
+    void processDueTasks_ShouldDeletePrefixTasks_ByListing() {
+        StorageCleanupTask prefix = new StorageCleanupTask("books/3/assets/", LocalDateTime.now());
+        StorageCleanupTask other = new StorageCleanupTask("books/4/assets/", LocalDateTime.now());
+        when(taskRepository.findDue(any(), any())).thenReturn(List.of(prefix, other));
+        when(storageService.deletePrefix("books/3/assets/")).thenReturn(Map.of());
+        when(storageService.deletePrefix("books/4/assets/")).thenReturn(Map.of("books/4/assets/ab", "SlowDown"));
+
+        storageCleanupService.processDueTasks();
+
+        verify(storageService, never()).deleteObjects(anyList());
+        verify(taskRepository).deleteAllInBatch(List.of(prefix));
+        assertEquals("SlowDown", other.getLastError());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void scheduleEntity_ShouldQueueThePrefix_AndOnlyTheFilesStoredElsewhere() {
+        when(storageService.objectKey(any())).thenAnswer(inv -> ((String) inv.getArgument(0)).substring("http://s3/b/".length()));
+
+        storageCleanupService.scheduleEntity(ObjectKeys.Entity.BOOK, 3L,
+                List.of("http://s3/b/books/3/cover/u/full.jpg", "http://s3/b/images/v/full.jpg", "http://s3/b/books/31/drafts/d.json"));
+
+        ArgumentCaptor<StorageCleanupTask> prefix = ArgumentCaptor.forClass(StorageCleanupTask.class);
+        verify(taskRepository).save(prefix.capture());
+        assertEquals("books/3/", prefix.getValue().getObjectKey());
+        ArgumentCaptor<List<StorageCleanupTask>> keys = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).saveAll(keys.capture());
+        assertEquals(List.of("images/v/full.jpg", "books/31/drafts/d.json"),
+                keys.getValue().stream().map(StorageCleanupTask::getObjectKey).toList());
+    }
+}
@@ -0,0 +1,125 @@
+package cipestudio.service;
+
+import cipestudio.event.BookChangedEvent;
+import cipestudio.model.Book;
+import cipestudio.model.Page;
+import cipestudio.repository.BookRepository;
+import cipestudio.repository.CollectionRepository;
+import cipestudio.repository.PageRepository;
+import cipestudio.repository.UserRepository;
+import cipestudio.service.storage.InMemoryObjectStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StorageKeyMigrationServiceTest {
+    private static final String BUCKET_URL = "http://localhost:8080/files/test-bucket/";
+
+    private InMemoryObjectStore objectStore;
+    private BookRepository bookRepository;
+    private PageRepository pageRepository;
+    private StorageCleanupService storageCleanupService;
+    private ApplicationEventPublisher eventPublisher;
+    private StorageKeyMigrationService service;
+
+    @BeforeEach
+    void setUp() {
+        objectStore = new InMemoryObjectStore();
+        SeaweedFStorageService storage = new SeaweedFStorageService();
+        ReflectionTestUtils.setField(storage, "objectStore", objectStore);
+        ReflectionTestUtils.setField(storage, "bucketName", "test-bucket");
+        ReflectionTestUtils.setField(storage, "publicUrl", "http://localhost:8080/files");
+
+        bookRepository = mock(BookRepository.class);
+        pageRepository = mock(PageRepository.class);
+        CollectionRepository collectionRepository = mock(CollectionRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(bookRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(pageRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(collectionRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(userRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        storageCleanupService = mock(StorageCleanupService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        service = new StorageKeyMigrationService(bookRepository, collectionRepository, userRepository, pageRepository,
+                storage, storageCleanupService, transactionTemplate, eventPublisher);
+        ReflectionTestUtils.setField(service, "grace", Duration.ofDays(7));
+    }
+
+    @Test
+    void migrateAll_ShouldMoveLegacyCoverUnderTheBook_AndDelayDeletionOfTheOldKeys() throws Exception {
+        store("images/u/full.jpg");
+        store("images/u/card.jpg");
+        store("blobs/ab/abc");
+        Book book = new Book();
+        book.setId(3L);
+        book.setCoverUrl(BUCKET_URL + "images/u/full.jpg");
+        book.setCoverCardUrl(BUCKET_URL + "images/u/card.jpg");
+        // Blob partagé : compté par références, il reste en place
+        book.setCoverThumbnailUrl(BUCKET_URL + "blobs/ab/abc");
+        when(bookRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(book)));
+        when(bookRepository.findById(3L)).thenReturn(Optional.of(book));
+
+        service.migrateAll();
+
+        assertEquals(BUCKET_URL + "books/3/cover/u/full.jpg", book.getCoverUrl());
+        assertEquals(BUCKET_URL + "books/3/cover/u/card.jpg", book.getCoverCardUrl());
+        assertEquals(BUCKET_URL + "blobs/ab/abc", book.getCoverThumbnailUrl());
+        assertTrue(objectStore.contains("books/3/cover/u/full.jpg"));
+        verify(storageCleanupService).scheduleKeyAt(eq("images/u/full.jpg"), argThat(due -> due.isAfter(LocalDateTime.now().plusDays(6))));
+        verify(storageCleanupService).scheduleKeyAt(eq("images/u/card.jpg"), any());
+        verify(eventPublisher).publishEvent(new BookChangedEvent(3L));
+        assertEquals(2, service.getStats().getMoved());
+
+        // Deuxième passage : tout est déjà rangé
+        service.migrateAll();
+        assertEquals(0, service.getStats().getScanned());
+    }
+
+    @Test
+    void migrateAll_ShouldDiscardTheCopy_WhenTheDraftWasReplacedMeanwhile() throws Exception {
+        store("a_story.json");
+        Book book = new Book();
+        book.setId(3L);
+        Page page = new Page();
+        page.setBook(book);
+        page.setDraftUrl(BUCKET_URL + "a_story.json");
+        Page saved = new Page();
+        saved.setBook(book);
+        saved.setDraftUrl(BUCKET_URL + "books/3/drafts/new.json");
+        when(pageRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(page)));
+        when(pageRepository.findByBookIdForUpdate(3L)).thenReturn(Optional.of(saved));
+
+        service.migrateAll();
+
+        assertEquals(BUCKET_URL + "books/3/drafts/new.json", saved.getDraftUrl());
+        verify(storageCleanupService).scheduleKeyAt(eq("books/3/drafts/a_story.json"), any());
+        verify(storageCleanupService, never()).scheduleKeyAt(eq("a_story.json"), any());
+        assertEquals(0, service.getStats().getMoved());
+    }
+
+    private void store(String key) throws Exception {
+        objectStore.put(key, new ByteArrayInputStream(new byte[]{1}), 1, "image/jpeg", Map.of());
+    }
+}
@@ -0,0 +1,74 @@
+package cipestudio.service;
+
+import cipestudio.model.StoredBlob;
+import cipestudio.repository.StoredBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoredBlobServiceTest {
+
+    @Mock private StoredBlobRepository blobRepository;
+
+    @InjectMocks
+    private StoredBlobService storedBlobService;
+
+    @Test
+    void acquire_ShouldUploadOnlyTheFirstReference() {
+        String hash = "ab" + "0".repeat(62);
+        AtomicInteger uploads = new AtomicInteger();
+        when(blobRepository.findRefCountByHash(hash)).thenReturn(Optional.of(1), Optional.of(2));
+
+        storedBlobService.acquire(hash, 10, "application/json", uploads::incrementAndGet);
+        storedBlobService.acquire(hash, 10, "application/json", uploads::incrementAndGet);
+
+        assertEquals(1, uploads.get());
+        verify(blobRepository, times(2)).upsertReference(eq(hash), eq("blobs/ab/" + hash), eq(10L), eq("application/json"), any());
+    }
+
+    @Test
+    void release_ShouldDecrementOncePerOccurrence() {
+        storedBlobService.release(List.of("blobs/ab/x", "blobs/cd/y", "blobs/ab/x"));
+
+        verify(blobRepository).decrementRefCount("blobs/ab/x", 2);
+        verify(blobRepository).decrementRefCount("blobs/cd/y", 1);
+    }
+
+    @Test
+    void deleteUnreferenced_ShouldKeepReferencedBlobs_AndRowsOfFailedDeletions() {
+        StoredBlob gone = blob("blobs/ab/gone");
+        StoredBlob failing = blob("blobs/cd/failing");
+        // "blobs/ef/shared" a été référencé de nouveau : la requête verrouillée ne le renvoie pas.
+        when(blobRepository.findUnreferencedForUpdate(anyList())).thenReturn(List.of(gone, failing));
+
+        Map<String, String> failures = storedBlobService.deleteUnreferenced(
+                List.of("blobs/ab/gone", "blobs/cd/failing", "blobs/ef/shared"),
+                keys -> {
+                    assertEquals(List.of("blobs/ab/gone", "blobs/cd/failing"), keys);
+                    return Map.of("blobs/cd/failing", "SlowDown");
+                });
+
+        assertEquals(Map.of("blobs/cd/failing", "SlowDown"), failures);
+        verify(blobRepository).deleteAllInBatch(List.of(gone));
+    }
+
+    private static StoredBlob blob(String objectKey) {
+        StoredBlob blob = new StoredBlob();
+        blob.setObjectKey(objectKey);
+        return blob;
+    }
+}
@@ -0,0 +1,97 @@
+package cipestudio.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoryChunkServiceTest {
+    private static final String STORY = """
+            {
+              "parameters": {"launch_story": "intro", "languares": ["fr"]},
+              "blocks": [["intro", 10, 20]],
+              "intro": [
+                {"background_image": "foret.png", "dialogs": [{"text": "Bonjour"}, {"text": "Suis-moi"}]},
+                {"dialogs": [{"text": "Un défi !", "variables": [
+                  {"name": "trigger_game_id", "value": "42"}, {"name": "minigame_type", "value": "QUIZ"},
+                  {"name": "success_target", "value": "fin"}, {"name": "fail_target", "value": "intro"}]}]}
+              ],
+              "fin": [{"dialogs": [{"text": "Bravo", "variables": [["trigger_game_id", "=", "7"]]}]}]
+            }
+            """;
+
+    @Mock private SeaweedFStorageService storageService;
+    @Mock private StorageCleanupService storageCleanupService;
+    @Mock private ContentDiskCache contentDiskCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StoryChunkService storyChunkService;
+
+    @BeforeEach
+    void setUp() {
+        storyChunkService = new StoryChunkService(storageService, storageCleanupService, contentDiskCache, objectMapper,
+                new ConcurrentMapCacheManager());
+    }
+
+    @Test
+    void publish_ShouldUploadOneFilePerScene_AndAManifestWithoutDialogs() throws Exception {
+        when(storageService.uploadJsonContentAsync(anyString(), anyString()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture("http://s3/b/" + inv.getArgument(1)));
+        when(storageService.uploadJsonContent(anyString(), anyString())).thenAnswer(inv -> "http://s3/b/" + inv.getArgument(1));
+        when(storageService.objectKey(anyString())).thenAnswer(inv -> ((String) inv.getArgument(0)).substring("http://s3/b/".length()));
+
+        String manifestUrl = storyChunkService.publish(5L, STORY, "books/5/published/v1/").manifestUrl();
+
+        assertEquals("http://s3/b/books/5/published/v1/manifest.json", manifestUrl);
+        ArgumentCaptor<String> content = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> name = ArgumentCaptor.forClass(String.class);
+        verify(storageService, times(3)).uploadJsonContentAsync(content.capture(), name.capture());
+        assertEquals(List.of("books/5/published/v1/scenes/0-0.json", "books/5/published/v1/scenes/0-1.json",
+                "books/5/published/v1/scenes/1-0.json"), name.getAllValues());
+        assertEquals("foret.png", objectMapper.readTree(content.getAllValues().get(0)).path("background_image").asText());
+
+        // Le sommaire part en dernier, une fois toutes les scènes stockées
+        verify(storageService).uploadJsonContent(content.capture(), eq("books/5/published/v1/manifest.json"));
+        StoryManifest manifest = objectMapper.readValue(content.getValue(), StoryManifest.class);
+        assertEquals("intro", manifest.launchStory());
+        assertEquals(List.of("parameters", "blocks"), List.copyOf(manifest.root().keySet()));
+        assertEquals(List.of("intro", "fin"), manifest.chapters().stream().map(StoryManifest.Chapter::name).toList());
+        StoryManifest.Scene challenge = manifest.chapters().get(0).scenes().get(1);
+        assertEquals("books/5/published/v1/scenes/0-1.json", challenge.key());
+        assertEquals(1, challenge.dialogs());
+        assertEquals(List.of(new StoryManifest.MiniGameTrigger(0, "42", "QUIZ", "fin", "intro")), challenge.miniGames());
+        assertEquals("7", manifest.chapters().get(1).scenes().get(0).miniGames().get(0).gameId());
+        JsonNode raw = objectMapper.readTree(content.getValue());
+        assertFalse(raw.toString().contains("Bonjour"));
+    }
+
+    @Test
+    void publish_ShouldScheduleUploadedScenesForCleanup_WhenAnUploadFails() {
+        when(storageService.uploadJsonContentAsync(anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("http://s3/b/scene-0"))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Erreur lors de l'upload JSON MinIO: timeout")))
+                .thenReturn(CompletableFuture.supplyAsync(() -> "http://s3/b/scene-2"));
+        when(storageService.objectKey(anyString())).thenAnswer(inv -> ((String) inv.getArgument(0)).substring("http://s3/b/".length()));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> storyChunkService.publish(5L, STORY, "books/5/published/v1/"));
+
+        assertEquals("Erreur lors de l'upload JSON MinIO: timeout", exception.getMessage());
+        // Les scènes envoyées avant comme après l'échec sont nettoyées, et le sommaire n'est pas envoyé
+        verify(storageCleanupService).scheduleAll(List.of("http://s3/b/scene-0", "http://s3/b/scene-2"));
+        verify(storageService, never()).uploadJsonContent(anyString(), anyString());
+    }
+}
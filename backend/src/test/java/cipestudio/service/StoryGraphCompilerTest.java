@@ -0,0 +1,80 @@
+package cipestudio.service;
+
+import cipestudio.enums.TransitionKind;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoryGraphCompilerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compile_ShouldLinkScenes_AndFlagUnreachableScenesAndDeadEnds() throws Exception {
+        JsonNode story = objectMapper.readTree("""
+                {
+                  "parameters": {"launch_story": "intro", "buttons": [{"name": "credits"}]},
+                  "intro": [
+                    {"dialogs": [{"text": "Bonjour"}]},
+                    {"dialogs": [{"text": "Où aller ?", "choice": [
+                      {"text": {"fr": "La forêt"}, "go_to": "foret"},
+                      {"text": "Le château", "go_to": "chateau,1,2"},
+                      {"text": "Écouter", "go_to": "tue_audio"}]}]}
+                  ],
+                  "foret": [{"dialogs": [{"text": "Un défi", "go_to": "tue_go"}]}, {"dialogs": [{"text": "Fin"}]}],
+                  "chateau": [{"dialogs": [{"text": "Jamais vu"}]}, {"dialogs": [{"text": "x", "go_to": "donjon"}]}],
+                  "oubli": [{"dialogs": [{"text": "Perdu"}]}],
+                  "credits": [{"dialogs": [{"text": "Merci"}]}]
+                }""");
+        StoryGraphCompiler compiler = new StoryGraphCompiler();
+        story.fields().forEachRemaining(entry -> {
+            if (entry.getValue().isArray()) {
+                entry.getValue().forEach(scene -> compiler.scene(entry.getKey(), scene,
+                        "foret".equals(entry.getKey()) && scene.path("dialogs").path(0).path("go_to").isTextual()
+                                ? List.of(new StoryManifest.MiniGameTrigger(0, "42", "QUIZ", "intro", "oubli,3"))
+                                : List.of()));
+            }
+        });
+
+        StoryGraph graph = compiler.compile("intro", story.path("parameters"));
+
+        // intro/0, intro/1, foret/0, foret/1, chateau/0, chateau/1, oubli/0, credits/0
+        assertEquals(8, graph.scenes().size());
+        assertTrue(graph.transitions().contains(new StoryGraph.Edge(0, 1, TransitionKind.NEXT, null, 0, null, null, null)));
+        assertTrue(graph.transitions().contains(new StoryGraph.Edge(1, 2, TransitionKind.CHOICE, 0, 0, "foret", "La forêt", null)));
+        assertTrue(graph.transitions().contains(new StoryGraph.Edge(1, 5, TransitionKind.CHOICE, 0, 2, "chateau,1,2", "Le château", null)));
+        assertTrue(graph.transitions().contains(new StoryGraph.Edge(2, 3, TransitionKind.JUMP, 0, 0, "tue_go", null, null)));
+        assertTrue(graph.transitions().contains(new StoryGraph.Edge(2, 0, TransitionKind.MINIGAME_SUCCESS, 0, 0, "intro", null, "42")));
+        // Les choix bloquent la scène : pas de passage implicite de intro/1 vers la suite
+        assertTrue(graph.transitions().stream().noneMatch(edge -> edge.source() == 1 && edge.kind() == TransitionKind.NEXT));
+
+        assertEquals(List.of(true, true, true, true, false, true, false, true),
+                graph.scenes().stream().map(StoryGraph.Scene::reachable).toList());
+        assertEquals(List.of(false, false, false, true, false, true, true, true),
+                graph.scenes().stream().map(StoryGraph.Scene::deadEnd).toList());
+        // "donjon" n'existe pas, "oubli" n'a qu'une scène
+        assertEquals(2, graph.brokenLinkCount());
+        assertEquals(2, graph.unreachableCount());
+    }
+
+    @Test
+    void compile_ShouldFollowRandomChoices_AndSkipTheirDialogs() throws Exception {
+        StoryGraphCompiler compiler = new StoryGraphCompiler();
+        compiler.scene("debut", objectMapper.readTree("""
+                {"random_choice": [[1, "a"], [1, "b"]], "dialogs": [{"text": "jamais affiché", "go_to": "c"}]}"""), List.of());
+        compiler.scene("a", objectMapper.readTree("{\"dialogs\": [{\"timer\": [3000, \"b\"]}]}"), List.of());
+        compiler.scene("b", objectMapper.readTree("{\"dialogs\": []}"), List.of());
+        compiler.scene("c", objectMapper.readTree("{\"dialogs\": []}"), List.of());
+
+        StoryGraph graph = compiler.compile(null, null);
+
+        assertEquals(List.of(TransitionKind.RANDOM, TransitionKind.RANDOM, TransitionKind.TIMER),
+                graph.transitions().stream().map(StoryGraph.Edge::kind).toList());
+        assertFalse(graph.scenes().get(3).reachable());
+        assertEquals(0, graph.brokenLinkCount());
+    }
+}
@@ -2,9 +2,12 @@ package cipestudio.service;
 
 import cipestudio.dto.auth.RegistrationRequestDTO;
 import cipestudio.dto.auth.UserDTO;
+import cipestudio.dto.user.UpdateUserRequestDTO;
 import cipestudio.enums.Role;
+import cipestudio.event.BooksChangedEvent;
 import cipestudio.mapper.UserMapper;
 import cipestudio.model.User;
+import cipestudio.repository.BookRepository;
 import cipestudio.repository.RefreshTokenRepository;
 import cipestudio.repository.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -12,13 +15,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,7 +37,10 @@ class UserServiceTest {
     @Mock private RefreshTokenRepository refreshTokenRepository;
     @Mock private RefreshTokenService refreshTokenService;
     @Mock private Environment env;
-    @Mock private SeaweedFStorageService seaweedFSStorageService;
+    @Mock private ImageVariantService imageVariantService;
+    @Mock private StorageCleanupService storageCleanupService;
+    @Mock private BookRepository bookRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private UserService userService;
@@ -91,4 +100,21 @@ class UserServiceTest {
         assertFalse(userEntity.getIsVerified(), "Editor user should NOT be automatically verified");
         verify(userRepository, atLeastOnce()).save(userEntity);
     }
+
+    @Test
+    void updateUser_ShouldRefreshTheAuthorsBooks_WhenNameChanges() {
+        User user = new User();
+        user.setNom("Ancien");
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+        when(bookRepository.findIdsByAuthorId(7L)).thenReturn(List.of(3L, 4L));
+        UpdateUserRequestDTO request = new UpdateUserRequestDTO();
+        request.setNom("Nouveau");
+
+        userService.updateUser(7L, request);
+
+        assertEquals("Nouveau", user.getNom());
+        verify(bookRepository).touch(eq(List.of(3L, 4L)), any());
+        verify(eventPublisher).publishEvent(new BooksChangedEvent(List.of(3L, 4L)));
+    }
 }
@@ -0,0 +1,77 @@
+package cipestudio.service.search;
+
+import cipestudio.enums.SearchType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    @Test
+    void analyze_ShouldFoldAccentsElisionsAndPlurals() {
+        assertEquals(List.of("chateau", "foret"), FrenchAnalyzer.analyze("Les Châteaux de la Forêt"));
+        assertEquals(FrenchAnalyzer.analyze("l’arbre"), FrenchAnalyzer.analyze("ARBRES"));
+        assertEquals(List.of("cheval"), FrenchAnalyzer.analyze("chevaux"));
+        assertEquals(List.of("coeur"), FrenchAnalyzer.analyze("cœur"));
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesFirst_AndFilterByType() {
+        SearchIndex index = new SearchIndex();
+        index.upsert(SearchType.BOOK, 1L, "Le dragon de Noël", "Une histoire d'hiver", null, 0);
+        index.upsert(SearchType.BOOK, 2L, "La princesse", "Elle rencontre un dragon dans la forêt", null, 0);
+        index.upsert(SearchType.COLLECTION, 1L, "Dragons et chevaliers", "#fantastique", null, 0);
+
+        List<SearchIndex.Hit> books = index.search("dragons", SearchType.BOOK, 10);
+        assertEquals(2, books.size());
+        assertEquals(1L, books.get(0).id());
+
+        List<SearchIndex.Hit> all = index.search("dragon", null, 10);
+        assertEquals(3, all.size());
+    }
+
+    @Test
+    void search_ShouldBoostPopularBooks_WhenTextScoresAreEqual() {
+        SearchIndex index = new SearchIndex();
+        index.upsert(SearchType.BOOK, 1L, "Le pirate", null, null, 0);
+        index.upsert(SearchType.BOOK, 2L, "Le pirate", null, null, 500);
+
+        assertEquals(2L, index.search("pirate", null, 10).get(0).id());
+    }
+
+    @Test
+    void upsertAndRemove_ShouldReplacePreviousVersion() {
+        SearchIndex index = new SearchIndex();
+        index.upsert(SearchType.BOOK, 1L, "Le loup", null, null, 0);
+        index.upsert(SearchType.BOOK, 1L, "Le renard", null, null, 0);
+
+        assertTrue(index.search("loup", null, 10).isEmpty());
+        assertEquals(1, index.search("renard", null, 10).size());
+
+        index.remove(SearchType.BOOK, 1L);
+        assertTrue(index.search("renard", null, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void snapshot_ShouldRestoreSameResults() throws Exception {
+        SearchIndex index = new SearchIndex();
+        for (long id = 1; id <= 50; id++) {
+            index.upsert(SearchType.BOOK, id, "Aventure numéro " + id, "Une île mystérieuse", "cover-" + id, (int) id);
+        }
+        index.remove(SearchType.BOOK, 7L);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        SearchIndex restored = SearchIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.search("ile aventure", null, 5), restored.search("ile aventure", null, 5));
+    }
+}
@@ -0,0 +1,60 @@
+package cipestudio.service.search;
+
+import cipestudio.enums.SuggestionType;
+import cipestudio.service.search.SuggestionIndex.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionIndexTest {
+
+    private static Suggestion title(long id, String text, int popularity) {
+        return new Suggestion(SuggestionType.TITLE, id, text, popularity);
+    }
+
+    @Test
+    void topK_ShouldMatchStartOfAnyMeaningfulWord_ByPopularity() {
+        SuggestionIndex index = SuggestionIndex.build(List.of(
+                title(1L, "Le dragon de Noël", 10),
+                title(2L, "Dragons et chevaliers", 50),
+                title(3L, "La forêt enchantée", 30),
+                new Suggestion(SuggestionType.AUTHOR, 7L, "Noémie Drago", 5)), Long.MAX_VALUE);
+
+        List<Suggestion> dra = index.topK("dra", 10, s -> true);
+        assertEquals(List.of(2L, 1L, 7L), dra.stream().map(Suggestion::id).toList());
+
+        assertEquals(List.of(1L, 7L), index.topK(SuggestionIndex.normalize("NOE"), 10, s -> true)
+                .stream().map(Suggestion::id).toList());
+        assertEquals(List.of(1L), index.topK("le d", 10, s -> true).stream().map(Suggestion::id).toList());
+        // "de" est un mot vide : il ne démarre pas de clé à lui seul.
+        assertTrue(index.topK("de noel", 10, s -> true).isEmpty());
+        assertEquals(1, index.topK("dra", 1, s -> true).size());
+    }
+
+    @Test
+    void topK_ShouldSkipExcludedSources() {
+        SuggestionIndex index = SuggestionIndex.build(List.of(
+                title(1L, "Dragon rouge", 100),
+                title(2L, "Dragon bleu", 50)), Long.MAX_VALUE);
+
+        List<Suggestion> result = index.topK("dragon", 5, s -> s.id() != 1L);
+        assertEquals(List.of(2L), result.stream().map(Suggestion::id).toList());
+    }
+
+    @Test
+    void build_ShouldKeepMostPopularEntries_WithinMemoryBudget() {
+        List<Suggestion> candidates = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            candidates.add(title(i, "Histoire numero " + i, i));
+        }
+        SuggestionIndex index = SuggestionIndex.build(candidates, 20_000);
+
+        assertTrue(index.estimatedBytes() <= 20_000);
+        assertTrue(index.sources().size() < 1000);
+        assertTrue(index.sources().stream().allMatch(s -> s.popularity() > 1000 - index.sources().size() - 1));
+        assertEquals(999L, index.topK("hist", 1, s -> true).get(0).id());
+    }
+}
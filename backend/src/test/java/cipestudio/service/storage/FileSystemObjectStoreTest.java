@@ -0,0 +1,61 @@
+package cipestudio.service.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemObjectStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void put_ShouldRoundTripContentAndHeaders_UnderNestedKeys() throws Exception {
+        FileSystemObjectStore store = new FileSystemObjectStore(root);
+
+        store.put("books/1/story.json", stream("{\"a\":1}"), -1, "application/json", Map.of("Content-Encoding", "gzip"));
+        store.put("books/1/story.json", stream("{\"a\":2}"), 7, "application/json", Map.of("Content-Encoding", "gzip"));
+
+        try (StoredObject object = store.get("books/1/story.json")) {
+            assertEquals("{\"a\":2}", new String(object.stream().readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(7, object.size());
+            assertEquals("application/json", object.contentType());
+            assertEquals("gzip", object.contentEncoding());
+        }
+        // Aucun fichier temporaire laissé après les renommages
+        try (var files = Files.list(root.resolve("books/1"))) {
+            assertEquals(List.of("story.json"), files.map(path -> path.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void delete_ShouldIgnoreMissingKeys_AndGetShouldThenFail() throws Exception {
+        FileSystemObjectStore store = new FileSystemObjectStore(root);
+        store.put("a.png", stream("pixels"), 6, "image/png", Map.of());
+
+        assertEquals(Map.of(), store.delete(List.of("a.png", "absent.png")));
+        assertThrows(NoSuchFileException.class, () -> store.get("a.png"));
+    }
+
+    @Test
+    void keys_ShouldNotEscapeTheRoot() throws Exception {
+        FileSystemObjectStore store = new FileSystemObjectStore(root.resolve("objects"));
+
+        assertThrows(IllegalArgumentException.class, () -> store.put("../evil", stream("x"), 1, "text/plain", Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> store.get("/etc/passwd"));
+        assertFalse(store.delete(List.of("../../x")).isEmpty());
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,171 @@
+package cipestudio.service.storage;
+
+import cipestudio.dto.admin.StorageMetricsDTO;
+import cipestudio.dto.admin.StorageOperationStatsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientObjectStoreTest {
+
+    /** Stockage en mémoire dont les failNext prochains appels échouent, après avoir consommé un peu du flux. */
+    private static class FlakyStore extends InMemoryObjectStore {
+        int failNext;
+        int calls;
+
+        @Override
+        public void put(String key, InputStream content, long size, String contentType, Map<String, String> headers) throws IOException {
+            calls++;
+            if (failNext > 0) {
+                failNext--;
+                content.readNBytes(3);
+                throw new IOException("connexion réinitialisée");
+            }
+            super.put(key, content, size, contentType, headers);
+        }
+
+        @Override
+        public StoredObject get(String key) throws IOException {
+            calls++;
+            if (failNext > 0) {
+                failNext--;
+                throw new IOException("délai de lecture dépassé");
+            }
+            return super.get(key);
+        }
+
+        @Override
+        public Map<String, String> delete(List<String> keys) {
+            calls++;
+            if (failNext > 0) {
+                failNext--;
+                return Map.of(keys.get(0), "Service Unavailable");
+            }
+            return super.delete(keys);
+        }
+    }
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private ResilientObjectStore store(FlakyStore backend, int maxAttempts, int failureThreshold) {
+        return new ResilientObjectStore(backend, new CircuitBreaker(failureThreshold, Duration.ofSeconds(30), clock::get),
+                maxAttempts, Duration.ZERO, Duration.ZERO, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void calls_ShouldRetryTransientFailures_ReplayingOnlyRewindableStreams() throws Exception {
+        FlakyStore backend = new FlakyStore();
+        ResilientObjectStore store = store(backend, 3, 5);
+
+        backend.failNext = 2;
+        store.put("a.json", new ByteArrayInputStream("{\"a\":1}".getBytes(StandardCharsets.UTF_8)), 7, "application/json", Map.of());
+        try (StoredObject object = store.get("a.json")) {
+            // Le flux a été rembobiné avant chaque nouvel essai
+            assertEquals("{\"a\":1}", new String(object.stream().readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // Flux non rembobinable : un seul essai
+        backend.failNext = 1;
+        InputStream oneShot = new BufferedInputStream(InputStream.nullInputStream()) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        assertThrows(IOException.class, () -> store.put("b.json", oneShot, -1, "application/json", Map.of()));
+
+        // Une clé absente n'est ni rejouée ni comptée comme échec
+        assertThrows(NoSuchFileException.class, () -> store.get("absent.json"));
+
+        backend.put("c.json", InputStream.nullInputStream(), 0, "application/json", Map.of());
+        backend.failNext = 1;
+        assertEquals(Map.of(), store.delete(List.of("c.json")));
+        assertFalse(backend.contains("c.json"));
+
+        StorageMetricsDTO metrics = store.getStats();
+        assertEquals("CLOSED", metrics.getCircuitState());
+        StorageOperationStatsDTO put = metrics.getOperations().get(0);
+        assertEquals(List.of("PUT", 2L, 1L, 2L), List.of(put.getOperation(), put.getCalls(), put.getFailures(), put.getRetries()));
+        StorageOperationStatsDTO get = metrics.getOperations().get(1);
+        assertEquals(List.of(2L, 0L, 0L), List.of(get.getCalls(), get.getFailures(), get.getRetries()));
+        assertEquals(2L, get.getHistogram().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(1L, metrics.getOperations().get(2).getRetries());
+    }
+
+    @Test
+    void circuit_ShouldOpenAfterConsecutiveFailures_FailFast_ThenCloseAfterASuccessfulProbe() throws Exception {
+        FlakyStore backend = new FlakyStore();
+        backend.put("a.json", new ByteArrayInputStream(new byte[]{1}), 1, "application/json", Map.of());
+        ResilientObjectStore store = store(backend, 1, 2);
+
+        backend.failNext = 2;
+        assertThrows(IOException.class, () -> store.get("a.json"));
+        assertThrows(IOException.class, () -> store.get("a.json"));
+        int callsWhenOpened = backend.calls;
+
+        CircuitOpenException open = assertThrows(CircuitOpenException.class, () -> store.get("a.json"));
+        assertEquals(30_000, open.getRetryAfterMillis());
+        assertThrows(CircuitOpenException.class,
+                () -> store.put("b.json", new ByteArrayInputStream(new byte[]{2}), 1, "application/json", Map.of()));
+        // Suppressions rendues en échec : le nettoyage les reprendra
+        assertEquals(Map.of("a.json", "Stockage indisponible (circuit ouvert)"), store.delete(List.of("a.json")));
+        assertFalse(store.isAvailable());
+        assertEquals(callsWhenOpened, backend.calls);
+        assertEquals(3L, store.getStats().getOperations().stream().mapToLong(StorageOperationStatsDTO::getRejected).sum());
+
+        // Après la période d'ouverture, un appel d'essai passe et referme le circuit
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertTrue(store.isAvailable());
+        store.get("a.json").close();
+        StorageMetricsDTO metrics = store.getStats();
+        assertEquals("CLOSED", metrics.getCircuitState());
+        assertEquals(1, metrics.getTimesOpened());
+        assertNotNull(metrics.getLastOpenedAt());
+    }
+
+    @Test
+    void circuit_ShouldReopen_WhenTheProbeFails() throws Exception {
+        FlakyStore backend = new FlakyStore();
+        ResilientObjectStore store = store(backend, 1, 1);
+
+        backend.failNext = 2;
+        assertThrows(IOException.class, () -> store.get("a.json"));
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThrows(IOException.class, () -> store.get("a.json"));
+
+        assertEquals("OPEN", store.getStats().getCircuitState());
+        assertThrows(CircuitOpenException.class, () -> store.get("a.json"));
+    }
+
+    @Test
+    void circuit_ShouldStayClosed_WhenTheClientDropsDuringAPart() throws Exception {
+        ResilientObjectStore store = store(new FlakyStore(), 1, 2);
+        String uploadId = store.createMultipart("big.bin", "application/octet-stream");
+        InputStream dropped = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connexion du client fermée");
+            }
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IOException.class, () -> store.uploadPart("big.bin", uploadId, 1, dropped, 10));
+        }
+
+        StorageMetricsDTO metrics = store.getStats();
+        assertEquals("CLOSED", metrics.getCircuitState());
+        assertEquals(0, metrics.getConsecutiveFailures());
+        assertTrue(store.isAvailable());
+    }
+}
@@ -0,0 +1,90 @@
+package cipestudio.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoryContentScannerTest {
+
+    // Ancienne contrainte @Pattern de BookContentRequestDTO, gardée comme référence
+    private static final Pattern LEGACY = Pattern.compile(
+            "^((?!<script|javascript:|\\bon(load|click|mouse|key|error|abort|blur|change|focus|reset|submit|unload)[a-z]*\\s*=|<iframe|<object|<embed).)*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    @Test
+    void scan_ShouldReportConstructAndPath() {
+        Optional<StoryContentScanner.Violation> violation = StoryContentScanner.scan("""
+                {"chapitres":[{"titre":"Début","scenes":[{"texte":"ok"},{"texte":"Salut <SCRIPT>alert(1)</script>"}]}]}""");
+
+        assertTrue(violation.isPresent());
+        assertEquals("/chapitres/0/scenes/1/texte", violation.get().path());
+        assertTrue(violation.get().message().contains("<script"));
+    }
+
+    @Test
+    void scan_ShouldApplyEventHandlerRules() {
+        assertTrue(StoryContentScanner.scan("{\"t\":\"<img onerror = x>\"}").isPresent());
+        assertTrue(StoryContentScanner.scan("{\"t\":\"<a onMouseOver=x>\"}").isPresent());
+        assertTrue(StoryContentScanner.scan("{\"onclick=\":1}").isPresent());
+        // Pas en début de mot, pas suivi de =, ou pas un gestionnaire
+        assertTrue(StoryContentScanner.scan("{\"t\":\"bonclick=1\"}").isEmpty());
+        assertTrue(StoryContentScanner.scan("{\"t\":\"onload du jeu\"}").isEmpty());
+        assertTrue(StoryContentScanner.scan("{\"t\":\"once=1, onkey2=3\"}").isEmpty());
+    }
+
+    @Test
+    void scan_ShouldSeeThroughJsonEscapes_AndRejectInvalidJson() {
+        assertTrue(StoryContentScanner.scan("{\"t\":\"\\u003ciframe src=x>\"}").isPresent());
+        assertTrue(StoryContentScanner.scan("{\"t\":\"\\nonload=x\"}").isPresent());
+
+        Optional<StoryContentScanner.Violation> invalid = StoryContentScanner.scan("{\"t\":");
+        assertTrue(invalid.isPresent());
+        assertTrue(invalid.get().message().contains("JSON valide"));
+    }
+
+    @Test
+    void find_ShouldAgreeWithLegacyRegex() {
+        String[] fragments = {"a", "O", "n", "on", "ON", "load", "click", "mouse", "KEY", "error", "x", "_", "1",
+                " ", "\t", "=", "<", "script", "<scr", "ipt", "java", "script:", "<iframe", "<object", "<embed", "é", ":"};
+        Random random = new Random(42);
+        for (int run = 0; run < 20_000; run++) {
+            StringBuilder text = new StringBuilder();
+            int parts = 1 + random.nextInt(8);
+            for (int i = 0; i < parts; i++) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String value = text.toString();
+            boolean legacyValid = LEGACY.matcher("\"" + value + "\"").matches();
+            boolean valid = StoryContentScanner.find(value.toCharArray(), 0, value.length()) == null;
+            assertEquals(legacyValid, valid, value);
+        }
+    }
+
+    @Test
+    void scan_ShouldStayLinear_OnLargeStories() {
+        StringBuilder story = new StringBuilder("{\"chapitres\":[");
+        for (int i = 0; i < 200_000; i++) {
+            story.append("{\"id\":").append(i)
+                    .append(",\"texte\":\"Il était une fois, dans un château onirique, une <b>once</b> de courage...\",\"choix\":[1,2]},");
+        }
+        story.append("{}]}");
+        String json = story.toString();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(StoryContentScanner.scan(json).isEmpty());
+        }
+        long start = System.nanoTime();
+        int rounds = 5;
+        for (int i = 0; i < rounds; i++) {
+            StoryContentScanner.scan(json);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytesPerSecond = rounds * json.length() / 1e6 / seconds;
+        // Borne large (machines de CI) : il s'agit d'écarter un comportement non linéaire
+        assertTrue(megabytesPerSecond > 20, "débit " + megabytesPerSecond + " Mo/s");
+    }
+}
@@ -28,7 +28,7 @@ export default function UserInfo({ onClick }) {
         >
             {/* 3. Image avec Fallback automatique */}
             <img
-                src={user.avatar || generatedAvatar}
+                src={user.avatarThumbnailUrl || user.avatar || generatedAvatar}
                 alt="Profil"
                 className="w-10 h-10 md:w-12 md:h-12 rounded-full object-cover border border-gray-200 shadow-sm bg-white"
                 onError={(e) => {
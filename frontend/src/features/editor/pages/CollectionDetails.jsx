@@ -118,7 +118,7 @@ export default function CollectionDetails() {
                             resource={{
                                 title: book.title,
                                 description: book.description,
-                                cover: book.coverUrl
+                                cover: book.coverCardUrl || book.coverUrl
                             }}
                             statsComponent={
                                 <div className="flex flex-col gap-1 w-full px-2 pt-1">
@@ -111,7 +111,7 @@ export default function EditorDashboard() {
                                 resource={{
                                     title: collection.name || "Sans nom",
                                     description: collection.description,
-                                    cover: collection.coverUrl
+                                    cover: collection.coverCardUrl || collection.coverUrl
                                 }}
                                 statsComponent={
                                     <div className="flex flex-col gap-1 w-full px-2 pt-1">
@@ -122,7 +122,7 @@ export default function EditorBookCatalog() {
                                 resource={{
                                     title: book.title,
                                     description: book.description || "Aucune description fournie.",
-                                    cover: book.coverUrl
+                                    cover: book.coverCardUrl || book.coverUrl
                                 }}
                                 statsComponent={
                                     <div className="flex flex-col gap-1 w-full px-2 pt-1">
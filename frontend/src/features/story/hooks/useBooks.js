@@ -136,9 +136,16 @@ export const useUploadBookCover = () => {
 export const useSaveStoryContent = () => {
     const queryClient = useQueryClient();
     return useMutation({
-        mutationFn: ({ id, content, status }) => storyService.saveStoryContent(id, content, status),
-        onSuccess: () => {
-            queryClient.invalidateQueries({ queryKey: ['books'] });
+        mutationFn: ({ id, content, status, base }) => status === 'DRAFT'
+            ? storyService.saveDraft(id, content, base)
+            : storyService.saveStoryContent(id, content, status),
+        onSuccess: (_, { id, status }) => {
+            // Brouillon : l'éditeur garde sa propre base ; relire le brouillon ne servirait qu'à le recharger
+            queryClient.invalidateQueries({
+                queryKey: ['books'],
+                predicate: (query) => status !== 'DRAFT'
+                    || !(query.queryKey[1] === id && query.queryKey[2] === 'content' && query.queryKey[3] === 'draft')
+            });
         }
     });
 };
\ No newline at end of file
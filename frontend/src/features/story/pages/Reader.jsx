@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import TuesdayJsReaderWrapper from '../components/TuesdayJsReaderWrapper';
 import { useBookContent } from '../hooks/useBooks';
+import { storyService } from '../services/story.service';
 import { ArrowLeftIcon } from '@heroicons/react/24/outline';
 
 export default function Reader() {
@@ -17,11 +18,7 @@ export default function Reader() {
     useEffect(() => {
         if (bookContent?.s3OriginalUrl) {
             setIsS3Fetching(true);
-            fetch(bookContent.s3OriginalUrl)
-                .then(res => {
-                    if (!res.ok) throw new Error("Impossible de charger le contenu de l'histoire depuis S3");
-                    return res.json();
-                })
+            storyService.fetchStoryJson(bookContent.s3OriginalUrl)
                 .then(data => {
                     setStoryJsonFromS3(data);
                     setS3FetchError(null);
@@ -2,6 +2,7 @@ import React, { useEffect, useRef, useCallback, useState } from 'react';
 import { useNavigate, useParams } from 'react-router-dom';
 import { ArrowLeftIcon, CloudArrowUpIcon, RocketLaunchIcon, PuzzlePieceIcon } from '@heroicons/react/24/outline';
 import { useSaveStoryContent, useBook, useBookContent } from '../hooks/useBooks';
+import { storyService } from '../services/story.service';
 import MiniGameConfigModal from '../../minigames/components/MiniGameConfigModal';
 
 export default function VisualEditor() {
@@ -16,16 +17,22 @@ export default function VisualEditor() {
     const { data: book } = useBook(storyId);
     const { data: bookContent } = useBookContent(storyId, 'draft');
     const saveContentMutation = useSaveStoryContent();
+    // Dernier brouillon enregistré : base des patchs de l'autosauvegarde
+    const draftBaseRef = useRef(null);
 
     const handleSaveToBackend = useCallback((payload, status) => {
         saveContentMutation.mutate(
             {
                 id: storyId,
                 content: payload.content,
-                status: status
+                status: status,
+                base: draftBaseRef.current
             },
             {
-                onSuccess: () => {
+                onSuccess: (result) => {
+                    if (status === 'DRAFT') {
+                        draftBaseRef.current = { version: result.draftVersion, doc: result.doc };
+                    }
                     alert(status === 'PUBLISHED' ? 'Histoire publiée !' : 'Brouillon sauvegardé.');
                 },
                 onError: (error) => {
@@ -84,12 +91,10 @@ export default function VisualEditor() {
 
     useEffect(() => {
         if (iframeLoaded && bookContent?.s3OriginalUrl) {
-            fetch(bookContent.s3OriginalUrl)
-                .then(res => {
-                    if (!res.ok) throw new Error("Failed to fetch project content");
-                    return res.json();
-                })
-                .then(jsonContent => {
+            storyService.getDraftDocument(storyId)
+                .then(({ draftVersion, document }) => {
+                    draftBaseRef.current = { version: draftVersion, doc: document };
+                    const jsonContent = JSON.stringify(document);
                     iframeRef.current?.contentWindow.postMessage({
                         type: 'LOAD_PROJECT',
                         payload: { jsonContent }
@@ -97,7 +102,7 @@ export default function VisualEditor() {
                 })
                 .catch(err => console.error("Erreur chargement contenu projet:", err));
         }
-    }, [iframeLoaded, bookContent?.s3OriginalUrl]);
+    }, [iframeLoaded, storyId, bookContent?.s3OriginalUrl]);
 
     const requestSaveDraft = () => {
         iframeRef.current?.contentWindow.postMessage({ type: 'REQUEST_SAVE' }, '*');
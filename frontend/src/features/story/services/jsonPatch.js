@@ -0,0 +1,45 @@
+// Différence entre deux documents JSON, sous forme de JSON Patch (RFC 6902).
+// Les tableaux sont comparés indice par indice : suffisant pour les modifications locales de l'éditeur.
+
+const escapeToken = (token) => String(token).replace(/~/g, '~0').replace(/\//g, '~1');
+
+const isObject = (value) => value !== null && typeof value === 'object' && !Array.isArray(value);
+
+export const diffJson = (before, after, path = '', operations = []) => {
+    if (before === after) return operations;
+
+    if (Array.isArray(before) && Array.isArray(after)) {
+        const common = Math.min(before.length, after.length);
+        for (let i = 0; i < common; i++) {
+            diffJson(before[i], after[i], `${path}/${i}`, operations);
+        }
+        // Suppressions depuis la fin pour que les indices restent valides
+        for (let i = before.length - 1; i >= after.length; i--) {
+            operations.push({ op: 'remove', path: `${path}/${i}` });
+        }
+        for (let i = before.length; i < after.length; i++) {
+            operations.push({ op: 'add', path: `${path}/-`, value: after[i] });
+        }
+        return operations;
+    }
+
+    if (isObject(before) && isObject(after)) {
+        for (const key of Object.keys(before)) {
+            if (!(key in after)) {
+                operations.push({ op: 'remove', path: `${path}/${escapeToken(key)}` });
+            }
+        }
+        for (const key of Object.keys(after)) {
+            const childPath = `${path}/${escapeToken(key)}`;
+            if (key in before) {
+                diffJson(before[key], after[key], childPath, operations);
+            } else {
+                operations.push({ op: 'add', path: childPath, value: after[key] });
+            }
+        }
+        return operations;
+    }
+
+    operations.push({ op: 'replace', path, value: after });
+    return operations;
+};
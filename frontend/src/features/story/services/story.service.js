@@ -1,4 +1,5 @@
 import { fetchWithAuth } from '../../auth/services/auth.service';
+import { diffJson } from './jsonPatch';
 
 export const storyService = {
     getBookById: async (id) => {
@@ -13,6 +14,22 @@ export const storyService = {
         return await response.json();
     },
 
+    // Brouillon à sa dernière version (instantané et autosauvegardes en attente appliqués par le serveur).
+    getDraftDocument: async (id) => {
+        const response = await fetchWithAuth(`/page/${id}/draft/document`);
+        if (!response.ok) throw new Error("Erreur chargement du brouillon");
+        return await response.json();
+    },
+
+    // Contenu JSON de l'histoire, sous forme de texte. Les anciens fichiers étaient encodés deux fois
+    // (une chaîne JSON contenant le JSON) : on les déballe pour renvoyer le même texte dans les deux cas.
+    fetchStoryJson: async (url) => {
+        const response = await fetch(url);
+        if (!response.ok) throw new Error("Impossible de charger le contenu de l'histoire");
+        const text = await response.text();
+        return text.trimStart().startsWith('"') ? JSON.parse(text) : text;
+    },
+
     getAuthorBooks: async () => {
         const response = await fetchWithAuth('/books/author');
         if (!response.ok) throw new Error('Erreur lors du chargement de vos livres');
@@ -122,4 +139,34 @@ export const storyService = {
         }
         return await response.json();
     },
-};
\ No newline at end of file
+
+    // Autosauvegarde du brouillon : seules les modifications depuis la dernière version enregistrée
+    // (base = { version, doc }) sont envoyées. Si le serveur refuse le patch (409 : brouillon modifié
+    // ailleurs), on renvoie le contenu complet.
+    saveDraft: async (id, content, base) => {
+        let doc;
+        try {
+            doc = JSON.parse(content);
+        } catch {
+            doc = undefined;
+        }
+        if (doc !== undefined && base?.version != null && base.doc !== undefined) {
+            const operations = diffJson(base.doc, doc);
+            if (operations.length === 0) return { draftVersion: base.version, doc };
+            const response = await fetchWithAuth(`/page/${id}/draft`, {
+                method: 'PATCH',
+                headers: {
+                    'Content-Type': 'application/json-patch+json',
+                    'If-Match': `"${base.version}"`
+                },
+                body: JSON.stringify(operations)
+            });
+            if (response.ok) {
+                const result = await response.json();
+                return { draftVersion: result.draftVersion, doc };
+            }
+        }
+        const result = await storyService.saveStoryContent(id, content, 'DRAFT');
+        return { draftVersion: result.draftVersion, doc };
+    },
+};